@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddf.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.jdom2.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.movielabs.mddf.MddfContext.FILE_FMT;
+import com.movielabs.mddflib.avails.validation.AvailValidator;
+import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook;
+import com.movielabs.mddflib.avails.xlsx.XlsxBuilderV1_8;
+import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
+import com.movielabs.mddflib.avails.xml.streaming.StreamingXmlBuilder;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.util.Translator;
+import com.movielabs.mddflib.util.corpus.CorpusGenerator;
+import com.movielabs.mddflib.util.corpus.CorpusSpec;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.XsdValidation;
+
+/**
+ * Benchmarks for the processing of Avails. The <tt>size</tt> parameter
+ * specifies the number of Avails in the synthetic files being processed. Each
+ * Avail has a single Transaction so this is also the number of data rows in
+ * the XLSX file. It may be overridden from the command line (e.g.,
+ * <tt>-p size=100000</tt>).
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class AvailsBenchmark {
+
+	private static final String MODULE_ID = "Benchmark";
+	private static final long SEED = 1;
+	private static final String XSD = XsdValidation.defaultRsrcLoc + "avails-v2.4.xsd";
+
+	@Param({ "100", "1000", "10000" })
+	public int size;
+
+	private LogMgmt logger;
+	private File workDir;
+	private File xmlFile;
+	private File xlsxFile;
+	private Document xmlDoc;
+	private Document xmlDoc_v2_5;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		logger = BenchLogging.create();
+		workDir = Files.createTempDirectory("mddfBench").toFile();
+		CorpusSpec spec = new CorpusSpec(SEED, size);
+		spec.setTerritoryFanOut(1);
+		CorpusGenerator generator = new CorpusGenerator(spec, logger);
+		xmlFile = generator.writeAvails(FILE_FMT.AVAILS_2_4, workDir);
+		xlsxFile = generator.writeAvails(FILE_FMT.AVAILS_1_9, workDir);
+		xmlDoc = generator.generateAvails(FILE_FMT.AVAILS_2_4);
+		MddfTarget target = new MddfTarget(xmlDoc, xmlFile, logger);
+		Map<FILE_FMT, Object> results = Translator.translateAvails(target, EnumSet.of(FILE_FMT.AVAILS_2_5),
+				logger);
+		xmlDoc_v2_5 = (Document) results.get(FILE_FMT.AVAILS_2_5);
+	}
+
+	@TearDown(Level.Iteration)
+	public void clearLog() {
+		logger.clearLog();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(workDir);
+	}
+
+	/**
+	 * Parse and validate the XML file against the Avails schema.
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	public boolean xsdValidation() {
+		MddfTarget target = new MddfTarget(xmlFile, logger);
+		return new XsdValidation(logger).validateXml(target, XSD, MODULE_ID);
+	}
+
+	/**
+	 * Full validation of an XML file that has already been loaded.
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	public boolean availValidation() {
+		MddfTarget target = new MddfTarget(xmlDoc, xmlFile, logger);
+		return new AvailValidator(true, logger).process(target);
+	}
+
+	/**
+	 * Conversion of an XLSX file to XML.
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	public Map<String, Object> xlsxIngest() {
+		MddfTarget target = new MddfTarget(xlsxFile, logger);
+		return new StreamingXmlBuilder(logger, Version.V1_9).convert(target, null, 0, MODULE_ID);
+	}
+
+	/**
+	 * Construction of an (in-memory) XLSX workbook from XML.
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	public TemplateWorkBook xlsxExport() {
+		return new XlsxBuilderV1_8(xmlDoc_v2_5.getRootElement(), Version.V1_9, logger).getWorkbook();
+	}
+
+	/**
+	 * Translation of v2.4 XML to v2.5 XML.
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	public Map<FILE_FMT, Object> translateToXml() {
+		MddfTarget target = new MddfTarget(xmlDoc, xmlFile, logger);
+		return Translator.translateAvails(target, EnumSet.of(FILE_FMT.AVAILS_2_5), logger);
+	}
+
+	/**
+	 * Translation of v2.4 XML to a v1.9 XLSX workbook.
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	public Map<FILE_FMT, Object> translateToXlsx() {
+		MddfTarget target = new MddfTarget(xmlDoc, xmlFile, logger);
+		return Translator.translateAvails(target, EnumSet.of(FILE_FMT.AVAILS_1_9), logger);
+	}
+}
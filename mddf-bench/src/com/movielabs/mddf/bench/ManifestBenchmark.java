@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddf.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.jdom2.JDOMException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.movielabs.mddf.MddfContext.FILE_FMT;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.manifest.validation.ManifestValidator;
+import com.movielabs.mddflib.util.corpus.CorpusGenerator;
+import com.movielabs.mddflib.util.corpus.CorpusSpec;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.XsdValidation;
+
+/**
+ * Benchmarks for the validation of Manifests. The <tt>size</tt> parameter
+ * specifies how many titles (each with its own tracks, metadata, Presentation,
+ * and Experience) are included in the synthetic file being processed and may be
+ * overridden from the command line (e.g., <tt>-p size=5000</tt>).
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class ManifestBenchmark {
+
+	private static final String MODULE_ID = "Benchmark";
+	private static final long SEED = 1;
+	private static final String XSD = XsdValidation.defaultRsrcLoc + "manifest-v1.13.xsd";
+
+	@Param({ "10", "100", "1000" })
+	public int size;
+
+	private LogMgmt logger;
+	private File workDir;
+	private File xmlFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		logger = BenchLogging.create();
+		workDir = Files.createTempDirectory("mddfBench").toFile();
+		CorpusSpec spec = new CorpusSpec(SEED, size);
+		xmlFile = new CorpusGenerator(spec, logger).writeManifest(FILE_FMT.MANIFEST_1_13, workDir);
+	}
+
+	@TearDown(Level.Iteration)
+	public void clearLog() {
+		logger.clearLog();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(workDir);
+	}
+
+	/**
+	 * Parse and validate the XML file against the Manifest schema.
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	public boolean xsdValidation() {
+		MddfTarget target = new MddfTarget(xmlFile, logger);
+		return new XsdValidation(logger).validateXml(target, XSD, MODULE_ID);
+	}
+
+	/**
+	 * Full validation (i.e., schema, constraints, and cross-references).
+	 * 
+	 * @return
+	 * @throws IOException
+	 * @throws JDOMException
+	 */
+	@Benchmark
+	public boolean manifestValidation() throws IOException, JDOMException {
+		MddfTarget target = new MddfTarget(xmlFile, logger);
+		return new ManifestValidator(true, logger).process(target);
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddf.bench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.movielabs.mddf.MddfContext;
+import com.movielabs.mddf.MddfContext.FILE_FMT;
+import com.movielabs.mddflib.util.corpus.CorpusGenerator;
+import com.movielabs.mddflib.util.corpus.CorpusSpec;
+import com.movielabs.mddflib.util.xml.NativeXPathFactory;
+
+/**
+ * Compares the evaluation of XPaths via Jaxen (i.e.,
+ * <tt>XPathFactory.instance()</tt>) with evaluation via the
+ * <tt>NativeXPathFactory</tt>. The XPaths are typical of those used by the
+ * structure requirements and validators and are evaluated using each Avail as
+ * the context. The <tt>size</tt> parameter specifies the number of Avails.
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class XPathBenchmark {
+
+	private static final long SEED = 1;
+	private static final String[] XPATHS = { "./avails:Asset/avails:Metadata/avails:TitleDisplayUnlimited",
+			"./avails:Transaction/avails:Term[@termName='AnnounceDate']/avails:Event",
+			"./avails:Transaction[normalize-space(avails:LicenseType) = 'EST' or avails:LicenseType = 'VOD']",
+			"./avails:Disposition/avails:EntryType[not(. = 'Delete')]", "./avails:Transaction/avails:Term/@termName",
+			".//md:country", "./avails:Asset[@contentID = $CID]" };
+
+	@Param({ "jaxen", "native" })
+	public String factory;
+
+	@Param({ "100", "1000" })
+	public int size;
+
+	private XPathFactory xpfac;
+	private Collection<Namespace> namespaces;
+	private List<Element> availList;
+	private List<XPathExpression<Object>> compiled;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		if (factory.equals("native")) {
+			xpfac = NativeXPathFactory.getInstance();
+		} else {
+			xpfac = XPathFactory.instance();
+		}
+		namespaces = MddfContext.getRequiredNamespaces(FILE_FMT.AVAILS_2_4).values();
+		CorpusGenerator generator = new CorpusGenerator(new CorpusSpec(SEED, size), BenchLogging.create());
+		Document xmlDoc = generator.generateAvails(FILE_FMT.AVAILS_2_4);
+		Namespace availsNSpace = xmlDoc.getRootElement().getNamespace();
+		availList = xmlDoc.getRootElement().getChildren("Avail", availsNSpace);
+		compiled = new ArrayList<XPathExpression<Object>>();
+		for (String xpath : XPATHS) {
+			compiled.add(compile(xpath));
+		}
+	}
+
+	private XPathExpression<Object> compile(String xpath) {
+		Map<String, Object> variables = new HashMap<String, Object>();
+		variables.put("CID", "");
+		return xpfac.compile(xpath, Filters.fpassthrough(), variables, namespaces);
+	}
+
+	/**
+	 * Evaluation of previously compiled XPaths (e.g., the structure
+	 * requirements).
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	public int evaluate() {
+		int found = 0;
+		for (Element availEl : availList) {
+			for (XPathExpression<Object> xpExpression : compiled) {
+				found = found + xpExpression.evaluate(availEl).size();
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Compilation and evaluation of each XPath for every context (e.g., an
+	 * XPath that embeds an ID).
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	public int compileAndEvaluate() {
+		int found = 0;
+		for (Element availEl : availList) {
+			for (String xpath : XPATHS) {
+				found = found + compile(xpath).evaluate(availEl).size();
+			}
+		}
+		return found;
+	}
+}
@@ -37,6 +37,7 @@ import org.jdom2.xpath.XPathExpression;
 import org.jdom2.xpath.XPathFactory;
 
 import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.util.xml.NativeXPathFactory;
 
 /**
  * @author L. Levin, Critical Architectures LLC
@@ -76,7 +77,7 @@ public class Obfuscator {
 
 	private static Namespace availsNSpace;
 	private static Namespace mdNSpace;
-	private static XPathFactory xpfac = XPathFactory.instance();
+	private static XPathFactory xpfac = NativeXPathFactory.getInstance();
 
 	/**
 	 * @param xmlDoc
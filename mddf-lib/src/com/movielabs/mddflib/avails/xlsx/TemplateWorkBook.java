@@ -36,6 +36,8 @@ import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFFont;
@@ -59,6 +61,19 @@ import net.sf.json.JSONObject;
  * Avails (e.g. when converting an XML-formatted Avails to the XLSX format).
  * This is in contrast to the <tt>AvailsWrkBook</tt> class that is used to wrap
  * pre-existing Avails XLSX files.
+ * <p>
+ * By default the entire workbook is held in memory until it is exported. When
+ * very large Avails are being converted a <i>streaming</i> workbook may be
+ * used instead. A streaming workbook only keeps a sliding window of the most
+ * recently added rows in memory; older rows are flushed to a temporary file.
+ * As a consequence
+ * <ul>
+ * <li>rows that have been flushed can no longer be accessed,</li>
+ * <li>column widths are estimated from the length of the cell values rather
+ * than being computed by auto-sizing, and</li>
+ * <li>the workbook may only be exported once.</li>
+ * </ul>
+ * </p>
  * 
  * @author L. Levin, Critical Architectures LLC
  *
@@ -70,15 +85,20 @@ public class TemplateWorkBook {
 	 */
 	protected class SheetProperties {
 
-		XSSFSheet sheet;
+		Sheet sheet;
 		List<String> colIdList;
 		boolean[] isEmptyCol;
+		/**
+		 * longest value (in characters) in each column. Only used when the
+		 * workbook is streaming.
+		 */
+		int[] maxColWidth;
 
 		/**
 		 * @param sheet
 		 * @param colIdList
 		 */
-		public SheetProperties(XSSFSheet sheet, List<String> colIdList) {
+		public SheetProperties(Sheet sheet, List<String> colIdList) {
 			this.sheet = sheet;
 			this.colIdList = colIdList;
 			/*
@@ -88,6 +108,13 @@ public class TemplateWorkBook {
 			for (int i = 0; i < colIdList.size(); i++) {
 				isEmptyCol[i] = true;
 			}
+			maxColWidth = new int[colIdList.size()];
+		}
+
+		void updateWidth(int col, String value) {
+			if (value.length() > maxColWidth[col]) {
+				maxColWidth[col] = value.length();
+			}
 		}
 
 	}
@@ -95,11 +122,19 @@ public class TemplateWorkBook {
 	private LogMgmt logger;
 	private int logMsgDefaultTag = LogMgmt.TAG_XLSX;
 	protected static String logMsgSrcId = "TemplateWorkBook";
-	private XSSFWorkbook workbook;
+	/**
+	 * Default number of rows kept in memory by a streaming workbook.
+	 */
+	public static final int DEFAULT_ROW_WINDOW = 500;
+	/* Excel's limit on column width is 255 characters */
+	private static final int MAX_COL_WIDTH = 255;
+	private Workbook workbook;
+	private boolean streaming;
+	private boolean disposed = false;
 	private Map<String, XSSFCellStyle> headerColors = new HashMap<String, XSSFCellStyle>();
 	private XSSFCellStyle defaultStyle;
 	private XSSFCellStyle headerStyleFill;
-	private Map<XSSFSheet, SheetProperties> sheetData = new HashMap<XSSFSheet, SheetProperties>();
+	private Map<Sheet, SheetProperties> sheetData = new HashMap<Sheet, SheetProperties>();
 
 	/**
 	 * Create a clean copy of an Avails workbook. The copy will have the same
@@ -144,7 +179,7 @@ public class TemplateWorkBook {
 			}
 			ArrayList<String> colIdList = new ArrayList<String>();
 			colIdList.addAll(mappingDefs.keySet());
-			XSSFSheet clonedSheet = clone.addSheet(category, colIdList);
+			Sheet clonedSheet = clone.createSheet(category, colIdList);
 			// now we can copy the rows.
 
 			rowLoop: for (Row row : srcSheet.getRows()) {
@@ -166,28 +201,43 @@ public class TemplateWorkBook {
 	}
 
 	/**
+	 * Construct a workbook that is held entirely in memory.
+	 * 
 	 * @param logger
 	 */
 	public TemplateWorkBook(LogMgmt logger) {
+		this(logger, 0);
+	}
+
+	/**
+	 * Construct a workbook that, if <tt>rowWindow</tt> is greater than zero,
+	 * will stream its rows to disk, keeping at most <tt>rowWindow</tt> rows per
+	 * sheet in memory. A <tt>rowWindow</tt> of zero (or less) results in a
+	 * workbook that is held entirely in memory.
+	 * 
+	 * @param logger
+	 * @param rowWindow
+	 */
+	public TemplateWorkBook(LogMgmt logger, int rowWindow) {
 		super();
 		this.logger = logger;
-		initializeWorkbook();
+		initializeWorkbook(rowWindow);
 	}
 
 	/**
 	 * Initialize workbook styles to match as closely as possible the 'template'
 	 * spreadsheets.
 	 */
-	private void initializeWorkbook() {
-		workbook = new XSSFWorkbook();
+	private void initializeWorkbook(int rowWindow) {
+		XSSFWorkbook xssfWorkbook = new XSSFWorkbook();
 		/* Initialize any styles used to make output more readable */
-		XSSFFont font = workbook.createFont();
+		XSSFFont font = xssfWorkbook.createFont();
 		font.setBold(true);
 		font.setFontHeightInPoints((short) 8);
 		XSSFColor hdrFontColor = new XSSFColor();
 		hdrFontColor.setARGBHex("FFFFFF");
 		font.setColor(hdrFontColor);
-		XSSFCellStyle headerStyle1 = workbook.createCellStyle();
+		XSSFCellStyle headerStyle1 = xssfWorkbook.createCellStyle();
 		headerStyle1.setFont(font);
 		XSSFColor c1 = new XSSFColor();
 		c1.setARGBHex("3776DB");
@@ -197,7 +247,7 @@ public class TemplateWorkBook {
 		headerColors.put("Avail", headerStyle1);
 		defaultStyle = headerStyle1;
 
-		XSSFCellStyle headerStyle2 = workbook.createCellStyle();
+		XSSFCellStyle headerStyle2 = xssfWorkbook.createCellStyle();
 		headerStyle2.setFont(font);
 		XSSFColor c2 = new XSSFColor();
 		c2.setARGBHex("B54E9B");
@@ -206,7 +256,7 @@ public class TemplateWorkBook {
 		headerStyle2.setAlignment(HorizontalAlignment.CENTER);
 		headerColors.put("AvailAsset", headerStyle2);
 
-		XSSFCellStyle headerStyle3 = workbook.createCellStyle();
+		XSSFCellStyle headerStyle3 = xssfWorkbook.createCellStyle();
 		headerStyle3.setFont(font);
 		XSSFColor c3 = new XSSFColor();
 		c3.setARGBHex("38761d");
@@ -215,7 +265,7 @@ public class TemplateWorkBook {
 		headerStyle3.setAlignment(HorizontalAlignment.CENTER);
 		headerColors.put("AvailMetadata", headerStyle3);
 
-		XSSFCellStyle headerStyle4 = workbook.createCellStyle();
+		XSSFCellStyle headerStyle4 = xssfWorkbook.createCellStyle();
 		headerStyle4.setFont(font);
 		XSSFColor c4 = new XSSFColor();
 		c4.setARGBHex("85200c");
@@ -224,17 +274,58 @@ public class TemplateWorkBook {
 		headerStyle4.setAlignment(HorizontalAlignment.CENTER);
 		headerColors.put("AvailTrans", headerStyle4);
 
-		headerStyleFill = workbook.createCellStyle();
+		headerStyleFill = xssfWorkbook.createCellStyle();
 		headerStyleFill.setFont(font);
 		XSSFColor c5 = new XSSFColor();
 		c5.setARGBHex("0c0c0c");
 		headerStyleFill.setFillForegroundColor(c5);
 		headerStyleFill.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 		headerStyleFill.setAlignment(HorizontalAlignment.CENTER);
+
+		/*
+		 * Styles belong to the underlying XSSFWorkbook and are therefore shared
+		 * with the streaming wrapper.
+		 */
+		streaming = (rowWindow > 0);
+		if (streaming) {
+			workbook = new SXSSFWorkbook(xssfWorkbook, rowWindow);
+		} else {
+			workbook = xssfWorkbook;
+		}
 	}
 
-	public XSSFSheet addSheet(String name, List<String> colIdList) {
-		XSSFSheet sheet = workbook.createSheet(name);
+	/**
+	 * @return <tt>true</tt> if rows are being streamed to disk
+	 */
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	/**
+	 * Add a sheet to a workbook that is held in memory. Use
+	 * <tt>createSheet()</tt> if the workbook may be streaming.
+	 * 
+	 * @param name
+	 * @param colIdList
+	 * @return
+	 * @throws IllegalStateException if the workbook is streaming
+	 */
+	public XSSFSheet addSheet(String name, List<String> colIdList) throws IllegalStateException {
+		if (streaming) {
+			throw new IllegalStateException("A streaming workbook does not contain XSSFSheets");
+		}
+		return (XSSFSheet) createSheet(name, colIdList);
+	}
+
+	/**
+	 * Add a sheet. The sheet will be streaming if the workbook is.
+	 * 
+	 * @param name
+	 * @param colIdList
+	 * @return
+	 */
+	public Sheet createSheet(String name, List<String> colIdList) {
+		Sheet sheet = workbook.createSheet(name);
 		SheetProperties sheetProps = new SheetProperties(sheet, colIdList);
 		sheetData.put(sheet, sheetProps);
 		addHeaderRows(sheet, colIdList);
@@ -247,7 +338,8 @@ public class TemplateWorkBook {
 	 * 
 	 * @param sheet
 	 */
-	private void addHeaderRows(XSSFSheet sheet, List<String> colIdList) {
+	private void addHeaderRows(Sheet sheet, List<String> colIdList) {
+		SheetProperties sProps = sheetData.get(sheet);
 		Row row1 = sheet.createRow(0);
 		Row row2 = sheet.createRow(1);
 		// need to add an empty row cause spec sez Avails start on Row 4 :(
@@ -259,6 +351,8 @@ public class TemplateWorkBook {
 			cell1.setCellValue(part[0]);
 			Cell cell2 = row2.createCell(i);
 			cell2.setCellValue(part[1]);
+			sProps.updateWidth(i, part[0]);
+			sProps.updateWidth(i, part[1]);
 			/* add styling to make it more readable */
 			XSSFCellStyle headerStyle = headerColors.get(part[0]);
 			if (headerStyle == null) {
@@ -277,6 +371,14 @@ public class TemplateWorkBook {
 	 * @param sheet
 	 */
 	public void addDataRow(Map<String, String> cellData, XSSFSheet sheet) {
+		addDataRow(cellData, (Sheet) sheet);
+	}
+
+	/**
+	 * @param cellData
+	 * @param sheet
+	 */
+	public void addDataRow(Map<String, String> cellData, Sheet sheet) {
 		SheetProperties sProps = sheetData.get(sheet);
 		boolean[] isEmptyCol = sProps.isEmptyCol;
 		List<String> colIdList = sProps.colIdList;
@@ -289,6 +391,7 @@ public class TemplateWorkBook {
 				Cell cell = row.createCell(i);
 				cell.setCellValue(cellValue);
 				isEmptyCol[i] = false;
+				sProps.updateWidth(i, cellValue);
 			}
 		}
 	}
@@ -300,6 +403,16 @@ public class TemplateWorkBook {
 	 * @param destSheet
 	 */
 	public void addDataRow(AbstractRowHelper srcRow, XSSFSheet destSheet) {
+		addDataRow(srcRow, (Sheet) destSheet);
+	}
+
+	/**
+	 * Copy a row from a source spreadsheet into the template's sheet.
+	 * 
+	 * @param srcRow
+	 * @param destSheet
+	 */
+	public void addDataRow(AbstractRowHelper srcRow, Sheet destSheet) {
 		SheetProperties sProps = sheetData.get(destSheet);
 		boolean[] isEmptyCol = sProps.isEmptyCol;
 		List<String> colIdList = sProps.colIdList;
@@ -318,17 +431,28 @@ public class TemplateWorkBook {
 				Cell cell = row.createCell(i);
 				cell.setCellValue(pg.getRawValue());
 				isEmptyCol[i] = false;
+				sProps.updateWidth(i, pg.getRawValue());
 			}
 		}
 
 	}
 
 	/**
+	 * Save the workbook. If the workbook is streaming, the temporary files
+	 * holding the flushed rows are deleted once the export is complete and the
+	 * workbook may not be used again.
+	 * 
 	 * @param destPath
 	 * @throws IOException
 	 * @throws FileNotFoundException
+	 * @throws IllegalStateException if a streaming workbook has already been
+	 *                               exported
 	 */
-	public void export(MddfTarget target, String destPath) throws FileNotFoundException, IOException {
+	public void export(MddfTarget target, String destPath)
+			throws FileNotFoundException, IOException, IllegalStateException {
+		if (disposed) {
+			throw new IllegalStateException("A streaming workbook may only be exported once");
+		}
 		/* hide empty columns */
 		hideEmptyColumns(target);
 		/* adjust column widths */
@@ -339,7 +463,16 @@ public class TemplateWorkBook {
 				SheetProperties sProps = sheetData.get(sheet);
 				int colCount = sProps.colIdList.size();
 				for (int j = 0; j < colCount; j++) {
-					sheet.autoSizeColumn(j);
+					if (streaming) {
+						/*
+						 * Auto-sizing would require the flushed rows. Use the
+						 * character count instead (width is in 1/256th of a char).
+						 */
+						int width = Math.min(sProps.maxColWidth[j] + 2, MAX_COL_WIDTH);
+						sheet.setColumnWidth(j, width * 256);
+					} else {
+						sheet.autoSizeColumn(j);
+					}
 				}
 			}
 		}
@@ -347,6 +480,11 @@ public class TemplateWorkBook {
 			workbook.write(outputStream);
 			logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "XLSX saved to " + destPath, target, logMsgSrcId);
 
+		} finally {
+			if (streaming) {
+				((SXSSFWorkbook) workbook).dispose();
+				disposed = true;
+			}
 		}
 	}
 
@@ -26,7 +26,7 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.*;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.jdom2.Attribute;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
@@ -39,6 +39,7 @@ import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
 import com.movielabs.mddflib.avails.xml.MetadataBuilder;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.util.xml.FormatConverter;
+import com.movielabs.mddflib.util.xml.NativeXPathFactory;
 import com.movielabs.mddflib.util.xml.SchemaWrapper;
 import com.movielabs.mddflib.util.xml.XmlIngester;
 
@@ -101,7 +102,7 @@ public class XlsxBuilder {
 	protected static JSONObject mappings;
 	private static String warnMsg1 = "XLSX xfer dropping additional XYZ values";
 	private static String warnDetail1 = "The Excel version of Avails only allows 1 value for this field. Additional XML elements will be ignored";
-	protected XPathFactory xpfac = XPathFactory.instance();
+	protected XPathFactory xpfac = NativeXPathFactory.getInstance();
 	protected LogMgmt logger;
 	protected String rootPrefix = "avails:";
 
@@ -119,6 +120,11 @@ public class XlsxBuilder {
 	private ArrayList<Element> movieAvailsList;
 	private HashSet<XPathExpression<?>> allowsMultiples = new HashSet<XPathExpression<?>>();
 	protected TemplateWorkBook workbook;
+	/**
+	 * size of the row window used when streaming the workbook. A value of zero
+	 * indicates the workbook is kept in memory.
+	 */
+	protected int rowWindow = 0;
 	private JSONObject mappingVersion;
 	protected String availPrefix;
 	protected String mdPrefix;
@@ -160,7 +166,22 @@ public class XlsxBuilder {
 	 * @param logger
 	 */
 	public XlsxBuilder(Element docRootEl, Version xlsxVersion, LogMgmt logger) {
+		this(docRootEl, xlsxVersion, logger, 0);
+	}
+
+	/**
+	 * Construct a builder whose <tt>TemplateWorkBook</tt> will stream rows to
+	 * disk using a window of <tt>rowWindow</tt> rows. A <tt>rowWindow</tt> of
+	 * zero results in a workbook that is held entirely in memory.
+	 * 
+	 * @param docRootEl
+	 * @param xlsxVersion
+	 * @param logger
+	 * @param rowWindow
+	 */
+	public XlsxBuilder(Element docRootEl, Version xlsxVersion, LogMgmt logger, int rowWindow) {
 		this.logger = logger;
+		this.rowWindow = rowWindow;
 		mappingVersion = mappings.getJSONObject(xlsxVersion.name());
 		rootEl = docRootEl;
 
@@ -177,7 +198,7 @@ public class XlsxBuilder {
 	 */
 	protected void process() {
 		sortAvails();
-		workbook = new TemplateWorkBook(logger);
+		workbook = new TemplateWorkBook(logger, rowWindow);
 		addMovieAvails();
 		addTvAvails();
 	}
@@ -212,7 +233,7 @@ public class XlsxBuilder {
 		ArrayList<String> colIdList = new ArrayList<String>();
 		colIdList.addAll(mappingDefs.keySet());
 
-		XSSFSheet sheet = workbook.addSheet(category, colIdList);
+		Sheet sheet = workbook.createSheet(category, colIdList);
 
 		/* Initialize xpaths that implement the data mappings */
 		Map<String, Map<String, List<XPathExpression>>> xpathSets = initializeMappings(mappingDefs);
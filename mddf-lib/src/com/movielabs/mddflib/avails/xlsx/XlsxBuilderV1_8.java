@@ -51,13 +51,23 @@ public class XlsxBuilderV1_8 extends XlsxBuilder {
 		super(docRootEl, xlsxVersion, logger);
 	}
 
+	/**
+	 * @param docRootEl
+	 * @param xlsxVersion
+	 * @param logger
+	 * @param rowWindow
+	 */
+	public XlsxBuilderV1_8(Element docRootEl, Version xlsxVersion, LogMgmt logger, int rowWindow) {
+		super(docRootEl, xlsxVersion, logger, rowWindow);
+	}
+
 	/**
 	 * Prior to v1.8, Avails were sorted into two sets: Movies and TV. Each had it's
 	 * own sheet in the workbook. Starting with v1.8, all Avails are entered on a
 	 * single sheet.
 	 */
 	protected void process() {
-		workbook = new TemplateWorkBook(logger);
+		workbook = new TemplateWorkBook(logger, rowWindow);
 		preProcess();
 		/* No sorting or separation required for v1.8 */
 		XPathExpression<Element> xpExp01 = xpfac.compile(".//" + rootPrefix + "Avail", Filters.element(), null,
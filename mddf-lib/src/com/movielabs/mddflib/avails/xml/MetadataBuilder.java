@@ -26,11 +26,10 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.jdom2.Element;
 import org.jdom2.Namespace;
-import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
 
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.util.xml.FormatConverter;
@@ -174,15 +173,19 @@ public class MetadataBuilder {
 	private static final String REF_KEY = "#REF:";
 	public static final String ALT_ID_NAMESPACE_PREFIX = "org:mddf";
 	private static JSONObject mappings;
+	/**
+	 * Compiled mappings, keyed by schema version and mapping type (e.g.
+	 * <tt>V2.4/Episode</tt>).
+	 */
+	private static Map<String, PlanNode> plans = new ConcurrentHashMap<String, PlanNode>();
 	private LogMgmt logger;
 	private int logMsgDefaultTag = LogMgmt.TAG_XLATE;
 	protected String logMsgSrcId = "MetadataBuilder";
-	protected XPathFactory xpfac = XPathFactory.instance();
 
 	private AbstractXmlBuilder xmlBldr;
 	private RowDataSrc row;
+	private String schemaVer;
 	private JSONObject mapping4Version;
-	private JSONObject mapping4type;
 
 	static {
 		/*
@@ -215,7 +218,7 @@ public class MetadataBuilder {
 	public MetadataBuilder(LogMgmt logger, AbstractXmlBuilder xmlBldr) {
 		this.logger = logger;
 		this.xmlBldr = xmlBldr;
-		String schemaVer = "V" + xmlBldr.getVersion();
+		schemaVer = "V" + xmlBldr.getVersion();
 		mapping4Version = mappings.getJSONObject(schemaVer);
 		logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "Using Schema Version " + schemaVer, null, logMsgSrcId);
 	}
@@ -237,102 +240,124 @@ public class MetadataBuilder {
 	 * @return a metadata <tt>Element</tt>
 	 */
 	public Element appendMData(RowDataSrc row, String assetWorkType) {
-		this.row = row;
 		/*
 		 * Need to determine what metadata structure to use based on the
 		 * Asset/WorkType
 		 */
+		String typeKey = null;
 		switch (assetWorkType) {
 		case "Volume":
-			mapping4type = mapping4Version.getJSONObject("Volume");
-			break;
 		case "Season":
-			mapping4type = mapping4Version.getJSONObject("Season");
-			break;
 		case "Episode":
-			mapping4type = mapping4Version.getJSONObject("Episode");
+			typeKey = assetWorkType;
 			break;
 		case "Supplemental":
 		case "Collection":
 		case "Movie":
 		case "Short":
-			mapping4type = mapping4Version.getJSONObject("Movies");
+			typeKey = "Movies";
 			break;
-		default: 
+		default:
 			break;
 		}
-		if (mapping4type != null) {
-			return buildMetadata();
+		if (typeKey == null) {
+			throw new UnsupportedOperationException("Invalid JSON: Unsupported Asset work-type: " + assetWorkType);
 		}
-		throw new UnsupportedOperationException("Invalid JSON: Unsupported Asset work-type: " + assetWorkType);
+		PlanNode plan = getPlan(typeKey);
+		this.row = row;
+		try {
+			return plan.build(this);
+		} finally {
+			this.row = null;
+		}
+	}
 
+	/**
+	 * Return the compiled form of the mappings for a <tt>WorkType</tt>. The
+	 * JSON is only interpreted the first time a given version and type is
+	 * requested.
+	 * 
+	 * @param typeKey
+	 * @return
+	 */
+	private PlanNode getPlan(String typeKey) {
+		String planKey = schemaVer + "/" + typeKey;
+		PlanNode plan = plans.get(planKey);
+		if (plan == null) {
+			logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "Compiling mappings for " + planKey, null, logMsgSrcId);
+			plan = compile(mapping4Version, typeKey);
+			PlanNode prior = ((ConcurrentHashMap<String, PlanNode>) plans).putIfAbsent(planKey, plan);
+			if (prior != null) {
+				plan = prior;
+			}
+		}
+		return plan;
 	}
 
-	private Element buildMetadata() {
-		/*
-		 * there should be a single key. The key will also serve as the name
-		 * assigned to the metadata element (e.g. key is
-		 * "{avail}EpisodeMetadata")
-		 */
-		Set<String> keys = mapping4type.keySet();
+	// ########################################################################
+	// Compilation of the JSON mappings....
+
+	/**
+	 * Compile the mappings for a specific <tt>WorkType</tt>. There should be a
+	 * single key. The key will also serve as the name assigned to the metadata
+	 * element (e.g. key is "{avail}EpisodeMetadata")
+	 * 
+	 * @param mapping4Version
+	 * @param typeKey
+	 * @return
+	 */
+	private static PlanNode compile(JSONObject mapping4Version, String typeKey) {
+		JSONObject mapping4type = mapping4Version.getJSONObject(typeKey);
+		Set<?> keys = mapping4type.keySet();
 		if (keys.size() != 1) {
 			throw new UnsupportedOperationException("Invalid JSON: too many primary keys");
 		}
-		List<String> tempList = new ArrayList<String>(keys);
-		String mdKey = tempList.get(0);
-		Element mdEl = buildElement(mdKey);
-		JSONObject mdMappings = mapping4type.getJSONObject(mdKey);
-		processLevel(mdEl, mdMappings);
-
-		// --------------------
-		// clean up (i.e., garbage collection) and return
-		this.row = null;
-		this.mapping4type = null;
-		return mdEl;
+		String mdKey = (String) keys.iterator().next();
+		return new ContainerNode(mdKey, compileLevel(mapping4Version, mapping4type.getJSONObject(mdKey)));
 	}
 
 	/**
-	 * @param parentEl
+	 * Each key defines an XML element to be created. To have valid XML they must
+	 * be processed in order.
+	 * 
+	 * @param mapping4Version
 	 * @param mdMappings
+	 * @return
 	 */
-	private void processLevel(Element parentEl, JSONObject mdMappings) {
-		/*
-		 * Each key defines an XML element to be created. To have valid XML they
-		 * must be processed in order.
-		 */
-		List<String> mdKeyList = new ArrayList<String>(mdMappings.keySet());
-		for (String nextKey : mdKeyList) {
-			logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "processing JSON key " + nextKey, null, logMsgSrcId);
-
+	private static PlanNode[] compileLevel(JSONObject mapping4Version, JSONObject mdMappings) {
+		List<PlanNode> nodeList = new ArrayList<PlanNode>();
+		for (Object key : mdMappings.keySet()) {
+			String nextKey = (String) key;
 			Object nextValue = mdMappings.get(nextKey);
 			if (nextValue instanceof String) {
 				String value = (String) nextValue;
 				if (value.startsWith(REF_KEY)) {
-					processReference(nextKey, value, parentEl);
+					nodeList.add(compileReference(mapping4Version, nextKey, value));
 				} else {
-					processString(nextKey, value, parentEl);
+					nodeList.add(compileString(nextKey, value));
 				}
 			} else if (nextValue instanceof JSONObject) {
-				processObject(nextKey, (JSONObject) nextValue, parentEl);
+				nodeList.add(compileObject(mapping4Version, nextKey, (JSONObject) nextValue));
 			} else if (nextValue instanceof JSONArray) {
 				JSONArray jArray = (JSONArray) nextValue;
 				Iterator<?> jit = jArray.iterator();
 				while (jit.hasNext()) {
 					Object nextInArray = jit.next();
 					if (nextInArray instanceof String) {
-						processString(nextKey, (String) nextInArray, parentEl);
+						nodeList.add(compileString(nextKey, (String) nextInArray));
 					} else if (nextInArray instanceof JSONObject) {
-						processObject(nextKey, (JSONObject) nextInArray, parentEl);
+						nodeList.add(compileObject(mapping4Version, nextKey, (JSONObject) nextInArray));
 					}
 				}
 			} else {
 				throw new UnsupportedOperationException("Invalid JSON: Unsupportable content under key=" + nextKey);
 			}
 		}
+		return nodeList.toArray(new PlanNode[nodeList.size()]);
 	}
 
 	/**
-	 * Process a metadata sub-section whose definition is NOT defined as a
+	 * Compile a metadata sub-section whose definition is NOT defined as a
 	 * sub-component (i.e. child) of the section currently being processed. This
 	 * is analogous to an XML element defined in terms of <tt>type</tt> defined
 	 * elsewhere in an XSD.
@@ -343,30 +368,27 @@ public class MetadataBuilder {
 	 * where <tt>Season/{avail}SeasonMetadata</tt> is the path.
 	 * </p>
 	 * 
+	 * @param mapping4Version
 	 * @param key
 	 *            is name of XML element to be created
-	 * @param path
+	 * @param pathRef
 	 *            relative to the root of <tt>mapping4Version</tt>
-	 * @param parentEl
+	 * @return
 	 */
-	private void processReference(String key, String pathRef, Element parentEl) {
+	private static PlanNode compileReference(JSONObject mapping4Version, String key, String pathRef) {
 		String path = pathRef.replaceFirst(REF_KEY, "");
-		logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "processing REF to " + path, null, logMsgSrcId);
 		String[] parts = path.split("/");
 		JSONObject mappingsTarget = mapping4Version;
 		for (int i = 0; i < parts.length; i++) {
 			mappingsTarget = mappingsTarget.getJSONObject(parts[i]);
 		}
-		Element curEl = buildElement(key);
-		parentEl.addContent(curEl);
-		processLevel(curEl, mappingsTarget);
+		return new ContainerNode(key, compileLevel(mapping4Version, mappingsTarget));
 	}
 
 	/**
-	 * Process a single-value mapping. An Attribute or child Element is added to
-	 * a parent element and then assigned a value. The <tt>xmlId</tt> is a
-	 * actually a key from the JSON <i>mappings</i> file and takes the form of
-	 * either <tt>{<i>namespace</i>}elementName</tt> or <tt>@attrbuteName</tt>.
+	 * Compile a single-value mapping. The <tt>xmlId</tt> is a actually a key
+	 * from the JSON <i>mappings</i> file and takes the form of either
+	 * <tt>{<i>namespace</i>}elementName</tt> or <tt>@attrbuteName</tt>.
 	 * Examples:
 	 * <uL>
 	 * <li>{avails}RunLength</li>
@@ -377,81 +399,197 @@ public class MetadataBuilder {
 	 *            name of an Attribute or Element to be added
 	 * @param valueSrc
 	 *            identifies a cell containing the value
-	 * @param mdEl
-	 *            parent element
+	 * @return
 	 */
-	private void processString(String xmlId, String valueSrc, Element mdEl) {
-		// 'valueSrc' identifies a column in the spreadsheet row
-		Pedigree pg = row.getPedigreedData(valueSrc);
-		if (pg == null) {
-			throw new UnsupportedOperationException("Invalid JSON: unsupported column '" + valueSrc + "'");
-		}
-		// key defines the name of the child element or attribute
+	private static PlanNode compileString(String xmlId, String valueSrc) {
 		if (xmlId.startsWith("@")) {
-			// process as attribute
-			// TODO
-		} else {
-			// process as element
-			if (pg.isEmpty() && !isRequired(xmlId)) {
-				return;
-			}
-			Element childEl = buildElement(xmlId);
-			mdEl.addContent(childEl);
-			childEl.setText(pg.getRawValue());
-			xmlBldr.addToPedigree(childEl, pg);
+			return new AttributeNode(xmlId, valueSrc);
 		}
+		return new ColumnNode(xmlId, valueSrc);
 	}
 
-	/**
-	 * @param curKey
-	 * @param curDefs
-	 * @param parentEl
-	 */
-	private void processObject(String curKey, JSONObject curDefs, Element parentEl) {
+	private static PlanNode compileObject(JSONObject mapping4Version, String curKey, JSONObject curDefs) {
 		// is it a FUNCTION?
-		if (curDefs.containsKey(FUNCTION_KEY)) {
-			JSONObject funcDef = curDefs.getJSONObject(FUNCTION_KEY);
-			processFunction(funcDef, curKey, parentEl);
-		} else {
-			// recursively process another level
-			Element curEl = buildElement(curKey);
-			parentEl.addContent(curEl);
-			processLevel(curEl, curDefs);
+		if (!curDefs.containsKey(FUNCTION_KEY)) {
+			// recursively compile another level
+			return new ContainerNode(curKey, compileLevel(mapping4Version, curDefs));
 		}
-	}
-
-	/**
-	 * @param functionDef
-	 * @param targetEl
-	 */
-	private void processFunction(JSONObject functionDef, String curKey, Element parentEl) {
+		JSONObject functionDef = curDefs.getJSONObject(FUNCTION_KEY);
 		String funcName = functionDef.getString("name");
+		JSONObject functionArgs = functionDef.getJSONObject("args");
 		switch (funcName) {
 		case "altId":
-			func_altId(functionDef, curKey, parentEl);
-			break;
+			return new AltIdNode(curKey, functionArgs);
 		case "contentRating":
-			func_contentRating(functionDef, curKey, parentEl);
-			break;
+			return new ContentRatingNode(curKey, functionArgs);
 		case "eidr":
-			func_eidr(functionDef, curKey, parentEl);
-			break;
+			return new EidrNode(curKey, functionArgs);
 		case "formatType":
-			func_format(functionDef, curKey, parentEl);
-			break;
+			return new FormatNode(curKey, functionArgs);
 		case "people":
-			func_people(functionDef, curKey, parentEl);
-			break;
+			return new PeopleNode(curKey, functionArgs);
 		case "releaseHistory":
-			func_releaseHistory(functionDef, curKey, parentEl);
-			break;
+			return new ReleaseHistoryNode(curKey, functionArgs);
 		case "channelGrouping":
-			func_channelGrouping(functionDef, curKey, parentEl);
-			break;
+			return new ChannelGroupingNode(curKey, functionArgs);
 		default:
 			throw new UnsupportedOperationException("Invalid JSON: unsupported function '" + funcName + "'");
 		}
+	}
+
+	// ########################################################################
+	// The compiled plan....
 
+	/**
+	 * An immutable node in a compiled mapping. Each node corresponds to a key in
+	 * the JSON mappings and, when applied to a row, appends zero or more
+	 * children to a parent element. Node instances are shared by all
+	 * <tt>MetadataBuilder</tt> instances using the same schema version.
+	 * 
+	 * @author L. Levin, Critical Architectures LLC
+	 *
+	 */
+	private static abstract class PlanNode {
+		private static final int NS_NONE = 0;
+		private static final int NS_AVAILS = 1;
+		private static final int NS_MD = 2;
+
+		protected final String xmlId;
+		/** the element name with the namespace prefix removed */
+		protected final String name;
+		/** value to use when checking if the element is required */
+		protected final String schemaId;
+		private final int nsType;
+
+		PlanNode(String xmlId) {
+			this.xmlId = xmlId;
+			if (!xmlId.startsWith("{")) {
+				name = xmlId;
+				nsType = NS_NONE;
+				schemaId = null;
+			} else {
+				if (xmlId.startsWith("{avail}")) {
+					nsType = NS_AVAILS;
+					schemaId = "avails";
+				} else if (xmlId.startsWith("{md}")) {
+					nsType = NS_MD;
+					schemaId = "md";
+				} else {
+					throw new UnsupportedOperationException("Can not proceed due to malformed JSON; key=" + xmlId);
+				}
+				name = xmlId.split("}")[1];
+			}
+		}
+
+		/**
+		 * Create (but do not attach) the element identified by this node's key.
+		 * 
+		 * @param mdBldr
+		 * @return
+		 */
+		Element newElement(MetadataBuilder mdBldr) {
+			switch (nsType) {
+			case NS_AVAILS:
+				return new Element(name, mdBldr.xmlBldr.getAvailsNSpace());
+			case NS_MD:
+				return new Element(name, mdBldr.xmlBldr.getMdNSpace());
+			default:
+				return new Element(name);
+			}
+		}
+
+		boolean isRequired(MetadataBuilder mdBldr) {
+			return mdBldr.xmlBldr.isRequired(name, schemaId);
+		}
+
+		/**
+		 * Build the root element of a metadata structure.
+		 * 
+		 * @param mdBldr
+		 * @return
+		 */
+		Element build(MetadataBuilder mdBldr) {
+			throw new UnsupportedOperationException("Invalid JSON: unsupported metadata root " + xmlId);
+		}
+
+		abstract void apply(MetadataBuilder mdBldr, Element parentEl);
+
+		Pedigree getColumn(MetadataBuilder mdBldr, String colKey) {
+			Pedigree pg = mdBldr.row.getPedigreedData(colKey);
+			if (pg == null) {
+				throw new UnsupportedOperationException("Invalid JSON: unsupported column '" + colKey + "'");
+			}
+			return pg;
+		}
+	}
+
+	/**
+	 * An element whose content is defined by a nested mapping (or a
+	 * <tt>#REF</tt> to one).
+	 */
+	private static class ContainerNode extends PlanNode {
+		private final PlanNode[] children;
+
+		ContainerNode(String xmlId, PlanNode[] children) {
+			super(xmlId);
+			this.children = children;
+		}
+
+		@Override
+		Element build(MetadataBuilder mdBldr) {
+			Element curEl = newElement(mdBldr);
+			for (int i = 0; i < children.length; i++) {
+				children[i].apply(mdBldr, curEl);
+			}
+			return curEl;
+		}
+
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			parentEl.addContent(build(mdBldr));
+		}
+	}
+
+	/**
+	 * A child element whose value is taken directly from a cell.
+	 */
+	private static class ColumnNode extends PlanNode {
+		private final String colKey;
+
+		ColumnNode(String xmlId, String colKey) {
+			super(xmlId);
+			this.colKey = colKey;
+		}
+
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			Pedigree pg = getColumn(mdBldr, colKey);
+			if (pg.isEmpty() && !isRequired(mdBldr)) {
+				return;
+			}
+			Element childEl = newElement(mdBldr);
+			parentEl.addContent(childEl);
+			childEl.setText(pg.getRawValue());
+			mdBldr.xmlBldr.addToPedigree(childEl, pg);
+		}
+	}
+
+	/**
+	 * An attribute whose value is taken directly from a cell.
+	 */
+	private static class AttributeNode extends PlanNode {
+		private final String colKey;
+
+		AttributeNode(String xmlId, String colKey) {
+			super(xmlId);
+			this.colKey = colKey;
+		}
+
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			getColumn(mdBldr, colKey);
+			// TODO
+		}
 	}
 
 	/**
@@ -465,162 +603,192 @@ public class MetadataBuilder {
 	 * <tt>no</tt> an EIDR value may still be used as an <tt>AltIdentifier</tt>.
 	 * If not specified, the default value is <tt>yes</tt>.</li>
 	 * </ul>
-	 * 
-	 * @param functionDef
-	 * @param altIdEl
 	 */
-	private void func_altId(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		String colKey = functionArgs.getString("col");
-		logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "func_altId prcessing Col key " + colKey, null, logMsgSrcId);
-
-		Pedigree pg = row.getPedigreedData(colKey);
-		if (pg == null) {
-			throw new UnsupportedOperationException("Invalid XLSX: unsupported column '" + colKey + "'");
+	private static class AltIdNode extends PlanNode {
+		private final String colKey;
+		private final boolean filterEidr;
+		private final String namespace;
+		private final String idPrefix;
+
+		AltIdNode(String xmlId, JSONObject functionArgs) {
+			super(xmlId);
+			colKey = functionArgs.getString("col");
+			filterEidr = functionArgs.optString("filterEidr", "yes").equalsIgnoreCase("yes");
+			namespace = functionArgs.optString("namespace", ALT_ID_NAMESPACE_PREFIX);
+			String[] srcId = colKey.split("/");
+			idPrefix = srcId[srcId.length - 1] + ":";
 		}
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
-		}
-		String idValue = pg.getRawValue();
-		String filter = functionArgs.optString("filterEidr", "yes");
-		if (filter.equalsIgnoreCase("yes")) {
-			// what's the namespace (i.e., encoding fmt)?
-			String format = parseIdFormat(idValue);
-			if (format.startsWith("eidr")) {
+
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			Pedigree pg = mdBldr.row.getPedigreedData(colKey);
+			if (pg == null) {
+				throw new UnsupportedOperationException("Invalid XLSX: unsupported column '" + colKey + "'");
+			}
+			if (pg.isEmpty() && !isRequired(mdBldr)) {
 				return;
 			}
+			String idValue = pg.getRawValue();
+			if (filterEidr) {
+				// what's the namespace (i.e., encoding fmt)?
+				String format = parseIdFormat(idValue);
+				if (format.startsWith("eidr")) {
+					return;
+				}
+			}
+			AbstractXmlBuilder xmlBldr = mdBldr.xmlBldr;
+			Element altIdEl = newElement(mdBldr);
+			parentEl.addContent(altIdEl);
+			xmlBldr.addToPedigree(altIdEl, pg);
+
+			Element nsEl = xmlBldr.mGenericElement("Namespace", namespace, xmlBldr.getMdNSpace());
+			altIdEl.addContent(nsEl);
+			xmlBldr.addToPedigree(nsEl, pg);
+			Element idEl = xmlBldr.mGenericElement("Identifier", idPrefix + idValue, xmlBldr.getMdNSpace());
+			altIdEl.addContent(idEl);
+			xmlBldr.addToPedigree(idEl, pg);
 		}
-
-		Element altIdEl = buildElement(curKey);
-		parentEl.addContent(altIdEl);
-
-		String namespace = functionArgs.optString("namespace", ALT_ID_NAMESPACE_PREFIX);
-		String[] srcId = colKey.split("/");
-		idValue = srcId[srcId.length - 1] + ":" + idValue;
-		xmlBldr.addToPedigree(altIdEl, pg);
-
-		Element nsEl = xmlBldr.mGenericElement("Namespace", namespace, xmlBldr.getMdNSpace());
-		altIdEl.addContent(nsEl);
-		xmlBldr.addToPedigree(nsEl, pg);
-		Element idEl = xmlBldr.mGenericElement("Identifier", idValue, xmlBldr.getMdNSpace());
-		altIdEl.addContent(idEl);
-		xmlBldr.addToPedigree(idEl, pg);
 	}
 
-	/**
-	 * @param functionDef
-	 * @param curKey
-	 * @param parentEl
-	 */
-	private void func_channelGrouping(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		Pedigree pg = row.getPedigreedData(functionArgs.getString("col"));
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
+	private static class ChannelGroupingNode extends PlanNode {
+		private final String colKey;
+		private final String grpType;
+
+		ChannelGroupingNode(String xmlId, JSONObject functionArgs) {
+			super(xmlId);
+			colKey = functionArgs.getString("col");
+			grpType = functionArgs.getString("type");
 		}
-		String grpId = pg.getRawValue();
-		String grpName = grpId;
-		String grpType = functionArgs.getString("type");
 
-		Element grpEl = buildElement(curKey);
-		parentEl.addContent(grpEl);
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			Pedigree pg = mdBldr.row.getPedigreedData(colKey);
+			if (pg.isEmpty() && !isRequired(mdBldr)) {
+				return;
+			}
+			String grpId = pg.getRawValue();
+			String grpName = grpId;
+			AbstractXmlBuilder xmlBldr = mdBldr.xmlBldr;
+			Namespace mdNS = xmlBldr.getMdNSpace();
 
-		Element typeEl = buildElement("{md}Type");
-		grpEl.addContent(typeEl);
-		typeEl.setText(grpType);
+			Element grpEl = newElement(mdBldr);
+			parentEl.addContent(grpEl);
 
-		Element idEl = buildElement("{md}GroupIdentity");
-		grpEl.addContent(idEl);
-		idEl.setText(grpId);
+			Element typeEl = new Element("Type", mdNS);
+			grpEl.addContent(typeEl);
+			typeEl.setText(grpType);
 
-		Element nameEl = buildElement("{md}DisplayName");
-		grpEl.addContent(nameEl);
-		nameEl.setText(grpName);
+			Element idEl = new Element("GroupIdentity", mdNS);
+			grpEl.addContent(idEl);
+			idEl.setText(grpId);
 
-		xmlBldr.addToPedigree(grpEl, pg);
-		xmlBldr.addToPedigree(idEl, pg);
-		xmlBldr.addToPedigree(nameEl, pg);
-	}
+			Element nameEl = new Element("DisplayName", mdNS);
+			grpEl.addContent(nameEl);
+			nameEl.setText(grpName);
 
-	/**
-	 * @param functionDef
-	 * @param targetEl
-	 */
-	private void func_contentRating(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-
-		Element ratings = parentEl.getChild("Ratings", xmlBldr.getAvailsNSpace());
-		boolean addToParent;
-		if (ratings == null) {
-			ratings = new Element("Ratings", xmlBldr.getAvailsNSpace());
-			addToParent = true;
-		} else {
-			addToParent = false;
+			xmlBldr.addToPedigree(grpEl, pg);
+			xmlBldr.addToPedigree(idEl, pg);
+			xmlBldr.addToPedigree(nameEl, pg);
 		}
+	}
+
+	private static class ContentRatingNode extends PlanNode {
 		/* These are the source columns for the data items.. */
-		String rSysCol = functionArgs.getString("system");
-		String rValueCol = functionArgs.getString("value");
-		String rReasonCol = functionArgs.getString("reason");
-		String rRegionCol = functionArgs.getString("region");
+		private final String rSysCol;
+		private final String rValueCol;
+		private final String rReasonCol;
+		private final String rRegionCol;
+
+		ContentRatingNode(String xmlId, JSONObject functionArgs) {
+			super(xmlId);
+			rSysCol = functionArgs.getString("system");
+			rValueCol = functionArgs.getString("value");
+			rReasonCol = functionArgs.getString("reason");
+			rRegionCol = functionArgs.getString("region");
+		}
 
-		String ratingSystem = row.getData(rSysCol);
-		String ratingValue = row.getData(rValueCol);
-		/*
-		 * According to XML schema, both values are REQUIRED for a Rating. If
-		 * any has been specified than we add the Rating element and let XML
-		 * validation worry about completeness,
-		 */
-		boolean add = Pedigree.isSpecified(ratingSystem) || Pedigree.isSpecified(ratingValue);
-		if (!add) {
-			return;
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			RowDataSrc row = mdBldr.row;
+			AbstractXmlBuilder xmlBldr = mdBldr.xmlBldr;
+			Namespace mdNS = xmlBldr.getMdNSpace();
+			Element ratings = parentEl.getChild("Ratings", xmlBldr.getAvailsNSpace());
+			boolean addToParent;
+			if (ratings == null) {
+				ratings = new Element("Ratings", xmlBldr.getAvailsNSpace());
+				addToParent = true;
+			} else {
+				addToParent = false;
+			}
+			String ratingSystem = row.getData(rSysCol);
+			String ratingValue = row.getData(rValueCol);
+			/*
+			 * According to XML schema, both values are REQUIRED for a Rating. If
+			 * any has been specified than we add the Rating element and let XML
+			 * validation worry about completeness,
+			 */
+			boolean add = Pedigree.isSpecified(ratingSystem) || Pedigree.isSpecified(ratingValue);
+			if (!add) {
+				return;
+			}
+			/*
+			 * Before adding another rating to a pre-existing set we check for
+			 * uniqueness and ignore duplicates.
+			 */
+			if (isDuplicate(ratings, mdNS, String.valueOf(ratingSystem), String.valueOf(ratingValue))) {
+				return;
+			}
+
+			Element rat = new Element("Rating", mdNS);
+			ratings.addContent(rat);
+
+			row.addRegion(rat, "Region", mdNS, rRegionCol);
+			Element rSysEl = row.process(rat, "System", mdNS, rSysCol);
+			row.process(rat, "Value", mdNS, rValueCol);
+			/*
+			 * IF RatingSys provides defined reason codes then look for a comma
+			 * separated listed of codes ELSE allow any single string value (i.e.,
+			 * commas do not denote multiple reasons).
+			 * 
+			 */
+			String system = rSysEl.getText();
+			RatingSystem rSystem = RatingSystem.factory(system);
+			/*
+			 * Note that the 'system' has not yet been validated so we may have a
+			 * null rSystem!
+			 */
+			if (rSystem == null || !(rSystem.providesReasons())) {
+				row.process(rat, "Reason", mdNS, rReasonCol, null);
+			} else {
+				// TODO???
+				Element[] reasonList = row.process(rat, "Reason", mdNS, rReasonCol, ",");
+			}
+			if (addToParent) {
+				parentEl.addContent(ratings);
+			}
 		}
 
-		/*
-		 * Before adding another rating to a pre-existing set we check for
-		 * uniqueness and ignore duplicates.
+		/**
+		 * Equivalent to the XPath
+		 * <tt>./md:Rating[./md:System=<i>system</i> and ./md:Value=<i>value</i>]</tt>
 		 */
-		Namespace mdNS = xmlBldr.getMdNSpace();
-		String mdPrefix = mdNS.getPrefix();
-		String xpath = "./" + mdPrefix + ":Rating[./" + mdPrefix + ":System='" + ratingSystem + "' and ./" + mdPrefix
-				+ ":Value='" + ratingValue + "']";
-		XPathExpression<Element> xpExpression = xpfac.compile(xpath, Filters.element(), null, xmlBldr.getAvailsNSpace(),
-				xmlBldr.getMdNSpace());
-		Element matching = xpExpression.evaluateFirst(ratings);
-		if (matching != null) {
-			// ignore pre-existing match
-			// System.out.println("ignore pre-existing match::
-			// "+ratingSystem+"-"+ratingValue);
-			return;
-		}
-
-		Element rat = new Element("Rating", xmlBldr.getMdNSpace());
-		ratings.addContent(rat);
-
-		row.addRegion(rat, "Region", xmlBldr.getMdNSpace(), rRegionCol);
-		Element rSysEl = row.process(rat, "System", xmlBldr.getMdNSpace(), rSysCol);
-		row.process(rat, "Value", xmlBldr.getMdNSpace(), rValueCol);
-		/*
-		 * IF RatingSys provides defined reason codes then look for a comma
-		 * separated listed of codes ELSE allow any single string value (i.e.,
-		 * commas do not denote multiple reasons).
-		 * 
-		 */
-		String system = rSysEl.getText();
-		RatingSystem rSystem = RatingSystem.factory(system);
-		/*
-		 * Note that the 'system' has not yet been validated so we may have a
-		 * null rSystem!
-		 */
-		if (rSystem == null || !(rSystem.providesReasons())) {
-			row.process(rat, "Reason", xmlBldr.getMdNSpace(), rReasonCol, null);
-		} else {
-			// TODO???
-			Element[] reasonList = row.process(rat, "Reason", xmlBldr.getMdNSpace(), rReasonCol, ",");
-		}
-		if (addToParent) {
-			parentEl.addContent(ratings);
+		private boolean isDuplicate(Element ratings, Namespace mdNS, String system, String value) {
+			for (Element ratingEl : ratings.getChildren("Rating", mdNS)) {
+				if (hasChildValue(ratingEl, "System", mdNS, system) && hasChildValue(ratingEl, "Value", mdNS, value)) {
+					return true;
+				}
+			}
+			return false;
 		}
 
+		private boolean hasChildValue(Element parentEl, String childName, Namespace ns, String value) {
+			for (Element childEl : parentEl.getChildren(childName, ns)) {
+				if (childEl.getValue().equals(value)) {
+					return true;
+				}
+			}
+			return false;
+		}
 	}
 
 	/**
@@ -628,166 +796,173 @@ public class MetadataBuilder {
 	 * EIDR values are in URN format that is compatible with XML. If the cell's
 	 * value is NOT a valid EIDR, handling depends on the <tt>filter</tt>
 	 * argument specified by the <tt>functionDef</tt>.
-	 * 
-	 * @param functionDef
-	 * @param curKey
-	 * @param parentEl
 	 */
-	private void func_eidr(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		Pedigree pg = row.getPedigreedData(functionArgs.getString("col"));
-		if (!AbstractRowHelper.isSpecified(pg)){ 
-				return; 
-		}
-		String idValue = pg.getRawValue();
-		// what's the namespace (i.e., encoding fmt)?
-		String namespace = parseIdFormat(idValue);
-		switch (namespace) {
-		case "eidr-5240":
-			idValue = idValue.replaceFirst("10.5240/", "urn:eidr:10.5240:");
-		case "eidr-URN":
-			break;
-		default:
-			/* value is not an EIDR. */
-			String filter = functionArgs.optString("filter", "yes");
-			if (filter.equalsIgnoreCase("yes")) {
+	private static class EidrNode extends PlanNode {
+		private final String colKey;
+		private final boolean filter;
+
+		EidrNode(String xmlId, JSONObject functionArgs) {
+			super(xmlId);
+			colKey = functionArgs.getString("col");
+			filter = functionArgs.optString("filter", "yes").equalsIgnoreCase("yes");
+		}
+
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			Pedigree pg = mdBldr.row.getPedigreedData(colKey);
+			if (!AbstractRowHelper.isSpecified(pg)) {
 				return;
 			}
-			/*
-			 * the non-EIDR value will be used. Assumption is that validation
-			 * procedure will catch and flag the problem.
-			 */
-			break;
+			String idValue = pg.getRawValue();
+			// what's the namespace (i.e., encoding fmt)?
+			String namespace = parseIdFormat(idValue);
+			switch (namespace) {
+			case "eidr-5240":
+				idValue = idValue.replaceFirst("10.5240/", "urn:eidr:10.5240:");
+			case "eidr-URN":
+				break;
+			default:
+				/* value is not an EIDR. */
+				if (filter) {
+					return;
+				}
+				/*
+				 * the non-EIDR value will be used. Assumption is that validation
+				 * procedure will catch and flag the problem.
+				 */
+				break;
+			}
+			Element targetEl = newElement(mdBldr);
+			parentEl.addContent(targetEl);
+			targetEl.setText(idValue);
 		}
-		Element targetEl = buildElement(curKey);
-		parentEl.addContent(targetEl);
-		targetEl.setText(idValue);
 	}
 
 	/**
-	 * Handle cases where value has to be translated or reformatted. This
-	 * happens, for example, with durations where XSD specifies xs:duration
-	 * syntax.
-	 * 
-	 * @param input
-	 * @return
+	 * Handle cases where value has to be translated or reformatted. This happens,
+	 * for example, with durations where XSD specifies xs:duration syntax.
 	 */
-	private void func_format(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		String colKey = functionArgs.getString("col");
-		Pedigree pg = row.getPedigreedData(colKey);
-		if (pg == null) {
-			throw new UnsupportedOperationException("Invalid JSON: unsupported column '" + colKey + "'");
-		}
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
-		}
-		Element targetEl = buildElement(curKey);
-		parentEl.addContent(targetEl);
-		String type = functionArgs.getString("type");
-		String value = null;
-		switch (type) {
-		case "xs:boolean":
-			value = FormatConverter.booleanToXml(pg.getRawValue());
-			break;
-		case "xs:dateTime":
-			boolean rounding = functionArgs.getString("roundOff").equals("true");
-			value = FormatConverter.dateTimeToXml(pg.getRawValue(), rounding);
-			break;
-		case "xs:duration":
-			value = FormatConverter.durationToXml(pg.getRawValue());
-			break;
-		default:
-			throw new UnsupportedOperationException("Invalid JSON: unsupported format type '" + type + "'");
+	private static class FormatNode extends PlanNode {
+		private static final int XS_BOOLEAN = 0;
+		private static final int XS_DATETIME = 1;
+		private static final int XS_DURATION = 2;
+		private final String colKey;
+		private final int type;
+		private final boolean rounding;
+
+		FormatNode(String xmlId, JSONObject functionArgs) {
+			super(xmlId);
+			colKey = functionArgs.getString("col");
+			String typeName = functionArgs.getString("type");
+			switch (typeName) {
+			case "xs:boolean":
+				type = XS_BOOLEAN;
+				rounding = false;
+				break;
+			case "xs:dateTime":
+				type = XS_DATETIME;
+				rounding = functionArgs.getString("roundOff").equals("true");
+				break;
+			case "xs:duration":
+				type = XS_DURATION;
+				rounding = false;
+				break;
+			default:
+				throw new UnsupportedOperationException("Invalid JSON: unsupported format type '" + typeName + "'");
+			}
 		}
-		targetEl.setText(value);
-	}
 
-	/**
-	 * @param functionDef
-	 * @param rHistoryEl
-	 */
-	private void func_people(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		Pedigree pg = row.getPedigreedData(functionArgs.getString("col"));
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
-		}
-		Element peopleEl = buildElement(curKey);
-		parentEl.addContent(peopleEl);
-
-		Element jobEl = buildElement("{md}Job");
-		peopleEl.addContent(jobEl);
-		Element jobFEl = buildElement("{md}JobFunction");
-		jobEl.addContent(jobFEl);
-		String type = functionArgs.getString("job");
-		jobFEl.setText(type);
-
-		Element nameEl = buildElement("{md}Name");
-		peopleEl.addContent(nameEl);
-		Element dNameEl = buildElement("{md}DisplayName");
-		nameEl.addContent(dNameEl);
-		dNameEl.setText(pg.getRawValue());
-		xmlBldr.addToPedigree(dNameEl, pg);
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			Pedigree pg = getColumn(mdBldr, colKey);
+			if (pg.isEmpty() && !isRequired(mdBldr)) {
+				return;
+			}
+			Element targetEl = newElement(mdBldr);
+			parentEl.addContent(targetEl);
+			String value = null;
+			switch (type) {
+			case XS_BOOLEAN:
+				value = FormatConverter.booleanToXml(pg.getRawValue());
+				break;
+			case XS_DATETIME:
+				value = FormatConverter.dateTimeToXml(pg.getRawValue(), rounding);
+				break;
+			case XS_DURATION:
+				value = FormatConverter.durationToXml(pg.getRawValue());
+				break;
+			}
+			targetEl.setText(value);
+		}
 	}
 
 	/**
-	 * @param functionDef
-	 * @param rHistoryEl
+	 * Create a &lt;avails:People&gt; containing only the required sub-elements.
 	 */
-	private void func_releaseHistory(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		Pedigree pg = row.getPedigreedData(functionArgs.getString("col"));
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
-		}
-		Element rHistoryEl = buildElement(curKey);
-		parentEl.addContent(rHistoryEl);
-
-		Element rTypeEl = buildElement("{md}ReleaseType");
-		String type = functionArgs.getString("type");
-		rTypeEl.setText(type);
-		rHistoryEl.addContent(rTypeEl);
-
-		Element dateEl = buildElement("{md}Date");
-		dateEl.setText(pg.getRawValue());
-		xmlBldr.addToPedigree(dateEl, pg);
-		rHistoryEl.addContent(dateEl);
-	}
+	private static class PeopleNode extends PlanNode {
+		private final String colKey;
+		private final String job;
+
+		PeopleNode(String xmlId, JSONObject functionArgs) {
+			super(xmlId);
+			colKey = functionArgs.getString("col");
+			job = functionArgs.getString("job");
+		}
 
-	/**
-	 * @param xmlId
-	 * @return
-	 */
-	private boolean isRequired(String xmlId) {
-		String name = xmlId.split("}")[1];
-		String nsId = null;
-		if (xmlId.startsWith("{avail}")) {
-			nsId = "avails";
-		} else if (xmlId.startsWith("{md}")) {
-			nsId = "md";
-		}
-		return xmlBldr.isRequired(name, nsId);
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			Pedigree pg = mdBldr.row.getPedigreedData(colKey);
+			if (pg.isEmpty() && !isRequired(mdBldr)) {
+				return;
+			}
+			Namespace mdNS = mdBldr.xmlBldr.getMdNSpace();
+			Element peopleEl = newElement(mdBldr);
+			parentEl.addContent(peopleEl);
+
+			Element jobEl = new Element("Job", mdNS);
+			peopleEl.addContent(jobEl);
+			Element jobFEl = new Element("JobFunction", mdNS);
+			jobEl.addContent(jobFEl);
+			jobFEl.setText(job);
+
+			Element nameEl = new Element("Name", mdNS);
+			peopleEl.addContent(nameEl);
+			Element dNameEl = new Element("DisplayName", mdNS);
+			nameEl.addContent(dNameEl);
+			dNameEl.setText(pg.getRawValue());
+			mdBldr.xmlBldr.addToPedigree(dNameEl, pg);
+		}
 	}
 
-	/**
-	 * @param key
-	 * @return
-	 */
-	private Element buildElement(String key) {
-		if (!key.startsWith("{")) {
-			return new Element(key);
-		}
-		Namespace childNs = null;
-		if (key.startsWith("{avail}")) {
-			childNs = xmlBldr.getAvailsNSpace();
-		} else if (key.startsWith("{md}")) {
-			childNs = xmlBldr.getMdNSpace();
-		} else {
-			throw new UnsupportedOperationException("Can not proceed due to malformed JSON; key=" + key);
+	private static class ReleaseHistoryNode extends PlanNode {
+		private final String colKey;
+		private final String type;
+
+		ReleaseHistoryNode(String xmlId, JSONObject functionArgs) {
+			super(xmlId);
+			colKey = functionArgs.getString("col");
+			type = functionArgs.getString("type");
+		}
+
+		@Override
+		void apply(MetadataBuilder mdBldr, Element parentEl) {
+			Pedigree pg = mdBldr.row.getPedigreedData(colKey);
+			if (pg.isEmpty() && !isRequired(mdBldr)) {
+				return;
+			}
+			Namespace mdNS = mdBldr.xmlBldr.getMdNSpace();
+			Element rHistoryEl = newElement(mdBldr);
+			parentEl.addContent(rHistoryEl);
+
+			Element rTypeEl = new Element("ReleaseType", mdNS);
+			rTypeEl.setText(type);
+			rHistoryEl.addContent(rTypeEl);
+
+			Element dateEl = new Element("Date", mdNS);
+			dateEl.setText(pg.getRawValue());
+			mdBldr.xmlBldr.addToPedigree(dateEl, pg);
+			rHistoryEl.addContent(dateEl);
 		}
-		String name = key.split("}")[1];
-		return new Element(name, childNs);
 	}
 
 	/**
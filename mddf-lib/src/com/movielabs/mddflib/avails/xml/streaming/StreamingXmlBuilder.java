@@ -22,17 +22,33 @@
  */
 package com.movielabs.mddflib.avails.xml.streaming;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.openxml4j.opc.PackageAccess;
@@ -47,10 +63,16 @@ import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandl
 import org.apache.poi.xssf.model.CommentsTable;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.jdom2.Attribute;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
 import org.jdom2.filter.Filters;
+import org.jdom2.output.Format;
+import org.jdom2.output.StAXStreamOutputter;
+import org.jdom2.output.support.AbstractStAXStreamProcessor;
+import org.jdom2.output.support.FormatStack;
+import org.jdom2.util.NamespaceStack;
 import org.jdom2.xpath.XPathExpression;
 import org.jdom2.xpath.XPathFactory;
 import org.xml.sax.ContentHandler;
@@ -75,12 +97,38 @@ import com.movielabs.mddflib.util.xml.SchemaWrapper;
  * Converts an Avails file using the XLSX format to an XML DOM representation
  * using the <tt>XSSFReader</tt> API. This is an event-driven approach to SAX
  * processing that results in a greatly reduced memory footprint.
+ * <p>
+ * Two output modes are supported. The default mode (i.e.,
+ * <tt>convert()</tt>) assembles the complete <tt>AvailList</tt> as a JDOM
+ * <tt>Document</tt>. When dealing with very large spreadsheets
+ * <tt>convertToStream()</tt> may be used instead. In that mode each
+ * <tt>Avail</tt> is written to an XML output stream as soon as all rows with
+ * the same ALID have been ingested and the interim structures used to build it
+ * are then discarded. How the rows belonging to an ALID are grouped is
+ * determined by the <tt>GroupingStrategy</tt>.
+ * </p>
  * 
  * @author L. Levin, Critical Architectures LLC
  *
  */
 public class StreamingXmlBuilder extends AbstractXmlBuilder {
 
+	/**
+	 * Identifies how rows are grouped by ALID when writing the XML to a stream.
+	 * <ul>
+	 * <li><tt>SORTED</tt>: the rows for any given ALID are contiguous. An
+	 * <tt>Avail</tt> is written as soon as a row with a different ALID is
+	 * encountered. Only a single <tt>Avail</tt> is ever held in memory.</li>
+	 * <li><tt>SPILL</tt>: no assumptions are made as to the ordering of rows.
+	 * Rows are first spilled to a temporary file and indexed by ALID. Each group
+	 * is then read back and converted in turn. <tt>Avails</tt> are written in the
+	 * order in which their ALID first appears in the spreadsheet.</li>
+	 * </ul>
+	 */
+	public static enum GroupingStrategy {
+		SORTED, SPILL
+	};
+
 	/**
 	 * <tt>ContentHandler</tt> that allows termination of the ingest process by the
 	 * <tt>StreamingXmlBuilder</tt> at any time. Termination is initiated by the
@@ -213,6 +261,36 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 		}
 	}
 
+	/**
+	 * Writes an <tt>Avail</tt> as a fragment of the <tt>AvailList</tt> that is
+	 * being streamed. The namespaces declared by the <tt>AvailList</tt> are
+	 * treated as already being in scope so that they are not redeclared on every
+	 * element.
+	 */
+	private static class AvailStAXProcessor extends AbstractStAXStreamProcessor {
+		private Namespace[] inScope;
+
+		AvailStAXProcessor(Namespace... rootNamespaces) {
+			inScope = new Namespace[rootNamespaces.length + 2];
+			inScope[0] = Namespace.NO_NAMESPACE;
+			inScope[1] = Namespace.XML_NAMESPACE;
+			System.arraycopy(rootNamespaces, 0, inScope, 2, rootNamespaces.length);
+			// NamespaceStack requires the scope to be ordered by prefix
+			Arrays.sort(inScope, new Comparator<Namespace>() {
+				@Override
+				public int compare(Namespace ns1, Namespace ns2) {
+					return ns1.getPrefix().compareTo(ns2.getPrefix());
+				}
+			});
+		}
+
+		@Override
+		public void process(XMLStreamWriter out, Format format, Element element) throws XMLStreamException {
+			printElement(out, new FormatStack(format), new NamespaceStack(inScope), element);
+			out.flush();
+		}
+	}
+
 	// ==============================================
 	/**
 	 * FOR TESTING ONLY!!
@@ -273,6 +351,20 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 
 	private MetadataBuilder mdBuilder;
 
+	/*
+	 * State used only when streaming the XML (i.e., grouping != null)
+	 */
+	private GroupingStrategy grouping = null;
+	private XMLStreamWriter xmlWriter;
+	private StAXStreamOutputter availOutputter;
+	private String openAlid;
+	private Set<String> closedAlids;
+	private int streamedAvailCnt;
+	private File spillFile;
+	private DataOutputStream spillOut;
+	private long spillOffset;
+	private Map<String, List<Long>> spillIndex;
+
 	/**
 	 * @param logger
 	 * @param sstVersion Avail XSLX version (i.e. '1.x')
@@ -385,23 +477,94 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 			throws IllegalStateException {
 		File srcXslxFile = mddfTarget.getSrcFile();
 		Map<String, Object> results = new HashMap<String, Object>();
-		FILE_FMT srcMddfFmt = null;
+		FILE_FMT srcMddfFmt = getSrcFormat(mddfTarget);
+		if (srcMddfFmt == null) {
+			return null;
+		}
+		Document xmlDoc = makeXmlAsJDom(mddfTarget, inStream, 0, shortDesc);
+		results.put("xlsx", srcXslxFile);
+		results.put("xml", xmlDoc);
+		results.put("pedigree", pedigreeMap);
+		results.put("srcFmt", srcMddfFmt);
+		results.put("status", RESULT_STATUS.COMPLETED);
+		return results;
+	}
+
+	/**
+	 * Convert one sheet within the Workbook to an XML representation that is
+	 * written to the <tt>xmlOut</tt> stream rather than being assembled in
+	 * memory. Each <tt>Avail</tt> is written as soon as its ALID group has been
+	 * closed. The results are returned in the form of a <tt>Map</tt> with the
+	 * following content:
+	 * <ul>
+	 * <li><tt>results.get("xlsx")</tt>: the <tt>File</tt> srcXslxFile that was
+	 * passed as input argument</li>
+	 * <li><tt>results.get("availCnt")</tt>: the number of <tt>Avail</tt> elements
+	 * that were written</li>
+	 * <li><tt>results.get("srcFmt")</tt>: <tt>FILE_FMT</tt> of the ingested
+	 * XLSX</li>
+	 * <li><tt>results.get("status")</tt>: <tt>RESULT_STATUS.COMPLETED</tt></li>
+	 * </ul>
+	 * Note that no <tt>pedigree</tt> is provided as the elements it would refer
+	 * to are released once written. The <tt>results</tt> returned will be
+	 * <tt>null</tt> if XLSX has a FILE_FMT that is invalid or that can not be
+	 * processed by the code as currently implemented, or if the ingest failed. The
+	 * <tt>xmlOut</tt> stream is flushed but not closed.
+	 * 
+	 * @param mddfTarget
+	 * @param inStream
+	 * @param sheetNum
+	 * @param shortDesc
+	 * @param xmlOut
+	 * @param grouping   how rows are grouped by ALID
+	 * @return results
+	 * @throws IllegalStateException
+	 */
+	public Map<String, Object> convertToStream(MddfTarget mddfTarget, InputStream inStream, int sheetNum,
+			String shortDesc, OutputStream xmlOut, GroupingStrategy grouping) throws IllegalStateException {
+		FILE_FMT srcMddfFmt = getSrcFormat(mddfTarget);
+		if (srcMddfFmt == null) {
+			return null;
+		}
+		if (grouping == null) {
+			throw new IllegalArgumentException("A GroupingStrategy must be specified");
+		}
+		boolean completed = false;
+		try {
+			completed = makeXmlAsStream(mddfTarget, inStream, sheetNum, shortDesc, xmlOut, grouping);
+		} finally {
+			releaseStreamState();
+		}
+		if (!completed) {
+			return null;
+		}
+		Map<String, Object> results = new HashMap<String, Object>();
+		results.put("xlsx", mddfTarget.getSrcFile());
+		results.put("availCnt", Integer.valueOf(streamedAvailCnt));
+		results.put("srcFmt", srcMddfFmt);
+		results.put("status", RESULT_STATUS.COMPLETED);
+		return results;
+	}
+
+	/**
+	 * Returns the <tt>FILE_FMT</tt> of the XLSX being ingested or <tt>null</tt>
+	 * if the template version is not supported.
+	 * 
+	 * @param mddfTarget
+	 * @return
+	 */
+	private FILE_FMT getSrcFormat(MddfTarget mddfTarget) {
 		switch (templateVersion) {
 		case V1_9:
-			srcMddfFmt = FILE_FMT.AVAILS_1_9;
-			break;
+			return FILE_FMT.AVAILS_1_9;
 		case V1_8:
-			srcMddfFmt = FILE_FMT.AVAILS_1_8;
-			break;
+			return FILE_FMT.AVAILS_1_8;
 		case V1_7_3:
-			srcMddfFmt = FILE_FMT.AVAILS_1_7_3;
-			break;
+			return FILE_FMT.AVAILS_1_7_3;
 		case V1_7_2:
-			srcMddfFmt = FILE_FMT.AVAILS_1_7_2;
-			break;
+			return FILE_FMT.AVAILS_1_7_2;
 		case V1_7:
-			srcMddfFmt = FILE_FMT.AVAILS_1_7;
-			break;
+			return FILE_FMT.AVAILS_1_7;
 		case V1_6:
 			logger.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_AVAIL,
 					"Version " + templateVersion + " has been deprecated and is no longer supported", mddfTarget,
@@ -409,19 +572,12 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 			return null;
 		case UNK:
 			logger.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_AVAIL, "Unable to identify XLSX format ", mddfTarget, moduleId);
-			break;
+			return null;
 		default:
 			logger.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_AVAIL, "Unsupported template version " + templateVersion,
 					mddfTarget, moduleId);
 			return null;
 		}
-		Document xmlDoc = makeXmlAsJDom(mddfTarget, inStream, 0, shortDesc);
-		results.put("xlsx", srcXslxFile);
-		results.put("xml", xmlDoc);
-		results.put("pedigree", pedigreeMap);
-		results.put("srcFmt", srcMddfFmt);
-		results.put("status", RESULT_STATUS.COMPLETED);
-		return results;
 	}
 
 	/**
@@ -446,11 +602,105 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 		initializeMappings();
 
 		mdBuilder = new MetadataBuilder(logger, this);
+		if (!readSheet(inStream, sheetNum)) {
+			return null;
+		}
+
+		assembleDoc();
+
+		finalizeDocument(doc, templateVersion);
+		String msg = "Completed ingesting XLSX file";
+		logger.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, msg, mddfTarget, moduleId);
 		/*
-		 * initiate event-driven ingest. The streaming parser (i.e., the ParseByRow
-		 * instance 'rowHandler) will invoke the processRow() method whenever it has
-		 * ingested an entire row,.
+		 * re-set the interim structures to facilitate garbage collection
 		 */
+//		initializeMappings();
+
+		return doc;
+	}
+
+	/**
+	 * Streaming counterpart to <tt>makeXmlAsJDom()</tt>.
+	 * 
+	 * @return <tt>true</tt> if the sheet was successfully converted
+	 */
+	private boolean makeXmlAsStream(MddfTarget mddfTarget, InputStream inStream, int sheetNum, String shortDesc,
+			OutputStream xmlOut, GroupingStrategy grouping) throws IllegalStateException {
+		this.shortDesc = shortDesc;
+		this.curSrcXslxFile = mddfTarget.getSrcFile();
+		if (xsdVersion == null) {
+			String msg = "Unable to generate XML from XLSX: XSD version was not set or is unsupported.";
+			logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, msg, null, moduleId);
+			throw new IllegalStateException("The XSD version was not set or is unsupported.");
+		}
+		initializeMappings();
+		mdBuilder = new MetadataBuilder(logger, this);
+		this.grouping = grouping;
+		openAlid = null;
+		closedAlids = new HashSet<String>();
+		streamedAvailCnt = 0;
+		try {
+			if (grouping == GroupingStrategy.SPILL) {
+				spillFile = File.createTempFile("mddf_avails_", ".spill");
+				spillFile.deleteOnExit();
+				spillOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile)));
+				spillOffset = 0;
+				spillIndex = new LinkedHashMap<String, List<Long>>();
+			}
+			xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(xmlOut, "UTF-8");
+			availOutputter = new StAXStreamOutputter(Format.getPrettyFormat(), new AvailStAXProcessor(availsNSpace,
+					mdNSpace, mdMecNSpace, SchemaWrapper.xsiNSpace));
+			xmlWriter.writeStartDocument("UTF-8", "1.0");
+			xmlWriter.writeCharacters("\n");
+			xmlWriter.setPrefix(availsNSpace.getPrefix(), availsNSpace.getURI());
+			xmlWriter.writeStartElement(availsNSpace.getPrefix(), "AvailList", availsNSpace.getURI());
+			xmlWriter.writeNamespace(availsNSpace.getPrefix(), availsNSpace.getURI());
+			xmlWriter.writeNamespace(mdNSpace.getPrefix(), mdNSpace.getURI());
+			xmlWriter.writeNamespace(mdMecNSpace.getPrefix(), mdMecNSpace.getURI());
+			xmlWriter.writeNamespace(SchemaWrapper.xsiNSpace.getPrefix(), SchemaWrapper.xsiNSpace.getURI());
+		} catch (IOException | XMLStreamException e) {
+			e.printStackTrace();
+			String msg = "Unable to initialize XML output stream: " + e.getMessage();
+			logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, msg, null, moduleId);
+			return false;
+		}
+
+		if (!readSheet(inStream, sheetNum)) {
+			return false;
+		}
+		try {
+			if (grouping == GroupingStrategy.SPILL) {
+				processSpilledRows();
+			} else if (openAlid != null) {
+				writeAvail(openAlid);
+			}
+			xmlWriter.writeCharacters("\n");
+			xmlWriter.writeEndElement();
+			xmlWriter.writeEndDocument();
+			xmlWriter.flush();
+		} catch (IOException | XMLStreamException | IllegalStateException e) {
+			e.printStackTrace();
+			String msg = "Unable to complete XML output stream: " + e.getMessage();
+			logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, msg, null, moduleId);
+			return false;
+		}
+		String msg = "Avail count for WorkSheet = " + streamedAvailCnt;
+		logger.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, msg, null, moduleId);
+		msg = "Completed ingesting XLSX file";
+		logger.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, msg, mddfTarget, moduleId);
+		return true;
+	}
+
+	/**
+	 * Initiate event-driven ingest of a sheet. The streaming parser (i.e., the
+	 * <tt>ParseByRow</tt> instance 'rowHandler) will invoke the
+	 * <tt>processRow()</tt> method whenever it has ingested an entire row.
+	 * 
+	 * @param inStream
+	 * @param sheetNum
+	 * @return <tt>false</tt> if the XLSX could not be ingested
+	 */
+	private boolean readSheet(InputStream inStream, int sheetNum) {
 		try {
 			OPCPackage xlsxPackage = null;
 			if (inStream == null) {
@@ -485,20 +735,32 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 			e.printStackTrace();
 			String msg = "Unable to ingest XLSX: verify correct version was specified";
 			logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, msg, null, moduleId);
-			return null;
+			return false;
 		}
+		return true;
+	}
 
-		assembleDoc();
-
-		finalizeDocument(doc, templateVersion);
-		String msg = "Completed ingesting XLSX file";
-		logger.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, msg, mddfTarget, moduleId);
-		/*
-		 * re-set the interim structures to facilitate garbage collection
-		 */
-//		initializeMappings();
-
-		return doc;
+	/**
+	 * Release everything used while streaming, including any spill file.
+	 */
+	private void releaseStreamState() {
+		grouping = null;
+		xmlWriter = null;
+		availOutputter = null;
+		closedAlids = null;
+		spillIndex = null;
+		if (spillOut != null) {
+			try {
+				spillOut.close();
+			} catch (IOException e) {
+			}
+			spillOut = null;
+		}
+		if (spillFile != null) {
+			spillFile.delete();
+			spillFile = null;
+		}
+		initializeMappings();
 	}
 
 	/**
@@ -559,9 +821,11 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 			e.printStackTrace();
 			throw new RuntimeException("SAX parser appears to be broken - " + e.getMessage());
 		}
-		int availCnt = availElRegistry.values().size();
-		String msg = "Avail count for WorkSheet = " + availCnt;
-		logger.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, msg, null, moduleId);
+		if (grouping == null) {
+			int availCnt = availElRegistry.values().size();
+			String msg = "Avail count for WorkSheet = " + availCnt;
+			logger.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, msg, null, moduleId);
+		}
 
 	}
 
@@ -624,19 +888,202 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 		/*
 		 * process a data row
 		 */
-		if (rowHasData) {
-			try {
-				IngesterV1_7 ingester = new IngesterV1_7(row, rowNum, this, logger);
-			} catch (Exception e) {
-				e.printStackTrace();
+		if (!rowHasData) {
+			return;
+		}
+		if (grouping == null) {
+			ingestRow(row, rowNum);
+			return;
+		}
+		String alid = getAlid(row);
+		switch (grouping) {
+		case SPILL:
+			spillRow(alid, row, rowNum);
+			break;
+		case SORTED:
+			if (openAlid != null && !openAlid.equals(alid)) {
+				writeAvail(openAlid);
+			}
+			if (closedAlids.contains(alid)) {
 				int rowID = rowNum + 1;
-				String msg = "Unable to ingest data in row " + rowID + "; Exception while processing: "
-						+ e.getMessage();
-				logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, msg, null, moduleId);
+				String msg = "Rows for ALID " + alid + " are not contiguous (row " + rowID
+						+ "); input must be sorted by ALID when using SORTED grouping";
+				logger.logIssue(LogMgmt.TAG_XLATE, LogMgmt.LEV_ERR, Integer.valueOf(rowID), msg, null, null,
+						moduleId);
 			}
+			openAlid = alid;
+			ingestRow(row, rowNum);
+			break;
+		}
+	}
+
+	/**
+	 * Hand the row off to an <tt>Ingester</tt> instance for conversion to XML.
+	 * 
+	 * @param row
+	 * @param rowNum
+	 */
+	private void ingestRow(String[] row, int rowNum) {
+		try {
+			IngesterV1_7 ingester = new IngesterV1_7(row, rowNum, this, logger);
+		} catch (Exception e) {
+			e.printStackTrace();
+			int rowID = rowNum + 1;
+			String msg = "Unable to ingest data in row " + rowID + "; Exception while processing: " + e.getMessage();
+			logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, msg, null, moduleId);
 		}
 	}
 
+	/**
+	 * Return the ALID specified by a row. This will be an empty string if the
+	 * cell is empty or the column is missing.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	private String getAlid(String[] row) {
+		int colIdx = getColumnIdx("Avail/ALID");
+		if (colIdx < 0 || colIdx >= row.length || row[colIdx] == null) {
+			return "";
+		}
+		return row[colIdx];
+	}
+
+	/**
+	 * Append a row to the spill file and index its location by ALID.
+	 * 
+	 * @param alid
+	 * @param row
+	 * @param rowNum
+	 */
+	private void spillRow(String alid, String[] row, int rowNum) {
+		List<Long> offsets = spillIndex.get(alid);
+		if (offsets == null) {
+			offsets = new ArrayList<Long>();
+			spillIndex.put(alid, offsets);
+		}
+		offsets.add(Long.valueOf(spillOffset));
+		try {
+			/*
+			 * Record layout is [length][rowNum][cellCnt]{[byteCnt][UTF-8 bytes]}. A
+			 * byteCnt of -1 indicates a null cell.
+			 */
+			int recLength = 8;
+			byte[][] cells = new byte[row.length][];
+			for (int i = 0; i < row.length; i++) {
+				recLength += 4;
+				if (row[i] != null) {
+					cells[i] = row[i].getBytes(StandardCharsets.UTF_8);
+					recLength += cells[i].length;
+				}
+			}
+			spillOut.writeInt(recLength);
+			spillOut.writeInt(rowNum);
+			spillOut.writeInt(row.length);
+			for (int i = 0; i < cells.length; i++) {
+				if (cells[i] == null) {
+					spillOut.writeInt(-1);
+				} else {
+					spillOut.writeInt(cells[i].length);
+					spillOut.write(cells[i]);
+				}
+			}
+			spillOffset += 4 + recLength;
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to spill row " + (rowNum + 1) + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Read back the spilled rows one ALID group at a time, converting and then
+	 * writing each <tt>Avail</tt> before moving on to the next group.
+	 * 
+	 * @throws IOException
+	 */
+	private void processSpilledRows() throws IOException {
+		spillOut.close();
+		spillOut = null;
+		try (RandomAccessFile spillReader = new RandomAccessFile(spillFile, "r")) {
+			Iterator<Map.Entry<String, List<Long>>> groupIt = spillIndex.entrySet().iterator();
+			while (groupIt.hasNext()) {
+				Map.Entry<String, List<Long>> group = groupIt.next();
+				for (Long offset : group.getValue()) {
+					spillReader.seek(offset.longValue());
+					byte[] record = new byte[spillReader.readInt()];
+					spillReader.readFully(record);
+					DataInputStream recIn = new DataInputStream(new ByteArrayInputStream(record));
+					int rowNum = recIn.readInt();
+					String[] row = new String[recIn.readInt()];
+					for (int i = 0; i < row.length; i++) {
+						int byteCnt = recIn.readInt();
+						if (byteCnt >= 0) {
+							byte[] cell = new byte[byteCnt];
+							recIn.readFully(cell);
+							row[i] = new String(cell, StandardCharsets.UTF_8);
+						}
+					}
+					ingestRow(row, rowNum);
+				}
+				writeAvail(group.getKey());
+				groupIt.remove();
+			}
+		}
+	}
+
+	/**
+	 * Complete the <tt>Avail</tt> for the specified ALID, write it to the XML
+	 * output stream, and then release all interim structures associated with it.
+	 * 
+	 * @param alid
+	 * @throws IllegalStateException if the <tt>Avail</tt> could not be written
+	 */
+	private void writeAvail(String alid) throws IllegalStateException {
+		closedAlids.add(alid);
+		openAlid = null;
+		Element availEl = availElRegistry.remove(alid);
+		if (availEl == null) {
+			// row(s) could not be ingested
+			return;
+		}
+		assembleAvail(availEl);
+		avail2AssetMap.remove(availEl);
+		avail2TransMap.remove(availEl);
+		Map<String, Element> seMap = avail2EntilementMap.remove(availEl);
+		if (seMap != null) {
+			for (Element seEl : seMap.values()) {
+				entitlement2IdMap.remove(seEl);
+			}
+		}
+		Iterator<String> assetKeyIt = assetElRegistry.keySet().iterator();
+		String keySuffix = "__" + alid;
+		while (assetKeyIt.hasNext()) {
+			if (assetKeyIt.next().endsWith(keySuffix)) {
+				assetKeyIt.remove();
+			}
+		}
+		element2SrcRowMap.remove(availEl);
+		pedigreeMap.remove(availEl);
+		boolean hasVolume = false;
+		for (Element nextEl : availEl.getDescendants(Filters.element())) {
+			element2SrcRowMap.remove(nextEl);
+			pedigreeMap.remove(nextEl);
+			for (Attribute att : nextEl.getAttributes()) {
+				pedigreeMap.remove(att);
+			}
+			hasVolume = hasVolume || nextEl.getName().equals("VolumeMetadata");
+		}
+		if (hasVolume) {
+			finalizeAvail(availEl, templateVersion);
+		}
+		try {
+			xmlWriter.writeCharacters("\n");
+			availOutputter.output(availEl, xmlWriter);
+		} catch (XMLStreamException e) {
+			throw new IllegalStateException("Unable to write Avail " + alid + ": " + e.getMessage(), e);
+		}
+		streamedAvailCnt++;
+	}
+
 	/**
 	 * Final assembly in correct order..
 	 */
@@ -645,20 +1092,30 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 		Iterator<Element> alidIt = availElRegistry.values().iterator();
 		while (alidIt.hasNext()) {
 			Element nextAvailEl = alidIt.next();
-			Element sDescEl = nextAvailEl.getChild("ShortDescription", availsNSpace);
-			int index = nextAvailEl.indexOf(sDescEl) + 1;
-			Map<String, Element> seMap = avail2EntilementMap.get(nextAvailEl);
-			if (seMap != null && !seMap.isEmpty()) {
-				Collection<Element> seSet = seMap.values();
-				nextAvailEl.addContent(index, seSet);
-			}
-			nextAvailEl.addContent(index, avail2TransMap.get(nextAvailEl));
-			nextAvailEl.addContent(index, avail2AssetMap.get(nextAvailEl));
-			finalizeAssetMetadata(nextAvailEl);
+			assembleAvail(nextAvailEl);
 			rootEl.addContent(nextAvailEl);
 		}
 	}
 
+	/**
+	 * Add the Assets, Transactions, and SharedEntitlements that have been
+	 * collected for an Avail in the correct order.
+	 * 
+	 * @param nextAvailEl
+	 */
+	private void assembleAvail(Element nextAvailEl) {
+		Element sDescEl = nextAvailEl.getChild("ShortDescription", availsNSpace);
+		int index = nextAvailEl.indexOf(sDescEl) + 1;
+		Map<String, Element> seMap = avail2EntilementMap.get(nextAvailEl);
+		if (seMap != null && !seMap.isEmpty()) {
+			Collection<Element> seSet = seMap.values();
+			nextAvailEl.addContent(index, seSet);
+		}
+		nextAvailEl.addContent(index, avail2TransMap.get(nextAvailEl));
+		nextAvailEl.addContent(index, avail2AssetMap.get(nextAvailEl));
+		finalizeAssetMetadata(nextAvailEl);
+	}
+
 	/**
 	 * @param availEl
 	 */
@@ -701,7 +1158,25 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 	protected void finalizeDocument(Document doc, Version version) {
 		switch (version) {
 		case V1_8:
-			finalizeVolumes(doc);
+			finalizeVolumes(doc.getRootElement());
+			break;
+		default:
+			return;
+		}
+	}
+
+	/**
+	 * Streaming counterpart to <tt>finalizeDocument()</tt>. Since the rest of the
+	 * document is not available, finalization is limited to the content of the
+	 * <tt>Avail</tt> itself.
+	 * 
+	 * @param availEl
+	 * @param version the version of the xlsx file
+	 */
+	protected void finalizeAvail(Element availEl, Version version) {
+		switch (version) {
+		case V1_8:
+			finalizeVolumes(availEl);
 			break;
 		default:
 			return;
@@ -711,19 +1186,21 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 	/**
 	 * If any <tt>Volumes</tt> are defined then the <tt>VolumeMetadata</tt> needs to
 	 * be completed by identifying the correct number of Episodes it contains.
+	 * Only Volumes and Episodes that are descendants of <tt>scopeEl</tt> are
+	 * considered.
 	 * 
-	 * @param doc
+	 * @param scopeEl
 	 */
-	private void finalizeVolumes(Document doc) {
+	private void finalizeVolumes(Element scopeEl) {
 		String avPrefix = availsNSpace.getPrefix();
-		String xpath_VolMD = "//" + avPrefix + ":VolumeMetadata";
+		String xpath_VolMD = ".//" + avPrefix + ":VolumeMetadata";
 		XPathExpression<Element> xpExp_VolMetadata = xpfac.compile(xpath_VolMD, Filters.element(), null, availsNSpace);
 		String xpath_EpisodeNum = "./" + avPrefix + ":EpisodeMetadata/" + avPrefix + ":EpisodeNumber/"
 				+ mdNSpace.getPrefix() + ":Number";
 		XPathExpression<Element> xpExp_EpisodeNum = xpfac.compile(xpath_EpisodeNum, Filters.element(), null,
 				availsNSpace, mdNSpace);
 
-		List<Element> volList = xpExp_VolMetadata.evaluate(doc.getRootElement());
+		List<Element> volList = xpExp_VolMetadata.evaluate(scopeEl);
 		if (volList.isEmpty()) {
 			logger.logIssue(LogMgmt.TAG_XLATE, LogMgmt.LEV_DEBUG, null, "No Volumes found", null, null, moduleId);
 			return;
@@ -762,12 +1239,12 @@ public class StreamingXmlBuilder extends AbstractXmlBuilder {
 			logger.logIssue(LogMgmt.TAG_XLATE, LogMgmt.LEV_DEBUG, null, "Finalizing Volume " + vNum + ", scid=" + scid,
 					null, null, moduleId);
 			// find matching Episode Assets
-			String xpath_Episodes = "//" + avPrefix + ":Asset[@volNum='" + vNum + "' and ./" + avPrefix
+			String xpath_Episodes = ".//" + avPrefix + ":Asset[@volNum='" + vNum + "' and ./" + avPrefix
 					+ ":EpisodeMetadata/" + avPrefix + ":SeasonMetadata[" + avPrefix + ":SeasonContentID/text()='"
 					+ scid + "']]";
 			XPathExpression<Element> xpExp_episodes = xpfac.compile(xpath_Episodes, Filters.element(), null,
 					availsNSpace);
-			List<Element> episodeList = xpExp_episodes.evaluate(doc.getRootElement());
+			List<Element> episodeList = xpExp_episodes.evaluate(scopeEl);
 			logger.logIssue(LogMgmt.TAG_XLATE, LogMgmt.LEV_DEBUG, null,
 					"Found " + episodeList.size() + " matching Episode Assets", null, null, moduleId);
 			/*
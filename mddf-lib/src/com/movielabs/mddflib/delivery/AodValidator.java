@@ -31,6 +31,7 @@ import com.movielabs.mddf.MddfContext.FILE_FMT;
 import com.movielabs.mddflib.avails.xml.Pedigree;
 import com.movielabs.mddflib.logging.IssueLogger;
 import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.PhaseMetrics;
 import com.movielabs.mddflib.logging.LogReference;
 import com.movielabs.mddflib.util.CMValidator;
 import com.movielabs.mddflib.util.xml.MddfTarget;
@@ -107,15 +108,18 @@ public class AodValidator extends CMValidator implements IssueLogger {
 		curFileName = curFile.getName();
 		curFileIsValid = true;
 		this.pedigreeMap = pedigreeMap;
+		/* issues found in a spreadsheet are logged by cell and can not be replayed */
+		structHelper.setRuleCache((pedigreeMap == null) ? ruleCache : null, logMsgSrcId);
 
+		PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_XSD);
 		validateXml(target);
+		endPhase(timer);
 		// ==========================
 
 		if (!curFileIsValid) {
 			msg = "Schema validation check FAILED";
 			loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_AOD, msg, curTarget, logMsgSrcId);
 		} else {
-			curRootEl = target.getXmlDoc().getRootElement();
 			msg = "Schema validation check PASSED";
 			loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_AOD, msg, curTarget, logMsgSrcId);
 			/**
@@ -127,7 +131,7 @@ public class AodValidator extends CMValidator implements IssueLogger {
 			 *  3) ProductStatus
 			 * </pre>
 			 */
-			aod_type = curRootEl.getName();
+			aod_type = target.getRootElement().getName();
 			switch (aod_type) {
 			case "AssetOrder":
 			case "AssetAvailability":
@@ -142,8 +146,11 @@ public class AodValidator extends CMValidator implements IssueLogger {
 			}
 
 			if (validateC) {
+				curRootEl = target.getXmlDoc().getRootElement();
 				initializeIdChecks();
+				timer = startPhase(PhaseMetrics.PHASE_CONSTRAINTS);
 				validateConstraints();
+				endPhase(timer);
 			}
 		}
 		// clean up and go home
@@ -160,7 +167,7 @@ public class AodValidator extends CMValidator implements IssueLogger {
 	 */
 	protected boolean validateXml(MddfTarget target) {
 		String xsdFile = XsdValidation.defaultRsrcLoc + "delivery-v" + deliverySchemaVer + ".xsd";
-		curFileIsValid = xsdHelper.validateXml(target, xsdFile, logMsgSrcId);
+		curFileIsValid = xsdHelper.validateXml(target, xsdFile, logMsgSrcId, validateC);
 		return curFileIsValid;
 	}
 
@@ -172,9 +179,13 @@ public class AodValidator extends CMValidator implements IssueLogger {
 		validateNotEmpty(aodSchema);
 
 		// Now do anything defined in AOD spec..
+		PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_VOCAB);
 		validateDeliveryVocab();
+		endPhase(timer);
 
+		timer = startPhase(PhaseMetrics.PHASE_USAGE);
 		validateUsage();
+		endPhase(timer);
 	}
 
 	/**
@@ -51,6 +51,7 @@ public class DefaultLogging implements LogMgmt {
 	private String previousContext = null;
 	protected int minLevel = LogMgmt.LEV_WARN;
 	protected boolean printToConsole = false;
+	protected boolean echoInfo = true;
 	protected boolean infoIncluded;
 	private LogEntryFolder curLoggingFolder;
 	private LogEntryFolder curDefaultFolder = new LogEntryFolder("DefaultFolder", -1, "fooBar");
@@ -184,7 +185,7 @@ public class DefaultLogging implements LogMgmt {
 		entryList.add(entryNode);
 		if (printToConsole) {
 			entryNode.print();
-		} else if (level == LogMgmt.LEV_INFO) {
+		} else if ((level == LogMgmt.LEV_INFO) && echoInfo) {
 			System.out.println(msg);
 		}
 	}
@@ -374,6 +375,25 @@ public class DefaultLogging implements LogMgmt {
 
 	}
 
+	/**
+	 * Return all entries in the sequence they were logged.
+	 * 
+	 * @return
+	 */
+	public List<LogEntryNode> getEntries() {
+		return entryList;
+	}
+
+	/**
+	 * If <tt>false</tt>, entries with a level of <tt>LogMgmt.LEV_INFO</tt> are no
+	 * longer echoed to <tt>System.out</tt> (default is <tt>true</tt>).
+	 * 
+	 * @param echoInfo
+	 */
+	public void setEchoInfo(boolean echoInfo) {
+		this.echoInfo = echoInfo;
+	}
+
 	/**
 	 * @param printToConsole the printToConsole to set
 	 */
@@ -362,6 +362,14 @@ public class LogEntryNode extends LogEntry {
 		}
 	}
 
+	/**
+	 * @return the <tt>LogReference</tt> associated with this entry or
+	 *         <tt>null</tt>
+	 */
+	public LogReference getSrcRef() {
+		return srcRef;
+	}
+
 	/**
 	 * Return the URI for the reference (i.e., citation) associated with this
 	 * entry. If no reference is associated with the entry and empty string is
@@ -168,6 +168,19 @@ public interface LogMgmt extends IssueLogger {
 		return -1;
 	}
 
+	/**
+	 * @param tagAsText
+	 * @return
+	 */
+	public static int text2Tag(String tagAsText) {
+		for (int i = 0; i < logTags.length; i++) {
+			if (logTags[i].equals(tagAsText)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	/**
 	 * Returns the <tt>folderKey</tt> for the targeted file. Key is generated using
 	 * the processing hierarchy indicated by the sequence of 'parent' MddfTargets.
@@ -0,0 +1,48 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.logging;
+
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+/**
+ * Receives the <tt>PhaseMetrics</tt> collected by a validator as each phase of
+ * the validation of a file is completed. Phases may be nested (e.g., the
+ * evaluation of each structure rule is a phase within the <i>Usage</i> phase
+ * which is, in turn, within the <i>Constraints</i> phase).
+ * <p>
+ * Implementations should expect to be invoked from multiple threads when files
+ * are validated concurrently.
+ * </p>
+ * 
+ * @see MetricsSummary
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public interface MetricsListener {
+
+	/**
+	 * @param target  the file being validated
+	 * @param metrics
+	 */
+	public void phaseCompleted(MddfTarget target, PhaseMetrics metrics);
+
+}
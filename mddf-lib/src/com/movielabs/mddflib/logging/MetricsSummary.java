@@ -0,0 +1,180 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.logging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+/**
+ * A <tt>MetricsListener</tt> that accumulates the totals for each phase of
+ * each type of validator across all files. For each phase the slowest file is
+ * also identified. The totals may be added to a log via
+ * <tt>logSummary()</tt>.
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class MetricsSummary implements MetricsListener {
+
+	/**
+	 * The accumulated metrics for a single phase.
+	 */
+	public static class PhaseTotals {
+		private final String validatorId;
+		private final String phase;
+		private int count = 0;
+		private long wallNanos = 0;
+		private long allocatedBytes = 0;
+		private long elementCount = 0;
+		private long maxWallNanos = -1;
+		private String slowestFile = null;
+
+		private PhaseTotals(String validatorId, String phase) {
+			this.validatorId = validatorId;
+			this.phase = phase;
+		}
+
+		private synchronized void add(MddfTarget target, PhaseMetrics metrics) {
+			count++;
+			wallNanos = wallNanos + metrics.getWallNanos();
+			if (metrics.getAllocatedBytes() > 0) {
+				allocatedBytes = allocatedBytes + metrics.getAllocatedBytes();
+			}
+			if (metrics.getElementCount() > 0) {
+				elementCount = elementCount + metrics.getElementCount();
+			}
+			if (metrics.getWallNanos() > maxWallNanos) {
+				maxWallNanos = metrics.getWallNanos();
+				if ((target != null) && (target.getSrcFile() != null)) {
+					slowestFile = target.getSrcFile().getName();
+				}
+			}
+		}
+
+		public String getValidatorId() {
+			return validatorId;
+		}
+
+		public String getPhase() {
+			return phase;
+		}
+
+		public synchronized int getCount() {
+			return count;
+		}
+
+		public synchronized long getWallNanos() {
+			return wallNanos;
+		}
+
+		public synchronized long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		public synchronized long getElementCount() {
+			return elementCount;
+		}
+
+		public synchronized long getMaxWallNanos() {
+			return maxWallNanos;
+		}
+
+		/**
+		 * @return name of the file with the longest wall time for the phase
+		 */
+		public synchronized String getSlowestFile() {
+			return slowestFile;
+		}
+
+		public synchronized String toString() {
+			return validatorId + "/" + phase + ": " + count + " run(s), "
+					+ String.format("%.3f ms total, %.3f ms max", wallNanos / 1000000.0, maxWallNanos / 1000000.0)
+					+ ", " + (allocatedBytes / 1024) + " KB, " + elementCount + " elements";
+		}
+	}
+
+	private final ConcurrentHashMap<String, PhaseTotals> totals = new ConcurrentHashMap<String, PhaseTotals>();
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.movielabs.mddflib.logging.MetricsListener#phaseCompleted(com.movielabs.
+	 * mddflib.util.xml.MddfTarget, com.movielabs.mddflib.logging.PhaseMetrics)
+	 */
+	@Override
+	public void phaseCompleted(MddfTarget target, PhaseMetrics metrics) {
+		String key = metrics.getValidatorId() + "/" + metrics.getPhase();
+		PhaseTotals phaseTotals = totals.get(key);
+		if (phaseTotals == null) {
+			PhaseTotals newTotals = new PhaseTotals(metrics.getValidatorId(), metrics.getPhase());
+			phaseTotals = totals.putIfAbsent(key, newTotals);
+			if (phaseTotals == null) {
+				phaseTotals = newTotals;
+			}
+		}
+		phaseTotals.add(target, metrics);
+	}
+
+	/**
+	 * Return the totals for all phases ordered by decreasing total wall time.
+	 * 
+	 * @return
+	 */
+	public List<PhaseTotals> getTotals() {
+		List<PhaseTotals> totalsList = new ArrayList<PhaseTotals>(totals.values());
+		Collections.sort(totalsList, new Comparator<PhaseTotals>() {
+			@Override
+			public int compare(PhaseTotals t1, PhaseTotals t2) {
+				return Long.compare(t2.getWallNanos(), t1.getWallNanos());
+			}
+		});
+		return totalsList;
+	}
+
+	/**
+	 * Add an <tt>LEV_INFO</tt> entry for each phase to the <tt>logger</tt>. The
+	 * entries are ordered by decreasing total wall time.
+	 * 
+	 * @param logger
+	 * @param moduleId
+	 */
+	public void logSummary(LogMgmt logger, String moduleId) {
+		for (PhaseTotals phaseTotals : getTotals()) {
+			String details = null;
+			if (phaseTotals.getSlowestFile() != null) {
+				details = "Slowest file: " + phaseTotals.getSlowestFile();
+			}
+			logger.log(LogMgmt.LEV_INFO, LogMgmt.TAG_N_A, "Metrics " + phaseTotals.toString(), null, null, moduleId,
+					details, null);
+		}
+	}
+
+	public void clear() {
+		totals.clear();
+	}
+}
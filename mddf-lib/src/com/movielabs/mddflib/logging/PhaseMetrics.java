@@ -0,0 +1,209 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.logging;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The resources used by a single phase of a validation. These are:
+ * <ul>
+ * <li>the elapsed (i.e., wall-clock) time,</li>
+ * <li>the number of bytes allocated by the thread performing the phase. This
+ * is only available when supported by the JVM and will otherwise be -1,
+ * and</li>
+ * <li>the number of elements processed. For phases that apply to the entire
+ * document (e.g., XSD validation) this is the number of elements in the
+ * document. For a structure rule it is the number of elements matched by the
+ * rule's <tt>targetPath</tt> (including those of any nested rules).</li>
+ * </ul>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class PhaseMetrics {
+
+	public static final String PHASE_XSD = "XSD";
+	public static final String PHASE_CONSTRAINTS = "Constraints";
+	public static final String PHASE_VOCAB = "Vocab";
+	public static final String PHASE_USAGE = "Usage";
+	/*
+	 * Sub-phases of the constraint and usage validations.
+	 */
+	public static final String PHASE_ID_SET = "IdSet";
+	public static final String PHASE_COUNTRIES = "Countries";
+	public static final String PHASE_LANGUAGES = "Languages";
+	public static final String PHASE_CURRENCIES = "Currencies";
+	public static final String PHASE_RATINGS = "Ratings";
+	public static final String PHASE_DIGITAL_ASSETS = "DigitalAssets";
+	public static final String PHASE_LOCATIONS = "Locations";
+	public static final String PHASE_XREFS = "Xrefs";
+	public static final String PHASE_METADATA = "Metadata";
+	/**
+	 * Prefix for phases corresponding to a single structure rule. The suffix is
+	 * the rule's key in the <tt>StrucRqmts</tt>.
+	 */
+	public static final String PHASE_STRUCTURE = "Structure:";
+
+	/**
+	 * Measures the resources used by the current thread between the creation of
+	 * the <tt>Timer</tt> and the first invocation of <tt>stop()</tt>.
+	 */
+	public static class Timer {
+		private final String validatorId;
+		private final String phase;
+		private final long startNanos;
+		private final long startBytes;
+		private long wallNanos = -1;
+		private long allocatedBytes = -1;
+
+		private Timer(String validatorId, String phase) {
+			this.validatorId = validatorId;
+			this.phase = phase;
+			this.startBytes = allocatedBytes();
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * Stop measuring. Subsequent invocations have no effect.
+		 */
+		public void stop() {
+			if (wallNanos >= 0) {
+				return;
+			}
+			wallNanos = System.nanoTime() - startNanos;
+			if (startBytes >= 0) {
+				allocatedBytes = allocatedBytes() - startBytes;
+			}
+		}
+
+		/**
+		 * Stop measuring (if not already stopped) and return the results.
+		 * 
+		 * @param elementCount
+		 * @return
+		 */
+		public PhaseMetrics getMetrics(int elementCount) {
+			stop();
+			return new PhaseMetrics(validatorId, phase, wallNanos, allocatedBytes, elementCount);
+		}
+
+		public String getPhase() {
+			return phase;
+		}
+	}
+
+	private static final com.sun.management.ThreadMXBean threadBean;
+
+	static {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if ((bean instanceof com.sun.management.ThreadMXBean)
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			threadBean = (com.sun.management.ThreadMXBean) bean;
+		} else {
+			threadBean = null;
+		}
+	}
+
+	private final String validatorId;
+	private final String phase;
+	private final long wallNanos;
+	private final long allocatedBytes;
+	private final int elementCount;
+
+	/**
+	 * Start measuring a phase being executed by the current thread.
+	 * 
+	 * @param validatorId
+	 * @param phase
+	 * @return
+	 */
+	public static Timer startTimer(String validatorId, String phase) {
+		return new Timer(validatorId, phase);
+	}
+
+	private static long allocatedBytes() {
+		if ((threadBean == null) || !threadBean.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * @param validatorId
+	 * @param phase
+	 * @param wallNanos
+	 * @param allocatedBytes
+	 * @param elementCount
+	 */
+	public PhaseMetrics(String validatorId, String phase, long wallNanos, long allocatedBytes, int elementCount) {
+		this.validatorId = validatorId;
+		this.phase = phase;
+		this.wallNanos = wallNanos;
+		this.allocatedBytes = allocatedBytes;
+		this.elementCount = elementCount;
+	}
+
+	/**
+	 * @return the ID of the validator (e.g., <tt>ManifestValidator</tt>)
+	 */
+	public String getValidatorId() {
+		return validatorId;
+	}
+
+	public String getPhase() {
+		return phase;
+	}
+
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * @return bytes allocated or -1 if not supported by the JVM
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return elements processed or -1 if unknown
+	 */
+	public int getElementCount() {
+		return elementCount;
+	}
+
+	/**
+	 * Returns a summary such as '<tt>XSD: 12.345 ms, 1024 KB, 512 elements</tt>'
+	 */
+	public String toString() {
+		StringBuilder sb = new StringBuilder(phase);
+		sb.append(": ").append(String.format("%.3f ms", wallNanos / 1000000.0));
+		if (allocatedBytes >= 0) {
+			sb.append(", ").append(allocatedBytes / 1024).append(" KB");
+		}
+		if (elementCount >= 0) {
+			sb.append(", ").append(elementCount).append(" elements");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,731 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.logging;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.poi.ss.usermodel.Cell;
+
+import com.movielabs.mddflib.util.StringUtils;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+/**
+ * A <tt>LogMgmt</tt> implementation that writes each entry to an output stream
+ * at the time it is logged rather than retaining it in memory until the log is
+ * saved. This bounds the memory used for logging when processing files that
+ * generate very large numbers of entries (e.g., a badly formed Avails).
+ * <p>
+ * Two formats are supported:
+ * </p>
+ * <ul>
+ * <li><tt>csv</tt>: the same columns and encoding used by
+ * <tt>DefaultLogging.saveAs()</tt>, and</li>
+ * <li><tt>jsonl</tt>: one JSON object per line (i.e., JSON-lines).</li>
+ * </ul>
+ * <p>
+ * The only information about the entries that is retained is a count for each
+ * combination of level and tag and, optionally, a <i>sample</i> consisting of
+ * the first <tt>sampleCap</tt> entries. The <tt>LogEntryFolder</tt> assigned to
+ * each file is used only to identify the source of an entry and never has any
+ * entries added to it.
+ * </p>
+ * <p>
+ * Instances are thread-safe. The file context is maintained on a per-thread
+ * basis. Since the output has already been written, <tt>clearLog()</tt>
+ * resets only the counts and sample.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class StreamingLogging implements LogMgmt {
+
+	public static final String FMT_CSV = "csv";
+	public static final String FMT_JSONL = "jsonl";
+
+	/**
+	 * The file context(s) associated with a single thread.
+	 */
+	private static class FileContext {
+		private Deque<String> keyStack = new ArrayDeque<String>();
+		private Deque<LogEntryFolder> folderStack = new ArrayDeque<LogEntryFolder>();
+		private String previousContext = null;
+	}
+
+	private final Object writeLock = new Object();
+	private final Object rootLock = new Object();
+	private final String format;
+	private final File outFile;
+	private final int sampleCap;
+	private final ThreadLocal<FileContext> fileContext = new ThreadLocal<FileContext>() {
+		@Override
+		protected FileContext initialValue() {
+			return new FileContext();
+		}
+	};
+	private Writer writer;
+	private volatile IOException writeFailure = null;
+	private final StringBuilder rowBuilder = new StringBuilder(256);
+	private int seqNum = 0;
+	private volatile LogEntryFolder rootLogNode;
+	private volatile LogEntryFolder toolFolder;
+	private volatile ConcurrentHashMap<String, LogEntryFolder> fileFolders;
+	private volatile AtomicLongArray counts;
+	private volatile List<LogEntryNode> sample;
+	protected volatile int minLevel = LogMgmt.LEV_WARN;
+	protected volatile boolean printToConsole = false;
+	protected volatile boolean echoInfo = true;
+	protected volatile boolean infoIncluded;
+
+	/**
+	 * Stream entries to a file. If the name of the <tt>outFile</tt> does not end
+	 * with the suffix for the <tt>format</tt>, one will be added.
+	 * 
+	 * @param outFile
+	 * @param format    either <tt>csv</tt> or <tt>jsonl</tt>
+	 * @param sampleCap max number of entries to retain (may be 0)
+	 * @throws IOException
+	 */
+	public StreamingLogging(File outFile, String format, int sampleCap) throws IOException {
+		checkFormat(format);
+		this.format = format;
+		this.outFile = addSuffix(outFile, "." + format);
+		this.sampleCap = sampleCap;
+		Writer fileWriter = new OutputStreamWriter(new FileOutputStream(this.outFile), StandardCharsets.UTF_8);
+		init(new BufferedWriter(fileWriter));
+	}
+
+	/**
+	 * Stream entries to a <tt>Writer</tt>. The <tt>writer</tt> is closed when
+	 * this logger is closed.
+	 * 
+	 * @param writer
+	 * @param format    either <tt>csv</tt> or <tt>jsonl</tt>
+	 * @param sampleCap max number of entries to retain (may be 0)
+	 * @throws IOException
+	 */
+	public StreamingLogging(Writer writer, String format, int sampleCap) throws IOException {
+		checkFormat(format);
+		this.format = format;
+		this.outFile = null;
+		this.sampleCap = sampleCap;
+		init(writer);
+	}
+
+	private static void checkFormat(String format) {
+		if (!(FMT_CSV.equals(format) || FMT_JSONL.equals(format))) {
+			throw new IllegalArgumentException("Unsupported format '" + format + "'");
+		}
+	}
+
+	private void init(Writer writer) throws IOException {
+		this.writer = writer;
+		clearLog();
+		if (format.equals(FMT_CSV)) {
+			/* first row has column names */
+			String colSep = LogEntryNode.colSep;
+			rowBuilder.append(LogEntryNode.DEFAULT_COL_NAMES[0]);
+			for (int i = 1; i < LogEntryNode.DEFAULT_COL_NAMES.length; i++) {
+				rowBuilder.append(colSep).append(LogEntryNode.DEFAULT_COL_NAMES[i]);
+			}
+			/*
+			 * 'Notes' is special case for the tooltip (a.k.a 'added detail' or
+			 * 'drill-down')
+			 */
+			rowBuilder.append(colSep).append("Notes").append('\n');
+			writer.write(rowBuilder.toString());
+			rowBuilder.setLength(0);
+		}
+	}
+
+	/**
+	 * Return the folder entries should go to when the caller has not identified a
+	 * file. This is whatever is at the top of the current thread's context stack
+	 * or, if the stack is empty, the Validator's own folder.
+	 * 
+	 * @return
+	 */
+	private LogEntryFolder getContextFolder() {
+		LogEntryFolder folder = fileContext.get().folderStack.peek();
+		if (folder == null) {
+			folder = toolFolder;
+		}
+		return folder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.movielabs.mddflib.logging.IssueLogger#logIssue(int, int,
+	 * java.lang.Object, java.lang.String, java.lang.String,
+	 * com.movielabs.mddflib.logging.LogReference, java.lang.String)
+	 */
+	@Override
+	public void logIssue(int tag, int level, Object target, String msg, String explanation, LogReference srcRef,
+			String moduleId) {
+		int lineNum = LogMgmt.resolveLineNumber(target);
+		explanation = addColumnPrefix(target, explanation);
+		append(level, tag, msg, (LogEntryFolder) null, lineNum, moduleId, explanation, srcRef);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.movielabs.mddflib.logging.IssueLogger#logIssue(int, int,
+	 * java.lang.Object, com.movielabs.mddflib.logging.LogEntryFolder,
+	 * java.lang.String, java.lang.String,
+	 * com.movielabs.mddflib.logging.LogReference, java.lang.String)
+	 */
+	@Override
+	public void logIssue(int tag, int level, Object targetData, LogEntryFolder logFolder, String msg,
+			String explanation, LogReference srcRef, String moduleId) {
+		int lineNum = LogMgmt.resolveLineNumber(targetData);
+		explanation = addColumnPrefix(targetData, explanation);
+		append(level, tag, msg, logFolder, lineNum, moduleId, explanation, srcRef);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.movielabs.mddflib.logging.LogMgmt#log(int, int, java.lang.String,
+	 * com.movielabs.mddflib.util.xml.MddfTarget, java.lang.String)
+	 */
+	@Override
+	public void log(int level, int tag, String msg, MddfTarget file, String moduleId) {
+		append(level, tag, msg, file, -1, moduleId, null, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.movielabs.mddflib.logging.LogMgmt#log(int, int, java.lang.String,
+	 * com.movielabs.mddflib.util.xml.MddfTarget, java.lang.Object,
+	 * java.lang.String, java.lang.String,
+	 * com.movielabs.mddflib.logging.LogReference)
+	 */
+	@Override
+	public void log(int level, int tag, String msg, MddfTarget file, Object targetData, String moduleId,
+			String explanation, LogReference srcRef) {
+		int lineNum = LogMgmt.resolveLineNumber(targetData);
+		explanation = addColumnPrefix(targetData, explanation);
+		append(level, tag, msg, file, lineNum, moduleId, explanation, srcRef);
+	}
+
+	/**
+	 * Prefix an 'explanation' with column ID (e.g., 'X', 'AA') when the target
+	 * is a spreadsheet <tt>Cell</tt>.
+	 * 
+	 * @param targetData
+	 * @param explanation
+	 * @return
+	 */
+	private String addColumnPrefix(Object targetData, String explanation) {
+		if (targetData instanceof Cell) {
+			int colNum = ((Cell) targetData).getColumnIndex();
+			String prefix = "Column " + LogMgmt.mapColNum(colNum);
+			if ((explanation == null) || (explanation.isEmpty())) {
+				explanation = prefix;
+			} else {
+				explanation = prefix + ": " + explanation;
+			}
+		}
+		return explanation;
+	}
+
+	protected void append(int level, int tag, String msg, MddfTarget target, int line, String moduleID, String details,
+			LogReference srcRef) {
+		LogEntryFolder logFolder = null;
+		if (target != null) {
+			logFolder = target.getLogFolder();
+		}
+		append(level, tag, msg, logFolder, line, moduleID, details, srcRef);
+	}
+
+	protected void append(int level, int tag, String msg, LogEntryFolder fileFolder, int line, String moduleID,
+			String details, LogReference srcRef) {
+		if (level < minLevel) {
+			return;
+		}
+		if (msg == null) {
+			throw new IllegalArgumentException("NULL msg argument");
+		}
+		if (fileFolder == null) {
+			fileFolder = getContextFolder();
+		}
+		File srcFile = fileFolder.getFile();
+		counts.incrementAndGet((level * LogMgmt.logTags.length) + tag);
+		int entryNum;
+		synchronized (writeLock) {
+			entryNum = seqNum++;
+			if (format.equals(FMT_CSV)) {
+				appendCsv(entryNum, level, tag, msg, srcFile, line, details, srcRef);
+			} else {
+				appendJson(entryNum, level, tag, msg, srcFile, line, moduleID, details, srcRef);
+			}
+			try {
+				if (writeFailure == null) {
+					writer.write(rowBuilder.toString());
+				}
+			} catch (IOException e) {
+				/*
+				 * Validation should not be aborted because the log can't be written. The
+				 * failure is recorded and no further writes are attempted. Entries are
+				 * still counted and sampled.
+				 */
+				writeFailure = e;
+				System.err.println("StreamingLogging: unable to write log entry, output disabled: " + e.getMessage());
+			} finally {
+				rowBuilder.setLength(0);
+			}
+		}
+		List<LogEntryNode> curSample = sample;
+		boolean keep = false;
+		if (curSample.size() < sampleCap) {
+			synchronized (curSample) {
+				keep = curSample.size() < sampleCap;
+			}
+		}
+		if (keep || printToConsole) {
+			/* a detached tag folder so the entry is not retained by the file's folder */
+			LogEntryFolder tagNode = new LogEntryFolder(LogMgmt.logTags[tag], level);
+			LogEntryNode entryNode = new LogEntryNode(level, tagNode, msg, fileFolder, line, moduleID, entryNum,
+					details, srcRef);
+			if (keep) {
+				synchronized (curSample) {
+					if (curSample.size() < sampleCap) {
+						curSample.add(entryNode);
+					}
+				}
+			}
+			if (printToConsole) {
+				entryNode.print();
+			}
+		}
+		if (!printToConsole && (level == LogMgmt.LEV_INFO) && echoInfo) {
+			System.out.println(msg);
+		}
+	}
+
+	/**
+	 * Generate a row equivalent to that produced by
+	 * <tt>LogEntryNode.toCSV()</tt>.
+	 */
+	private void appendCsv(int entryNum, int level, int tag, String msg, File srcFile, int line, String details,
+			LogReference srcRef) {
+		String colSep = LogEntryNode.colSep;
+		rowBuilder.append(entryNum).append(colSep);
+		rowBuilder.append(LogMgmt.logLevels[level]).append(colSep);
+		rowBuilder.append(LogMgmt.logTags[tag]).append(colSep);
+		rowBuilder.append(StringUtils.escapeCommas(msg)).append(colSep);
+		rowBuilder.append((srcFile == null) ? null : srcFile.getName()).append(colSep);
+		if (line < 0) {
+			rowBuilder.append(' ');
+		} else {
+			rowBuilder.append(line);
+		}
+		rowBuilder.append(colSep);
+		String reference = (srcRef == null) ? "" : srcRef.getLabel();
+		rowBuilder.append(StringUtils.escapeCommas(reference)).append(colSep);
+		if (details != null && !details.isEmpty() && !details.equalsIgnoreCase(msg)) {
+			rowBuilder.append(details);
+		} else {
+			rowBuilder.append(' ');
+		}
+		rowBuilder.append(colSep);
+		rowBuilder.append((srcFile == null) ? null : srcFile.getAbsolutePath()).append('\n');
+	}
+
+	private void appendJson(int entryNum, int level, int tag, String msg, File srcFile, int line, String moduleID,
+			String details, LogReference srcRef) {
+		rowBuilder.append("{\"num\":").append(entryNum);
+		appendJsonField("level", LogMgmt.logLevels[level]);
+		appendJsonField("tag", LogMgmt.logTags[tag]);
+		appendJsonField("summary", msg);
+		if (srcFile != null) {
+			appendJsonField("file", srcFile.getName());
+			appendJsonField("path", srcFile.getAbsolutePath());
+		}
+		if (line >= 0) {
+			rowBuilder.append(",\"line\":").append(line);
+		}
+		appendJsonField("module", moduleID);
+		if (srcRef != null) {
+			appendJsonField("reference", srcRef.getLabel());
+			appendJsonField("referenceUri", srcRef.getUri());
+		}
+		if (details != null && !details.isEmpty() && !details.equalsIgnoreCase(msg)) {
+			appendJsonField("details", details);
+		}
+		rowBuilder.append("}\n");
+	}
+
+	private void appendJsonField(String name, String value) {
+		if (value == null) {
+			return;
+		}
+		rowBuilder.append(",\"").append(name).append("\":\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				rowBuilder.append("\\\"");
+				break;
+			case '\\':
+				rowBuilder.append("\\\\");
+				break;
+			case '\n':
+				rowBuilder.append("\\n");
+				break;
+			case '\r':
+				rowBuilder.append("\\r");
+				break;
+			case '\t':
+				rowBuilder.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					rowBuilder.append(String.format("\\u%04x", (int) c));
+				} else {
+					rowBuilder.append(c);
+				}
+			}
+		}
+		rowBuilder.append('"');
+	}
+
+	/**
+	 * Return the <tt>LogEntryFolder</tt> for the <tt>target</tt>. Folders are
+	 * created on first use and shared by all targets with the same <i>key</i>.
+	 * 
+	 * @see com.movielabs.mddflib.logging.LogMgmt#assignFileFolder(com.movielabs.mddflib.util.xml.MddfTarget)
+	 */
+	@Override
+	public LogEntryFolder assignFileFolder(MddfTarget target) {
+		String key = LogMgmt.genFolderKey(target);
+		if (key.equals(LogMgmt.DEFAULT_TOOL_FOLDER_KEY)) {
+			return toolFolder;
+		}
+		LogEntryFolder folder = fileFolders.get(key);
+		if (folder == null) {
+			LogEntryFolder newFolder = new LogEntryFolder(target.getSrcFile().getName(), -1, key);
+			newFolder.setFile(target);
+			folder = fileFolders.putIfAbsent(key, newFolder);
+			if (folder == null) {
+				folder = newFolder;
+				synchronized (rootLock) {
+					rootLogNode.add(folder);
+				}
+			}
+		}
+		return folder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.movielabs.mddflib.logging.LogMgmt#setCurrentFile(java.io.File,
+	 * boolean)
+	 */
+	public void setCurrentFile(File targetFile, boolean clear) {
+		throw new UnsupportedOperationException();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.movielabs.mddflib.logging.LogMgmt#pushFileContext(com.movielabs.mddflib.
+	 * util.xml.MddfTarget)
+	 */
+	@Override
+	public LogEntryFolder pushFileContext(MddfTarget target) {
+		FileContext context = fileContext.get();
+		String key = target.getKey();
+		/*
+		 * first eliminate redundant pushes
+		 */
+		if ((!context.keyStack.isEmpty()) && key.equals(context.keyStack.peek())) {
+			return context.folderStack.peek();
+		}
+		LogEntryFolder folder = target.getLogFolder();
+		if (folder == null) {
+			folder = assignFileFolder(target);
+		}
+		context.keyStack.push(key);
+		context.folderStack.push(folder);
+		return folder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.movielabs.mddflib.logging.LogMgmt#popFileContext(com.movielabs.mddflib.
+	 * util.xml.MddfTarget)
+	 */
+	@Override
+	public void popFileContext(MddfTarget assumedTopTarget) {
+		FileContext context = fileContext.get();
+		if (context.keyStack.isEmpty()) {
+			// S/W error
+			return;
+		}
+		String curContextKey = context.keyStack.peek();
+		String assumedKey = assumedTopTarget.getKey();
+		if (!assumedKey.equals(curContextKey)) {
+			/*
+			 * check for redundant 'pop'. These get ignored same way we ignore redundant
+			 * push.
+			 */
+			if (assumedKey.equals(context.previousContext)) {
+				return;
+			}
+			// something is out of wack
+			throw new IllegalStateException("ContextStack not popped.... file mis-match (current top: "
+					+ context.folderStack.peek().getLabel() + ", assumed top: "
+					+ assumedTopTarget.getSrcFile().getName());
+		}
+		context.folderStack.pop();
+		context.previousContext = context.keyStack.pop();
+	}
+
+	/**
+	 * Reset the counts and sample. Entries that have already been written are not
+	 * affected.
+	 * 
+	 * @see com.movielabs.mddflib.logging.LogMgmt#clearLog()
+	 */
+	public void clearLog() {
+		synchronized (rootLock) {
+			rootLogNode = new LogEntryFolder("", -1);
+			toolFolder = new LogEntryFolder(LogMgmt.DEFAULT_TOOL_FOLDER_LABEL, -1, LogMgmt.DEFAULT_TOOL_FOLDER_KEY);
+			rootLogNode.add(toolFolder);
+			fileFolders = new ConcurrentHashMap<String, LogEntryFolder>();
+			counts = new AtomicLongArray(LogMgmt.logLevels.length * LogMgmt.logTags.length);
+			sample = new ArrayList<LogEntryNode>();
+		}
+	}
+
+	/**
+	 * Remove any sampled entries associated with the <tt>target</tt>. Entries
+	 * that have already been written, and the counts, are not affected.
+	 * 
+	 * @see com.movielabs.mddflib.logging.LogMgmt#clearLog(com.movielabs.mddflib.util.xml.MddfTarget)
+	 */
+	@Override
+	public void clearLog(MddfTarget target) {
+		LogEntryFolder folder = target.getLogFolder();
+		if (folder == null) {
+			return;
+		}
+		List<LogEntryNode> curSample = sample;
+		synchronized (curSample) {
+			for (int i = curSample.size() - 1; i >= 0; i--) {
+				if (curSample.get(i).getSrcFileNode() == folder) {
+					curSample.remove(i);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Save a copy of the streamed output. Only the format the entries are being
+	 * streamed in is supported and only when the output is a file.
+	 * 
+	 * @param outFile
+	 * @param format
+	 * @throws IOException
+	 */
+	public void saveAs(File outFile, String format) throws IOException {
+		if (!this.format.equals(format) || (this.outFile == null)) {
+			throw new IllegalArgumentException("Unsupported format '" + format + "'");
+		}
+		flush();
+		outFile = addSuffix(outFile, "." + format);
+		if (!outFile.getAbsoluteFile().equals(this.outFile.getAbsoluteFile())) {
+			Files.copy(this.outFile.toPath(), outFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static File addSuffix(File outFile, String suffix) {
+		if (!outFile.getName().endsWith(suffix)) {
+			String fPath = outFile.getAbsolutePath() + suffix;
+			outFile = new File(fPath);
+		}
+		return outFile;
+	}
+
+	/**
+	 * Write any buffered entries to the output.
+	 * 
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		synchronized (writeLock) {
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Flush and close the output. No further entries may be logged.
+	 * 
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		synchronized (writeLock) {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Return the exception that caused the output to be disabled. Once a write has
+	 * failed, entries are still counted and sampled but are no longer written.
+	 * 
+	 * @return the first write failure or <tt>null</tt> if all entries have been
+	 *         written
+	 */
+	public IOException getWriteFailure() {
+		return writeFailure;
+	}
+
+	/**
+	 * @return the file entries are streamed to or <tt>null</tt> if a
+	 *         <tt>Writer</tt> was provided
+	 */
+	public File getOutputFile() {
+		return outFile;
+	}
+
+	/**
+	 * Return the number of entries logged with the specified level and tag.
+	 * 
+	 * @param level
+	 * @param tag
+	 * @return
+	 */
+	public long getCount(int level, int tag) {
+		return counts.get((level * LogMgmt.logTags.length) + tag);
+	}
+
+	/**
+	 * Return the number of entries logged with the specified level.
+	 * 
+	 * @param level
+	 * @return
+	 */
+	public long getCount(int level) {
+		long total = 0;
+		for (int tag = 0; tag < LogMgmt.logTags.length; tag++) {
+			total = total + getCount(level, tag);
+		}
+		return total;
+	}
+
+	/**
+	 * @return the total number of entries logged
+	 */
+	public long getTotalCount() {
+		long total = 0;
+		for (int level = 0; level < LogMgmt.logLevels.length; level++) {
+			total = total + getCount(level);
+		}
+		return total;
+	}
+
+	/**
+	 * Return a snapshot of the sampled entries in the sequence they were logged.
+	 * 
+	 * @return
+	 */
+	public List<LogEntryNode> getSample() {
+		List<LogEntryNode> curSample = sample;
+		synchronized (curSample) {
+			return new ArrayList<LogEntryNode>(curSample);
+		}
+	}
+
+	/**
+	 * If <tt>false</tt>, entries with a level of <tt>LogMgmt.LEV_INFO</tt> are no
+	 * longer echoed to <tt>System.out</tt> (default is <tt>true</tt>).
+	 * 
+	 * @param echoInfo
+	 */
+	public void setEchoInfo(boolean echoInfo) {
+		this.echoInfo = echoInfo;
+	}
+
+	/**
+	 * @param printToConsole the printToConsole to set
+	 */
+	public void setPrintToConsole(boolean printToConsole) {
+		this.printToConsole = printToConsole;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.movielabs.mddflib.logging.LogMgmt#setMinLevel(int)
+	 */
+	@Override
+	public void setMinLevel(int level) {
+		this.minLevel = level;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.movielabs.mddflib.logging.LogMgmt#getMinLevel()
+	 */
+	@Override
+	public int getMinLevel() {
+		return minLevel;
+	}
+
+	/**
+	 * @return the infoIncluded
+	 */
+	public boolean isInfoIncluded() {
+		return infoIncluded;
+	}
+
+	/**
+	 * @param infoIncluded the infoIncluded to set
+	 */
+	public void setInfoIncluded(boolean infoIncluded) {
+		this.infoIncluded = infoIncluded;
+	}
+
+}
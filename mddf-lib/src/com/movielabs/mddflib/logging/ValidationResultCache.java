@@ -0,0 +1,381 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.movielabs.mddf.MddfContext;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+/**
+ * An on-disk cache of the entries logged while validating a file. Partners
+ * will frequently re-deliver Avails or MEC files that have not changed since
+ * the last time they were validated. With a <tt>ValidationResultCache</tt> the
+ * entries logged the first time may be replayed rather than repeating the
+ * validation.
+ * <p>
+ * Results are <i>content addressed</i>. The key is a SHA-256 digest of the
+ * file's bytes combined with the version and build of the mddf-lib and any
+ * <i>qualifiers</i> supplied by the caller. The qualifiers should identify
+ * every setting that can affect the outcome of a validation (e.g., the
+ * profile and which of the schema, constraint, and best-practice checks are
+ * enabled). Renaming or moving a file does not invalidate its result since
+ * any reference to the file's own path is stored as a placeholder that is
+ * resolved when the entries are replayed.
+ * </p>
+ * <p>
+ * Only files whose validation depends solely on their own content should be
+ * cached. A Manifest, for example, may reference external MEC files that can
+ * change independently of the Manifest.
+ * </p>
+ * <p>
+ * Each result is saved as a separate file in the cache directory. Results
+ * that have not been used within <tt>maxAge</tt> milliseconds are deleted.
+ * If the total size of the cache exceeds <tt>maxBytes</tt> the least recently
+ * used results are deleted until it does not. Eviction is performed when the
+ * cache is constructed and periodically as new results are stored.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ValidationResultCache {
+
+	/**
+	 * A single saved log entry.
+	 */
+	private static class Entry {
+		private int level;
+		private int tag;
+		private int line;
+		private String summary;
+		private String tooltip;
+		private String moduleId;
+		private LogReference srcRef;
+	}
+
+	public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+	public static final long DEFAULT_MAX_AGE = 30L * 24 * 60 * 60 * 1000;
+
+	/**
+	 * Change whenever the layout of a stored result is modified.
+	 */
+	private static final int FORMAT_VERSION = 1;
+	private static final String SUFFIX = ".vrc";
+	private static final String SRC_PATH_TOKEN = "${srcFile}";
+	private static final int EVICTION_INTERVAL = 50;
+
+	private final File cacheDir;
+	private final long maxBytes;
+	private final long maxAge;
+	private final AtomicInteger hitCnt = new AtomicInteger();
+	private final AtomicInteger missCnt = new AtomicInteger();
+	private final AtomicInteger storeCnt = new AtomicInteger();
+
+	/**
+	 * Construct a cache using the default size and age limits.
+	 * 
+	 * @param cacheDir
+	 * @throws IOException
+	 */
+	public ValidationResultCache(File cacheDir) throws IOException {
+		this(cacheDir, DEFAULT_MAX_BYTES, DEFAULT_MAX_AGE);
+	}
+
+	/**
+	 * @param cacheDir directory the results are saved in
+	 * @param maxBytes upper limit on the total size of all saved results
+	 * @param maxAge   milliseconds a result may go unused before it is deleted
+	 * @throws IOException if the <tt>cacheDir</tt> can not be created
+	 */
+	public ValidationResultCache(File cacheDir, long maxBytes, long maxAge) throws IOException {
+		if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+			throw new IOException("Unable to create cache directory " + cacheDir.getPath());
+		}
+		this.cacheDir = cacheDir;
+		this.maxBytes = maxBytes;
+		this.maxAge = maxAge;
+		evict();
+	}
+
+	/**
+	 * Return the key identifying the results of validating the <tt>srcFile</tt>
+	 * in the context indicated by the <tt>qualifiers</tt>.
+	 * 
+	 * @param srcFile
+	 * @param qualifiers the settings that affect the outcome of the validation
+	 * @return
+	 * @throws IOException
+	 */
+	public String getKey(File srcFile, String... qualifiers) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		StringBuilder context = new StringBuilder();
+		context.append(FORMAT_VERSION);
+		Properties mddfLibProps = MddfContext.getProperties();
+		if (mddfLibProps != null) {
+			context.append('|').append(mddfLibProps.getProperty("mddf.lib.version"));
+			context.append('|').append(mddfLibProps.getProperty("mddf.lib.build"));
+		}
+		for (String next : qualifiers) {
+			context.append('|').append(next);
+		}
+		context.append('\n');
+		digest.update(context.toString().getBytes(StandardCharsets.UTF_8));
+		byte[] buffer = new byte[8192];
+		try (InputStream in = new FileInputStream(srcFile)) {
+			int cnt;
+			while ((cnt = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, cnt);
+			}
+		}
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * Log the entries saved for the <tt>key</tt>. The entries are associated with
+	 * the <tt>target</tt>.
+	 * 
+	 * @param key
+	 * @param logger
+	 * @param target
+	 * @return <tt>true</tt> if a result was found and replayed
+	 */
+	public boolean replay(String key, LogMgmt logger, MddfTarget target) {
+		File resultFile = getResultFile(key);
+		long now = System.currentTimeMillis();
+		if (!resultFile.isFile() || (now - resultFile.lastModified() > maxAge)) {
+			missCnt.incrementAndGet();
+			return false;
+		}
+		List<Entry> entries = new ArrayList<Entry>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(resultFile)))) {
+			if (in.readInt() != FORMAT_VERSION) {
+				throw new IOException("Unsupported format");
+			}
+			int entryCnt = in.readInt();
+			for (int i = 0; i < entryCnt; i++) {
+				Entry entry = new Entry();
+				entry.level = in.readInt();
+				entry.tag = LogMgmt.text2Tag(readString(in));
+				entry.line = in.readInt();
+				entry.summary = readString(in);
+				entry.tooltip = readString(in);
+				entry.moduleId = readString(in);
+				String label = readString(in);
+				String uri = readString(in);
+				if ((label != null) || (uri != null)) {
+					entry.srcRef = new LogReference(label, uri);
+				}
+				entries.add(entry);
+			}
+		} catch (IOException e) {
+			// corrupted or truncated so discard it
+			resultFile.delete();
+			missCnt.incrementAndGet();
+			return false;
+		}
+		String srcPath = target.getSrcFile().getPath();
+		for (Entry entry : entries) {
+			String summary = resolve(entry.summary, srcPath);
+			String tooltip = resolve(entry.tooltip, srcPath);
+			logger.log(entry.level, entry.tag, summary, target, entry.line, entry.moduleId, tooltip, entry.srcRef);
+		}
+		resultFile.setLastModified(now);
+		hitCnt.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Save the entries logged while validating the <tt>srcFile</tt>.
+	 * 
+	 * @param key     as returned by <tt>getKey()</tt>
+	 * @param entries
+	 * @param srcFile
+	 * @throws IOException
+	 */
+	public void store(String key, List<LogEntryNode> entries, File srcFile) throws IOException {
+		String[] srcPaths = { srcFile.getAbsolutePath(), srcFile.getPath() };
+		File tmpFile = File.createTempFile("vrc", ".tmp", cacheDir);
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(entries.size());
+				for (LogEntryNode entry : entries) {
+					out.writeInt(entry.getLevel());
+					writeString(out, entry.getTagAsText());
+					out.writeInt(entry.getLine());
+					writeString(out, generalize(entry.getSummary(), srcPaths));
+					writeString(out, generalize(entry.getTooltip(), srcPaths));
+					writeString(out, entry.getModuleID());
+					LogReference srcRef = entry.getSrcRef();
+					writeString(out, (srcRef == null) ? null : srcRef.getLabel());
+					writeString(out, (srcRef == null) ? null : srcRef.getUri());
+				}
+			}
+			Files.move(tmpFile.toPath(), getResultFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			tmpFile.delete();
+		}
+		if (storeCnt.incrementAndGet() % EVICTION_INTERVAL == 0) {
+			evict();
+		}
+	}
+
+	/**
+	 * Delete all results that have not been used within the maximum age and then,
+	 * if the cache is still larger than the maximum size, the least recently used
+	 * results.
+	 */
+	public synchronized void evict() {
+		File[] resultFiles = cacheDir.listFiles(new FileFilter() {
+			public boolean accept(File file) {
+				return file.isFile() && file.getName().endsWith(SUFFIX);
+			}
+		});
+		if (resultFiles == null) {
+			return;
+		}
+		long cutoff = System.currentTimeMillis() - maxAge;
+		long[] lastUsed = new long[resultFiles.length];
+		for (int i = 0; i < resultFiles.length; i++) {
+			lastUsed[i] = resultFiles[i].lastModified();
+		}
+		Integer[] order = new Integer[resultFiles.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer i1, Integer i2) {
+				return Long.compare(lastUsed[i1], lastUsed[i2]);
+			}
+		});
+		long totalBytes = 0;
+		for (File next : resultFiles) {
+			totalBytes += next.length();
+		}
+		for (Integer i : order) {
+			File next = resultFiles[i];
+			if ((lastUsed[i] < cutoff) || (totalBytes > maxBytes)) {
+				long size = next.length();
+				if (next.delete()) {
+					totalBytes -= size;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of successful calls to <tt>replay()</tt>
+	 */
+	public int getHitCount() {
+		return hitCnt.get();
+	}
+
+	/**
+	 * @return the number of calls to <tt>replay()</tt> that found no usable
+	 *         result
+	 */
+	public int getMissCount() {
+		return missCnt.get();
+	}
+
+	/**
+	 * @return the cacheDir
+	 */
+	public File getCacheDir() {
+		return cacheDir;
+	}
+
+	private File getResultFile(String key) {
+		return new File(cacheDir, key + SUFFIX);
+	}
+
+	private static String generalize(String text, String[] srcPaths) {
+		if (text == null) {
+			return null;
+		}
+		for (String srcPath : srcPaths) {
+			if (!srcPath.isEmpty()) {
+				text = text.replace(srcPath, SRC_PATH_TOKEN);
+			}
+		}
+		return text;
+	}
+
+	private static String resolve(String text, String srcPath) {
+		if (text == null) {
+			return null;
+		}
+		return text.replace(SRC_PATH_TOKEN, srcPath);
+	}
+
+	private static void writeString(DataOutputStream out, String text) throws IOException {
+		if (text == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
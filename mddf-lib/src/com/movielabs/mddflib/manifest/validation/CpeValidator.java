@@ -224,16 +224,22 @@ public class CpeValidator extends ManifestValidator implements ProfileValidator
 		}
 
 		JSONObject rqmtSet = structDefs.getJSONObject("StrucRqmts");
-		Iterator<String> keys = rqmtSet.keys();
-		while (keys.hasNext()) {
-			String key = keys.next();
-			JSONObject rqmtSpec = rqmtSet.getJSONObject(key);
-			// NOTE: This block of code requires a 'targetPath' be defined
-			if (rqmtSpec.has("targetPath")) {
-				loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MODEL, "Structure check; key= " + key, curTarget,
-						logMsgSrcId);
-				curFileIsValid = structHelper.validateDocStructure(curRootEl, rqmtSpec, curTarget, null) && curFileIsValid;
+		structHelper.indexTargets(rqmtSet, curRootEl);
+		try {
+			Iterator<String> keys = rqmtSet.keys();
+			while (keys.hasNext()) {
+				String key = keys.next();
+				JSONObject rqmtSpec = rqmtSet.getJSONObject(key);
+				// NOTE: This block of code requires a 'targetPath' be defined
+				if (rqmtSpec.has("targetPath")) {
+					loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MODEL, "Structure check; key= " + key, curTarget,
+							logMsgSrcId);
+					curFileIsValid = structHelper.validateDocStructure(key, curRootEl, rqmtSpec, curTarget, null)
+							&& curFileIsValid;
+				}
 			}
+		} finally {
+			structHelper.indexTargets(null, null);
 		}
 
 		return;
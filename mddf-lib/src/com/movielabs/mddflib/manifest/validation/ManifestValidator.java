@@ -38,8 +38,10 @@ import org.jdom2.filter.Filters;
 import org.jdom2.xpath.XPathExpression;
 
 import com.movielabs.mddflib.logging.LogEntryFolder;
+import com.movielabs.mddflib.logging.LogEntryNode;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.logging.LogReference;
+import com.movielabs.mddflib.logging.PhaseMetrics;
 import com.movielabs.mddflib.util.CMValidator;
 import com.movielabs.mddflib.util.PathUtilities;
 import com.movielabs.mddflib.util.xml.MddfTarget;
@@ -76,6 +78,7 @@ public class ManifestValidator extends CMValidator {
 
 	private Map<String, List<Element>> supportingRsrcLocations;
 	protected Map<MddfTarget, LogEntryFolder> supportingMECs;
+	protected MecValidationCache mecCache = new MecValidationCache();
 
 	/**
 	 * @param validateC
@@ -111,7 +114,9 @@ public class ManifestValidator extends CMValidator {
 		loggingMgr.log(LogMgmt.LEV_INFO, logMsgDefaultTag, "Validating using Schema Version " + schemaVer, curTarget,
 				logMsgSrcId);
 
+		PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_XSD);
 		validateXml(target);
+		endPhase(timer);
 		if (!curFileIsValid) {
 			String msg = "Schema validation check FAILED";
 			loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_MANIFEST, msg, curTarget, logMsgSrcId);
@@ -124,10 +129,16 @@ public class ManifestValidator extends CMValidator {
 		loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_MANIFEST, msg, curTarget, logMsgSrcId);
 
 		initializeIdChecks();
+		timer = startPhase(PhaseMetrics.PHASE_LOCATIONS);
 		validateLocations();
+		endPhase(timer);
 		if (validateC) {
+			timer = startPhase(PhaseMetrics.PHASE_CONSTRAINTS);
 			validateConstraints();
+			endPhase(timer);
+			timer = startPhase(PhaseMetrics.PHASE_XREFS);
 			validateXrefs();
+			endPhase(timer);
 		}
 		loggingMgr.popFileContext(target);
 		return curFileIsValid;
@@ -140,7 +151,8 @@ public class ManifestValidator extends CMValidator {
 	 */
 	protected boolean validateXml(MddfTarget target) {
 		String manifestXsdFile = XsdValidation.defaultRsrcLoc + "manifest-v" + MAN_VER + ".xsd";
-		curFileIsValid = xsdHelper.validateXml(target, manifestXsdFile, logMsgSrcId);
+		/* the locations are checked even if the constraints are not */
+		curFileIsValid = xsdHelper.validateXml(target, manifestXsdFile, logMsgSrcId, true);
 		return curFileIsValid;
 	}
 
@@ -156,12 +168,10 @@ public class ManifestValidator extends CMValidator {
 	protected void validateLocations() {
 		supportingRsrcLocations = new HashMap<String, List<Element>>();
 		supportingMECs = new HashMap<MddfTarget, LogEntryFolder>();
-		String pre = manifestNSpace.getPrefix();
 		String baseLoc = curFile.getAbsolutePath();
 		LogReference srcRef = LogReference.getRef("MMM", "mmm_locType");
-		XPathExpression<Element> xpExp01 = xpfac.compile(".//" + pre + ":ContainerLocation", Filters.element(), null,
-				manifestNSpace);
-		List<Element> cLocElList = xpExp01.evaluate(curRootEl);
+		List<Element> cLocElList = getDocIndex().getElements(manifestNSpace, "ContainerLocation");
+		prefetchMECs(baseLoc, cLocElList);
 		outterLoop: for (int i = 0; i < cLocElList.size(); i++) {
 			Element clocEl = cLocElList.get(i);
 			String containerPath = clocEl.getTextNormalize();
@@ -205,23 +215,51 @@ public class ManifestValidator extends CMValidator {
 		}
 	}
 
+	/**
+	 * Start the validation of all MEC files referenced via a
+	 * <tt>Metadata/ContainerReference/ContainerLocation</tt>. The MECs are
+	 * validated concurrently while the <tt>ContainerLocation</tt> elements are
+	 * processed in sequence by <tt>validateLocations()</tt>.
+	 * 
+	 * @param baseLoc
+	 * @param cLocElList
+	 */
+	private void prefetchMECs(String baseLoc, List<Element> cLocElList) {
+		for (Element clocEl : cLocElList) {
+			String containerPath = clocEl.getTextNormalize();
+			Element grandParentEl = (Element) clocEl.getParent().getParent();
+			if (containerPath.startsWith("file:") || !grandParentEl.getName().equals("Metadata")) {
+				continue;
+			}
+			try {
+				File mecFile = new File(PathUtilities.convertToAbsolute(baseLoc, containerPath));
+				if (mecFile.canRead()) {
+					mecCache.prefetch(mecFile, validateC);
+				}
+			} catch (IOException e) {
+				/* validateLocations() will deal with it */
+			}
+		}
+	}
+
 	/**
 	 * Validate a MEC file in the context of it's usage within the current Manifest.
 	 * This differs from the stand-alone validation of a MEC in that constraint
 	 * checks are made on the aggregated data provided in both files.
+	 * <p>
+	 * The MEC itself is validated (or the result retrieved) via the
+	 * <tt>MecValidationCache</tt>. The entries logged when it was validated are
+	 * then added to this Manifest's log in a file-specific folder and, if not
+	 * already claimed by another Manifest, the metrics for the validation are
+	 * reported to the <tt>MetricsListener</tt>. The ID checks
+	 * depend on this Manifest and are therefore not cached. They are performed
+	 * with the MEC's validator linked to this one.
+	 * </p>
 	 * 
 	 * @param targetLoc
 	 * @param clocEl
 	 */
 	protected void validateMecUsage(String targetLoc, Element clocEl) {
-		MecValidator mecTool = new MecValidator(validateC, loggingMgr);
-		/*
-		 * setting the parent ManifestValidator in a separate method rather than via a
-		 * constructor, allows validation of a stand-alone MEC (i.e., independent of a
-		 * specific usage by a Manifest). HOWEVER, that means we MUST set the parent
-		 * prior to invoking the Validator's process() method.
-		 */
-		mecTool.setParent(this);
 		File mecFile = new File(targetLoc);
 		String infoMsg = "Validation of referenced MEC file required: " + mecFile.getName();
 		logIssue(LogMgmt.TAG_MANIFEST, LogMgmt.LEV_INFO, clocEl, infoMsg, null, null, logMsgSrcId);
@@ -236,14 +274,35 @@ public class ManifestValidator extends CMValidator {
 		}
 		MddfTarget mecTarget = null;
 		try {
+			MecValidationCache.Result mecResult = mecCache.get(mecFile, validateC);
 			mecTarget = new MddfTarget(curTarget, mecFile, loggingMgr);
 			LogEntryFolder mecFolder = loggingMgr.pushFileContext(mecTarget);
-			boolean validMec = mecTool.process(mecTarget);
-			if (validMec) {
+			for (LogEntryNode entry : mecResult.getEntries()) {
+				int tag = LogMgmt.text2Tag(entry.getTagAsText());
+				loggingMgr.log(entry.getLevel(), tag, entry.getSummary(), mecTarget, entry.getLine(),
+						entry.getModuleID(), entry.getTooltip(), entry.getSrcRef());
+			}
+			if (metricsListener != null) {
+				for (PhaseMetrics metrics : mecResult.claimMetrics()) {
+					reportPhase(mecTarget, metrics);
+				}
+			}
+			if (mecResult.getFailure() != null) {
+				throw mecResult.getFailure();
+			}
+			if (mecResult.isValid()) {
+				if (mecResult.getXmlDoc() != null) {
+					mecTarget.setXmlDoc(mecResult.getXmlDoc());
+				}
+				MecValidator mecTool = new MecValidator(validateC, loggingMgr);
+				mecTool.setMetricsListener(metricsListener);
+				mecTool.validateIdUsage(this, mecTarget);
 				supportingMECs.put(mecTarget, mecFolder);
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
+			String loc = (e.getStackTrace().length > 0) ? e.getStackTrace()[0].toString() : null;
+			loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MANIFEST, e.toString(), curTarget, null, logMsgSrcId, loc,
+					null);
 			String errMsg = "Exception processing referenced MEC XML";
 			String details = "Attempt to validate referenced MEC file failed while parsing XML"
 					+ e.getLocalizedMessage();
@@ -256,6 +315,25 @@ public class ManifestValidator extends CMValidator {
 		}
 	}
 
+	/**
+	 * Specify the <tt>MecValidationCache</tt> to use when validating referenced
+	 * MEC files. Sharing a single cache between all the
+	 * <tt>ManifestValidators</tt> used for a set of files allows a MEC
+	 * referenced by several Manifests to be validated only once.
+	 * 
+	 * @param mecCache
+	 */
+	public void setMecCache(MecValidationCache mecCache) {
+		this.mecCache = mecCache;
+	}
+
+	/**
+	 * @return the mecCache
+	 */
+	public MecValidationCache getMecCache() {
+		return mecCache;
+	}
+
 	/**
 	 * Validate everything that is not fully specified via the XSD.
 	 */
@@ -288,6 +366,7 @@ public class ManifestValidator extends CMValidator {
 		 * or otherwise constrained).
 		 */
 		// start with Common Metadata spec..
+		PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_VOCAB);
 		validateCMVocab();
 		validateResolution("//{md}LocalizedInfo/{md}ArtReference/@resolution");
 		validateResolution("//{manifest}Picture/{manifest}ImageID/@resolution");
@@ -298,10 +377,15 @@ public class ManifestValidator extends CMValidator {
 
 		// Now do any defined in Manifest spec..
 		validateManifestVocab();
+		endPhase(timer);
 
+		timer = startPhase(PhaseMetrics.PHASE_METADATA);
 		validateMetadata();
+		endPhase(timer);
 
+		timer = startPhase(PhaseMetrics.PHASE_USAGE);
 		validateUsage();
+		endPhase(timer);
 	}
 
 	/*
@@ -530,9 +614,7 @@ public class ManifestValidator extends CMValidator {
 		 * LocalizedInfo[@language='foobar']</li>
 		 * </ul>
 		 */
-		XPathExpression<Element> xpExp01 = xpfac.compile(".//" + pre + ":Alias", Filters.element(), null,
-				manifestNSpace);
-		List<Element> aliasElList = xpExp01.evaluate(curRootEl);
+		List<Element> aliasElList = getDocIndex().getElements(manifestNSpace, "Alias");
 		for (Element aliasEl : aliasElList) {
 			Element mdEl = aliasEl.getParentElement();
 			Element basicMDataEl = mdEl.getChild("BasicMetadata", manifestNSpace);
@@ -617,17 +699,22 @@ public class ManifestValidator extends CMValidator {
 		}
 
 		JSONObject rqmtSet = structDefs.getJSONObject("StrucRqmts");
-		Iterator<String> keys = rqmtSet.keys();
-		while (keys.hasNext()) {
-			String key = keys.next();
-			JSONObject rqmtSpec = rqmtSet.getJSONObject(key);
-			// NOTE: This block of code requires a 'targetPath' be defined
-			if (rqmtSpec.has("targetPath")) {
-				loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MANIFEST, "Structure check; key= " + key, curTarget,
-						logMsgSrcId);
-				curFileIsValid = structHelper.validateDocStructure(curRootEl, rqmtSpec, curTarget, getSupportingMECs())
-						&& curFileIsValid;
+		structHelper.indexTargets(rqmtSet, curRootEl);
+		try {
+			Iterator<String> keys = rqmtSet.keys();
+			while (keys.hasNext()) {
+				String key = keys.next();
+				JSONObject rqmtSpec = rqmtSet.getJSONObject(key);
+				// NOTE: This block of code requires a 'targetPath' be defined
+				if (rqmtSpec.has("targetPath")) {
+					loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MANIFEST, "Structure check; key= " + key, curTarget,
+							logMsgSrcId);
+					curFileIsValid = structHelper.validateDocStructure(key, curRootEl, rqmtSpec, curTarget,
+							getSupportingMECs()) && curFileIsValid;
+				}
 			}
+		} finally {
+			structHelper.indexTargets(null, null);
 		}
 
 		return;
@@ -0,0 +1,349 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.manifest.validation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Document;
+
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.logging.LogEntryNode;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.MetricsListener;
+import com.movielabs.mddflib.logging.PhaseMetrics;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+/**
+ * Caches the results of validating the MEC files referenced by one or more
+ * Manifests. A catalog delivery will typically have many Manifests that share
+ * the same MEC files. With a shared cache each MEC is parsed and checked only
+ * once no matter how many Manifests (or how many profile validators) reference
+ * it.
+ * <p>
+ * Entries are keyed by the MEC's canonical path. Each entry is stamped with the
+ * file's modification time and length so that a MEC that has been edited since
+ * it was last validated will be validated again.
+ * </p>
+ * <p>
+ * A MEC is validated in isolation using its own <tt>MecValidator</tt> and a
+ * private <tt>DefaultLogging</tt> instance. The entries logged are retained as
+ * part of the <tt>Result</tt> so that they may later be replayed into whatever
+ * <tt>LogMgmt</tt> the referencing Manifest is using. Only the checks that do
+ * not depend on the Manifest that references the MEC are cached. The ID checks,
+ * which share state with the referencing Manifest, are deferred and must be run
+ * for each usage (see <tt>MecValidator.validateIdUsage()</tt>). The
+ * <tt>PhaseMetrics</tt> for the validation are also retained so that they may
+ * be reported to a Manifest's <tt>MetricsListener</tt>.
+ * </p>
+ * <p>
+ * Validations requested via <tt>prefetch()</tt> are run on a shared pool of
+ * daemon threads. Idle threads are released after
+ * <tt>POOL_KEEP_ALIVE_SEC</tt> and the pool may be shut down at any time via
+ * <tt>shutdownPool()</tt>. A request for a result that is not yet available will
+ * cause the validation to be run on the caller's thread if no pool thread has
+ * started it.
+ * </p>
+ * <p>
+ * Since each <tt>Result</tt> holds the parsed MEC, the number of results
+ * retained is limited. When the limit is reached the least recently used result
+ * is discarded.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class MecValidationCache {
+
+	/**
+	 * The outcome of validating a single MEC file.
+	 */
+	public static class Result {
+		private boolean valid = false;
+		private Document xmlDoc = null;
+		private List<LogEntryNode> entries;
+		private Exception failure = null;
+		private List<PhaseMetrics> metrics;
+		private boolean metricsClaimed = false;
+
+		/**
+		 * @return <tt>true</tt> if the MEC passed validation
+		 */
+		public boolean isValid() {
+			return valid;
+		}
+
+		/**
+		 * @return the parsed MEC or <tt>null</tt> if the MEC was not valid or was
+		 *         validated without checking constraints
+		 */
+		public Document getXmlDoc() {
+			return xmlDoc;
+		}
+
+		/**
+		 * @return all entries logged while validating the MEC, in the sequence they
+		 *         were logged
+		 */
+		public List<LogEntryNode> getEntries() {
+			return entries;
+		}
+
+		/**
+		 * @return the <tt>Exception</tt> that terminated the validation or
+		 *         <tt>null</tt>
+		 */
+		public Exception getFailure() {
+			return failure;
+		}
+
+		/**
+		 * Return the <tt>PhaseMetrics</tt> measured while validating the MEC. The
+		 * metrics are only returned to the first caller so that the resources used
+		 * are counted once no matter how many Manifests use the result.
+		 * 
+		 * @return the metrics or an empty list if already claimed
+		 */
+		public synchronized List<PhaseMetrics> claimMetrics() {
+			if (metricsClaimed) {
+				return Collections.emptyList();
+			}
+			metricsClaimed = true;
+			return metrics;
+		}
+	}
+
+	private static class Slot {
+		private final String stamp;
+		private final FutureTask<Result> task;
+
+		Slot(String stamp, FutureTask<Result> task) {
+			this.stamp = stamp;
+			this.task = task;
+		}
+	}
+
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+	public static final int POOL_KEEP_ALIVE_SEC = 30;
+
+	private static ThreadPoolExecutor pool = null;
+
+	private final int maxEntries;
+	/* access-ordered so the eldest entry is the least recently used */
+	private final Map<String, Slot> slots;
+
+	public MecValidationCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param maxEntries the maximum number of results retained
+	 */
+	public MecValidationCache(int maxEntries) {
+		this.maxEntries = Math.max(1, maxEntries);
+		slots = new LinkedHashMap<String, Slot>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Slot> eldest) {
+				return size() > MecValidationCache.this.maxEntries;
+			}
+		};
+	}
+
+	private static synchronized ExecutorService getPool() {
+		if ((pool == null) || pool.isShutdown()) {
+			int threadCnt = Math.max(1, Runtime.getRuntime().availableProcessors());
+			pool = new ThreadPoolExecutor(threadCnt, threadCnt, POOL_KEEP_ALIVE_SEC, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "MEC-Validation");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			pool.allowCoreThreadTimeOut(true);
+		}
+		return pool;
+	}
+
+	/**
+	 * Shut down the pool used for prefetching. Any prefetch that has not been
+	 * started will instead be run when its result is requested. A new pool will be
+	 * created if another prefetch is requested.
+	 */
+	public static synchronized void shutdownPool() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Start the validation of a MEC file in the background unless a current result
+	 * is already available (or pending).
+	 * 
+	 * @param mecFile
+	 * @param validateC
+	 * @throws IOException
+	 */
+	public void prefetch(File mecFile, boolean validateC) throws IOException {
+		Slot slot = getSlot(mecFile, validateC);
+		if (!slot.task.isDone()) {
+			try {
+				getPool().execute(slot.task);
+			} catch (RejectedExecutionException e) {
+				/* pool was shut down; get() will run the task */
+			}
+		}
+	}
+
+	/**
+	 * Return the result of validating a MEC file. If necessary, the validation will
+	 * be run on the caller's thread.
+	 * 
+	 * @param mecFile
+	 * @param validateC
+	 * @return
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public Result get(File mecFile, boolean validateC) throws IOException, InterruptedException {
+		Slot slot = getSlot(mecFile, validateC);
+		/* no-op if the task has already been started by a pool thread */
+		slot.task.run();
+		try {
+			return slot.task.get();
+		} catch (ExecutionException e) {
+			/* validate() traps all Exceptions so this should never happen */
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Discard all cached results.
+	 */
+	public void clear() {
+		synchronized (slots) {
+			slots.clear();
+		}
+	}
+
+	/**
+	 * @return the number of MEC files for which a result has been cached
+	 */
+	public int size() {
+		synchronized (slots) {
+			return slots.size();
+		}
+	}
+
+	/**
+	 * Return the <tt>Slot</tt> for a MEC file, replacing any whose stamp indicates
+	 * the file has changed since it was validated. If two threads race to create a
+	 * slot both will use the same one.
+	 * 
+	 * @param mecFile
+	 * @param validateC
+	 * @return
+	 * @throws IOException
+	 */
+	private Slot getSlot(File mecFile, boolean validateC) throws IOException {
+		File canonicalFile = mecFile.getCanonicalFile();
+		String key = canonicalFile.getPath() + "|" + validateC;
+		String stamp = canonicalFile.lastModified() + ":" + canonicalFile.length();
+		synchronized (slots) {
+			Slot slot = slots.get(key);
+			if ((slot != null) && slot.stamp.equals(stamp)) {
+				return slot;
+			}
+			/* any existing slot is for an out-of-date version and is replaced */
+			slot = new Slot(stamp, new FutureTask<Result>(new Callable<Result>() {
+				public Result call() {
+					return validate(mecFile, validateC);
+				}
+			}));
+			slots.put(key, slot);
+			return slot;
+		}
+	}
+
+	/**
+	 * Validate a MEC file using a <tt>MecValidator</tt> and logger that are not
+	 * shared with any other thread.
+	 * 
+	 * @param mecFile
+	 * @param validateC
+	 * @return
+	 */
+	private Result validate(File mecFile, boolean validateC) {
+		DefaultLogging mecLog = new DefaultLogging();
+		/* capture everything; the referencing Manifest's logger will filter */
+		mecLog.setMinLevel(LogMgmt.LEV_DEBUG);
+		mecLog.setEchoInfo(false);
+		MddfTarget mecTarget = new MddfTarget(mecFile, mecLog);
+		final List<PhaseMetrics> metricsList = new ArrayList<PhaseMetrics>();
+		MecValidator mecTool = new MecValidator(validateC, mecLog) {
+			/*
+			 * The metrics are retained rather than logged. They are logged when reported
+			 * by the Manifest that claims them.
+			 */
+			@Override
+			protected void reportPhase(MddfTarget target, PhaseMetrics metrics) {
+				metricsListener.phaseCompleted(target, metrics);
+			}
+		};
+		mecTool.setMetricsListener(new MetricsListener() {
+			@Override
+			public void phaseCompleted(MddfTarget target, PhaseMetrics metrics) {
+				metricsList.add(metrics);
+			}
+		});
+		mecTool.setDeferIdChecks(true);
+		Result result = new Result();
+		try {
+			result.valid = mecTool.process(mecTarget);
+			if (result.valid && mecTarget.isXmlLoaded()) {
+				result.xmlDoc = mecTarget.getXmlDoc();
+			}
+		} catch (Exception e) {
+			result.valid = false;
+			result.failure = e;
+		}
+		result.entries = Collections.unmodifiableList(new ArrayList<LogEntryNode>(mecLog.getEntries()));
+		result.metrics = Collections.unmodifiableList(metricsList);
+		return result;
+	}
+}
@@ -27,6 +27,7 @@ import java.util.Iterator;
 
 import org.jdom2.JDOMException;
 import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.PhaseMetrics;
 import com.movielabs.mddflib.logging.LogReference;
 import com.movielabs.mddflib.util.CMValidator;
 import com.movielabs.mddflib.util.xml.MddfTarget;
@@ -43,6 +44,7 @@ public class MecValidator extends CMValidator {
 	public static final String LOGMSG_ID = "MecValidator";
 
 	protected static HashMap<String, String> mec_id2typeMap;
+	private boolean deferIdChecks = false;
 	static {
 		mec_id2typeMap = new HashMap<String, String>();
 		mec_id2typeMap.put("ContentID", "cid");
@@ -75,19 +77,23 @@ public class MecValidator extends CMValidator {
 		curFileName = curFile.getName();
 		curFileIsValid = true;
 
+		PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_XSD);
 		validateXml(target);
+		endPhase(timer);
 		// }
 		if (!curFileIsValid) {
 			String msg = "Schema validation check FAILED";
 			loggingMgr.log(LogMgmt.LEV_INFO, logMsgDefaultTag, msg, curTarget, logMsgSrcId);
 			// return false;
 		} else {
-			curRootEl = target.getXmlDoc().getRootElement();
 			String msg = "Schema validation check PASSED";
 			loggingMgr.log(LogMgmt.LEV_INFO, logMsgDefaultTag, msg, curTarget, logMsgSrcId);
 			if (validateC) {
+				curRootEl = target.getXmlDoc().getRootElement();
 				initializeIdChecks();
+				timer = startPhase(PhaseMetrics.PHASE_CONSTRAINTS);
 				validateConstraints();
+				endPhase(timer);
 			}
 		}
 		// clean up and go home
@@ -103,7 +109,7 @@ public class MecValidator extends CMValidator {
 	protected boolean validateXml(MddfTarget target) {
 		String xsdFile = XsdValidation.defaultRsrcLoc + "mdmec-v" + MDMEC_VER + ".xsd";
 		// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-		curFileIsValid = xsdHelper.validateXml(target, xsdFile, logMsgSrcId);
+		curFileIsValid = xsdHelper.validateXml(target, xsdFile, logMsgSrcId, validateC);
 		return curFileIsValid;
 	}
 
@@ -122,9 +128,13 @@ public class MecValidator extends CMValidator {
 		 * xs:string but the documentation specifies an enumerated set of allowed
 		 * values).
 		 */
+		PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_VOCAB);
 		validateMecVocab();
 		validateCMVocab();
+		endPhase(timer);
+		timer = startPhase(PhaseMetrics.PHASE_USAGE);
 		validateUsage();
+		endPhase(timer);
 	}
 
 	/**
@@ -211,17 +221,22 @@ public class MecValidator extends CMValidator {
 				"Validating constraints with MEC structure-defs_v" + structVer, curTarget, LOGMSG_ID);
 
 		JSONObject rqmtSet = structDefs.getJSONObject("StrucRqmts");
-		Iterator<String> keys = rqmtSet.keys();
-		while (keys.hasNext()) {
-			String key = keys.next();
-			JSONObject rqmtSpec = rqmtSet.getJSONObject(key);
-			// NOTE: This block of code requires a 'targetPath' be defined
-			if (rqmtSpec.has("targetPath")) {
-				loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MEC, "Structure check; key= " + key, curTarget,
-						logMsgSrcId);
-				curFileIsValid = structHelper.validateDocStructure(curRootEl, rqmtSpec, curTarget, null)
-						&& curFileIsValid;
+		structHelper.indexTargets(rqmtSet, curRootEl);
+		try {
+			Iterator<String> keys = rqmtSet.keys();
+			while (keys.hasNext()) {
+				String key = keys.next();
+				JSONObject rqmtSpec = rqmtSet.getJSONObject(key);
+				// NOTE: This block of code requires a 'targetPath' be defined
+				if (rqmtSpec.has("targetPath")) {
+					loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MEC, "Structure check; key= " + key, curTarget,
+							logMsgSrcId);
+					curFileIsValid = structHelper.validateDocStructure(key, curRootEl, rqmtSpec, curTarget, null)
+							&& curFileIsValid;
+				}
 			}
+		} finally {
+			structHelper.indexTargets(null, null);
 		}
 
 		return;
@@ -239,4 +254,53 @@ public class MecValidator extends CMValidator {
 		this.parent = parent;
 	}
 
+	/**
+	 * If <tt>true</tt>, the ID checks are skipped when the MEC is processed. This
+	 * allows the remaining results to be re-used for every Manifest that
+	 * references the MEC. The ID checks must then be performed separately for each
+	 * usage via <tt>validateIdUsage()</tt>.
+	 * 
+	 * @param deferIdChecks
+	 */
+	public void setDeferIdChecks(boolean deferIdChecks) {
+		this.deferIdChecks = deferIdChecks;
+	}
+
+	/**
+	 * Perform the ID checks on a previously validated MEC in the context of the
+	 * <tt>parent</tt> that references it. The IDs defined and referenced in the MEC
+	 * are checked against, and added to, those of the <tt>parent</tt>.
+	 * 
+	 * @param parent
+	 * @param target a valid MEC
+	 */
+	public void validateIdUsage(CMValidator parent, MddfTarget target) {
+		setParent(parent);
+		curTarget = target;
+		curFile = target.getSrcFile();
+		curFileName = curFile.getName();
+		setMdMecVersion(identifyXsdVersion(target));
+		rootNS = mdmecNSpace;
+		curFileIsValid = true;
+		if (validateC) {
+			curRootEl = target.getXmlDoc().getRootElement();
+			PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_ID_SET);
+			initializeIdChecks();
+			validateIdSet();
+			endPhase(timer);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.movielabs.mddflib.util.CMValidator#validateIdSet()
+	 */
+	@Override
+	protected void validateIdSet() {
+		if (!deferIdChecks) {
+			super.validateIdSet();
+		}
+	}
+
 }
@@ -169,6 +169,7 @@ public class MMCoreValidator extends ManifestValidator implements ProfileValidat
 			return;
 		}
 		JSONObject rqmtSet = structDefs.getJSONObject("StrucRqmts");
+		structHelper.indexTargets(rqmtSet, curRootEl);
 		Iterator<String> keys = rqmtSet.keys();
 		while (keys.hasNext()) {
 			String key = keys.next();
@@ -177,10 +178,11 @@ public class MMCoreValidator extends ManifestValidator implements ProfileValidat
 			if (rqmtSpec.has("targetPath")) {
 				loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_PROFILE, "Structure check; key= " + key, curTarget,
 						logMsgSrcId);
-				curFileIsValid = structHelper.validateDocStructure(curRootEl, rqmtSpec, curTarget, getSupportingMECs())
-						&& curFileIsValid;
+				curFileIsValid = structHelper.validateDocStructure(key, curRootEl, rqmtSpec, curTarget,
+						getSupportingMECs()) && curFileIsValid;
 			}
 		}
+		structHelper.indexTargets(null, null);
 		// --------------------------------------------------------------------------
 		/*
 		 * now check the additional constraints identified in MMC Section 2.1.2. This
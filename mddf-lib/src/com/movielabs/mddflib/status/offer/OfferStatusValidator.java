@@ -32,6 +32,7 @@ import org.jdom2.Namespace;
 import com.movielabs.mddflib.avails.xml.Pedigree;
 import com.movielabs.mddflib.logging.IssueLogger;
 import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.PhaseMetrics;
 import com.movielabs.mddflib.logging.LogReference;
 import com.movielabs.mddflib.util.CMValidator;
 import com.movielabs.mddflib.util.xml.MddfTarget;
@@ -112,19 +113,25 @@ public class OfferStatusValidator extends CMValidator implements IssueLogger {
 		curRootEl = null;
 		curFileName = curFile.getName();
 		this.pedigreeMap = pedigreeMap;
+		/* issues found in a spreadsheet are logged by cell and can not be replayed */
+		structHelper.setRuleCache((pedigreeMap == null) ? ruleCache : null, logMsgSrcId);
 		curFileIsValid = true;
 
+		PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_XSD);
 		validateXml(target);
+		endPhase(timer);
 		if (!curFileIsValid) {
 			msg = "Schema validation check FAILED";
 			loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_OFFER, msg, curTarget, logMsgSrcId);
 		} else {
-			curRootEl = target.getXmlDoc().getRootElement();
 			msg = "Schema validation check PASSED";
 			loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_OFFER, msg, curTarget, logMsgSrcId);
 			if (validateC) {
+				curRootEl = target.getXmlDoc().getRootElement();
 				initializeIdChecks();
+				timer = startPhase(PhaseMetrics.PHASE_CONSTRAINTS);
 				validateConstraints();
+				endPhase(timer);
 			}
 		}
 		// clean up and go home
@@ -142,7 +149,7 @@ public class OfferStatusValidator extends CMValidator implements IssueLogger {
 	protected boolean validateXml(MddfTarget target) {
 		String xsdFile = XsdValidation.defaultRsrcLoc + "avails-v" + availSchemaVer + ".xsd";
 		// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-		curFileIsValid = xsdHelper.validateXml(target, xsdFile, logMsgSrcId);
+		curFileIsValid = xsdHelper.validateXml(target, xsdFile, logMsgSrcId, validateC);
 		return curFileIsValid;
 	}
 
@@ -162,13 +169,17 @@ public class OfferStatusValidator extends CMValidator implements IssueLogger {
 		 * xs:string but the documentation specifies an enumerated set of allowed
 		 * values).
 		 */
+		PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_VOCAB);
 		// start with Common Metadata spec..
 		validateCMVocab();
 
 		// Now do any defined in Avails spec..
 		validateAvailVocab();
+		endPhase(timer);
 
+		timer = startPhase(PhaseMetrics.PHASE_USAGE);
 		validateUsage();
+		endPhase(timer);
 	}
 
 	/*
@@ -25,8 +25,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -40,15 +42,20 @@ import org.jdom2.Attribute;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.Namespace;
+import org.jdom2.Verifier;
 import org.jdom2.filter.Filters;
 import org.jdom2.xpath.XPathExpression;
 
 import com.movielabs.mddf.MddfContext;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.logging.LogReference;
+import com.movielabs.mddflib.logging.MetricsListener;
+import com.movielabs.mddflib.logging.PhaseMetrics;
 import com.movielabs.mddflib.util.CMValidator.SeqEntry;
+import com.movielabs.mddflib.util.xml.DocumentIndex;
 import com.movielabs.mddflib.util.xml.MddfTarget;
 import com.movielabs.mddflib.util.xml.RatingSystem;
+import com.movielabs.mddflib.util.xml.RuleResultCache;
 import com.movielabs.mddflib.util.xml.SchemaWrapper;
 import com.movielabs.mddflib.util.xml.StructureValidation;
 import com.movielabs.mddflib.util.xml.XsdValidation;
@@ -155,15 +162,34 @@ public abstract class CMValidator extends XmlIngester {
 
 	private static HashSet<String> specialRatings = new HashSet<String>();
 
-	private static JSONArray iso639_2;
+	/*
+	 * RFC5646 subtag registries. Each subtag is encoded as a long (see
+	 * encodeSubTag()) and the codes are sorted so that a subtag may be looked up
+	 * without creating a new String.
+	 */
+	private static long[] iso639_2 = new long[0];
+
+	private static long[] iso639_3 = new long[0];
+
+	private static long[] unM49 = new long[0];
 
-	private static JSONArray iso639_3;
+	private static long[] rfc5646Variant = new long[0];
 
-	private static JSONArray unM49;
+	private static long[] rfc5646Script = new long[0];
 
-	private static JSONArray rfc5646Variant;
+	/*
+	 * ISO 3166-1 codes encoded for use when checking language tags.
+	 */
+	private static long[] iso3166_1_subTags = new long[0];
+
+	/*
+	 * Lookup sets for the vocabularies passed to validateVocabUse(), keyed by the
+	 * identity of the JSONArray. The arrays are part of the MDDF resources, which
+	 * are only loaded once, so each set is only built once.
+	 */
+	private static final Map<JSONArray, Set<String>> vocabSets = new IdentityHashMap<JSONArray, Set<String>>();
 
-	private static JSONArray rfc5646Script;
+	private static final Map<JSONArray, Set<String>> vocabSetsCaseFolded = new IdentityHashMap<JSONArray, Set<String>>();
 
 	static {
 		specialRatings.add("ALL");
@@ -176,11 +202,11 @@ public abstract class CMValidator extends XmlIngester {
 			 */
 			JSONObject jsonRsrc = getMddfResource("rfc5646");
 			JSONObject rfc5646 = jsonRsrc.getJSONObject("rfc5646");
-			iso639_2 = rfc5646.getJSONArray("iso639-2");
-			iso639_3 = rfc5646.getJSONArray("iso639-3");
-			unM49 = rfc5646.getJSONArray("UN-M49");
-			rfc5646Variant = rfc5646.getJSONArray("variant");
-			rfc5646Script = rfc5646.getJSONArray("script");
+			iso639_2 = toSubTagCodes(rfc5646.getJSONArray("iso639-2"));
+			iso639_3 = toSubTagCodes(rfc5646.getJSONArray("iso639-3"));
+			unM49 = toSubTagCodes(rfc5646.getJSONArray("UN-M49"));
+			rfc5646Variant = toSubTagCodes(rfc5646.getJSONArray("variant"));
+			rfc5646Script = toSubTagCodes(rfc5646.getJSONArray("script"));
 			/*
 			 * ISO country and currency codes are simple so we use Properties
 			 */
@@ -188,6 +214,7 @@ public abstract class CMValidator extends XmlIngester {
 			iso3166_1_codes = loadProperties(isoRsrcPath);
 			isoRsrcPath = MddfContext.RSRC_PATH + "ISO4217.properties";
 			iso4217_codes = loadProperties(isoRsrcPath);
+			iso3166_1_subTags = toSubTagCodes(iso3166_1_codes.keySet());
 
 		} catch (Exception e) {
 			// TODO Auto-generated catch block
@@ -196,10 +223,122 @@ public abstract class CMValidator extends XmlIngester {
 
 	}
 
+	/**
+	 * Returns an immutable <tt>Set</tt> containing the values in a JSON array.
+	 * 
+	 * @param values
+	 * @param caseFold if <tt>true</tt> all values are converted to lowercase
+	 * @return
+	 */
+	protected static Set<String> toLookupSet(JSONArray values, boolean caseFold) {
+		Set<String> lookupSet = new HashSet<String>(values.size() * 2);
+		for (Object next : values) {
+			String value = String.valueOf(next);
+			lookupSet.add(caseFold ? value.toLowerCase() : value);
+		}
+		return Collections.unmodifiableSet(lookupSet);
+	}
+
+	/**
+	 * Returns the lookup set for a vocabulary. The set is built on the first
+	 * request and then retained for as long as the <tt>JSONArray</tt> is in use.
+	 * The <tt>values</tt> must therefore not be modified once the set has been
+	 * requested.
+	 * 
+	 * @param values
+	 * @param caseFold if <tt>true</tt> all values are converted to lowercase
+	 * @return
+	 */
+	protected static Set<String> getLookupSet(JSONArray values, boolean caseFold) {
+		Map<JSONArray, Set<String>> cache = caseFold ? vocabSetsCaseFolded : vocabSets;
+		synchronized (cache) {
+			Set<String> lookupSet = cache.get(values);
+			if (lookupSet == null) {
+				lookupSet = toLookupSet(values, caseFold);
+				cache.put(values, lookupSet);
+			}
+			return lookupSet;
+		}
+	}
+
+	/**
+	 * Returns the sorted codes for the subtags in an RFC5646 registry. Any value
+	 * that can not be encoded is ignored.
+	 * 
+	 * @param values
+	 * @return
+	 */
+	private static long[] toSubTagCodes(Collection<?> values) {
+		long[] codes = new long[values.size()];
+		int codeCnt = 0;
+		for (Object next : values) {
+			String value = String.valueOf(next);
+			long code = encodeSubTag(value, 0, value.length());
+			if (code >= 0) {
+				codes[codeCnt++] = code;
+			}
+		}
+		codes = Arrays.copyOf(codes, codeCnt);
+		Arrays.sort(codes);
+		return codes;
+	}
+
+	/**
+	 * Encode a subtag of a language tag as a <tt>long</tt>. Registered subtags
+	 * consist of 1 to 8 letters or digits. Each character is encoded in 6 bits
+	 * with upper and lowercase letters having the same value so that matching is
+	 * case-insensitive. Since no character is encoded as 0, subtags of different
+	 * lengths have different codes.
+	 * 
+	 * @param langTag
+	 * @param start
+	 * @param end
+	 * @return the code or -1 if the subtag can not be a registered value
+	 */
+	private static long encodeSubTag(String langTag, int start, int end) {
+		if ((end <= start) || ((end - start) > 8)) {
+			return -1;
+		}
+		long code = 0;
+		for (int i = start; i < end; i++) {
+			char c = langTag.charAt(i);
+			int value;
+			if ((c >= '0') && (c <= '9')) {
+				value = c - '0' + 1;
+			} else if ((c >= 'a') && (c <= 'z')) {
+				value = c - 'a' + 11;
+			} else if ((c >= 'A') && (c <= 'Z')) {
+				value = c - 'A' + 11;
+			} else {
+				return -1;
+			}
+			code = (code << 6) | value;
+		}
+		return code;
+	}
+
+	/**
+	 * @param registry
+	 * @param langTag
+	 * @param start
+	 * @param end
+	 * @return <tt>true</tt> if the subtag of <tt>langTag</tt> between
+	 *         <tt>start</tt> and <tt>end</tt> is in the <tt>registry</tt>
+	 */
+	private static boolean isRegistered(long[] registry, String langTag, int start, int end) {
+		long code = encodeSubTag(langTag, start, end);
+		return (code >= 0) && (Arrays.binarySearch(registry, code) >= 0);
+	}
+
 	protected Namespace rootNS;
 
 	protected boolean validateC;
 	protected Element curRootEl;
+	/**
+	 * Index of the elements and attributes in the document being validated. It is
+	 * built on demand by <tt>getDocIndex()</tt>.
+	 */
+	private DocumentIndex docIndex;
 	/**
 	 * Set to <tt>true</tt> when starting validation of a file, then set to false
 	 * when any error is detected.
@@ -213,6 +352,8 @@ public abstract class CMValidator extends XmlIngester {
 
 	protected StructureValidation structHelper;
 	protected CMValidator parent = null;
+	protected MetricsListener metricsListener = null;
+	protected RuleResultCache ruleCache = null;
 
 	/**
 	 * @param loggingMgr
@@ -234,18 +375,147 @@ public abstract class CMValidator extends XmlIngester {
 
 	public abstract boolean process(MddfTarget target) throws IOException, JDOMException;
 
+	/**
+	 * Return the index for the document currently being validated. If no index
+	 * has yet been built for <tt>curRootEl</tt>, one is constructed.
+	 * 
+	 * @return
+	 */
+	protected DocumentIndex getDocIndex() {
+		if ((docIndex == null) || (docIndex.getRoot() != curRootEl)) {
+			docIndex = new DocumentIndex(curRootEl);
+		}
+		return docIndex;
+	}
+
+	/**
+	 * Collect the <tt>PhaseMetrics</tt> for each phase of a validation and report
+	 * them to the <tt>listener</tt>. The metrics are also added to the log as
+	 * <tt>LEV_DEBUG</tt> entries. Metrics are only collected when a listener has
+	 * been set.
+	 * 
+	 * @param listener (may be <tt>null</tt>)
+	 */
+	public void setMetricsListener(MetricsListener listener) {
+		this.metricsListener = listener;
+		if (listener == null) {
+			structHelper.setMetricsListener(null, null);
+		} else {
+			structHelper.setMetricsListener(new MetricsListener() {
+				@Override
+				public void phaseCompleted(MddfTarget target, PhaseMetrics metrics) {
+					reportPhase(target, metrics);
+				}
+			}, logMsgSrcId);
+		}
+	}
+
+	/**
+	 * @return the listener or <tt>null</tt>
+	 */
+	public MetricsListener getMetricsListener() {
+		return metricsListener;
+	}
+
+	/**
+	 * Re-use the outcome of structural requirements evaluated when a file was
+	 * previously validated for those parts of the file that are unchanged. This
+	 * is intended for use when the same file is repeatedly validated (e.g., while
+	 * being edited).
+	 * 
+	 * @param cache (may be <tt>null</tt>)
+	 */
+	public void setRuleCache(RuleResultCache cache) {
+		this.ruleCache = cache;
+		structHelper.setRuleCache(cache, logMsgSrcId);
+	}
+
+	/**
+	 * Start measuring a phase of the validation of the current file.
+	 * 
+	 * @param phase
+	 * @return a <tt>Timer</tt> or <tt>null</tt> if metrics are not being collected
+	 */
+	protected PhaseMetrics.Timer startPhase(String phase) {
+		if (metricsListener == null) {
+			return null;
+		}
+		return PhaseMetrics.startTimer(logMsgSrcId, phase);
+	}
+
+	/**
+	 * Complete the measurement of a phase and report the results.
+	 * 
+	 * @param timer (may be <tt>null</tt>)
+	 */
+	protected void endPhase(PhaseMetrics.Timer timer) {
+		if (timer == null) {
+			return;
+		}
+		timer.stop();
+		reportPhase(curTarget, timer.getMetrics(countElements()));
+	}
+
+	/**
+	 * Log the <tt>metrics</tt> for a completed phase and pass them to the
+	 * <tt>MetricsListener</tt>.
+	 * 
+	 * @param target
+	 * @param metrics
+	 */
+	protected void reportPhase(MddfTarget target, PhaseMetrics metrics) {
+		loggingMgr.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "Metrics " + metrics.toString(), target, logMsgSrcId);
+		if (metricsListener != null) {
+			metricsListener.phaseCompleted(target, metrics);
+		}
+	}
+
+	/**
+	 * Return the number of elements in the current document or -1 if it has not
+	 * been loaded.
+	 * 
+	 * @return
+	 */
+	private int countElements() {
+		if (curRootEl != null) {
+			return getDocIndex().getElementCount();
+		}
+		if ((curTarget != null) && curTarget.isXmlLoaded()) {
+			int elCnt = 0;
+			Iterator<Element> it = curTarget.getXmlDoc().getDescendants(Filters.element());
+			while (it.hasNext()) {
+				it.next();
+				elCnt++;
+			}
+			return elCnt;
+		}
+		return -1;
+	}
+
 	/**
 	 * Validate everything that is not fully specified via the XSD. This method
 	 * should be invoked when validating MEC and Manifest files. Avails has it's own
 	 * unique Metadata schema and therefore does not need to invoke this method.
 	 */
 	protected void validateConstraints() {
+		PhaseMetrics.Timer timer = startPhase(PhaseMetrics.PHASE_ID_SET);
 		validateIdSet();
+		endPhase(timer);
+		timer = startPhase(PhaseMetrics.PHASE_COUNTRIES);
 		validateCountries();
+		endPhase(timer);
+		timer = startPhase(PhaseMetrics.PHASE_LANGUAGES);
 		validateLanguageCodes();
+		endPhase(timer);
+		timer = startPhase(PhaseMetrics.PHASE_CURRENCIES);
 		validateCurrencyCodes();
+		endPhase(timer);
+		timer = startPhase(PhaseMetrics.PHASE_RATINGS);
 		validateRatings();
+		endPhase(timer);
+		timer = startPhase(PhaseMetrics.PHASE_DIGITAL_ASSETS);
 		validateDigitalAssets();
+		endPhase(timer);
 	}
 
 	/**
@@ -421,17 +691,22 @@ public abstract class CMValidator extends XmlIngester {
 		}
 
 		JSONObject rqmtSet = structDefs.getJSONObject("StrucRqmts");
-		Iterator<String> keys = rqmtSet.keys();
-		while (keys.hasNext()) {
-			String key = keys.next();
-			JSONObject rqmtSpec = rqmtSet.getJSONObject(key);
-			// NOTE: This block of code requires a 'targetPath' be defined
-			if (rqmtSpec.has("targetPath")) {
-				loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MD, "Structure check; key= " + key, curTarget,
-						logMsgSrcId);
-				curFileIsValid = structHelper.validateDocStructure(curRootEl, rqmtSpec, curTarget, null)
-						&& curFileIsValid;
+		structHelper.indexTargets(rqmtSet, curRootEl);
+		try {
+			Iterator<String> keys = rqmtSet.keys();
+			while (keys.hasNext()) {
+				String key = keys.next();
+				JSONObject rqmtSpec = rqmtSet.getJSONObject(key);
+				// NOTE: This block of code requires a 'targetPath' be defined
+				if (rqmtSpec.has("targetPath")) {
+					loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MD, "Structure check; key= " + key, curTarget,
+							logMsgSrcId);
+					curFileIsValid = structHelper.validateDocStructure(key, curRootEl, rqmtSpec, curTarget, null)
+							&& curFileIsValid;
+				}
 			}
+		} finally {
+			structHelper.indexTargets(null, null);
 		}
 
 		return;
@@ -480,16 +755,17 @@ public abstract class CMValidator extends XmlIngester {
 	 */
 	protected void validateIndexing(String targetEl, Namespace targetNSpace, String idxAttribute, String parentEl,
 			Namespace parentNSpace, boolean unique, boolean negOK, boolean continuous, boolean inclZero) {
-		String childPath = targetNSpace.getPrefix() + ":" + targetEl + "[@" + idxAttribute + "]";
-		String xpath = ".//" + parentNSpace.getPrefix() + ":" + parentEl + "[" + childPath + "]";
-		XPathExpression<Element> xpExpression = xpfac.compile(xpath, Filters.element(), null, parentNSpace,
-				targetNSpace);
-		List<Element> parentElList = xpExpression.evaluate(curRootEl);
+		List<Element> parentElList = getDocIndex().getElements(parentNSpace, parentEl);
 		for (int i = 0; i < parentElList.size(); i++) {
 			Element nextParent = (Element) parentElList.get(i);
 
 			List<Element> childList = nextParent.getChildren(targetEl, targetNSpace);
-			if (childList.isEmpty()) {
+			/* only parents with at least one indexed child are checked */
+			boolean isIndexed = false;
+			for (int cPtr = 0; cPtr < childList.size() && !isIndexed; cPtr++) {
+				isIndexed = (childList.get(cPtr).getAttribute(idxAttribute) != null);
+			}
+			if (!isIndexed) {
 				continue;
 			}
 			int ivCnt = 0;
@@ -636,8 +912,6 @@ public abstract class CMValidator extends XmlIngester {
 	 */
 	protected HashSet<String> validateId(String idElement, String idAttribute, boolean reqUniqueness,
 			boolean chkSyntax) {
-		XPathExpression<Element> xpExpression = xpfac.compile(".//" + rootNS.getPrefix() + ":" + idElement,
-				Filters.element(), null, rootNS);
 		HashSet<String> idSet = new HashSet<String>();
 
 		/*
@@ -649,7 +923,7 @@ public abstract class CMValidator extends XmlIngester {
 		 */
 		HashMap<String, Element> id2XmlMap = new HashMap<String, Element>();
 
-		List<Element> elementList = xpExpression.evaluate(curRootEl);
+		List<Element> elementList = getDocIndex().getElements(rootNS, idElement);
 		for (int i = 0; i < elementList.size(); i++) {
 			/*
 			 * XSD may specify ID attribute as OPTIONAL but we need to verify
@@ -956,8 +1230,7 @@ public abstract class CMValidator extends XmlIngester {
 	 *      Common Metadata Ratings</a>
 	 */
 	protected void validateRatings() {
-		XPathExpression<Element> xpExp01 = xpfac.compile(".//md:Rating", Filters.element(), null, mdNSpace);
-		List<Element> ratingElList = xpExp01.evaluate(curRootEl);
+		List<Element> ratingElList = getDocIndex().getElements(mdNSpace, "Rating");
 		rLoop: for (int i = 0; i < ratingElList.size(); i++) {
 			Element ratingEl = ratingElList.get(i);
 			Element rSysEl = ratingEl.getChild("System", mdNSpace);
@@ -1058,9 +1331,7 @@ public abstract class CMValidator extends XmlIngester {
 	}
 
 	protected void validateCurrencyCodes() {
-		XPathExpression<Attribute> xpExpression = xpfac.compile(".//@currency", Filters.attribute(), null, availsNSpace,
-				manifestNSpace, mdNSpace);
-		List<Attribute> attList = xpExpression.evaluate(curRootEl);
+		List<Attribute> attList = getDocIndex().getAttributes("currency");
 		int tag4log = getLogTag(mdNSpace, null);
 		for (int i = 0; i < attList.size(); i++) {
 			Attribute targetAtt = (Attribute) attList.get(i);
@@ -1108,10 +1379,7 @@ public abstract class CMValidator extends XmlIngester {
 	}
 
 	protected void validateLanguageElements() {
-		XPathExpression<Element> xpExpression = xpfac.compile(
-				".//*[substring(name(), string-length(name()) - string-length('anguage') +1) = 'anguage']",
-				Filters.element(), null, availsNSpace, manifestNSpace, mdNSpace);
-		List<Element> elementList = xpExpression.evaluate(curRootEl);
+		List<Element> elementList = getDocIndex().getElementsEndingWith("anguage");
 		String text = null;
 		int tag4log = getLogTag(mdNSpace, null);
 		loggingMgr.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "valRegion1: element count = " + elementList.size(), null,
@@ -1126,10 +1394,7 @@ public abstract class CMValidator extends XmlIngester {
 	}
 
 	protected void validateLanguageAttributes() {
-		XPathExpression<Attribute> xpExpression = xpfac.compile(
-				".//@*[substring(name(), string-length(name()) - string-length('anguage') +1) = 'anguage']",
-				Filters.attribute(), null, availsNSpace, manifestNSpace, mdNSpace);
-		List<Attribute> attList = xpExpression.evaluate(curRootEl);
+		List<Attribute> attList = getDocIndex().getAttributesEndingWith("anguage");
 		int tag4log = getLogTag(mdNSpace, null);
 		for (int i = 0; i < attList.size(); i++) {
 			Attribute targetAtt = (Attribute) attList.get(i);
@@ -1140,7 +1405,7 @@ public abstract class CMValidator extends XmlIngester {
 		}
 	}
 
-	private boolean checkLangTag(String text) {
+	protected boolean checkLangTag(String text) {
 		if (text == null) {
 			/*
 			 * something was missing. If it was REQ the XSD-based (i.e., schema) validation
@@ -1156,89 +1421,87 @@ public abstract class CMValidator extends XmlIngester {
 			return false;
 		}
 		/*
-		 * RFC4647 states matching of language codes is case-insensitive. The codes have
-		 * been converted and stored as all lowercase so we do the same conversion of
-		 * the value we are checking.
-		 * 
+		 * RFC4647 states matching of language codes is case-insensitive. The encoding
+		 * of subtags used by the registries takes care of that. Subtags are located by
+		 * scanning for the '-' delimiter rather than splitting the tag. Trailing
+		 * delimiters are ignored.
 		 */
-		text = text.toLowerCase();
-		String[] langSubfields = text.split("-");
-		boolean passed = true;
-		/*
-		 * 1st field should be specified in ISO639-2 or ISO639-3 and will be MANDATORY
-		 */
-		String subTag = langSubfields[0];
-		switch (subTag.length()) {
-		case 2:
-			passed = iso639_2.contains(subTag);
-			break;
-		case 3:
-			passed = iso639_3.contains(subTag);
-			break;
-		default:
-			passed = false;
+		int end = text.length();
+		while (end > 0 && text.charAt(end - 1) == '-') {
+			end--;
 		}
-		if (!passed) {
-			return false;
-		}
-		if (langSubfields.length < 2) {
-			return true;
-		}
-
-		/*
-		 * 2nd field will be script or region or a variant. Which it is can be
-		 * determined by the length of string.
-		 */
-		subTag = langSubfields[1];
 		boolean foundRegion = false;
-		switch (subTag.length()) {
-		case 2:
-		case 3:
-			passed = iso3166_1_codes.containsKey(subTag.toUpperCase());
-			foundRegion = true;
-			break;
-		case 4:
-			passed = rfc5646Script.contains(subTag);
-			break;
-		default:
-			passed = rfc5646Variant.contains(subTag);
-		}
-		if (!passed) {
-			return false;
-		}
-		if (langSubfields.length < 3) {
-			return true;
-		}
-
-		/*
-		 * 3rd field may be region or a variant. Make sure we didn't already process a
-		 * region in subtag #2.
-		 */
-		subTag = langSubfields[2];
 		boolean foundVariant = false;
-		if ((subTag.length() == 2) && !foundRegion) {
-			passed = iso3166_1_codes.containsKey(subTag.toUpperCase());
-		} else {
-			passed = rfc5646Variant.contains(subTag);
-			foundVariant = true;
-		}
-		if (!passed) {
-			return false;
-		}
-		if (langSubfields.length < 4) {
-			return true;
-		}
-
-		/*
-		 * 4th field can only be a variant. Make sure we didn't already process a
-		 * variant in prior subtag.
-		 */
-		if (foundVariant) {
-			passed = false;
-		} else {
-			passed = rfc5646Variant.contains(langSubfields[3]);
+		int start = 0;
+		for (int fieldNum = 0; fieldNum < 4; fieldNum++) {
+			int delim = text.indexOf('-', start);
+			if (delim < 0 || delim > end) {
+				delim = end;
+			}
+			int subTagLength = delim - start;
+			boolean passed;
+			switch (fieldNum) {
+			case 0:
+				/*
+				 * 1st field should be specified in ISO639-2 or ISO639-3 and will be MANDATORY
+				 */
+				switch (subTagLength) {
+				case 2:
+					passed = isRegistered(iso639_2, text, start, delim);
+					break;
+				case 3:
+					passed = isRegistered(iso639_3, text, start, delim);
+					break;
+				default:
+					passed = false;
+				}
+				break;
+			case 1:
+				/*
+				 * 2nd field will be script or region or a variant. Which it is can be
+				 * determined by the length of string.
+				 */
+				switch (subTagLength) {
+				case 2:
+				case 3:
+					passed = isRegistered(iso3166_1_subTags, text, start, delim);
+					foundRegion = true;
+					break;
+				case 4:
+					passed = isRegistered(rfc5646Script, text, start, delim);
+					break;
+				default:
+					passed = isRegistered(rfc5646Variant, text, start, delim);
+				}
+				break;
+			case 2:
+				/*
+				 * 3rd field may be region or a variant. Make sure we didn't already process a
+				 * region in subtag #2.
+				 */
+				if ((subTagLength == 2) && !foundRegion) {
+					passed = isRegistered(iso3166_1_subTags, text, start, delim);
+				} else {
+					passed = isRegistered(rfc5646Variant, text, start, delim);
+					foundVariant = true;
+				}
+				break;
+			default:
+				/*
+				 * 4th field can only be a variant. Make sure we didn't already process a
+				 * variant in prior subtag.
+				 */
+				passed = !foundVariant && isRegistered(rfc5646Variant, text, start, delim);
+			}
+			if (!passed) {
+				return false;
+			}
+			if (delim >= end) {
+				return true;
+			}
+			start = delim + 1;
 		}
-		return passed;
+		return true;
 	}
 
 	private void reportLangError(Element targetEl, int tag4log, String langTag) {
@@ -1269,9 +1532,7 @@ public abstract class CMValidator extends XmlIngester {
 		/*
 		 * check for use of the <tt>&lt;md:country&gt;</tt> element.
 		 */
-		XPathExpression<Element> xpExpression = xpfac.compile(".//" + mdNSpace.getPrefix() + ":country",
-				Filters.element(), null, mdNSpace);
-		List<Element> elementList = xpExpression.evaluate(curRootEl);
+		List<Element> elementList = getDocIndex().getElements(mdNSpace, "country");
 		String text = null;
 		Element logMsgEl;
 		int tag4log = getLogTag(mdNSpace, null);
@@ -1303,8 +1564,7 @@ public abstract class CMValidator extends XmlIngester {
 		boolean allOK = true;
 		String errMsg = "Unrecognized value for @region attribute";
 		LogReference srcRef = LogReference.getRef("CM", "cm_regions");
-		XPathExpression<Attribute> xpExpression = xpfac.compile("//@region", Filters.attribute(), null, primaryNS);
-		List<Attribute> attList = xpExpression.evaluate(curRootEl);
+		List<Attribute> attList = getDocIndex().getAttributes("region");
 		int tag4log = getLogTag(primaryNS, null);
 		for (int i = 0; i < attList.size(); i++) {
 			Attribute targetAtt = (Attribute) attList.get(i);
@@ -1322,9 +1582,7 @@ public abstract class CMValidator extends XmlIngester {
 			Properties codes, LogReference srcRef, boolean caseSensitive) {
 		boolean allOK = true;
 		int tag4log = getLogTag(primaryNS, childNS);
-		XPathExpression<Element> xpExpression = xpfac.compile(".//" + primaryNS.getPrefix() + ":" + primaryEl,
-				Filters.element(), null, primaryNS);
-		List<Element> elementList = xpExpression.evaluate(curRootEl);
+		List<Element> elementList = getDocIndex().getElements(primaryNS, primaryEl);
 		loggingMgr.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "valCode: element count = " + elementList.size(), null,
 				logMsgSrcId);
 
@@ -1398,13 +1656,16 @@ public abstract class CMValidator extends XmlIngester {
 		 */
 		String rootPrefix = curRootEl.getNamespacePrefix();
 		String pre;
+		Namespace assetNS;
 		switch (rootPrefix) {
 		case "avails":
 		case "mdmec":
 			pre = "md";
+			assetNS = mdNSpace;
 			break;
 		case "manifest":
 			pre = "manifest";
+			assetNS = manifestNSpace;
 			break;
 		default:
 			// Not used in this type of MDDF file
@@ -1413,22 +1674,22 @@ public abstract class CMValidator extends XmlIngester {
 			return;
 		}
 		JSONObject rqmtSet = structDefs.getJSONObject("Audio");
-		validateDigitalAsset(".//" + pre + ":Audio", curRootEl, rqmtSet);
+		validateDigitalAsset(".//" + pre + ":Audio", getDocIndex().getElements(assetNS, "Audio"), rqmtSet);
 
 		rqmtSet = structDefs.getJSONObject("Video");
-		validateDigitalAsset(".//" + pre + ":Video", curRootEl, rqmtSet);
+		validateDigitalAsset(".//" + pre + ":Video", getDocIndex().getElements(assetNS, "Video"), rqmtSet);
 
 		rqmtSet = structDefs.getJSONObject("Subtitle");
-		validateDigitalAsset(".//" + pre + ":Subtitle", curRootEl, rqmtSet);
+		validateDigitalAsset(".//" + pre + ":Subtitle", getDocIndex().getElements(assetNS, "Subtitle"), rqmtSet);
 
 		rqmtSet = structDefs.getJSONObject("Image");
-		validateDigitalAsset(".//" + pre + ":Image", curRootEl, rqmtSet);
+		validateDigitalAsset(".//" + pre + ":Image", getDocIndex().getElements(assetNS, "Image"), rqmtSet);
 
 		rqmtSet = structDefs.getJSONObject("Interactive");
-		validateDigitalAsset(".//" + pre + ":Interactive", curRootEl, rqmtSet);
+		validateDigitalAsset(".//" + pre + ":Interactive", getDocIndex().getElements(assetNS, "Interactive"), rqmtSet);
 
 		rqmtSet = structDefs.getJSONObject("Ancillary");
-		validateDigitalAsset(".//" + pre + ":Ancillary", curRootEl, rqmtSet);
+		validateDigitalAsset(".//" + pre + ":Ancillary", getDocIndex().getElements(assetNS, "Ancillary"), rqmtSet);
 	}
 
 	/**
@@ -1444,6 +1705,17 @@ public abstract class CMValidator extends XmlIngester {
 		nSpaces.add(mdNSpace);
 		XPathExpression<Element> xpExpression = xpfac.compile(targetSelectionPath, Filters.element(), null, nSpaces);
 		List<Element> assetList = xpExpression.evaluate(baseEl);
+		validateDigitalAsset(targetSelectionPath, assetList, rqmtSet);
+	}
+
+	/**
+	 * @param targetSelectionPath xPath used to identify the assets (used only for
+	 *                            log messages)
+	 * @param assetList           the target elements
+	 * @param rqmtSet             JSON-formatted requirements that all target
+	 *                            selections should satisfy
+	 */
+	private void validateDigitalAsset(String targetSelectionPath, List<Element> assetList, JSONObject rqmtSet) {
 		if (assetList.isEmpty()) {
 			return;
 		}
@@ -1542,17 +1814,15 @@ public abstract class CMValidator extends XmlIngester {
 	 */
 	protected void validateVocab(Namespace primaryNS, String primaryEl, Namespace childNS, String child,
 			JSONArray expected, LogReference srcRef, boolean caseSensitive, boolean strict) {
+		if (expected == null || expected.isEmpty()) {
+			/*
+			 * The version of the schema being used does not define an enumerated set of
+			 * valid terms for the target element.
+			 */
+			return;
+		}
 		int tag4log = getLogTag(primaryNS, childNS);
 		String logLabel;
-		String xpathString;
-		Collection<Namespace> nSpaces = new HashSet<Namespace>();
-		nSpaces.add(primaryNS);
-		if (childNS != null) {
-			xpathString = ".//" + primaryNS.getPrefix() + ":" + primaryEl + "/" + childNS.getPrefix() + ":" + child;
-			nSpaces.add(childNS);
-		} else {
-			xpathString = ".//" + primaryNS.getPrefix() + ":" + primaryEl + "/" + child;
-		}
 		boolean isAttribute;
 		if (!child.startsWith("@")) {
 			logLabel = primaryEl + "/" + child;
@@ -1561,8 +1831,31 @@ public abstract class CMValidator extends XmlIngester {
 			logLabel = primaryEl + child;
 			isAttribute = true;
 		}
-
-		validateVocab(nSpaces, xpathString, isAttribute, expected, srcRef, caseSensitive, strict, tag4log, logLabel);
+		if (Verifier.checkElementName(primaryEl) != null) {
+			/* primaryEl is an XPath step (e.g., it includes a predicate) */
+			String xpathString;
+			Collection<Namespace> nSpaces = new HashSet<Namespace>();
+			nSpaces.add(primaryNS);
+			if (childNS != null) {
+				xpathString = ".//" + primaryNS.getPrefix() + ":" + primaryEl + "/" + childNS.getPrefix() + ":" + child;
+				nSpaces.add(childNS);
+			} else {
+				xpathString = ".//" + primaryNS.getPrefix() + ":" + primaryEl + "/" + child;
+			}
+			validateVocab(nSpaces, xpathString, isAttribute, expected, srcRef, caseSensitive, strict, tag4log,
+					logLabel);
+			return;
+		}
+		List<?> targetList;
+		if (isAttribute) {
+			targetList = getDocIndex().getAttributes(primaryNS, primaryEl, child.substring(1));
+		} else {
+			if (childNS == null) {
+				childNS = Namespace.NO_NAMESPACE;
+			}
+			targetList = getDocIndex().getElements(primaryNS, primaryEl, childNS, child);
+		}
+		validateVocabUse(targetList, expected, isAttribute, srcRef, caseSensitive, strict, tag4log, logLabel);
 	}
 
 	/**
@@ -1610,7 +1903,7 @@ public abstract class CMValidator extends XmlIngester {
 	 */
 	private void validateVocabUse(List targetList, JSONArray expected, boolean isAttribute, Object srcRef,
 			boolean caseSensitive, boolean strict, int logTag, String logLabel) {
-		String optionsString = expected.toString().toLowerCase();
+		Set<String> options = getLookupSet(expected, !caseSensitive);
 		int logLevel;
 		String explanation;
 		String docSec = null;
@@ -1658,18 +1951,10 @@ public abstract class CMValidator extends XmlIngester {
 			}
 			if (text != null) {
 				boolean matched = true;
-				if (caseSensitive) {
-					if (!expected.contains(text)) {
-						logIssue(logTag, logLevel, logMsgEl, errMsg, explanation, docRef, logMsgSrcId);
-						matched = false;
-
-					}
-				} else {
-					String checkString = "\"" + text.toLowerCase() + "\"";
-					if (!optionsString.contains(checkString)) {
-						logIssue(logTag, logLevel, logMsgEl, errMsg, explanation, docRef, logMsgSrcId);
-						matched = false;
-					}
+				String checkString = caseSensitive ? text : text.toLowerCase();
+				if (!options.contains(checkString)) {
+					logIssue(logTag, logLevel, logMsgEl, errMsg, explanation, docRef, logMsgSrcId);
+					matched = false;
 				}
 				if (!matched && strict) {
 					curFileIsValid = false;
@@ -28,11 +28,19 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.jdom2.Attribute;
 import org.jdom2.Comment;
@@ -54,8 +62,12 @@ import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook;
 import com.movielabs.mddflib.avails.xlsx.XlsxBuilder;
 import com.movielabs.mddflib.avails.xlsx.XlsxBuilderV1_8;
 import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.logging.LogEntryNode;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.NamespaceRewriter;
+import com.movielabs.mddflib.util.xml.NativeXPathFactory;
 import com.movielabs.mddflib.util.xml.XmlIngester;
 
 /**
@@ -120,11 +132,90 @@ import com.movielabs.mddflib.util.xml.XmlIngester;
 public class Translator {
 
 	private static String moduleId = "Translator";
+	private static final int POOL_KEEP_ALIVE_SEC = 30;
+	/* shared by all callers so the number of leaf workers is bounded */
+	private static ExecutorService pool = null;
 	/**
 	 * Identifies what a given Avail format may be translated <b>to</b>.
 	 */
 	private static Map<FILE_FMT, List<FILE_FMT>> supported = new HashMap<FILE_FMT, List<FILE_FMT>>();
-	private static MddfTarget curTarget;
+
+	/**
+	 * The conversions needed to generate a set of selected formats. Each XML
+	 * version that is either selected or is needed to generate a selected XLSX
+	 * format is a <i>node</i> that is only generated once. The selected formats are
+	 * the <i>leaves</i>, each of which is derived from a single node.
+	 */
+	private static class ConversionPlan {
+		/* XML version -> the leaves derived from it, in order of selection */
+		private Map<FILE_FMT, List<FILE_FMT>> nodes = new LinkedHashMap<FILE_FMT, List<FILE_FMT>>();
+		private Map<FILE_FMT, FILE_FMT> sources = new HashMap<FILE_FMT, FILE_FMT>();
+		private List<FILE_FMT> leaves = new ArrayList<FILE_FMT>();
+
+		ConversionPlan(EnumSet<FILE_FMT> selections) {
+			for (FILE_FMT targetFmt : selections) {
+				leaves.add(targetFmt);
+				FILE_FMT xmlFmt = targetFmt;
+				if (targetFmt.getEncoding().equalsIgnoreCase("xlsx")) {
+					xmlFmt = getXmlSource(targetFmt);
+					if (xmlFmt == null) {
+						continue;
+					}
+				}
+				sources.put(targetFmt, xmlFmt);
+				List<FILE_FMT> derived = nodes.get(xmlFmt);
+				if (derived == null) {
+					derived = new ArrayList<FILE_FMT>();
+					nodes.put(xmlFmt, derived);
+				}
+				derived.add(targetFmt);
+			}
+		}
+
+		Set<FILE_FMT> getNodes() {
+			return nodes.keySet();
+		}
+
+		List<FILE_FMT> getLeaves() {
+			return leaves;
+		}
+
+		/**
+		 * @param leaf
+		 * @return the node the <tt>leaf</tt> is derived from or <tt>null</tt> if the
+		 *         conversion is not supported
+		 */
+		FILE_FMT getSource(FILE_FMT leaf) {
+			return sources.get(leaf);
+		}
+
+		/**
+		 * The leaf that may use the generated node without making a copy. This is the
+		 * node itself (i.e., when the XML version was selected) or, if the node is
+		 * only an intermediate, the first leaf derived from it.
+		 * 
+		 * @param node
+		 * @return
+		 */
+		FILE_FMT getOwner(FILE_FMT node) {
+			List<FILE_FMT> derived = nodes.get(node);
+			if (derived.contains(node)) {
+				return node;
+			}
+			return derived.get(0);
+		}
+	}
+
+	/**
+	 * The outcome of generating one of the selected formats.
+	 */
+	private static class LeafResult {
+		/* the Document or TemplateWorkBook */
+		private Object output;
+		private boolean completed = false;
+		private boolean saved = false;
+		private DefaultLogging log;
+	}
 
 	static {
 		/* identify what a given format may be translated TO */
@@ -288,65 +379,18 @@ public class Translator {
 	 */
 	public static int translateAvails(MddfTarget inputTarget, EnumSet<FILE_FMT> selections, String dirPath,
 			String outFileName, boolean appendVersion, LogMgmt logMgr) throws UnsupportedOperationException {
-		curTarget = inputTarget;
-		Iterator<FILE_FMT> selIt = selections.iterator();
+		/*
+		 * workbooks are saved immediately so rows can be streamed to disk as they are
+		 * generated.
+		 */
+		Map<FILE_FMT, LeafResult> results = translate(inputTarget, selections, dirPath, outFileName, appendVersion,
+				TemplateWorkBook.DEFAULT_ROW_WINDOW, logMgr);
 		int outputCnt = 0;
-		while (selIt.hasNext()) {
-			FILE_FMT targetFmt = selIt.next();
-			try {
-				if (targetFmt.getEncoding().equalsIgnoreCase("xlsx")) {
-					TemplateWorkBook wrkBook = convertToExcel(inputTarget, targetFmt, null, null, false, logMgr);
-					if (wrkBook != null) {
-						String fileName = outFileName;
-						fileName = fileName.replaceFirst("(?i)\\.xlsx$", "");
-						if (appendVersion) {
-							fileName = fileName + "_v" + targetFmt.getVersion() + ".xlsx";
-						} else {
-							fileName = fileName + ".xlsx";
-						}
-						File exported = new File(dirPath, fileName);
-						try {
-							wrkBook.export(inputTarget, exported.getPath());
-							logMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE,
-									"Saved translated file as " + exported.getPath(), inputTarget, moduleId);
-						} catch (Exception e) {
-							e.printStackTrace();
-						}
-					}
-					outputCnt++;
-				} else {
-					Document targetDoc = convertToXml(inputTarget, targetFmt, logMgr);
-					if (targetDoc != null) {
-						// did it work? if so, write to file system.
-						if (targetDoc != null) {
-							String fileName = outFileName;
-							fileName = fileName.replaceFirst("(?i)\\.xml$", "");
-							if (appendVersion) {
-								fileName = fileName + "_v" + targetFmt.getVersion() + ".xml";
-							} else {
-								fileName = fileName + ".xml";
-							}
-							File exported = new File(dirPath, fileName);
-							// Save as XML
-							if (XmlIngester.writeXml(exported, targetDoc)) {
-								logMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE,
-										"Saved translated file as " + exported.getPath(), inputTarget, moduleId);
-								outputCnt++;
-							}
-						}
-					}
-				}
-			} catch (Exception e) {
-				if (e instanceof UnsupportedOperationException) {
-					logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, e.getMessage(), inputTarget, moduleId);
-				} else {
-					logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, "Exception while translating: " + e.getMessage(),
-							inputTarget, moduleId);
-					e.printStackTrace();
-				}
+		for (LeafResult result : results.values()) {
+			if (result.saved) {
+				outputCnt++;
 			}
 		}
-		curTarget = null;
 		return outputCnt;
 	}
 
@@ -360,33 +404,229 @@ public class Translator {
 	 */
 	public static Map<FILE_FMT, Object> translateAvails(MddfTarget inputTarget, EnumSet<FILE_FMT> selections,
 			LogMgmt logMgr) {
-		curTarget = inputTarget;
 		HashMap<FILE_FMT, Object> resultMap = new HashMap<FILE_FMT, Object>();
-		Iterator<FILE_FMT> selIt = selections.iterator();
-		while (selIt.hasNext()) {
-			FILE_FMT targetFmt = selIt.next();
+		// convert but don't save
+		Map<FILE_FMT, LeafResult> results = translate(inputTarget, selections, null, null, false, 0, logMgr);
+		for (FILE_FMT targetFmt : results.keySet()) {
+			LeafResult result = results.get(targetFmt);
+			if (result.completed) {
+				resultMap.put(targetFmt, result.output);
+			}
+		}
+		return resultMap;
+	}
+
+	/**
+	 * Generate all of the <tt>selections</tt> using a <tt>ConversionPlan</tt>.
+	 * Each XML version in the plan is generated once. The selected formats are
+	 * then generated (and, if a <tt>dirPath</tt> is provided, saved) in parallel
+	 * with each using a private <tt>DefaultLogging</tt> instance. Once all have
+	 * finished, the entries are transferred to the <tt>logMgr</tt> in the same
+	 * sequence as the <tt>selections</tt> so that the resulting log does not
+	 * depend on the order in which the workers finish.
+	 * 
+	 * @param inputTarget
+	 * @param selections
+	 * @param dirPath       if <tt>null</tt> the translations are not saved
+	 * @param outFileName
+	 * @param appendVersion
+	 * @param rowWindow
+	 * @param logMgr
+	 * @return the result for each of the <tt>selections</tt>
+	 */
+	private static Map<FILE_FMT, LeafResult> translate(MddfTarget inputTarget, EnumSet<FILE_FMT> selections,
+			String dirPath, String outFileName, boolean appendVersion, int rowWindow, LogMgmt logMgr) {
+		ConversionPlan plan = new ConversionPlan(selections);
+		/* STAGE ONE: the XML versions that the selections are derived from */
+		Map<FILE_FMT, Document> nodeDocs = new HashMap<FILE_FMT, Document>();
+		Map<FILE_FMT, Exception> nodeFailures = new HashMap<FILE_FMT, Exception>();
+		for (FILE_FMT xmlFmt : plan.getNodes()) {
 			try {
-				if (targetFmt.getEncoding().equalsIgnoreCase("xlsx")) {
-					// convert but don't save
-					TemplateWorkBook wrkBook = convertToExcel(inputTarget, targetFmt, null, null, false, logMgr);
-					resultMap.put(targetFmt, wrkBook);
+				nodeDocs.put(xmlFmt, convertToXml(inputTarget, xmlFmt, logMgr));
+			} catch (Exception e) {
+				nodeFailures.put(xmlFmt, e);
+			}
+		}
+		/*
+		 * STAGE TWO: the selections. An XlsxBuilder may modify the XML so, unless a
+		 * selection is the only one derived from an XML version, it gets a copy of its
+		 * own. The copies are made before any of the workers are started.
+		 */
+		List<FILE_FMT> leaves = plan.getLeaves();
+		Map<FILE_FMT, Document> leafDocs = new HashMap<FILE_FMT, Document>();
+		for (FILE_FMT targetFmt : leaves) {
+			FILE_FMT xmlFmt = plan.getSource(targetFmt);
+			Document xmlDoc = nodeDocs.get(xmlFmt);
+			if ((xmlDoc != null) && (plan.getOwner(xmlFmt) != targetFmt)) {
+				xmlDoc = xmlDoc.clone();
+			}
+			leafDocs.put(targetFmt, xmlDoc);
+		}
+		Map<FILE_FMT, LeafResult> results = new LinkedHashMap<FILE_FMT, LeafResult>();
+		if (leaves.size() < 2) {
+			for (FILE_FMT targetFmt : leaves) {
+				FILE_FMT xmlFmt = plan.getSource(targetFmt);
+				results.put(targetFmt, generate(inputTarget, targetFmt, leafDocs.get(targetFmt),
+						nodeFailures.get(xmlFmt), dirPath, outFileName, appendVersion, rowWindow, logMgr, inputTarget));
+			}
+			return results;
+		}
+		/* the workers share the source so it must be loaded before they start */
+		inputTarget.getXmlDoc();
+		List<Future<LeafResult>> futures = new ArrayList<Future<LeafResult>>();
+		for (FILE_FMT targetFmt : leaves) {
+			final Document xmlDoc = leafDocs.get(targetFmt);
+			final Exception failure = nodeFailures.get(plan.getSource(targetFmt));
+			/* everything is kept. Filtering is left to the logMgr */
+			final DefaultLogging leafLog = new DefaultLogging();
+			leafLog.setMinLevel(LogMgmt.LEV_DEBUG);
+			leafLog.setEchoInfo(false);
+			leafLog.assignFileFolder(inputTarget);
+			futures.add(getPool().submit(new Callable<LeafResult>() {
+				public LeafResult call() throws Exception {
+					/*
+					 * entries are logged without a target since the inputTarget's folder
+					 * belongs to the logMgr. They go to the leafLog's default folder
+					 * instead.
+					 */
+					LeafResult result = generate(inputTarget, targetFmt, xmlDoc, failure, dirPath, outFileName,
+							appendVersion, rowWindow, leafLog, null);
+					result.log = leafLog;
+					return result;
+				}
+			}));
+		}
+		for (int i = 0; i < leaves.size(); i++) {
+			LeafResult result;
+			try {
+				result = futures.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, "Translation interrupted", inputTarget, moduleId);
+				for (int j = i; j < leaves.size(); j++) {
+					futures.get(j).cancel(true);
+				}
+				break;
+			} catch (ExecutionException e) {
+				/* generate() traps all Exceptions so this should never happen */
+				throw new IllegalStateException(e.getCause());
+			}
+			for (LogEntryNode entry : result.log.getEntries()) {
+				int tag = LogMgmt.text2Tag(entry.getTagAsText());
+				logMgr.log(entry.getLevel(), tag, entry.getSummary(), inputTarget, entry.getLine(),
+						entry.getModuleID(), entry.getTooltip(), entry.getSrcRef());
+			}
+			result.log = null;
+			results.put(leaves.get(i), result);
+		}
+		return results;
+	}
+
+	private static synchronized ExecutorService getPool() {
+		if (pool == null) {
+			int threadCnt = Math.max(1, Runtime.getRuntime().availableProcessors());
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCnt, threadCnt, POOL_KEEP_ALIVE_SEC,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "Translator");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			pool = executor;
+		}
+		return pool;
+	}
 
-				} else {
-					Document targetDoc = convertToXml(inputTarget, targetFmt, logMgr);
-					resultMap.put(targetFmt, targetDoc);
+	/**
+	 * Generate (and optionally save) a single translation from the XML version it
+	 * is derived from. Any <tt>Exception</tt> is trapped and logged.
+	 * 
+	 * @param inputTarget
+	 * @param targetFmt
+	 * @param xmlDoc        the XML version the <tt>targetFmt</tt> is derived from
+	 * @param failure       the <tt>Exception</tt>, if any, that prevented the
+	 *                      generation of the <tt>xmlDoc</tt>
+	 * @param dirPath       if <tt>null</tt> the translation is not saved
+	 * @param outFileName
+	 * @param appendVersion
+	 * @param rowWindow
+	 * @param logMgr
+	 * @param logTarget     the target used when logging
+	 * @return
+	 */
+	private static LeafResult generate(MddfTarget inputTarget, FILE_FMT targetFmt, Document xmlDoc,
+			Exception failure, String dirPath, String outFileName, boolean appendVersion, int rowWindow,
+			LogMgmt logMgr, MddfTarget logTarget) {
+		LeafResult result = new LeafResult();
+		try {
+			if (targetFmt.getEncoding().equalsIgnoreCase("xlsx")) {
+				String curVersion = XmlIngester.identifyXsdVersion(inputTarget.getXmlDoc().getRootElement());
+				String msg = "Translating to Excel v" + targetFmt.getVersion() + " from XML v" + curVersion;
+				logMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, msg, logTarget, moduleId);
+				if (failure != null) {
+					throw failure;
 				}
-			} catch (Exception e) {
-				if (e instanceof UnsupportedOperationException) {
-					logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, e.getMessage(), inputTarget, moduleId);
-				} else {
-					logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, "Exception while translating: " + e.getMessage(),
-							inputTarget, moduleId);
-					e.printStackTrace();
+				if (xmlDoc == null) {
+					throw new UnsupportedOperationException("Conversion to Avails xlsx " + targetFmt.name()
+							+ " from XML v" + curVersion + " not supported");
+				}
+				TemplateWorkBook wrkBook = buildWorkbook(xmlDoc, targetFmt, rowWindow, logMgr);
+				result.output = wrkBook;
+				result.completed = true;
+				if ((dirPath != null) && (wrkBook != null)) {
+					String fileName = outFileName;
+					fileName = fileName.replaceFirst("(?i)\\.xlsx$", "");
+					if (appendVersion) {
+						fileName = fileName + "_v" + targetFmt.getVersion() + ".xlsx";
+					} else {
+						fileName = fileName + ".xlsx";
+					}
+					File exported = new File(dirPath, fileName);
+					try {
+						wrkBook.export(logTarget, exported.getPath());
+						logMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, "Saved translated file as " + exported.getPath(),
+								logTarget, moduleId);
+						result.saved = true;
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			} else {
+				if (failure != null) {
+					throw failure;
 				}
+				result.output = xmlDoc;
+				result.completed = true;
+				// did it work? if so, write to file system.
+				if ((dirPath != null) && (xmlDoc != null)) {
+					String fileName = outFileName;
+					fileName = fileName.replaceFirst("(?i)\\.xml$", "");
+					if (appendVersion) {
+						fileName = fileName + "_v" + targetFmt.getVersion() + ".xml";
+					} else {
+						fileName = fileName + ".xml";
+					}
+					File exported = new File(dirPath, fileName);
+					// Save as XML
+					if (XmlIngester.writeXml(exported, xmlDoc)) {
+						logMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, "Saved translated file as " + exported.getPath(),
+								logTarget, moduleId);
+						result.saved = true;
+					}
+				}
+			}
+		} catch (Exception e) {
+			if (e instanceof UnsupportedOperationException) {
+				logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, e.getMessage(), logTarget, moduleId);
+			} else {
+				logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, "Exception while translating: " + e.getMessage(),
+						logTarget, moduleId);
+				e.printStackTrace();
 			}
 		}
-		curTarget = null;
-		return resultMap;
+		return result;
 	}
 
 	/**
@@ -430,12 +670,12 @@ public class Translator {
 //					outputDoc = avail2_1_to_2_2(inputDoc, logMgr);
 //					break;
 //				case "2.2.1":
-//					outputDoc = avail2_2_1_to_2_2(inputDoc, logMgr);
+//					outputDoc = avail2_2_1_to_2_2(inputDoc, inputTarget, logMgr);
 //					break;
 //				case "2.3":
-//					outputDoc = avail2_3_to_2_2_2(inputDoc, logMgr);
-//					outputDoc = avail2_2_2_to_2_2_1(outputDoc, logMgr);
-//					outputDoc = avail2_2_1_to_2_2(inputDoc, logMgr);
+//					outputDoc = avail2_3_to_2_2_2(inputDoc, inputTarget, logMgr);
+//					outputDoc = avail2_2_2_to_2_2_1(outputDoc, inputTarget, logMgr);
+//					outputDoc = avail2_2_1_to_2_2(inputDoc, inputTarget, logMgr);
 //					break;
 //				case "2.2.2":
 				default:
@@ -445,11 +685,10 @@ public class Translator {
 			case AVAILS_2_2_1:
 				switch (curVersion) {
 				case "2.1":
-					outputDoc = avail2_1_to_2_2(inputDoc, logMgr);
-					outputDoc = simpleConversion(outputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					return outputDoc;
 				case "2.2":
-					outputDoc = simpleConversion(inputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					return outputDoc; 
 				default:
 					// Unsupported request
@@ -458,14 +697,13 @@ public class Translator {
 			case AVAILS_2_2_2:
 				switch (curVersion) {
 				case "2.1":
-					outputDoc = avail2_1_to_2_2(inputDoc, logMgr);
-					outputDoc = simpleConversion(outputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					break;
 				case "2.2":
-					outputDoc = simpleConversion(inputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					break;
 				case "2.2.1":
-					outputDoc = simpleConversion(inputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					return outputDoc;
 				default:
 					// Unsupported request
@@ -474,13 +712,12 @@ public class Translator {
 			case AVAILS_2_3:
 				switch (curVersion) {
 				case "2.1":
-					outputDoc = avail2_1_to_2_2(inputDoc, logMgr);
-					outputDoc = simpleConversion(outputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					break;
 				case "2.2":
 				case "2.2.1":
 				case "2.2.2":
-					outputDoc = simpleConversion(inputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					break;
 				default:
 					// Unsupported request
@@ -489,15 +726,14 @@ public class Translator {
 			case AVAILS_2_4:
 				switch (curVersion) {
 				case "2.1":
-					outputDoc = avail2_1_to_2_2(inputDoc, logMgr);
-					outputDoc = simpleConversion(outputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					break;
 				case "2.2":
 				case "2.2.1":
 				case "2.2.2":
 				case "2.2.3":
 				case "2.3":
-					outputDoc = simpleConversion(inputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					break;
 				default:
 					// Unsupported request
@@ -506,8 +742,7 @@ public class Translator {
 			case AVAILS_2_5:
 				switch (curVersion) {
 				case "2.1":
-					outputDoc = avail2_1_to_2_2(inputDoc, logMgr);
-					outputDoc = simpleConversion(outputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					break;
 				case "2.2":
 				case "2.2.1":
@@ -516,7 +751,7 @@ public class Translator {
 				case "2.3":
 				case "2.4":
 				case "2.5.2":
-					outputDoc = simpleConversion(inputDoc, curFmt, targetFmt);
+					outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 					break;
 				default:
 					// Unsupported request
@@ -525,8 +760,7 @@ public class Translator {
 				case AVAILS_2_5_2:
 					switch (curVersion) {
 					case "2.1":
-						outputDoc = avail2_1_to_2_2(inputDoc, logMgr);
-						outputDoc = simpleConversion(outputDoc, curFmt, targetFmt);
+						outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 						break;
 					case "2.2":
 					case "2.2.1":
@@ -535,7 +769,7 @@ public class Translator {
 					case "2.3":
 					case "2.4":
 					case "2.5":
-						outputDoc = simpleConversion(inputDoc, curFmt, targetFmt);
+						outputDoc = convertVersion(inputDoc, outputDoc, curFmt, targetFmt, logMgr);
 						break;
 					default:
 						// Unsupported request
@@ -593,109 +827,134 @@ public class Translator {
 	}
 
 	/**
-	 * Handle conversion of an XML formatted Avails to an Excel formated Avails.
+	 * Return the XML version that a spreadsheet using the
+	 * <tt>targetXlsxFormat</tt> is generated from or <tt>null</tt> if conversion
+	 * to the <tt>targetXlsxFormat</tt> is not supported.
 	 * 
-	 * @param inputTarget
 	 * @param targetXlsxFormat
-	 * @param dirPath
-	 * @param outFileName
-	 * @param appendVersion
-	 * @param logMgr
 	 * @return
-	 * @throws UnsupportedOperationException
 	 */
-	private static TemplateWorkBook convertToExcel(MddfTarget inputTarget, FILE_FMT targetXlsxFormat, String dirPath,
-			String outFileName, boolean appendVersion, LogMgmt logMgr) throws UnsupportedOperationException {
-
-		Document xmlSrcDoc = inputTarget.getXmlDoc();
-		String curVersion = XmlIngester.identifyXsdVersion(xmlSrcDoc.getRootElement());
-//		FILE_FMT curFmt = MddfContext.identifyMddfFormat("avails", curVersion);
-		Version excelVer = null;
-		String msg = "Translating to Excel v" + targetXlsxFormat.getVersion() + " from XML v" + curVersion;
-		logMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_XLATE, msg, inputTarget, moduleId);
-		FILE_FMT targetXmlFmt = null;
+	private static FILE_FMT getXmlSource(FILE_FMT targetXlsxFormat) {
 		switch (targetXlsxFormat) {
 		case AVAILS_1_6:
 			// not supported
-			break;
+			return null;
 		case AVAILS_1_7:
 			/*
 			 * Dead version that was never implemented or used by the community
 			 */
-			break;
+			return null;
 		case AVAILS_1_7_2:
-			excelVer = Version.V1_7_2;
 			/*
 			 * A v1.7.2 spreadsheet should be generated from v2.2.2 XML.
 			 */
-			targetXmlFmt = FILE_FMT.AVAILS_2_2_2;
-			break;
-
+			return FILE_FMT.AVAILS_2_2_2;
 		case AVAILS_1_7_3:
 		case AVAILS_1_8:
 			/*
 			 * Both v1.7.3 and v1.8 spreadsheet should be generated from v2.3 XML.
 			 */
-			targetXmlFmt = FILE_FMT.AVAILS_2_3;
-			if (targetXlsxFormat == FILE_FMT.AVAILS_1_8) {
-				excelVer = Version.V1_8;
-			} else {
-				excelVer = Version.V1_7_3;
-			}
+			return FILE_FMT.AVAILS_2_3;
+		case AVAILS_1_9:
+			return FILE_FMT.AVAILS_2_5;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Handle conversion of an XML formatted Avails to an Excel formated Avails.
+	 * The <tt>xmlDoc</tt> must use the version returned by
+	 * <tt>getXmlSource(targetXlsxFormat)</tt>.
+	 * 
+	 * @param xmlDoc
+	 * @param targetXlsxFormat
+	 * @param rowWindow
+	 *            if greater than zero, the returned workbook will stream rows to
+	 *            disk and may only be exported once.
+	 * @param logMgr
+	 * @return
+	 */
+	private static TemplateWorkBook buildWorkbook(Document xmlDoc, FILE_FMT targetXlsxFormat, int rowWindow,
+			LogMgmt logMgr) {
+		XlsxBuilder converter = null;
+		switch (targetXlsxFormat) {
+		case AVAILS_1_7_2:
+			converter = new XlsxBuilder(xmlDoc.getRootElement(), Version.V1_7_2, logMgr, rowWindow);
+			break;
+		case AVAILS_1_7_3:
+			converter = new XlsxBuilder(xmlDoc.getRootElement(), Version.V1_7_3, logMgr, rowWindow);
+			break;
+		case AVAILS_1_8:
+			converter = new XlsxBuilderV1_8(xmlDoc.getRootElement(), Version.V1_8, logMgr, rowWindow);
 			break;
 		case AVAILS_1_9:
-			excelVer = Version.V1_9;;
-			targetXmlFmt = FILE_FMT.AVAILS_2_5;
+			converter = new XlsxBuilderV1_8(xmlDoc.getRootElement(), Version.V1_9, logMgr, rowWindow);
 			break;
+		default:
+			return null;
+		}
+		return converter.getWorkbook();
+	}
 
+	/**
+	 * Convert the <tt>inputDoc</tt> from the <tt>curFmt</tt> to the
+	 * <tt>targetFmt</tt> when the two versions differ only in their namespaces.
+	 * The <tt>inputDoc</tt> is not modified. If a <tt>priorDoc</tt> has already
+	 * been generated for the same request it is returned as is.
+	 * <p>
+	 * A v2.1 file is first taken to v2.2 and then on to the <tt>targetFmt</tt>.
+	 * Both steps are combined into a single pass over a copy of the
+	 * <tt>inputDoc</tt>.
+	 * </p>
+	 * 
+	 * @param inputDoc
+	 * @param priorDoc
+	 * @param curFmt
+	 * @param targetFmt
+	 * @param logMgr
+	 * @return
+	 */
+	private static Document convertVersion(Document inputDoc, Document priorDoc, FILE_FMT curFmt,
+			FILE_FMT targetFmt, LogMgmt logMgr) {
+		if (priorDoc != null) {
+			return priorDoc;
 		}
-		if (targetXmlFmt == null) {
-			throw new UnsupportedOperationException("Conversion to Avails xlsx " + targetXlsxFormat.name()
-					+ " from XML v" + curVersion + " not supported");
+		Document xmlDocOut = inputDoc.clone();
+		NamespaceRewriter rewriter = new NamespaceRewriter();
+		if (curFmt == FILE_FMT.AVAILS_2_1) {
+			rewriter.addStep(FILE_FMT.AVAILS_2_1, FILE_FMT.AVAILS_2_2);
+			rewriter.addStep(FILE_FMT.AVAILS_2_2, targetFmt);
+		} else {
+			rewriter.addStep(curFmt, targetFmt);
 		}
-		Document xmlDoc = convertToXml(inputTarget, targetXmlFmt, logMgr);
-		XlsxBuilder converter = null;
-		switch (excelVer) {  
-		case V1_7_3:
-		case V1_7_2:
-			converter = new XlsxBuilder(xmlDoc.getRootElement(), excelVer, logMgr);
-			break;
-		case V1_8:
-		case V1_9:
-			converter = new XlsxBuilderV1_8(xmlDoc.getRootElement(), excelVer, logMgr);
+		rewriter.rewrite(xmlDocOut);
+		if (curFmt == FILE_FMT.AVAILS_2_1) {
+			avail2_1_to_2_2(xmlDocOut, logMgr);
 		}
-		TemplateWorkBook wrkBook = converter.getWorkbook();
-		return wrkBook;
+		return xmlDocOut;
 	}
 
 	/**
+	 * Make the non-namespace changes needed to convert a v2.1 file to v2.2. The
+	 * <tt>xmlDoc</tt> is modified in place and should already be using the
+	 * namespaces of the target version.
 	 * 
-	 * @param xmlDocIn
+	 * @param xmlDoc
 	 * @param logMgr
-	 * @return
 	 */
-	private static Document avail2_1_to_2_2(Document xmlDocIn, LogMgmt logMgr) {
-		/*
-		 * STAGE ONE: some changes are easiest to do by converting the Doc to a string
-		 * and then doing string replacements prior to converting back to Doc form.
-		 */
-		XMLOutputter outputter = new XMLOutputter();
-		String inDoc = outputter.outputString(xmlDocIn);
-		// Change Namespace declaration
-		String t1 = inDoc.replaceFirst("/avails/v2.1/avails", "/avails/v2.2/avails");
-		String outDoc = t1.replaceAll(":StoreLanguage>", ":AssetLanguage>");
-		// Now gen a new doc
-		SAXBuilder builder = new SAXBuilder();
-		builder.setJDOMFactory(new LocatedJDOMFactory());
-		Document xmlDocOut = regenXml(outDoc);
-		/*
-		 * Stage TWO is to do anything that is easier to handle via manipulation of the
-		 * XML.
-		 */
-		// ...........
-		XPathFactory xpfac = XPathFactory.instance();
-		Namespace availsNSpace = Namespace.getNamespace("avails",
-				MddfContext.NSPACE_AVAILS_PREFIX + "2.2" + MddfContext.NSPACE_AVAILS_SUFFIX);
+	private static void avail2_1_to_2_2(Document xmlDoc, LogMgmt logMgr) {
+		Element rootEl = xmlDoc.getRootElement();
+		Namespace availsNSpace = Namespace.getNamespace("avails", rootEl.getNamespaceURI());
+		// StoreLanguage is renamed AssetLanguage
+		List<Element> storeLangList = new ArrayList<Element>();
+		for (Element nextEl : rootEl.getDescendants(Filters.element("StoreLanguage", availsNSpace))) {
+			storeLangList.add(nextEl);
+		}
+		for (Element nextEl : storeLangList) {
+			nextEl.setName("AssetLanguage");
+		}
+		XPathFactory xpfac = NativeXPathFactory.getInstance();
 		/*
 		 * Find all Transaction/Term[[@termName='HoldbackExclusionLanguage']. These need
 		 * to be removed from the XML and then replaced with a
@@ -705,7 +964,7 @@ public class Translator {
 		 */
 		String helTermPath = "//avails:Transaction/avails:Term[./@termName='HoldbackExclusionLanguage']";
 		XPathExpression<Element> helTermPathExp = xpfac.compile(helTermPath, Filters.element(), null, availsNSpace);
-		List<Element> helElList = helTermPathExp.evaluate(xmlDocOut.getRootElement());
+		List<Element> helElList = helTermPathExp.evaluate(rootEl);
 		for (Element termEl : helElList) {
 			// find insert point
 			Element transEl = termEl.getParentElement();
@@ -720,17 +979,17 @@ public class Translator {
 			allowedEl.setText(lang);
 			transEl.addContent(insertPoint, allowedEl);
 		}
-		return xmlDocOut;
 	}
 
 	/**
 	 * 
 	 * 
 	 * @param xmlDocIn
+	 * @param target
 	 * @param logMgr
 	 * @return
 	 */
-	private static Document avail2_2_1_to_2_2(Document xmlDocIn, LogMgmt logMgr) {
+	private static Document avail2_2_1_to_2_2(Document xmlDocIn, MddfTarget target, LogMgmt logMgr) {
 		/*
 		 * STAGE ONE: some changes are easiest to do by converting the Doc to a string
 		 * and then doing string replacements prior to converting back to Doc form.
@@ -747,21 +1006,22 @@ public class Translator {
 		 */
 		Element rootEl = xmlDocOut.getRootElement();
 		String targetPath = "/avails:AvailList/avails:Avail/avails:Transaction/avails:AssetLanguage[@asset]";
-		removeAttribute(targetPath, "asset", rootEl, logMgr, "AssetLanguage");
+		removeAttribute(targetPath, "asset", rootEl, target, logMgr, "AssetLanguage");
 		targetPath = "/avails:AvailList/avails:Avail/avails:Transaction/avails:AssetLanguage[@descriptive]";
-		removeAttribute(targetPath, "descriptive", rootEl, logMgr, "AssetLanguage");
+		removeAttribute(targetPath, "descriptive", rootEl, target, logMgr, "AssetLanguage");
 		targetPath = "/avails:AvailList/avails:Avail/avails:Transaction/avails:AllowedLanguage[@asset]";
-		removeAttribute(targetPath, "asset", rootEl, logMgr, "AllowedLanguage");
+		removeAttribute(targetPath, "asset", rootEl, target, logMgr, "AllowedLanguage");
 
 		return xmlDocOut;
 	}
 
 	/**
 	 * @param logMgr
+	 * @param target
 	 * @param srcDoc
 	 * @return
 	 */
-	private static Document avail2_2_2_to_2_2_1(Document xmlDocIn, LogMgmt logMgr) {
+	private static Document avail2_2_2_to_2_2_1(Document xmlDocIn, MddfTarget target, LogMgmt logMgr) {
 		XMLOutputter outputter = new XMLOutputter();
 		String inDoc = outputter.outputString(xmlDocIn);
 		// Change Namespace declaration
@@ -773,7 +1033,7 @@ public class Translator {
 		Document xmlDocOut = regenXml(t1);
 		Element rootEl = xmlDocOut.getRootElement();
 		Namespace availsNSpace = rootEl.getNamespace("avails");
-		XPathFactory xpfac = XPathFactory.instance();
+		XPathFactory xpfac = NativeXPathFactory.getInstance();
 
 		String targetPath = "//avails:People";
 		XPathExpression<Element> pathExp = xpfac.compile(targetPath, Filters.element(), null, availsNSpace);
@@ -783,7 +1043,7 @@ public class Translator {
 		}
 		if (!removalList.isEmpty()) {
 			String msg = "Removing " + removalList.size() + " People elements";
-			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, curTarget, moduleId);
+			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, target, moduleId);
 		}
 
 		targetPath = "//avails:GroupingEntity";
@@ -794,7 +1054,7 @@ public class Translator {
 		}
 		if (!removalList.isEmpty()) {
 			String msg = "Removing " + removalList.size() + " GroupingEntity elements";
-			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, curTarget, moduleId);
+			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, target, moduleId);
 		}
 
 		targetPath = "//avails:Transaction/avails:Duration";
@@ -805,24 +1065,24 @@ public class Translator {
 		}
 		if (!removalList.isEmpty()) {
 			String msg = "Removing " + removalList.size() + " Transaction/Duration elements";
-			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, curTarget, moduleId);
+			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, target, moduleId);
 		}
 
 		targetPath = "/avails:AvailList/avails:Avail[@updateNum]";
-		removeAttribute(targetPath, "updateNum", rootEl, logMgr, "Avail");
+		removeAttribute(targetPath, "updateNum", rootEl, target, logMgr, "Avail");
 		targetPath = "/avails:AvailList/avails:Avail[@updateDeliveryFlow]";
-		removeAttribute(targetPath, "updateDeliveryFlow", rootEl, logMgr, "Avail");
+		removeAttribute(targetPath, "updateDeliveryFlow", rootEl, target, logMgr, "Avail");
 		targetPath = "/avails:AvailList/avails:Avail[@workflow]";
-		removeAttribute(targetPath, "workflow", rootEl, logMgr, "Avail");
+		removeAttribute(targetPath, "workflow", rootEl, target, logMgr, "Avail");
 
 		targetPath = "/avails:AvailList/avails:Avail/avails:Transaction/*[@lag]";
-		removeAttribute(targetPath, "lag", rootEl, logMgr, "StartCondition and EndCondition");
+		removeAttribute(targetPath, "lag", rootEl, target, logMgr, "StartCondition and EndCondition");
 
 		targetPath = "/avails:AvailList/avails:Avail/avails:Transaction/avails:AssetLanguage[@assetProvided]";
-		removeAttribute(targetPath, "assetProvided", rootEl, logMgr, "AssetLanguage");
+		removeAttribute(targetPath, "assetProvided", rootEl, target, logMgr, "AssetLanguage");
 
 		targetPath = "/avails:AvailList/avails:Avail/avails:Transaction/avails:AssetLanguage[@metadataProvided]";
-		removeAttribute(targetPath, "metadataProvided", rootEl, logMgr, "AssetLanguage");
+		removeAttribute(targetPath, "metadataProvided", rootEl, target, logMgr, "AssetLanguage");
 		/*
 		 * v2.2.2 allows multiple instances of TitleInternalAlias for different regions
 		 * as well as multiple instances of TitleDisplayUnlimited for different
@@ -830,9 +1090,9 @@ public class Translator {
 		 * all but 1st is removed and a WARNING is issued. This is also true for Season
 		 * and Series metadata
 		 */
-		scrubTitles(rootEl, "", logMgr);
-		scrubTitles(rootEl, "Season", logMgr);
-		scrubTitles(rootEl, "Series", logMgr);
+		scrubTitles(rootEl, "", target, logMgr);
+		scrubTitles(rootEl, "Season", target, logMgr);
+		scrubTitles(rootEl, "Series", target, logMgr);
 
 		return xmlDocOut;
 	}
@@ -850,13 +1110,14 @@ public class Translator {
 	 * 
 	 * @param rootEl
 	 * @param prefix
+	 * @param target     the target used when logging
 	 * @param logMgr
 	 */
-	private static void scrubTitles(Element rootEl, String prefix, LogMgmt logMgr) {
+	private static void scrubTitles(Element rootEl, String prefix, MddfTarget target, LogMgmt logMgr) {
 		/*
 		 */
 		Namespace availsNSpace = rootEl.getNamespace("avails");
-		XPathFactory xpfac = XPathFactory.instance();
+		XPathFactory xpfac = NativeXPathFactory.getInstance();
 
 		String thing1 = prefix + "TitleInternalAlias";
 		String targetPath = "/avails:AvailList/avails:Avail/avails:Asset//*[count(avails:" + thing1 + ") > 1 ]";
@@ -864,7 +1125,7 @@ public class Translator {
 		if (removedCnt > 0) {
 			String msg = "Removing " + removedCnt + " " + thing1 + " elements (max allowed exceeded)";
 			String details = "Only 1 " + thing1 + " allowed per Asset";
-			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, curTarget, null, moduleId, details, null);
+			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, target, null, moduleId, details, null);
 		}
 
 		removedCnt = 0;
@@ -874,22 +1135,23 @@ public class Translator {
 		if (removedCnt > 0) {
 			String msg = "Removing " + removedCnt + " " + thing2 + " elements (max allowed exceeded)";
 			String details = "Only 1 " + thing2 + " allowed per Asset";
-			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, curTarget, null, moduleId, details, null);
+			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, target, null, moduleId, details, null);
 		}
 
 		// now remove @language and @region from any remaining
 		targetPath = "//avails:" + thing1 + "[@region]";
-		removeAttribute(targetPath, "region", rootEl, logMgr, thing1);
+		removeAttribute(targetPath, "region", rootEl, target, logMgr, thing1);
 		targetPath = "//avails:" + thing2 + "[@language]";
-		removeAttribute(targetPath, "language", rootEl, logMgr, thing2);
+		removeAttribute(targetPath, "language", rootEl, target, logMgr, thing2);
 	}
 
 	/**
 	 * @param logMgr
+	 * @param target
 	 * @param inputDoc
 	 * @return
 	 */
-	private static Document avail2_3_to_2_2_2(Document xmlDocIn, LogMgmt logMgr) {
+	private static Document avail2_3_to_2_2_2(Document xmlDocIn, MddfTarget target, LogMgmt logMgr) {
 		XMLOutputter outputter = new XMLOutputter();
 		// start with namespace conversion
 		Document xmlDocOut = simpleConversion(xmlDocIn, MddfContext.identifyMddfFormat("Avails", "2.3"),
@@ -897,7 +1159,7 @@ public class Translator {
 
 		Element rootEl = xmlDocOut.getRootElement();
 		Namespace availsNSpace = rootEl.getNamespace("avails");
-		XPathFactory xpfac = XPathFactory.instance();
+		XPathFactory xpfac = NativeXPathFactory.getInstance();
 
 		String targetPath = "//avails:Licensee";
 		XPathExpression<Element> pathExp = xpfac.compile(targetPath, Filters.element(), null, availsNSpace);
@@ -907,7 +1169,7 @@ public class Translator {
 		}
 		if (!removalList.isEmpty()) {
 			String msg = "Removing " + removalList.size() + " Licensee elements";
-			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, curTarget, null, moduleId, null, null);
+			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, target, null, moduleId, null, null);
 		}
 
 		/*
@@ -931,14 +1193,14 @@ public class Translator {
 		}
 		if (!removalList.isEmpty()) {
 			String msg = "Removing " + removalList.size() + " unsupported Terms";
-			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, curTarget, null, moduleId, null, null);
+			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, target, null, moduleId, null, null);
 		}
 		return xmlDocOut;
 	}
 
 	/**
 	 * Handle conversion of XML document that only requires changes to the
-	 * <tt>Namespace</tt> versions.
+	 * <tt>Namespace</tt> versions. The <tt>xmlDocIn</tt> is not modified.
 	 * 
 	 * @param xmlDocIn
 	 * @param srcFmt
@@ -946,26 +1208,9 @@ public class Translator {
 	 * @return
 	 */
 	private static Document simpleConversion(Document xmlDocIn, FILE_FMT srcFmt, FILE_FMT targetFmt) {
-		XMLOutputter outputter = new XMLOutputter();
-		String inDoc = outputter.outputString(xmlDocIn);
-		Map<String, Namespace> srcNS = MddfContext.getRequiredNamespaces(srcFmt);
-		Map<String, Namespace> targetNS = MddfContext.getRequiredNamespaces(targetFmt);
-		Set<String> nsKeys = srcNS.keySet();
-		for (String key : nsKeys) {
-			// 1st the actual xmlns declarations...
-			Namespace srcNSpace = srcNS.get(key);
-			Namespace targetNSpace = targetNS.get(key);
-			String t1 = inDoc.replaceFirst(srcNSpace.getURI(), targetNSpace.getURI());
-			// now handle a possible schemaLocation:
-			String prefix = srcNSpace.getPrefix();
-			String verIn = srcFmt.getVersion();
-			String verOut = targetFmt.getVersion();
-			String target = prefix + "-v" + verIn + ".xsd";
-			String replacement = prefix + "-v" + verOut + ".xsd";
-			String outDoc = t1.replaceFirst(target, replacement);
-			inDoc = outDoc;
-		}
-		return regenXml(inDoc);
+		Document xmlDocOut = xmlDocIn.clone();
+		new NamespaceRewriter().addStep(srcFmt, targetFmt).rewrite(xmlDocOut);
+		return xmlDocOut;
 	}
 
 	/**
@@ -976,12 +1221,14 @@ public class Translator {
 	 * @param targetPath
 	 * @param attName
 	 * @param rootEl
+	 * @param target     the target used when logging
+	 * @param logMgr
 	 * @param targetDesc used to describe targeted elements when constructing log
 	 *                   message
 	 */
-	private static int removeAttribute(String targetPath, String attName, Element rootEl, LogMgmt logMgr,
-			String targetDesc) {
-		XPathFactory xpfac = XPathFactory.instance();
+	private static int removeAttribute(String targetPath, String attName, Element rootEl, MddfTarget target,
+			LogMgmt logMgr, String targetDesc) {
+		XPathFactory xpfac = NativeXPathFactory.getInstance();
 		Namespace availsNSpace = rootEl.getNamespace("avails");
 		XPathExpression<Element> pathExp = xpfac.compile(targetPath, Filters.element(), null, availsNSpace);
 		List<Element> removalList = pathExp.evaluate(rootEl);
@@ -1013,14 +1260,14 @@ public class Translator {
 			} else {
 				msg = "Removing " + attDesc + " from " + hitCnt + " " + targetDesc + " elements.";
 			}
-			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, curTarget, null, moduleId, null, null);
+			logMgr.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XLATE, msg, target, null, moduleId, null, null);
 		}
 		return hitCnt;
 	}
 
 	private static int removeExtras(Element rootEl, String targetPath, String targetNode) {
 		Namespace availsNSpace = rootEl.getNamespace("avails");
-		XPathFactory xpfac = XPathFactory.instance();
+		XPathFactory xpfac = NativeXPathFactory.getInstance();
 		XPathExpression<Element> pathExp = xpfac.compile(targetPath, Filters.element(), null, availsNSpace);
 		List<Element> removalList = pathExp.evaluate(rootEl);
 		int removedCnt = 0;
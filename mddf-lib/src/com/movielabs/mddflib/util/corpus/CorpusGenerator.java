@@ -0,0 +1,624 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.corpus;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+
+import com.movielabs.mddf.MddfContext;
+import com.movielabs.mddf.MddfContext.FILE_FMT;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.util.Translator;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.XmlIngester;
+
+/**
+ * Generates synthetic, schema-valid MDDF files for use in scale and
+ * performance testing. The size and shape of the generated files is defined
+ * by a <tt>CorpusSpec</tt>. All values are derived from a pseudo-random
+ * sequence initialized with the spec's <tt>seed</tt> so that a given spec will
+ * always produce identical output regardless of the order in which files are
+ * generated.
+ * <p>
+ * Namespaces are obtained from <tt>MddfContext</tt> so the structure of the
+ * generated XML tracks the version requested. Avails XLSX files are produced
+ * by generating the equivalent XML and then converting it with the
+ * <tt>Translator</tt>, thereby using the same <tt>TemplateWorkBook</tt> code
+ * path as any other XLSX export.
+ * </p>
+ * <p>
+ * Identifiers use the <tt>eidr-s</tt> and <tt>eidr-x</tt> schemes with
+ * randomly generated (but syntactically valid) EIDR values. Controlled
+ * vocabulary, territories, languages, and ratings are drawn from fixed lists of
+ * valid values.
+ * </p>
+ * <p>
+ * Instances are <i>not</i> thread-safe.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class CorpusGenerator {
+
+	public static final String[] TERRITORIES = { "US", "CA", "GB", "FR", "DE", "ES", "IT", "JP", "BR", "AU", "MX",
+			"NL", "SE", "KR", "IN", "ZA" };
+	public static final String[] LANGUAGES = { "en", "fr", "de", "es", "it", "ja", "pt", "nl", "sv", "ko", "hi",
+			"zh-Hans" };
+	/**
+	 * Ratings used when generating a <tt>RatingSet</tt>. Each entry is a
+	 * {country, system, value} triplet. A rating is only included if its country
+	 * is one of the title's territories.
+	 */
+	private static final String[][] RATINGS = { { "US", "MPAA", "PG-13" }, { "CA", "CHVRS", "PG" },
+			{ "GB", "BBFC", "12A" }, { "DE", "FSK", "12" }, { "FR", "CNC", "12" }, { "ES", "ICAA", "12" },
+			{ "IT", "MBACT", "T" }, { "JP", "EIRIN", "G" }, { "BR", "DJCTQ", "12" }, { "AU", "NCS", "M" },
+			{ "MX", "RTC", "B" }, { "ZA", "FPB", "13" } };
+	private static final String[] GENRES = { "Action", "Comedy", "Drama", "Documentary", "Thriller", "Animation" };
+	private static final String[] JOBS = { "Actor", "Director", "Writer", "Producer" };
+	private static final String[] LICENSE_TYPES = { "EST", "VOD" };
+	private static final String[] FORMAT_PROFILES = { "SD", "HD", "UHD" };
+	private static final LocalDate BASE_DATE = LocalDate.of(2020, 1, 1);
+
+	private CorpusSpec spec;
+	private LogMgmt logMgr;
+	private Random random;
+	private Namespace mdNSpace;
+
+	/**
+	 * @param spec
+	 * @param logMgr used when translating to XLSX
+	 */
+	public CorpusGenerator(CorpusSpec spec, LogMgmt logMgr) {
+		this.spec = spec;
+		this.logMgr = logMgr;
+	}
+
+	/**
+	 * Generate an XML Avails document containing <tt>count</tt> Avails, each
+	 * with one Transaction per territory. Each Transaction allows
+	 * <tt>languageFanOut</tt> languages. The <tt>xrefDensity</tt> is the
+	 * probability that an Avail's Asset will be a title already used by a
+	 * previous Avail.
+	 * 
+	 * @param xmlFmt an XML Avails format (v2.3 or later)
+	 * @return
+	 * @throws IllegalArgumentException if the format is not supported
+	 */
+	public Document generateAvails(FILE_FMT xmlFmt) {
+		checkFormat(xmlFmt, "Avails", "xml", FILE_FMT.AVAILS_2_3);
+		random = new Random(spec.getSeed());
+		Map<String, Namespace> nsMap = MddfContext.getRequiredNamespaces(xmlFmt);
+		Namespace availNS = nsMap.get("AVAILS");
+		mdNSpace = nsMap.get("MD");
+		Element rootEl = new Element("AvailList", availNS);
+		rootEl.addNamespaceDeclaration(mdNSpace);
+		List<String> titles = new ArrayList<String>();
+		for (int i = 0; i < spec.getCount(); i++) {
+			int titleIdx = titles.size();
+			if (titleIdx > 0 && random.nextDouble() < spec.getXrefDensity()) {
+				titleIdx = random.nextInt(titles.size());
+			} else {
+				titles.add(randomEidr());
+			}
+			String eidr = titles.get(titleIdx);
+			Element availEl = new Element("Avail", availNS);
+			rootEl.addContent(availEl);
+			availEl.addContent(new Element("ALID", availNS).setText(id("alid", "eidr-x", eidr + ":a" + i)));
+			Element dispEl = new Element("Disposition", availNS);
+			dispEl.addContent(new Element("EntryType", availNS).setText("Full Extract"));
+			availEl.addContent(dispEl);
+			availEl.addContent(orgEl("Licensor", availNS, "Synthetic Studio"));
+			availEl.addContent(orgEl("ServiceProvider", availNS, "Synthetic Retailer"));
+			availEl.addContent(new Element("AvailType", availNS).setText("single"));
+			availEl.addContent(new Element("ShortDescription", availNS).setText("Synthetic Avail " + i));
+
+			Element assetEl = new Element("Asset", availNS);
+			assetEl.setAttribute("contentID", id("cid", "eidr-s", eidr));
+			assetEl.addContent(new Element("WorkType", availNS).setText("Movie"));
+			Element metadataEl = new Element("Metadata", availNS);
+			metadataEl.addContent(new Element("TitleDisplayUnlimited", availNS).setText(title(titleIdx)));
+			metadataEl.addContent(new Element("TitleInternalAlias", availNS).setText(title(titleIdx)));
+			metadataEl.addContent(new Element("ReleaseDate", availNS).setText(Integer.toString(1950 + titleIdx % 70)));
+			metadataEl.addContent(new Element("RunLength", availNS).setText(runLength(titleIdx)));
+			assetEl.addContent(metadataEl);
+			availEl.addContent(assetEl);
+
+			String[] territories = pick(TERRITORIES, spec.getTerritoryFanOut());
+			String[] languages = pick(LANGUAGES, spec.getLanguageFanOut());
+			for (int t = 0; t < territories.length; t++) {
+				Element transEl = new Element("Transaction", availNS);
+				transEl.setAttribute("TransactionID", "T" + i + "-" + t);
+				transEl.addContent(new Element("LicenseType", availNS).setText(pick(LICENSE_TYPES)));
+				Element terrEl = new Element("Territory", availNS);
+				terrEl.addContent(new Element("country", mdNSpace).setText(territories[t]));
+				transEl.addContent(terrEl);
+				LocalDate start = BASE_DATE.plusDays(random.nextInt(3650));
+				LocalDate end = start.plusYears(1 + random.nextInt(5));
+				transEl.addContent(new Element("Start", availNS).setText(start + "T00:00:00"));
+				transEl.addContent(new Element("End", availNS).setText(end + "T00:00:00"));
+				for (int j = 0; j < languages.length; j++) {
+					transEl.addContent(new Element("AllowedLanguage", availNS).setText(languages[j]));
+				}
+				transEl.addContent(new Element("AssetLanguage", availNS).setText(languages[0]));
+				transEl.addContent(new Element("LicenseRightsDescription", availNS).setText("Library"));
+				transEl.addContent(new Element("FormatProfile", availNS).setText(pick(FORMAT_PROFILES)));
+				Element termEl = new Element("Term", availNS);
+				termEl.setAttribute("termName", "SRP");
+				Element moneyEl = new Element("Money", availNS);
+				moneyEl.setAttribute("currency", "XTS");
+				moneyEl.setText((5 + random.nextInt(20)) + ".99");
+				termEl.addContent(moneyEl);
+				transEl.addContent(termEl);
+				availEl.addContent(transEl);
+			}
+		}
+		return new Document(rootEl);
+	}
+
+	/**
+	 * Generate a Manifest containing <tt>count</tt> titles. Each title has a
+	 * video track, an audio and subtitle track for each of
+	 * <tt>languageFanOut</tt> languages, an image, and <tt>BasicMetadata</tt>
+	 * along with the <tt>Presentation</tt>, <tt>Experience</tt>, and
+	 * <tt>ALIDExperienceMap</tt> that reference them. The <tt>xrefDensity</tt>
+	 * is the probability that a title will also reference the image and
+	 * Experience of a previously generated title.
+	 * 
+	 * @param xmlFmt a Manifest format (v1.8 or later)
+	 * @return
+	 * @throws IllegalArgumentException if the format is not supported
+	 */
+	public Document generateManifest(FILE_FMT xmlFmt) {
+		checkFormat(xmlFmt, "Manifest", "xml", FILE_FMT.MANIFEST_1_8);
+		random = new Random(spec.getSeed());
+		Map<String, Namespace> nsMap = MddfContext.getRequiredNamespaces(xmlFmt);
+		Namespace manifestNS = nsMap.get("MANIFEST");
+		mdNSpace = nsMap.get("MD");
+		Element rootEl = new Element("MediaManifest", manifestNS);
+		rootEl.addNamespaceDeclaration(mdNSpace);
+		Element compatEl = new Element("Compatibility", manifestNS);
+		compatEl.addContent(new Element("SpecVersion", manifestNS).setText(xmlFmt.getVersion()));
+		compatEl.addContent(new Element("Profile", manifestNS).setText("none"));
+		rootEl.addContent(compatEl);
+		/*
+		 * Inventory children must be grouped by type so each type gets its own
+		 * list that is appended once all titles are done.
+		 */
+		List<Element> audioList = new ArrayList<Element>();
+		List<Element> videoList = new ArrayList<Element>();
+		List<Element> subtitleList = new ArrayList<Element>();
+		List<Element> imageList = new ArrayList<Element>();
+		List<Element> metadataList = new ArrayList<Element>();
+		Element presentationsEl = new Element("Presentations", manifestNS);
+		Element experiencesEl = new Element("Experiences", manifestNS);
+		Element mapsEl = new Element("ALIDExperienceMaps", manifestNS);
+		List<String> titles = new ArrayList<String>();
+		for (int i = 0; i < spec.getCount(); i++) {
+			String eidr = randomEidr();
+			titles.add(eidr);
+			if (i == 0) {
+				rootEl.setAttribute("ManifestID", id("manifestid", "eidr-x", eidr + ":corpus"));
+			}
+			String[] languages = pick(LANGUAGES, spec.getLanguageFanOut());
+			String[] territories = pick(TERRITORIES, spec.getTerritoryFanOut());
+			String contentId = id("cid", "eidr-s", eidr);
+			String videoId = id("vidtrackid", "eidr-x", eidr + ":v");
+			String imageId = id("imageid", "eidr-x", eidr + ":poster");
+			String presentationId = id("presentationid", "eidr-x", eidr + ":main");
+			String experienceId = id("experienceid", "eidr-x", eidr + ":main");
+			String container = "https://media.example.com/corpus/" + eidr;
+
+			Element videoEl = new Element("Video", manifestNS);
+			videoEl.setAttribute("VideoTrackID", videoId);
+			videoEl.addContent(new Element("Type", mdNSpace).setText("primary"));
+			Element encodingEl = new Element("Encoding", mdNSpace);
+			encodingEl.addContent(new Element("Codec", mdNSpace).setText("H.264"));
+			videoEl.addContent(encodingEl);
+			videoEl.addContent(containerRef(manifestNS, container + ".mp4"));
+			videoList.add(videoEl);
+
+			Element trackMdEl = new Element("TrackMetadata", manifestNS);
+			trackMdEl.addContent(new Element("TrackSelectionNumber", manifestNS).setText("0"));
+			trackMdEl.addContent(trackRef(manifestNS, "Video", videoId));
+			List<Element> subRefs = new ArrayList<Element>();
+			for (int j = 0; j < languages.length; j++) {
+				String audioId = id("audtrackid", "eidr-x", eidr + ":" + languages[j]);
+				Element audioEl = new Element("Audio", manifestNS);
+				audioEl.setAttribute("AudioTrackID", audioId);
+				audioEl.addContent(new Element("Type", mdNSpace).setText("primary"));
+				audioEl.addContent(new Element("Language", mdNSpace).setText(languages[j]));
+				audioEl.addContent(containerRef(manifestNS, container + "." + languages[j] + ".mp4"));
+				audioList.add(audioEl);
+				trackMdEl.addContent(trackRef(manifestNS, "Audio", audioId));
+
+				String subtitleId = id("subtrackid", "eidr-x", eidr + ":" + languages[j]);
+				Element subtitleEl = new Element("Subtitle", manifestNS);
+				subtitleEl.setAttribute("SubtitleTrackID", subtitleId);
+				subtitleEl.addContent(new Element("Type", mdNSpace).setText("normal"));
+				subtitleEl.addContent(new Element("Language", mdNSpace).setText(languages[j]));
+				subtitleEl.addContent(containerRef(manifestNS, container + "." + languages[j] + ".srt"));
+				subtitleList.add(subtitleEl);
+				subRefs.add(trackRef(manifestNS, "Subtitle", subtitleId));
+			}
+			trackMdEl.addContent(subRefs);
+
+			Element imageEl = new Element("Image", manifestNS);
+			imageEl.setAttribute("ImageID", imageId);
+			imageEl.addContent(new Element("Width", mdNSpace).setText("1000"));
+			imageEl.addContent(new Element("Height", mdNSpace).setText("1440"));
+			imageEl.addContent(new Element("Encoding", mdNSpace).setText("image/jpeg"));
+			imageEl.addContent(new Element("Language", mdNSpace).setText(languages[0]));
+			imageEl.addContent(containerRef(manifestNS, container + ".jpg"));
+			imageList.add(imageEl);
+
+			Element metadataEl = new Element("Metadata", manifestNS);
+			metadataEl.setAttribute("ContentID", contentId);
+			Element basicEl = new Element("BasicMetadata", manifestNS);
+			addBasicMetadata(basicEl, i, contentId, languages, territories);
+			metadataEl.addContent(basicEl);
+			metadataList.add(metadataEl);
+
+			Element presentationEl = new Element("Presentation", manifestNS);
+			presentationEl.setAttribute("PresentationID", presentationId);
+			presentationEl.addContent(trackMdEl);
+			/*
+			 * Cross-references to a previous title (if any)
+			 */
+			String xrefEidr = null;
+			if (i > 0 && random.nextDouble() < spec.getXrefDensity()) {
+				xrefEidr = titles.get(random.nextInt(i));
+			}
+			Element chaptersEl = new Element("Chapters", manifestNS);
+			chaptersEl.addContent(chapter(manifestNS, 0, "0.0", imageId));
+			if (xrefEidr != null) {
+				chaptersEl.addContent(
+						chapter(manifestNS, 1, "600.0", id("imageid", "eidr-x", xrefEidr + ":poster")));
+			}
+			presentationEl.addContent(chaptersEl);
+			presentationsEl.addContent(presentationEl);
+
+			Element experienceEl = new Element("Experience", manifestNS);
+			experienceEl.setAttribute("ExperienceID", experienceId);
+			experienceEl.setAttribute("version", "1.0");
+			experienceEl.addContent(new Element("ContentID", manifestNS).setText(contentId));
+			Element avEl = new Element("Audiovisual", manifestNS);
+			avEl.setAttribute("ContentID", contentId);
+			avEl.addContent(new Element("Type", manifestNS).setText("Main"));
+			avEl.addContent(new Element("SubType", manifestNS).setText("Feature"));
+			avEl.addContent(new Element("PresentationID", manifestNS).setText(presentationId));
+			experienceEl.addContent(avEl);
+			if (xrefEidr != null) {
+				Element childEl = new Element("ExperienceChild", manifestNS);
+				childEl.addContent(new Element("Relationship", manifestNS).setText("ispromotionfor"));
+				childEl.addContent(new Element("ExperienceID", manifestNS)
+						.setText(id("experienceid", "eidr-x", xrefEidr + ":main")));
+				experienceEl.addContent(childEl);
+			}
+			experiencesEl.addContent(experienceEl);
+
+			Element mapEl = new Element("ALIDExperienceMap", manifestNS);
+			mapEl.addContent(new Element("ALID", manifestNS).setText(id("alid", "eidr-x", eidr + ":a" + i)));
+			mapEl.addContent(new Element("ExperienceID", manifestNS).setText(experienceId));
+			mapsEl.addContent(mapEl);
+		}
+		Element inventoryEl = new Element("Inventory", manifestNS);
+		inventoryEl.addContent(audioList);
+		inventoryEl.addContent(videoList);
+		inventoryEl.addContent(subtitleList);
+		inventoryEl.addContent(imageList);
+		inventoryEl.addContent(metadataList);
+		rootEl.addContent(inventoryEl);
+		rootEl.addContent(presentationsEl);
+		rootEl.addContent(experiencesEl);
+		rootEl.addContent(mapsEl);
+		return new Document(rootEl);
+	}
+
+	/**
+	 * Generate a MEC file for a single title with <tt>count</tt> cast and crew
+	 * (i.e., <tt>People</tt>) entries, one <tt>LocalizedInfo</tt> per language,
+	 * and a release history per territory. The <tt>xrefDensity</tt> is not
+	 * applicable to MEC files.
+	 * 
+	 * @param xmlFmt a MEC format (v2.7 or later)
+	 * @return
+	 * @throws IllegalArgumentException if the format is not supported
+	 */
+	public Document generateMec(FILE_FMT xmlFmt) {
+		checkFormat(xmlFmt, "MEC", "xml", FILE_FMT.MDMEC_2_7);
+		random = new Random(spec.getSeed());
+		Map<String, Namespace> nsMap = MddfContext.getRequiredNamespaces(xmlFmt);
+		Namespace mecNS = nsMap.get("MDMEC");
+		mdNSpace = nsMap.get("MD");
+		Element rootEl = new Element("CoreMetadata", mecNS);
+		rootEl.addNamespaceDeclaration(mdNSpace);
+		String eidr = randomEidr();
+		String[] languages = pick(LANGUAGES, spec.getLanguageFanOut());
+		String[] territories = pick(TERRITORIES, spec.getTerritoryFanOut());
+		String contentId = id("cid", "eidr-s", eidr);
+		Element basicEl = new Element("Basic", mecNS);
+		addBasicMetadata(basicEl, 0, contentId, languages, territories);
+		rootEl.addContent(basicEl);
+		Element srcEl = new Element("Source", mecNS);
+		srcEl.setAttribute("organizationID", "corpus.movielabs.com");
+		rootEl.addContent(srcEl);
+		Element creditEl = new Element("CompanyDisplayCredit", mecNS);
+		creditEl.addContent(new Element("DisplayString", mdNSpace).setText("Synthetic Studio"));
+		rootEl.addContent(creditEl);
+		return new Document(rootEl);
+	}
+
+	/**
+	 * Generate an Avails file and save it in the specified directory. If the
+	 * format is an XLSX format, the equivalent XML is generated and then
+	 * converted using the <tt>Translator</tt>.
+	 * 
+	 * @param fmt
+	 * @param outDir
+	 * @return the generated file
+	 * @throws IOException
+	 */
+	public File writeAvails(FILE_FMT fmt, File outDir) throws IOException {
+		if (!fmt.getEncoding().equals("xlsx")) {
+			return writeXml(generateAvails(fmt), outDir, "Avails", fmt);
+		}
+		FILE_FMT xmlFmt;
+		switch (fmt) {
+		case AVAILS_1_7_3:
+		case AVAILS_1_8:
+			xmlFmt = FILE_FMT.AVAILS_2_3;
+			break;
+		case AVAILS_1_9:
+			xmlFmt = FILE_FMT.AVAILS_2_5;
+			break;
+		default:
+			throw new IllegalArgumentException("Generation of " + fmt + " not supported");
+		}
+		Document xmlDoc = generateAvails(xmlFmt);
+		File outFile = new File(outDir, fileName("Avails", fmt));
+		MddfTarget target = new MddfTarget(xmlDoc, outFile, logMgr);
+		/* the Translator streams the rows to disk as the workbook is built */
+		int cnt = Translator.translateAvails(target, EnumSet.of(fmt), outDir, outFile.getName(), false, logMgr);
+		if (cnt != 1) {
+			throw new IOException("Translation to " + fmt + " failed");
+		}
+		return outFile;
+	}
+
+	/**
+	 * @param fmt
+	 * @param outDir
+	 * @return the generated file
+	 * @throws IOException
+	 */
+	public File writeManifest(FILE_FMT fmt, File outDir) throws IOException {
+		return writeXml(generateManifest(fmt), outDir, "Manifest", fmt);
+	}
+
+	/**
+	 * @param fmt
+	 * @param outDir
+	 * @return the generated file
+	 * @throws IOException
+	 */
+	public File writeMec(FILE_FMT fmt, File outDir) throws IOException {
+		return writeXml(generateMec(fmt), outDir, "MEC", fmt);
+	}
+
+	private File writeXml(Document xmlDoc, File outDir, String prefix, FILE_FMT fmt) throws IOException {
+		File outFile = new File(outDir, fileName(prefix, fmt));
+		if (!XmlIngester.writeXml(outFile, xmlDoc)) {
+			throw new IOException("Unable to write " + outFile.getAbsolutePath());
+		}
+		return outFile;
+	}
+
+	private String fileName(String prefix, FILE_FMT fmt) {
+		return prefix + "_corpus_s" + spec.getSeed() + "_n" + spec.getCount() + "_v" + fmt.getVersion() + "."
+				+ fmt.getEncoding();
+	}
+
+	private void checkFormat(FILE_FMT fmt, String standard, String encoding, FILE_FMT oldest) {
+		if (!fmt.getStandard().equals(standard) || !fmt.getEncoding().equals(encoding)
+				|| compareVersions(fmt.getVersion(), oldest.getVersion()) < 0
+				|| MddfContext.getRequiredNamespaces(fmt).isEmpty()) {
+			throw new IllegalArgumentException("Generation of " + fmt + " not supported");
+		}
+	}
+
+	private static int compareVersions(String v1, String v2) {
+		String[] p1 = v1.split("\\.");
+		String[] p2 = v2.split("\\.");
+		for (int i = 0; i < Math.max(p1.length, p2.length); i++) {
+			int n1 = (i < p1.length) ? Integer.parseInt(p1[i]) : 0;
+			int n2 = (i < p2.length) ? Integer.parseInt(p2[i]) : 0;
+			if (n1 != n2) {
+				return Integer.compare(n1, n2);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Add Common Metadata <tt>BasicMetadata-type</tt> content.
+	 */
+	private void addBasicMetadata(Element basicEl, int titleIdx, String contentId, String[] languages,
+			String[] territories) {
+		basicEl.setAttribute("ContentID", contentId);
+		for (int j = 0; j < languages.length; j++) {
+			Element locEl = new Element("LocalizedInfo", mdNSpace);
+			locEl.setAttribute("language", languages[j]);
+			if (j == 0) {
+				locEl.setAttribute("default", "true");
+			}
+			locEl.addContent(new Element("TitleDisplay19", mdNSpace).setText("Title " + titleIdx));
+			locEl.addContent(new Element("TitleDisplay60", mdNSpace).setText(title(titleIdx)));
+			locEl.addContent(new Element("TitleDisplayUnlimited", mdNSpace).setText(title(titleIdx)));
+			locEl.addContent(new Element("TitleSort", mdNSpace).setText(title(titleIdx)));
+			Element artEl = new Element("ArtReference", mdNSpace);
+			artEl.setAttribute("purpose", "poster");
+			artEl.setAttribute("resolution", "1000x1440");
+			artEl.setText(contentId.replaceFirst(":cid:eidr-s:", ":imageid:eidr-x:") + ":poster");
+			locEl.addContent(artEl);
+			locEl.addContent(new Element("Summary190", mdNSpace)
+					.setText("Synthetic summary of title " + titleIdx + " (" + languages[j] + ")"));
+			locEl.addContent(new Element("Summary400", mdNSpace)
+					.setText("Synthetic long summary of title " + titleIdx + " (" + languages[j] + ")"));
+			Element genreEl = new Element("Genre", mdNSpace);
+			genreEl.setAttribute("level", "0");
+			genreEl.setAttribute("source", "http://www.movielabs.com/md/mec/mec_primary_genre.html");
+			genreEl.setText(GENRES[titleIdx % GENRES.length]);
+			locEl.addContent(genreEl);
+			locEl.addContent(new Element("OriginalTitle", mdNSpace).setText(title(titleIdx)));
+			locEl.addContent(new Element("CopyrightLine", mdNSpace).setText("Copyright Synthetic Studio"));
+			basicEl.addContent(locEl);
+		}
+		int year = 1950 + titleIdx % 70;
+		basicEl.addContent(new Element("ReleaseYear", mdNSpace).setText(Integer.toString(year)));
+		for (int t = 0; t < territories.length; t++) {
+			Element historyEl = new Element("ReleaseHistory", mdNSpace);
+			historyEl.addContent(new Element("ReleaseType", mdNSpace).setText("original"));
+			Element terrEl = new Element("DistrTerritory", mdNSpace);
+			terrEl.addContent(new Element("country", mdNSpace).setText(territories[t]));
+			historyEl.addContent(terrEl);
+			historyEl.addContent(
+					new Element("Date", mdNSpace).setText(LocalDate.of(year, 1, 1).plusDays(t * 7).toString()));
+			basicEl.addContent(historyEl);
+		}
+		basicEl.addContent(new Element("WorkType", mdNSpace).setText("Movie"));
+		Element ratingSetEl = new Element("RatingSet", mdNSpace);
+		for (int r = 0; r < RATINGS.length; r++) {
+			for (int t = 0; t < territories.length; t++) {
+				if (RATINGS[r][0].equals(territories[t])) {
+					Element ratingEl = new Element("Rating", mdNSpace);
+					Element regionEl = new Element("Region", mdNSpace);
+					regionEl.addContent(new Element("country", mdNSpace).setText(RATINGS[r][0]));
+					ratingEl.addContent(regionEl);
+					ratingEl.addContent(new Element("System", mdNSpace).setText(RATINGS[r][1]));
+					ratingEl.addContent(new Element("Value", mdNSpace).setText(RATINGS[r][2]));
+					ratingSetEl.addContent(ratingEl);
+				}
+			}
+		}
+		if (ratingSetEl.getContentSize() == 0) {
+			ratingSetEl.addContent(new Element("NotRated", mdNSpace).setText("true"));
+		}
+		basicEl.addContent(ratingSetEl);
+		/* the MEC count is applied to cast and crew, Manifests get a minimal crew */
+		int peopleCnt = basicEl.getName().equals("Basic") ? spec.getCount() : 2;
+		for (int p = 0; p < peopleCnt; p++) {
+			Element peopleEl = new Element("People", mdNSpace);
+			Element jobEl = new Element("Job", mdNSpace);
+			jobEl.addContent(new Element("JobFunction", mdNSpace).setText(JOBS[p % JOBS.length]));
+			jobEl.addContent(new Element("BillingBlockOrder", mdNSpace).setText(Integer.toString(p / JOBS.length + 1)));
+			peopleEl.addContent(jobEl);
+			Element nameEl = new Element("Name", mdNSpace);
+			nameEl.addContent(new Element("DisplayName", mdNSpace).setText("Person " + random.nextInt(1000000)));
+			peopleEl.addContent(nameEl);
+			basicEl.addContent(peopleEl);
+		}
+		Element originEl = new Element("CountryOfOrigin", mdNSpace);
+		originEl.addContent(new Element("country", mdNSpace).setText(territories[0]));
+		basicEl.addContent(originEl);
+		basicEl.addContent(new Element("OriginalLanguage", mdNSpace).setText(languages[0]));
+	}
+
+	private Element orgEl(String name, Namespace ns, String displayName) {
+		Element orgEl = new Element(name, ns);
+		orgEl.addContent(new Element("DisplayName", mdNSpace).setText(displayName));
+		return orgEl;
+	}
+
+	private Element containerRef(Namespace manifestNS, String location) {
+		Element refEl = new Element("ContainerReference", manifestNS);
+		refEl.addContent(new Element("ContainerLocation", manifestNS).setText(location));
+		return refEl;
+	}
+
+	private Element trackRef(Namespace manifestNS, String trackType, String trackId) {
+		Element refEl = new Element(trackType + "TrackReference", manifestNS);
+		refEl.addContent(new Element(trackType + "TrackID", manifestNS).setText(trackId));
+		return refEl;
+	}
+
+	private Element chapter(Namespace manifestNS, int index, String timecode, String imageId) {
+		Element chapterEl = new Element("Chapter", manifestNS);
+		chapterEl.setAttribute("index", Integer.toString(index));
+		chapterEl.addContent(new Element("EntryTimecode", manifestNS).setText(timecode));
+		chapterEl.addContent(new Element("ImageID", manifestNS).setText(imageId));
+		return chapterEl;
+	}
+
+	private String id(String type, String scheme, String ssid) {
+		return "md:" + type + ":" + scheme + ":" + ssid;
+	}
+
+	/**
+	 * Returns a syntactically valid EIDR suffix (e.g.
+	 * <tt>8FF3-1C20-84F5-F247-8BCD-E</tt>). The check character is not computed.
+	 */
+	private String randomEidr() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 5; i++) {
+			sb.append(String.format("%04X", random.nextInt(0x10000)));
+			sb.append('-');
+		}
+		sb.append(Character.toUpperCase(Character.forDigit(random.nextInt(36), 36)));
+		return sb.toString();
+	}
+
+	private String title(int titleIdx) {
+		return "Synthetic Title " + titleIdx;
+	}
+
+	private String runLength(int titleIdx) {
+		return String.format("PT01H%02dM00S", titleIdx % 60);
+	}
+
+	private String pick(String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	/**
+	 * Pick <tt>cnt</tt> distinct values starting at a random offset.
+	 */
+	private String[] pick(String[] values, int cnt) {
+		String[] picked = new String[cnt];
+		int offset = random.nextInt(values.length);
+		for (int i = 0; i < cnt; i++) {
+			picked[i] = values[(offset + i) % values.length];
+		}
+		return picked;
+	}
+}
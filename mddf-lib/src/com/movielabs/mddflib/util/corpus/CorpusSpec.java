@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.corpus;
+
+/**
+ * Parameters controlling the size and shape of a synthetic corpus produced by
+ * a <tt>CorpusGenerator</tt>. Two specs with identical settings will always
+ * result in identical output.
+ * <p>
+ * The interpretation of <tt>count</tt> depends on the type of file being
+ * generated:
+ * </p>
+ * <ul>
+ * <li>Avails: the number of <tt>Avail</tt> elements. Each Avail will have one
+ * <tt>Transaction</tt> per territory so an XLSX file will have
+ * <tt>count * territoryFanOut</tt> rows.</li>
+ * <li>Manifest: the number of titles, each with its own set of tracks,
+ * <tt>Presentation</tt>, <tt>Experience</tt>, and
+ * <tt>ALIDExperienceMap</tt>.</li>
+ * <li>MEC: the number of <tt>People</tt> (i.e., cast and crew) entries.</li>
+ * </ul>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class CorpusSpec {
+
+	private long seed = 1;
+	private int count = 100;
+	private int languageFanOut = 2;
+	private int territoryFanOut = 2;
+	private double xrefDensity = 0.1;
+
+	public CorpusSpec() {
+	}
+
+	/**
+	 * @param seed
+	 * @param count
+	 */
+	public CorpusSpec(long seed, int count) {
+		setSeed(seed);
+		setCount(count);
+	}
+
+	/**
+	 * @return the seed used to initialize the random number generator
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @param seed the seed to set
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @return the count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * @param count the count to set
+	 */
+	public void setCount(int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("count must be > 0");
+		}
+		this.count = count;
+	}
+
+	/**
+	 * @return the number of languages associated with each title, track, or
+	 *         transaction.
+	 */
+	public int getLanguageFanOut() {
+		return languageFanOut;
+	}
+
+	/**
+	 * @param languageFanOut the languageFanOut to set
+	 */
+	public void setLanguageFanOut(int languageFanOut) {
+		if (languageFanOut < 1 || languageFanOut > CorpusGenerator.LANGUAGES.length) {
+			throw new IllegalArgumentException(
+					"languageFanOut must be between 1 and " + CorpusGenerator.LANGUAGES.length);
+		}
+		this.languageFanOut = languageFanOut;
+	}
+
+	/**
+	 * @return the number of territories associated with each title or Avail.
+	 */
+	public int getTerritoryFanOut() {
+		return territoryFanOut;
+	}
+
+	/**
+	 * @param territoryFanOut the territoryFanOut to set
+	 */
+	public void setTerritoryFanOut(int territoryFanOut) {
+		if (territoryFanOut < 1 || territoryFanOut > CorpusGenerator.TERRITORIES.length) {
+			throw new IllegalArgumentException(
+					"territoryFanOut must be between 1 and " + CorpusGenerator.TERRITORIES.length);
+		}
+		this.territoryFanOut = territoryFanOut;
+	}
+
+	/**
+	 * @return the probability (0.0 to 1.0) that an entity will include an
+	 *         additional cross-reference to a previously generated entity.
+	 */
+	public double getXrefDensity() {
+		return xrefDensity;
+	}
+
+	/**
+	 * @param xrefDensity the xrefDensity to set
+	 */
+	public void setXrefDensity(double xrefDensity) {
+		if (xrefDensity < 0.0 || xrefDensity > 1.0) {
+			throw new IllegalArgumentException("xrefDensity must be between 0.0 and 1.0");
+		}
+		this.xrefDensity = xrefDensity;
+	}
+
+	@Override
+	public String toString() {
+		return "CorpusSpec [seed=" + seed + ", count=" + count + ", languageFanOut=" + languageFanOut
+				+ ", territoryFanOut=" + territoryFanOut + ", xrefDensity=" + xrefDensity + "]";
+	}
+}
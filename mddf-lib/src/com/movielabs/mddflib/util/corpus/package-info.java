@@ -0,0 +1,6 @@
+/**
+ * Provides the generation of synthetic, schema-valid MDDF files (Avails,
+ * Manifest, and MEC) for use in scale and performance testing. Generation is
+ * deterministic: a given <tt>CorpusSpec</tt> always produces identical files.
+ */
+package com.movielabs.mddflib.util.corpus;
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+
+/**
+ * An index of the elements and attributes in an XML document. The index is
+ * built with a single walk of the tree and is intended as a replacement for
+ * repeatedly evaluating descendant XPaths (e.g.,
+ * <tt>.//md:Rating</tt>) against the same document.
+ * <p>
+ * Only the <i>descendants</i> of the root element are indexed. This matches
+ * the semantics of an XPath of the form <tt>.//<i>name</i></tt> evaluated with
+ * the root element as the context. All lists are in document order. Attributes
+ * are indexed by their local name and only if they are not in a namespace.
+ * </p>
+ * <p>
+ * The index is a snapshot. It will not reflect any changes made to the
+ * document after it was constructed.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class DocumentIndex {
+
+	private Element rootEl;
+	/* key is namespace URI, then local name */
+	private Map<String, Map<String, List<Element>>> elementsByName = new HashMap<String, Map<String, List<Element>>>();
+	private Map<String, List<Attribute>> attributesByName = new HashMap<String, List<Attribute>>();
+	private List<Element> allElements = new ArrayList<Element>();
+	private List<Attribute> allAttributes = new ArrayList<Attribute>();
+
+	/**
+	 * @param rootEl
+	 */
+	public DocumentIndex(Element rootEl) {
+		this.rootEl = rootEl;
+		for (Element childEl : rootEl.getChildren()) {
+			addToIndex(childEl);
+		}
+	}
+
+	private void addToIndex(Element targetEl) {
+		allElements.add(targetEl);
+		String nsUri = targetEl.getNamespaceURI();
+		Map<String, List<Element>> byName = elementsByName.get(nsUri);
+		if (byName == null) {
+			byName = new HashMap<String, List<Element>>();
+			elementsByName.put(nsUri, byName);
+		}
+		List<Element> elList = byName.get(targetEl.getName());
+		if (elList == null) {
+			elList = new ArrayList<Element>();
+			byName.put(targetEl.getName(), elList);
+		}
+		elList.add(targetEl);
+		if (targetEl.hasAttributes()) {
+			for (Attribute att : targetEl.getAttributes()) {
+				allAttributes.add(att);
+				if (att.getNamespace() != Namespace.NO_NAMESPACE) {
+					continue;
+				}
+				List<Attribute> attList = attributesByName.get(att.getName());
+				if (attList == null) {
+					attList = new ArrayList<Attribute>();
+					attributesByName.put(att.getName(), attList);
+				}
+				attList.add(att);
+			}
+		}
+		for (Element childEl : targetEl.getChildren()) {
+			addToIndex(childEl);
+		}
+	}
+
+	/**
+	 * @return the root of the indexed document
+	 */
+	public Element getRoot() {
+		return rootEl;
+	}
+
+	/**
+	 * @return the number of elements in the document, including the root
+	 */
+	public int getElementCount() {
+		return allElements.size() + 1;
+	}
+
+	/**
+	 * Return all elements with the specified namespace and name. This is
+	 * equivalent to evaluating the XPath <tt>.//<i>prefix</i>:<i>name</i></tt>
+	 * 
+	 * @param ns
+	 * @param name
+	 * @return an unmodifiable list that will be empty if there are no matches
+	 */
+	public List<Element> getElements(Namespace ns, String name) {
+		Map<String, List<Element>> byName = elementsByName.get(ns.getURI());
+		if (byName == null) {
+			return Collections.emptyList();
+		}
+		List<Element> elList = byName.get(name);
+		if (elList == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(elList);
+	}
+
+	/**
+	 * Return all child elements of a specified type whose parent is also of a
+	 * specified type. This is equivalent to evaluating the XPath
+	 * <tt>.//<i>parentPrefix</i>:<i>parentName</i>/<i>childPrefix</i>:<i>childName</i></tt>
+	 * 
+	 * @param parentNS
+	 * @param parentName
+	 * @param childNS
+	 * @param childName
+	 * @return
+	 */
+	public List<Element> getElements(Namespace parentNS, String parentName, Namespace childNS, String childName) {
+		List<Element> candidates = getElements(childNS, childName);
+		List<Element> elList = new ArrayList<Element>();
+		for (Element childEl : candidates) {
+			Element parentEl = childEl.getParentElement();
+			if (parentEl != rootEl && parentEl.getName().equals(parentName)
+					&& parentEl.getNamespaceURI().equals(parentNS.getURI())) {
+				elList.add(childEl);
+			}
+		}
+		return elList;
+	}
+
+	/**
+	 * Return all attributes with the specified name. This is equivalent to
+	 * evaluating the XPath <tt>.//@<i>name</i></tt>
+	 * 
+	 * @param name
+	 * @return an unmodifiable list that will be empty if there are no matches
+	 */
+	public List<Attribute> getAttributes(String name) {
+		List<Attribute> attList = attributesByName.get(name);
+		if (attList == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(attList);
+	}
+
+	/**
+	 * Return all attributes with the specified name that belong to an element of
+	 * the specified type. This is equivalent to evaluating the XPath
+	 * <tt>.//<i>prefix</i>:<i>elName</i>/@<i>attName</i></tt>
+	 * 
+	 * @param elNS
+	 * @param elName
+	 * @param attName
+	 * @return
+	 */
+	public List<Attribute> getAttributes(Namespace elNS, String elName, String attName) {
+		List<Attribute> attList = new ArrayList<Attribute>();
+		for (Element targetEl : getElements(elNS, elName)) {
+			Attribute att = targetEl.getAttribute(attName);
+			if (att != null) {
+				attList.add(att);
+			}
+		}
+		return attList;
+	}
+
+	/**
+	 * Return all elements whose name ends with the <tt>suffix</tt>. Matching is
+	 * case-sensitive. As long as the <tt>suffix</tt> does not include a ':' the
+	 * result is the same as matching against the qualified name.
+	 * 
+	 * @param suffix
+	 * @return
+	 */
+	public List<Element> getElementsEndingWith(String suffix) {
+		List<Element> elList = new ArrayList<Element>();
+		for (Element targetEl : allElements) {
+			if (targetEl.getName().endsWith(suffix)) {
+				elList.add(targetEl);
+			}
+		}
+		return elList;
+	}
+
+	/**
+	 * Return all attributes whose name ends with the <tt>suffix</tt>. Unlike
+	 * <tt>getAttributes()</tt>, attributes in a namespace are included.
+	 * Matching is case-sensitive.
+	 * 
+	 * @param suffix
+	 * @return
+	 */
+	public List<Attribute> getAttributesEndingWith(String suffix) {
+		List<Attribute> attList = new ArrayList<Attribute>();
+		for (Attribute att : allAttributes) {
+			if (att.getName().endsWith(suffix)) {
+				attList.add(att);
+			}
+		}
+		return attList;
+	}
+}
@@ -36,7 +36,13 @@ public class FormatConverter {
 
 	private static Pattern p_xsDuration;
 	private static Pattern p_xsDateTime;
-	private static DecimalFormat durFieldFmt = new DecimalFormat("00");
+	/* DecimalFormat is not thread-safe so each thread gets its own */
+	private static final ThreadLocal<DecimalFormat> durFieldFmt = new ThreadLocal<DecimalFormat>() {
+		@Override
+		protected DecimalFormat initialValue() {
+			return new DecimalFormat("00");
+		}
+	};
 
 	static { /*
 				 * Compile Pattern used to identify an xs:duration value that
@@ -111,11 +117,12 @@ public class FormatConverter {
 			}
 
 		}
-		String output = durFieldFmt.format(totalHrs);
+		DecimalFormat fieldFmt = durFieldFmt.get();
+		String output = fieldFmt.format(totalHrs);
 		if ((totalMin + totalSec) > 0) {
-			output = output + ":" + durFieldFmt.format(totalMin);
+			output = output + ":" + fieldFmt.format(totalMin);
 			if (totalSec > 0) {
-				output = output + ":" + durFieldFmt.format(totalSec);
+				output = output + ":" + fieldFmt.format(totalSec);
 			}
 		}
 		return output;
@@ -22,6 +22,7 @@
  */
 package com.movielabs.mddflib.util.xml;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -51,6 +52,7 @@ public class MddfTarget extends DefaultMutableTreeNode {
 	protected File srcFile;
 	private ReusableInputStream streamSrc = null;
 	protected Document xmlDoc = null;
+	private Element rootPeek = null;
 	protected LogMgmt logMgr;
 	protected MDDF_TYPE mddfType;
 	protected int logTag;
@@ -178,14 +180,75 @@ public class MddfTarget extends DefaultMutableTreeNode {
 
 	/**
 	 * Returns an <tt>ReusableInputStream</tt> that can be used to read an MDDF
-	 * file.
+	 * file. This will be <tt>null</tt> unless the target was constructed with an
+	 * <tt>InputStream</tt>.
 	 * 
 	 * @return the streamSrc
+	 * @see #openXmlStream()
 	 */
 	public ReusableInputStream getXmlStreamSrc() {
 		return streamSrc;
 	}
 
+	/**
+	 * Returns an <tt>InputStream</tt> positioned at the start of the MDDF source.
+	 * If the source is a local file, a new stream is opened each time so that the
+	 * content is not buffered in memory. The caller is responsible for closing
+	 * the stream.
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	public InputStream openXmlStream() throws IOException {
+		if (streamSrc != null) {
+			return streamSrc;
+		}
+		return new BufferedInputStream(new FileInputStream(srcFile));
+	}
+
+	/**
+	 * Returns <tt>true</tt> if the XML representation has already been loaded
+	 * (i.e., invoking <tt>getXmlDoc()</tt> will not result in the source being
+	 * parsed).
+	 * 
+	 * @return
+	 */
+	public boolean isXmlLoaded() {
+		return (xmlDoc != null);
+	}
+
+	/**
+	 * Returns the root element of the MDDF construct. If the XML has not yet been
+	 * loaded, only the root element's start tag is read from the source and the
+	 * element that is returned will have the same name, namespace declarations,
+	 * and attributes as the actual root element but no content. This is sufficient
+	 * to identify the type and version of the MDDF file without building the
+	 * complete JDOM tree.
+	 * 
+	 * @return the root element or <tt>null</tt> if the XML could not be read
+	 */
+	public Element getRootElement() {
+		if (xmlDoc != null) {
+			return xmlDoc.getRootElement();
+		}
+		if (rootPeek == null && srcIsXml) {
+			try (InputStream inStream = openXmlStream()) {
+				rootPeek = XmlIngester.peekRootElement(inStream);
+				identifyXmlContext();
+			} catch (SAXParseException e) {
+				int ln = e.getLineNumber();
+				String errMsg = "Invalid XML on or before line " + e.getLineNumber();
+				String supplemental = e.getMessage();
+				logMgr.log(LogMgmt.LEV_ERR, logTag, errMsg, this, ln, "XML", supplemental, null);
+			} catch (IOException e) {
+				String errMsg = "Unable to access input source";
+				String supplemental = e.getMessage();
+				logMgr.log(LogMgmt.LEV_ERR, logTag, errMsg, this, -1, "XML", supplemental, null);
+			}
+		}
+		return rootPeek;
+	}
+
 	public boolean srcIsXml() {
 		return srcIsXml;
 	}
@@ -211,37 +274,20 @@ public class MddfTarget extends DefaultMutableTreeNode {
 		if (!srcIsXml) {
 			throw new IllegalStateException("Can not load XML from a non-XML source");
 		}
-		if (streamSrc == null) {
-			try {
-				InputStream mainStream = new FileInputStream(srcFile);
-				this.streamSrc = new ReusableInputStream(mainStream);
-			} catch (Exception e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-		}
-		if (streamSrc == null) {
-			return;
-		}
-		try {
-			xmlDoc = XmlIngester.getAsXml(streamSrc);
-			identifyXmlContext();
+		try (InputStream inStream = openXmlStream()) {
+			setXmlDoc(XmlIngester.getAsXml(inStream));
 		} catch (IOException e) {
 			String errMsg = "Unable to access input source";
 			String supplemental = e.getMessage();
 			logMgr.log(LogMgmt.LEV_ERR, logTag, errMsg, this, -1, "XML", supplemental, null);
-		} finally {
-			try {
-				streamSrc.close();
-			} catch (IOException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
 		}
 	}
 
 	public MDDF_TYPE setXmlDoc(Document doc) {
 		this.xmlDoc = doc;
+		if (doc != null) {
+			rootPeek = null;
+		}
 		identifyXmlContext();
 		return mddfType;
 	}
@@ -250,10 +296,10 @@ public class MddfTarget extends DefaultMutableTreeNode {
 	 * Identify type of XML file (i.e., Manifest, Avail, etc)
 	 */
 	protected void identifyXmlContext() {
-		if (xmlDoc == null) {
+		Element docRootEl = (xmlDoc != null) ? xmlDoc.getRootElement() : rootPeek;
+		if (docRootEl == null) {
 			return;
 		}
-		Element docRootEl = xmlDoc.getRootElement();
 		String nSpaceUri = docRootEl.getNamespaceURI();
 		if (nSpaceUri.contains("manifest")) {
 			logTag = LogMgmt.TAG_MANIFEST;
@@ -0,0 +1,237 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.xml;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jdom2.Attribute;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+
+import com.movielabs.mddf.MddfContext;
+import com.movielabs.mddf.MddfContext.FILE_FMT;
+
+/**
+ * Changes the versions of the MDDF namespaces used by a JDOM <tt>Document</tt>
+ * by modifying the tree in place. One or more version steps (e.g., Avails
+ * v2.1 to v2.2 followed by v2.2 to v2.2.1) may be added. The steps are
+ * combined so that the document is only traversed once regardless of the
+ * number of steps and no intermediate documents are created.
+ * <p>
+ * For each step, the URI of every namespace required by the source format is
+ * replaced with that of the same namespace in the target format. The
+ * version-specific XSD file names (e.g., <tt>avails-v2.4.xsd</tt>) in the root
+ * element's <tt>xsi:schemaLocation</tt> are updated in the same way. Only the
+ * namespaces are changed. Any other differences between the versions must be
+ * handled separately.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class NamespaceRewriter {
+
+	private static final Namespace xsiNSpace = Namespace.getNamespace("xsi",
+			"http://www.w3.org/2001/XMLSchema-instance");
+	private static final Pattern TOKEN = Pattern.compile("\\S+");
+
+	/* old URI -> new URI, combined across all steps */
+	private Map<String, String> uriMap = new LinkedHashMap<String, String>();
+	/* pairs of XSD file names to replace in the schemaLocation, in order */
+	private List<String[]> xsdEdits = new ArrayList<String[]>();
+
+	/**
+	 * Add a conversion from one version of a format to another. Steps are applied
+	 * in the order added (i.e., the <tt>srcFmt</tt> of a step should be the
+	 * <tt>targetFmt</tt> of the preceding step).
+	 * 
+	 * @param srcFmt
+	 * @param targetFmt
+	 * @return this <tt>NamespaceRewriter</tt>
+	 */
+	public NamespaceRewriter addStep(FILE_FMT srcFmt, FILE_FMT targetFmt) {
+		Map<String, Namespace> srcNS = MddfContext.getRequiredNamespaces(srcFmt);
+		Map<String, Namespace> targetNS = MddfContext.getRequiredNamespaces(targetFmt);
+		Map<String, String> stepMap = new LinkedHashMap<String, String>();
+		for (String key : srcNS.keySet()) {
+			Namespace srcNSpace = srcNS.get(key);
+			Namespace targetNSpace = targetNS.get(key);
+			if (targetNSpace == null) {
+				continue;
+			}
+			stepMap.put(srcNSpace.getURI(), targetNSpace.getURI());
+			String prefix = srcNSpace.getPrefix();
+			xsdEdits.add(new String[] { prefix + "-v" + srcFmt.getVersion() + ".xsd",
+					prefix + "-v" + targetFmt.getVersion() + ".xsd" });
+		}
+		/* combine with the earlier steps */
+		for (Map.Entry<String, String> entry : uriMap.entrySet()) {
+			String next = stepMap.get(entry.getValue());
+			if (next != null) {
+				entry.setValue(next);
+			}
+		}
+		for (Map.Entry<String, String> entry : stepMap.entrySet()) {
+			if (!uriMap.containsKey(entry.getKey())) {
+				uriMap.put(entry.getKey(), entry.getValue());
+			}
+		}
+		/* a namespace may be unchanged (e.g., the MD version is the same) */
+		Iterator<Map.Entry<String, String>> entryIt = uriMap.entrySet().iterator();
+		while (entryIt.hasNext()) {
+			Map.Entry<String, String> entry = entryIt.next();
+			if (entry.getKey().equals(entry.getValue())) {
+				entryIt.remove();
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * @return the URI replacements resulting from all of the steps
+	 */
+	public Map<String, String> getUriMap() {
+		return Collections.unmodifiableMap(uriMap);
+	}
+
+	/**
+	 * Apply the namespace changes to the <tt>xmlDoc</tt>.
+	 * 
+	 * @param xmlDoc
+	 * @return the number of elements and attributes whose namespace was changed
+	 */
+	public int rewrite(Document xmlDoc) {
+		Element rootEl = xmlDoc.getRootElement();
+		int changeCnt = 0;
+		Deque<Element> pending = new ArrayDeque<Element>();
+		pending.push(rootEl);
+		while (!pending.isEmpty()) {
+			Element element = pending.pop();
+			changeCnt = changeCnt + rewrite(element);
+			List<Element> children = element.getChildren();
+			for (int i = children.size() - 1; i >= 0; i--) {
+				pending.push(children.get(i));
+			}
+		}
+		rewriteSchemaLocation(rootEl);
+		return changeCnt;
+	}
+
+	private int rewrite(Element element) {
+		int changeCnt = 0;
+		/*
+		 * JDOM rejects a prefix that is bound to two different URIs on the same
+		 * element so any affected attributes and declarations are removed before the
+		 * element's namespace is changed and then added back.
+		 */
+		List<Attribute> attList = null;
+		if (element.hasAttributes()) {
+			for (Attribute att : element.getAttributes()) {
+				if (uriMap.containsKey(att.getNamespaceURI())) {
+					attList = new ArrayList<Attribute>(element.getAttributes());
+					break;
+				}
+			}
+			if (attList != null) {
+				element.setAttributes(null);
+			}
+		}
+		List<Namespace> declarations = null;
+		for (Namespace ns : element.getAdditionalNamespaces()) {
+			if (uriMap.containsKey(ns.getURI())) {
+				if (declarations == null) {
+					declarations = new ArrayList<Namespace>();
+				}
+				declarations.add(ns);
+			}
+		}
+		if (declarations != null) {
+			for (Namespace ns : declarations) {
+				element.removeNamespaceDeclaration(ns);
+			}
+		}
+		Namespace elNSpace = replacementFor(element.getNamespace());
+		if (elNSpace != null) {
+			element.setNamespace(elNSpace);
+			changeCnt++;
+		}
+		if (declarations != null) {
+			for (Namespace ns : declarations) {
+				element.addNamespaceDeclaration(replacementFor(ns));
+			}
+		}
+		if (attList != null) {
+			for (Attribute att : attList) {
+				Namespace attNSpace = replacementFor(att.getNamespace());
+				if (attNSpace != null) {
+					att.setNamespace(attNSpace);
+					changeCnt++;
+				}
+			}
+			element.setAttributes(attList);
+		}
+		return changeCnt;
+	}
+
+	private Namespace replacementFor(Namespace ns) {
+		String uri = uriMap.get(ns.getURI());
+		if (uri == null) {
+			return null;
+		}
+		return Namespace.getNamespace(ns.getPrefix(), uri);
+	}
+
+	private void rewriteSchemaLocation(Element rootEl) {
+		Attribute schemaLoc = rootEl.getAttribute("schemaLocation", xsiNSpace);
+		if (schemaLoc == null) {
+			return;
+		}
+		String value = schemaLoc.getValue();
+		StringBuffer sb = new StringBuffer();
+		Matcher tokens = TOKEN.matcher(value);
+		while (tokens.find()) {
+			String uri = uriMap.get(tokens.group());
+			if (uri != null) {
+				tokens.appendReplacement(sb, Matcher.quoteReplacement(uri));
+			}
+		}
+		tokens.appendTail(sb);
+		value = sb.toString();
+		for (String[] edit : xsdEdits) {
+			int index = value.indexOf(edit[0]);
+			if (index >= 0) {
+				value = value.substring(0, index) + edit[1] + value.substring(index + edit[0].length());
+			}
+		}
+		schemaLoc.setValue(value);
+	}
+}
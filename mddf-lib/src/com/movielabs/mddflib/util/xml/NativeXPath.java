@@ -0,0 +1,1337 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Attribute;
+import org.jdom2.Comment;
+import org.jdom2.Content;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.Parent;
+import org.jdom2.ProcessingInstruction;
+import org.jdom2.Text;
+import org.jdom2.filter.Filter;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.util.AbstractXPathCompiled;
+
+/**
+ * Compiles and evaluates the subset of XPath 1.0 used by the MDDF structure
+ * definitions and validators by navigating the JDOM tree directly. See
+ * <tt>NativeXPathFactory</tt> for a description of the supported subset.
+ * <p>
+ * An expression is parsed into a tree of <tt>Expr</tt> nodes. Values are
+ * represented the same way as by Jaxen: a node-set is a <tt>List</tt> of JDOM
+ * objects in document order, a string is a <tt>String</tt>, a number is a
+ * <tt>Double</tt>, and a boolean is a <tt>Boolean</tt>. Comparisons and type
+ * conversions follow the XPath 1.0 rules as implemented by Jaxen so that the
+ * results are identical.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+final class NativeXPath {
+
+	/**
+	 * Thrown by the parser when an expression is outside the supported subset.
+	 */
+	static class UnsupportedException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedException(String msg) {
+			super(msg);
+		}
+	}
+
+	/**
+	 * Thrown during evaluation when a context or variable value is not supported.
+	 * The expression is then evaluated using Jaxen.
+	 */
+	private static class FallbackException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	private static final int T_NODESET = 0;
+	private static final int T_STRING = 1;
+	private static final int T_NUMBER = 2;
+	private static final int T_BOOLEAN = 3;
+	/* type is not known until evaluated (i.e., a variable) */
+	private static final int T_ANY = 4;
+
+	private static final Double NaN = Double.NaN;
+
+	private NativeXPath() {
+	}
+
+	/**
+	 * Parse an expression.
+	 * 
+	 * @param expression
+	 * @param namespaces
+	 * @return
+	 * @throws UnsupportedException if the expression is not a location path
+	 *                              within the supported subset
+	 */
+	static Expr parse(String expression, Namespace[] namespaces) throws UnsupportedException {
+		Map<String, Namespace> nsMap = new HashMap<String, Namespace>();
+		if (namespaces != null) {
+			for (Namespace ns : namespaces) {
+				nsMap.put(ns.getPrefix(), ns);
+			}
+		}
+		nsMap.put("xml", Namespace.XML_NAMESPACE);
+		Parser parser = new Parser(tokenize(expression), nsMap);
+		Expr expr = parser.parseOr();
+		parser.expect(Tok.EOF);
+		if (!(expr instanceof PathExpr)) {
+			throw new UnsupportedException("not a location path");
+		}
+		return expr;
+	}
+
+	/**
+	 * An <tt>XPathExpression</tt> evaluated via a parsed <tt>Expr</tt>.
+	 */
+	static final class Compiled<T> extends AbstractXPathCompiled<T> {
+		private final Expr expr;
+		private final NativeXPathFactory factory;
+
+		Compiled(String query, Filter<T> filter, Map<String, Object> variables, Namespace[] namespaces, Expr expr,
+				NativeXPathFactory factory) {
+			super(query, filter, variables, namespaces);
+			this.expr = expr;
+			this.factory = factory;
+		}
+
+		@Override
+		protected List<?> evaluateRawAll(Object context) {
+			try {
+				return (List<?>) expr.eval(context, this);
+			} catch (FallbackException e) {
+				return fallback().evaluate(context);
+			}
+		}
+
+		@Override
+		protected Object evaluateRawFirst(Object context) {
+			List<?> nodes = evaluateRawAll(context);
+			return nodes.isEmpty() ? null : nodes.get(0);
+		}
+
+		private XPathExpression<T> fallback() {
+			factory.fallbackUsed();
+			return factory.getFallbackFactory().compile(getExpression(), getFilter(), getVariables(),
+					getNamespaces());
+		}
+
+		Object variable(String name) {
+			return getVariable(name);
+		}
+	}
+
+	// ######################################################################
+	// Tokenizer
+	// ######################################################################
+
+	private enum Tok {
+		SLASH, DSLASH, DOT, DDOT, AT, DCOLON, LPAREN, RPAREN, LBRACKET, RBRACKET, COMMA, PIPE, EQ, NEQ, LT, LTE,
+		GT, GTE, STAR, PLUS, MINUS, LITERAL, NUMBER, VARIABLE, NAME, EOF
+	}
+
+	private static class Token {
+		final Tok type;
+		final String text;
+
+		Token(Tok type, String text) {
+			this.type = type;
+			this.text = text;
+		}
+	}
+
+	private static List<Token> tokenize(String xpath) throws UnsupportedException {
+		List<Token> tokens = new ArrayList<Token>();
+		int i = 0;
+		int len = xpath.length();
+		while (i < len) {
+			char c = xpath.charAt(i);
+			if (isXmlSpace(c)) {
+				i++;
+				continue;
+			}
+			char next = (i + 1 < len) ? xpath.charAt(i + 1) : 0;
+			switch (c) {
+			case '/':
+				if (next == '/') {
+					tokens.add(new Token(Tok.DSLASH, "//"));
+					i += 2;
+				} else {
+					tokens.add(new Token(Tok.SLASH, "/"));
+					i++;
+				}
+				continue;
+			case '.':
+				if (next == '.') {
+					tokens.add(new Token(Tok.DDOT, ".."));
+					i += 2;
+					continue;
+				}
+				if (!Character.isDigit(next)) {
+					tokens.add(new Token(Tok.DOT, "."));
+					i++;
+					continue;
+				}
+				break;
+			case '@':
+				tokens.add(new Token(Tok.AT, "@"));
+				i++;
+				continue;
+			case ':':
+				if (next == ':') {
+					tokens.add(new Token(Tok.DCOLON, "::"));
+					i += 2;
+					continue;
+				}
+				throw new UnsupportedException("unexpected ':'");
+			case '(':
+				tokens.add(new Token(Tok.LPAREN, "("));
+				i++;
+				continue;
+			case ')':
+				tokens.add(new Token(Tok.RPAREN, ")"));
+				i++;
+				continue;
+			case '[':
+				tokens.add(new Token(Tok.LBRACKET, "["));
+				i++;
+				continue;
+			case ']':
+				tokens.add(new Token(Tok.RBRACKET, "]"));
+				i++;
+				continue;
+			case ',':
+				tokens.add(new Token(Tok.COMMA, ","));
+				i++;
+				continue;
+			case '|':
+				tokens.add(new Token(Tok.PIPE, "|"));
+				i++;
+				continue;
+			case '=':
+				tokens.add(new Token(Tok.EQ, "="));
+				i++;
+				continue;
+			case '!':
+				if (next == '=') {
+					tokens.add(new Token(Tok.NEQ, "!="));
+					i += 2;
+					continue;
+				}
+				throw new UnsupportedException("unexpected '!'");
+			case '<':
+				if (next == '=') {
+					tokens.add(new Token(Tok.LTE, "<="));
+					i += 2;
+				} else {
+					tokens.add(new Token(Tok.LT, "<"));
+					i++;
+				}
+				continue;
+			case '>':
+				if (next == '=') {
+					tokens.add(new Token(Tok.GTE, ">="));
+					i += 2;
+				} else {
+					tokens.add(new Token(Tok.GT, ">"));
+					i++;
+				}
+				continue;
+			case '*':
+				tokens.add(new Token(Tok.STAR, "*"));
+				i++;
+				continue;
+			case '+':
+				tokens.add(new Token(Tok.PLUS, "+"));
+				i++;
+				continue;
+			case '-':
+				tokens.add(new Token(Tok.MINUS, "-"));
+				i++;
+				continue;
+			case '\'':
+			case '"':
+				int end = xpath.indexOf(c, i + 1);
+				if (end < 0) {
+					throw new UnsupportedException("unterminated literal");
+				}
+				tokens.add(new Token(Tok.LITERAL, xpath.substring(i + 1, end)));
+				i = end + 1;
+				continue;
+			case '$':
+				int varEnd = scanNCName(xpath, i + 1);
+				if (varEnd == i + 1) {
+					throw new UnsupportedException("invalid variable");
+				}
+				tokens.add(new Token(Tok.VARIABLE, xpath.substring(i + 1, varEnd)));
+				i = varEnd;
+				continue;
+			default:
+				break;
+			}
+			if (Character.isDigit(c) || (c == '.')) {
+				int start = i;
+				while ((i < len) && Character.isDigit(xpath.charAt(i))) {
+					i++;
+				}
+				if ((i < len) && (xpath.charAt(i) == '.')) {
+					i++;
+					while ((i < len) && Character.isDigit(xpath.charAt(i))) {
+						i++;
+					}
+				}
+				tokens.add(new Token(Tok.NUMBER, xpath.substring(start, i)));
+				continue;
+			}
+			int nameEnd = scanNCName(xpath, i);
+			if (nameEnd == i) {
+				throw new UnsupportedException("unexpected '" + c + "'");
+			}
+			/* a QName or 'prefix:*' but not an axis (i.e., 'child::') */
+			if ((nameEnd + 1 < len) && (xpath.charAt(nameEnd) == ':') && (xpath.charAt(nameEnd + 1) != ':')) {
+				if (xpath.charAt(nameEnd + 1) == '*') {
+					nameEnd = nameEnd + 2;
+				} else {
+					int localEnd = scanNCName(xpath, nameEnd + 1);
+					if (localEnd == nameEnd + 1) {
+						throw new UnsupportedException("invalid QName");
+					}
+					nameEnd = localEnd;
+				}
+			}
+			tokens.add(new Token(Tok.NAME, xpath.substring(i, nameEnd)));
+			i = nameEnd;
+		}
+		tokens.add(new Token(Tok.EOF, ""));
+		return tokens;
+	}
+
+	private static int scanNCName(String xpath, int start) {
+		int i = start;
+		if ((i < xpath.length()) && (Character.isLetter(xpath.charAt(i)) || (xpath.charAt(i) == '_'))) {
+			i++;
+			while (i < xpath.length()) {
+				char c = xpath.charAt(i);
+				if (Character.isLetterOrDigit(c) || (c == '_') || (c == '-') || (c == '.')) {
+					i++;
+				} else {
+					break;
+				}
+			}
+		}
+		return i;
+	}
+
+	private static boolean isXmlSpace(char c) {
+		return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\r');
+	}
+
+	// ######################################################################
+	// Parser
+	// ######################################################################
+
+	private static class Parser {
+		private final List<Token> tokens;
+		private final Map<String, Namespace> nsMap;
+		private int pos = 0;
+
+		Parser(List<Token> tokens, Map<String, Namespace> nsMap) {
+			this.tokens = tokens;
+			this.nsMap = nsMap;
+		}
+
+		private Token peek() {
+			return tokens.get(pos);
+		}
+
+		private Token peek(int ahead) {
+			return tokens.get(Math.min(pos + ahead, tokens.size() - 1));
+		}
+
+		private Token next() {
+			return tokens.get(pos++);
+		}
+
+		void expect(Tok type) throws UnsupportedException {
+			if (next().type != type) {
+				throw new UnsupportedException("expected " + type);
+			}
+		}
+
+		private boolean isOperator(String name) {
+			Token tok = peek();
+			return (tok.type == Tok.NAME) && tok.text.equals(name);
+		}
+
+		Expr parseOr() throws UnsupportedException {
+			Expr lhs = parseAnd();
+			while (isOperator("or")) {
+				next();
+				lhs = new OrExpr(lhs, parseAnd());
+			}
+			return lhs;
+		}
+
+		private Expr parseAnd() throws UnsupportedException {
+			Expr lhs = parseEquality();
+			while (isOperator("and")) {
+				next();
+				lhs = new AndExpr(lhs, parseEquality());
+			}
+			return lhs;
+		}
+
+		private Expr parseEquality() throws UnsupportedException {
+			Expr lhs = parseRelational();
+			while ((peek().type == Tok.EQ) || (peek().type == Tok.NEQ)) {
+				Tok op = next().type;
+				lhs = new CompareExpr(op, lhs, parseRelational());
+			}
+			return lhs;
+		}
+
+		private Expr parseRelational() throws UnsupportedException {
+			Expr lhs = parsePrimary();
+			while ((peek().type == Tok.LT) || (peek().type == Tok.LTE) || (peek().type == Tok.GT)
+					|| (peek().type == Tok.GTE)) {
+				Tok op = next().type;
+				lhs = new CompareExpr(op, lhs, parsePrimary());
+			}
+			return lhs;
+		}
+
+		private Expr parsePrimary() throws UnsupportedException {
+			Token tok = peek();
+			switch (tok.type) {
+			case LITERAL:
+				next();
+				return new ConstantExpr(tok.text, T_STRING);
+			case NUMBER:
+				next();
+				return new ConstantExpr(Double.valueOf(tok.text), T_NUMBER);
+			case VARIABLE:
+				next();
+				return new VariableExpr(tok.text);
+			case LPAREN:
+				next();
+				Expr inner = parseOr();
+				expect(Tok.RPAREN);
+				if ((peek().type == Tok.LBRACKET) || (peek().type == Tok.SLASH) || (peek().type == Tok.DSLASH)) {
+					throw new UnsupportedException("filter expression");
+				}
+				return inner;
+			case NAME:
+				if ((peek(1).type == Tok.LPAREN) && !isNodeType(tok.text)) {
+					return parseFunction();
+				}
+				return parsePath();
+			default:
+				return parsePath();
+			}
+		}
+
+		private Expr parseFunction() throws UnsupportedException {
+			String name = next().text;
+			expect(Tok.LPAREN);
+			List<Expr> args = new ArrayList<Expr>();
+			if (peek().type != Tok.RPAREN) {
+				args.add(parseOr());
+				while (peek().type == Tok.COMMA) {
+					next();
+					args.add(parseOr());
+				}
+			}
+			expect(Tok.RPAREN);
+			return new FunctionExpr(name, args.toArray(new Expr[args.size()]));
+		}
+
+		private Expr parsePath() throws UnsupportedException {
+			List<Step> steps = new ArrayList<Step>();
+			boolean absolute = false;
+			boolean descend = false;
+			if (peek().type == Tok.SLASH) {
+				next();
+				absolute = true;
+				if (!startsStep(peek())) {
+					return new PathExpr(true, new Step[0]);
+				}
+			} else if (peek().type == Tok.DSLASH) {
+				next();
+				absolute = true;
+				descend = true;
+			}
+			while (true) {
+				Step step = parseStep();
+				if (descend) {
+					/* '//' is short for '/descendant-or-self::node()/' */
+					if (step.axis == Axis.CHILD) {
+						step = new Step(Axis.DESCENDANT, step.test, step.predicates);
+					} else if (step.axis == Axis.ATTRIBUTE) {
+						steps.add(new Step(Axis.DESCENDANT_OR_SELF, NodeTest.ELEMENT, new Expr[0]));
+					} else {
+						throw new UnsupportedException("unsupported step after '//'");
+					}
+				}
+				/* a 'self::node()' step without predicates has no effect */
+				if (!((step.axis == Axis.SELF) && (step.test == NodeTest.NODE) && (step.predicates.length == 0))) {
+					steps.add(step);
+				}
+				if (peek().type == Tok.SLASH) {
+					next();
+					descend = false;
+				} else if (peek().type == Tok.DSLASH) {
+					next();
+					descend = true;
+				} else {
+					break;
+				}
+			}
+			if (peek().type == Tok.PIPE) {
+				throw new UnsupportedException("union");
+			}
+			return new PathExpr(absolute, steps.toArray(new Step[steps.size()]));
+		}
+
+		private boolean startsStep(Token tok) {
+			return (tok.type == Tok.NAME) || (tok.type == Tok.STAR) || (tok.type == Tok.AT) || (tok.type == Tok.DOT)
+					|| (tok.type == Tok.DDOT);
+		}
+
+		private Step parseStep() throws UnsupportedException {
+			Token tok = next();
+			Axis axis = Axis.CHILD;
+			NodeTest test;
+			if (tok.type == Tok.DOT) {
+				axis = Axis.SELF;
+				test = NodeTest.NODE;
+			} else if (tok.type == Tok.DDOT) {
+				axis = Axis.PARENT;
+				test = NodeTest.NODE;
+			} else {
+				if (tok.type == Tok.AT) {
+					axis = Axis.ATTRIBUTE;
+					tok = next();
+				} else if ((tok.type == Tok.NAME) && (peek().type == Tok.DCOLON)) {
+					axis = Axis.forName(tok.text);
+					next();
+					tok = next();
+				}
+				test = parseNodeTest(tok, axis);
+			}
+			List<Expr> predicates = new ArrayList<Expr>();
+			while (peek().type == Tok.LBRACKET) {
+				next();
+				Expr predicate = parseOr();
+				expect(Tok.RBRACKET);
+				if ((predicate.type() == T_NUMBER) || (predicate.type() == T_ANY)) {
+					throw new UnsupportedException("positional predicate");
+				}
+				predicates.add(predicate);
+			}
+			return new Step(axis, test, predicates.toArray(new Expr[predicates.size()]));
+		}
+
+		private NodeTest parseNodeTest(Token tok, Axis axis) throws UnsupportedException {
+			if (tok.type == Tok.STAR) {
+				return NodeTest.ANY;
+			}
+			if (tok.type != Tok.NAME) {
+				throw new UnsupportedException("expected a node test");
+			}
+			if (isNodeType(tok.text)) {
+				expect(Tok.LPAREN);
+				expect(Tok.RPAREN);
+				if (tok.text.equals("text") && (axis != Axis.ATTRIBUTE)) {
+					return NodeTest.TEXT;
+				}
+				if (tok.text.equals("node") && (axis == Axis.SELF || axis == Axis.PARENT)) {
+					return NodeTest.NODE;
+				}
+				throw new UnsupportedException("unsupported node type test");
+			}
+			String name = tok.text;
+			int colon = name.indexOf(':');
+			if (colon < 0) {
+				return new NodeTest(Namespace.NO_NAMESPACE.getURI(), name);
+			}
+			Namespace ns = nsMap.get(name.substring(0, colon));
+			if (ns == null) {
+				throw new UnsupportedException("unknown prefix");
+			}
+			String localName = name.substring(colon + 1);
+			return new NodeTest(ns.getURI(), localName.equals("*") ? null : localName);
+		}
+
+		private static boolean isNodeType(String name) {
+			return name.equals("text") || name.equals("node") || name.equals("comment")
+					|| name.equals("processing-instruction");
+		}
+	}
+
+	// ######################################################################
+	// Expressions
+	// ######################################################################
+
+	abstract static class Expr {
+		/**
+		 * @param node the context node
+		 * @param env
+		 * @return a <tt>List</tt>, <tt>String</tt>, <tt>Double</tt>, or
+		 *         <tt>Boolean</tt>
+		 */
+		abstract Object eval(Object node, Compiled<?> env);
+
+		/**
+		 * @return the static type of the value returned by <tt>eval()</tt>
+		 */
+		abstract int type();
+	}
+
+	private static class ConstantExpr extends Expr {
+		private final Object value;
+		private final int type;
+
+		ConstantExpr(Object value, int type) {
+			this.value = value;
+			this.type = type;
+		}
+
+		Object eval(Object node, Compiled<?> env) {
+			return value;
+		}
+
+		int type() {
+			return type;
+		}
+	}
+
+	private static class VariableExpr extends Expr {
+		private final String name;
+
+		VariableExpr(String name) {
+			this.name = name;
+		}
+
+		Object eval(Object node, Compiled<?> env) {
+			Object value = env.variable(name);
+			if ((value instanceof String) || (value instanceof Double) || (value instanceof Boolean)) {
+				return value;
+			}
+			throw new FallbackException();
+		}
+
+		int type() {
+			return T_ANY;
+		}
+	}
+
+	private static class OrExpr extends Expr {
+		private final Expr lhs;
+		private final Expr rhs;
+
+		OrExpr(Expr lhs, Expr rhs) {
+			this.lhs = lhs;
+			this.rhs = rhs;
+		}
+
+		Object eval(Object node, Compiled<?> env) {
+			return toBoolean(lhs.eval(node, env)) || toBoolean(rhs.eval(node, env));
+		}
+
+		int type() {
+			return T_BOOLEAN;
+		}
+	}
+
+	private static class AndExpr extends Expr {
+		private final Expr lhs;
+		private final Expr rhs;
+
+		AndExpr(Expr lhs, Expr rhs) {
+			this.lhs = lhs;
+			this.rhs = rhs;
+		}
+
+		Object eval(Object node, Compiled<?> env) {
+			return toBoolean(lhs.eval(node, env)) && toBoolean(rhs.eval(node, env));
+		}
+
+		int type() {
+			return T_BOOLEAN;
+		}
+	}
+
+	private static class CompareExpr extends Expr {
+		private final Tok op;
+		private final Expr lhs;
+		private final Expr rhs;
+
+		CompareExpr(Tok op, Expr lhs, Expr rhs) {
+			this.op = op;
+			this.lhs = lhs;
+			this.rhs = rhs;
+		}
+
+		Object eval(Object node, Compiled<?> env) {
+			return compare(op, lhs.eval(node, env), rhs.eval(node, env));
+		}
+
+		int type() {
+			return T_BOOLEAN;
+		}
+	}
+
+	private static class FunctionExpr extends Expr {
+		private final String name;
+		private final Expr[] args;
+		private final int type;
+
+		FunctionExpr(String name, Expr[] args) throws UnsupportedException {
+			this.name = name;
+			this.args = args;
+			switch (name) {
+			case "not":
+			case "boolean":
+				this.type = T_BOOLEAN;
+				checkArgCnt(1, 1);
+				break;
+			case "true":
+			case "false":
+				this.type = T_BOOLEAN;
+				checkArgCnt(0, 0);
+				break;
+			case "contains":
+			case "starts-with":
+				this.type = T_BOOLEAN;
+				checkArgCnt(2, 2);
+				break;
+			case "string":
+			case "normalize-space":
+				this.type = T_STRING;
+				checkArgCnt(0, 1);
+				break;
+			case "concat":
+				this.type = T_STRING;
+				checkArgCnt(2, Integer.MAX_VALUE);
+				break;
+			case "string-length":
+				this.type = T_NUMBER;
+				checkArgCnt(0, 1);
+				break;
+			case "count":
+				this.type = T_NUMBER;
+				checkArgCnt(1, 1);
+				if (args[0].type() != T_NODESET) {
+					throw new UnsupportedException("count() requires a node-set");
+				}
+				break;
+			default:
+				throw new UnsupportedException("unsupported function " + name);
+			}
+		}
+
+		private void checkArgCnt(int min, int max) throws UnsupportedException {
+			if ((args.length < min) || (args.length > max)) {
+				throw new UnsupportedException("wrong number of arguments for " + name);
+			}
+		}
+
+		Object eval(Object node, Compiled<?> env) {
+			switch (name) {
+			case "not":
+				return !toBoolean(args[0].eval(node, env));
+			case "boolean":
+				return toBoolean(args[0].eval(node, env));
+			case "true":
+				return Boolean.TRUE;
+			case "false":
+				return Boolean.FALSE;
+			case "contains":
+				return toStr(args[0].eval(node, env)).contains(toStr(args[1].eval(node, env)));
+			case "starts-with":
+				return toStr(args[0].eval(node, env)).startsWith(toStr(args[1].eval(node, env)));
+			case "string":
+				return argAsString(node, env);
+			case "normalize-space":
+				return normalizeSpace(argAsString(node, env));
+			case "concat":
+				StringBuilder sb = new StringBuilder();
+				for (Expr arg : args) {
+					sb.append(toStr(arg.eval(node, env)));
+				}
+				return sb.toString();
+			case "string-length":
+				String text = argAsString(node, env);
+				return Double.valueOf(text.codePointCount(0, text.length()));
+			case "count":
+				return Double.valueOf(((List<?>) args[0].eval(node, env)).size());
+			default:
+				throw new FallbackException();
+			}
+		}
+
+		private String argAsString(Object node, Compiled<?> env) {
+			if (args.length == 0) {
+				return stringValue(node);
+			}
+			return toStr(args[0].eval(node, env));
+		}
+
+		int type() {
+			return type;
+		}
+	}
+
+	// ######################################################################
+	// Location paths
+	// ######################################################################
+
+	private enum Axis {
+		CHILD, DESCENDANT, DESCENDANT_OR_SELF, SELF, PARENT, ATTRIBUTE;
+
+		static Axis forName(String name) throws UnsupportedException {
+			switch (name) {
+			case "child":
+				return CHILD;
+			case "descendant":
+				return DESCENDANT;
+			case "descendant-or-self":
+				return DESCENDANT_OR_SELF;
+			case "self":
+				return SELF;
+			case "parent":
+				return PARENT;
+			case "attribute":
+				return ATTRIBUTE;
+			default:
+				throw new UnsupportedException("unsupported axis " + name);
+			}
+		}
+	}
+
+	/**
+	 * A name test (with a <tt>null</tt> local name indicating <tt>prefix:*</tt>)
+	 * or one of the node type tests.
+	 */
+	private static class NodeTest {
+		static final NodeTest ANY = new NodeTest(null, null);
+		static final NodeTest TEXT = new NodeTest(null, null);
+		static final NodeTest NODE = new NodeTest(null, null);
+		/* used internally to visit only Elements */
+		static final NodeTest ELEMENT = new NodeTest(null, null);
+
+		final String nsUri;
+		final String localName;
+
+		NodeTest(String nsUri, String localName) {
+			this.nsUri = nsUri;
+			this.localName = localName;
+		}
+
+		boolean isNameTest() {
+			return (this != TEXT) && (this != NODE);
+		}
+
+		boolean matches(Element el) {
+			if ((this == ANY) || (this == ELEMENT)) {
+				return true;
+			}
+			if (!isNameTest()) {
+				return false;
+			}
+			if ((localName != null) && !localName.equals(el.getName())) {
+				return false;
+			}
+			return nsUri.equals(el.getNamespaceURI());
+		}
+
+		boolean matches(Attribute att) {
+			if (this == ANY) {
+				return true;
+			}
+			if (!isNameTest() || (this == ELEMENT)) {
+				return false;
+			}
+			if ((localName != null) && !localName.equals(att.getName())) {
+				return false;
+			}
+			return nsUri.equals(att.getNamespaceURI());
+		}
+	}
+
+	private static class Step {
+		final Axis axis;
+		final NodeTest test;
+		final Expr[] predicates;
+
+		Step(Axis axis, NodeTest test, Expr[] predicates) {
+			this.axis = axis;
+			this.test = test;
+			this.predicates = predicates;
+		}
+
+		/**
+		 * Add the nodes selected by this step, in document order, to the
+		 * <tt>results</tt>.
+		 */
+		void select(Object node, List<Object> results, Compiled<?> env) {
+			switch (axis) {
+			case CHILD:
+				selectChildren(node, results, env);
+				break;
+			case DESCENDANT:
+				selectDescendants(node, results, env);
+				break;
+			case DESCENDANT_OR_SELF:
+				if ((node instanceof Element) && test.matches((Element) node)) {
+					accept(node, results, env);
+				} else if ((node instanceof Document) && (test == NodeTest.ELEMENT)) {
+					accept(node, results, env);
+				}
+				selectDescendants(node, results, env);
+				break;
+			case SELF:
+				if (test == NodeTest.NODE) {
+					accept(node, results, env);
+				} else if (test == NodeTest.TEXT) {
+					if (node instanceof Text) {
+						accept(node, results, env);
+					}
+				} else if ((node instanceof Element) && test.matches((Element) node)) {
+					accept(node, results, env);
+				}
+				break;
+			case PARENT:
+				Object parent = getParent(node);
+				if (parent == null) {
+					break;
+				}
+				if (test == NodeTest.NODE) {
+					accept(parent, results, env);
+				} else if (test.isNameTest() && (parent instanceof Element) && test.matches((Element) parent)) {
+					accept(parent, results, env);
+				}
+				break;
+			case ATTRIBUTE:
+				if ((node instanceof Element) && ((Element) node).hasAttributes()) {
+					for (Attribute att : ((Element) node).getAttributes()) {
+						if (test.matches(att)) {
+							accept(att, results, env);
+						}
+					}
+				}
+				break;
+			}
+		}
+
+		private void selectChildren(Object node, List<Object> results, Compiled<?> env) {
+			if (!(node instanceof Parent)) {
+				return;
+			}
+			if (test == NodeTest.TEXT) {
+				if (node instanceof Element) {
+					for (Content child : ((Element) node).getContent()) {
+						if (child instanceof Text) {
+							accept(child, results, env);
+						}
+					}
+				}
+				return;
+			}
+			if (node instanceof Element) {
+				for (Element child : ((Element) node).getChildren()) {
+					if (test.matches(child)) {
+						accept(child, results, env);
+					}
+				}
+			} else if (node instanceof Document) {
+				Document doc = (Document) node;
+				if (doc.hasRootElement() && test.matches(doc.getRootElement())) {
+					accept(doc.getRootElement(), results, env);
+				}
+			}
+		}
+
+		private void selectDescendants(Object node, List<Object> results, Compiled<?> env) {
+			if (node instanceof Document) {
+				Document doc = (Document) node;
+				if (!doc.hasRootElement()) {
+					return;
+				}
+				Element rootEl = doc.getRootElement();
+				if (test == NodeTest.TEXT) {
+					selectDescendants(rootEl, results, env);
+					return;
+				}
+				if (test.matches(rootEl)) {
+					accept(rootEl, results, env);
+				}
+				node = rootEl;
+			}
+			if (!(node instanceof Element)) {
+				return;
+			}
+			if (test == NodeTest.TEXT) {
+				for (Content child : ((Element) node).getContent()) {
+					if (child instanceof Text) {
+						accept(child, results, env);
+					} else if (child instanceof Element) {
+						selectDescendants(child, results, env);
+					}
+				}
+				return;
+			}
+			for (Element child : ((Element) node).getChildren()) {
+				if (test.matches(child)) {
+					accept(child, results, env);
+				}
+				selectDescendants(child, results, env);
+			}
+		}
+
+		private void accept(Object node, List<Object> results, Compiled<?> env) {
+			for (Expr predicate : predicates) {
+				if (!toBoolean(predicate.eval(node, env))) {
+					return;
+				}
+			}
+			results.add(node);
+		}
+	}
+
+	private static class PathExpr extends Expr {
+		private final boolean absolute;
+		private final Step[] steps;
+
+		PathExpr(boolean absolute, Step[] steps) {
+			this.absolute = absolute;
+			this.steps = steps;
+		}
+
+		Object eval(Object node, Compiled<?> env) {
+			if (!(node instanceof Content) && !(node instanceof Document) && !(node instanceof Attribute)) {
+				throw new FallbackException();
+			}
+			if (absolute) {
+				node = getDocument(node);
+				if (node == null) {
+					throw new FallbackException();
+				}
+			}
+			List<Object> current = new ArrayList<Object>(1);
+			current.add(node);
+			/* no node in 'current' is an ancestor of another */
+			boolean flat = true;
+			for (Step step : steps) {
+				List<Object> next = new ArrayList<Object>();
+				for (Object contextNode : current) {
+					step.select(contextNode, next, env);
+				}
+				boolean preservesOrder = (step.axis != Axis.PARENT);
+				if ((current.size() > 1) && !(flat && preservesOrder) && (next.size() > 1)) {
+					next = sortUnique(next);
+				}
+				flat = (next.size() <= 1)
+						|| (flat && (step.axis == Axis.CHILD || step.axis == Axis.ATTRIBUTE || step.axis == Axis.SELF));
+				current = next;
+				if (current.isEmpty()) {
+					break;
+				}
+			}
+			return current;
+		}
+
+		int type() {
+			return T_NODESET;
+		}
+	}
+
+	// ######################################################################
+	// Navigation and type conversion
+	// ######################################################################
+
+	private static Object getParent(Object node) {
+		if (node instanceof Attribute) {
+			return ((Attribute) node).getParent();
+		}
+		if (node instanceof Content) {
+			return ((Content) node).getParent();
+		}
+		return null;
+	}
+
+	private static Document getDocument(Object node) {
+		if (node instanceof Document) {
+			return (Document) node;
+		}
+		if (node instanceof Attribute) {
+			return ((Attribute) node).getDocument();
+		}
+		return ((Content) node).getDocument();
+	}
+
+	/**
+	 * Remove duplicates and sort a set of nodes into document order.
+	 */
+	private static List<Object> sortUnique(List<Object> nodes) {
+		Map<Object, int[]> positions = new IdentityHashMap<Object, int[]>();
+		List<Object> unique = new ArrayList<Object>(nodes.size());
+		for (Object node : nodes) {
+			if (!positions.containsKey(node)) {
+				positions.put(node, position(node));
+				unique.add(node);
+			}
+		}
+		Collections.sort(unique, new Comparator<Object>() {
+			public int compare(Object n1, Object n2) {
+				int[] p1 = positions.get(n1);
+				int[] p2 = positions.get(n2);
+				for (int i = 0; i < Math.min(p1.length, p2.length); i++) {
+					if (p1[i] != p2[i]) {
+						return (p1[i] < p2[i]) ? -1 : 1;
+					}
+				}
+				return Integer.compare(p1.length, p2.length);
+			}
+		});
+		return unique;
+	}
+
+	/**
+	 * Return the position of a node as the index of it and each of its ancestors
+	 * within their parents. An attribute is positioned after its element but
+	 * before any of the element's children.
+	 */
+	private static int[] position(Object node) {
+		List<Integer> path = new ArrayList<Integer>();
+		if (node instanceof Attribute) {
+			Attribute att = (Attribute) node;
+			Element owner = att.getParent();
+			path.add(Integer.MIN_VALUE + owner.getAttributes().indexOf(att));
+			node = owner;
+		}
+		while (node instanceof Content) {
+			Parent parent = ((Content) node).getParent();
+			if (parent == null) {
+				break;
+			}
+			path.add(parent.indexOf((Content) node));
+			node = parent;
+		}
+		int[] position = new int[path.size()];
+		for (int i = 0; i < position.length; i++) {
+			position[i] = path.get(position.length - 1 - i);
+		}
+		return position;
+	}
+
+	static String stringValue(Object node) {
+		if (node instanceof Element) {
+			return ((Element) node).getValue();
+		}
+		if (node instanceof Attribute) {
+			return ((Attribute) node).getValue();
+		}
+		if (node instanceof Text) {
+			return ((Text) node).getText();
+		}
+		if (node instanceof Document) {
+			Document doc = (Document) node;
+			return doc.hasRootElement() ? doc.getRootElement().getValue() : "";
+		}
+		if (node instanceof Comment) {
+			return ((Comment) node).getText();
+		}
+		if (node instanceof ProcessingInstruction) {
+			return ((ProcessingInstruction) node).getData();
+		}
+		throw new FallbackException();
+	}
+
+	private static boolean toBoolean(Object value) {
+		if (value instanceof Boolean) {
+			return (Boolean) value;
+		}
+		if (value instanceof List) {
+			return !((List<?>) value).isEmpty();
+		}
+		if (value instanceof String) {
+			return !((String) value).isEmpty();
+		}
+		double num = (Double) value;
+		return !(Double.isNaN(num) || (num == 0));
+	}
+
+	private static String toStr(Object value) {
+		if (value instanceof String) {
+			return (String) value;
+		}
+		if (value instanceof List) {
+			List<?> nodes = (List<?>) value;
+			return nodes.isEmpty() ? "" : stringValue(nodes.get(0));
+		}
+		if (value instanceof Boolean) {
+			return value.toString();
+		}
+		double num = (Double) value;
+		if (Double.isNaN(num)) {
+			return "NaN";
+		}
+		if (Double.isInfinite(num)) {
+			return (num > 0) ? "Infinity" : "-Infinity";
+		}
+		if ((num == Math.rint(num)) && (Math.abs(num) < 1e15)) {
+			return Long.toString((long) num);
+		}
+		/* outside of the subset used by MDDF */
+		throw new FallbackException();
+	}
+
+	private static Double toNumber(Object value) {
+		if (value instanceof Double) {
+			return (Double) value;
+		}
+		if (value instanceof Boolean) {
+			return ((Boolean) value) ? 1.0 : 0.0;
+		}
+		return parseNumber(toStr(value));
+	}
+
+	private static Double parseNumber(String text) {
+		try {
+			return Double.valueOf(text);
+		} catch (NumberFormatException e) {
+			return NaN;
+		}
+	}
+
+	private static String normalizeSpace(String text) {
+		StringBuilder sb = new StringBuilder(text.length());
+		boolean pendingSpace = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (isXmlSpace(c)) {
+				pendingSpace = (sb.length() > 0);
+			} else {
+				if (pendingSpace) {
+					sb.append(' ');
+					pendingSpace = false;
+				}
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Compare two values using the XPath 1.0 rules for <tt>=</tt>,
+	 * <tt>!=</tt>, <tt>&lt;</tt>, <tt>&lt;=</tt>, <tt>&gt;</tt>, and
+	 * <tt>&gt;=</tt>.
+	 */
+	private static boolean compare(Tok op, Object lhs, Object rhs) {
+		boolean lhsIsSet = (lhs instanceof List);
+		boolean rhsIsSet = (rhs instanceof List);
+		if (lhsIsSet && rhsIsSet) {
+			for (Object lNode : (List<?>) lhs) {
+				String lValue = stringValue(lNode);
+				for (Object rNode : (List<?>) rhs) {
+					if (compareAtomic(op, lValue, stringValue(rNode))) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+		if (lhsIsSet || rhsIsSet) {
+			Object other = lhsIsSet ? rhs : lhs;
+			if (other instanceof Boolean) {
+				Boolean setValue = !((List<?>) (lhsIsSet ? lhs : rhs)).isEmpty();
+				return lhsIsSet ? compareAtomic(op, setValue, other) : compareAtomic(op, other, setValue);
+			}
+			for (Object node : (List<?>) (lhsIsSet ? lhs : rhs)) {
+				Object nodeValue = stringValue(node);
+				if (other instanceof Double) {
+					nodeValue = parseNumber((String) nodeValue);
+				}
+				boolean result = lhsIsSet ? compareAtomic(op, nodeValue, other) : compareAtomic(op, other, nodeValue);
+				if (result) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return compareAtomic(op, lhs, rhs);
+	}
+
+	private static boolean compareAtomic(Tok op, Object lhs, Object rhs) {
+		if ((op == Tok.EQ) || (op == Tok.NEQ)) {
+			boolean equal;
+			if ((lhs instanceof Boolean) || (rhs instanceof Boolean)) {
+				equal = (toBoolean(lhs) == toBoolean(rhs));
+			} else if ((lhs instanceof Double) || (rhs instanceof Double)) {
+				Double lNum = toNumber(lhs);
+				Double rNum = toNumber(rhs);
+				if (lNum.isNaN() || rNum.isNaN()) {
+					return (op == Tok.NEQ);
+				}
+				equal = lNum.equals(rNum);
+			} else {
+				equal = lhs.equals(rhs);
+			}
+			return (op == Tok.EQ) ? equal : !equal;
+		}
+		Double lNum = toNumber(lhs);
+		Double rNum = toNumber(rhs);
+		if (lNum.isNaN() || rNum.isNaN()) {
+			return false;
+		}
+		double l = lNum;
+		double r = rNum;
+		switch (op) {
+		case LT:
+			return l < r;
+		case LTE:
+			return l <= r;
+		case GT:
+			return l > r;
+		default:
+			return l >= r;
+		}
+	}
+}
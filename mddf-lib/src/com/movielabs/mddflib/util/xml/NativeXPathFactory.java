@@ -0,0 +1,109 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.xml;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filter;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+
+/**
+ * An <tt>XPathFactory</tt> that evaluates the subset of XPath used by the MDDF
+ * structure definitions and validators by navigating the JDOM tree directly
+ * rather than via Jaxen. The supported subset is:
+ * <ul>
+ * <li>relative and absolute location paths, including the <tt>.</tt>,
+ * <tt>..</tt>, <tt>@</tt>, and <tt>//</tt> abbreviations,</li>
+ * <li>the <tt>child</tt>, <tt>descendant</tt>, <tt>descendant-or-self</tt>,
+ * <tt>self</tt>, <tt>parent</tt>, and <tt>attribute</tt> axes,</li>
+ * <li>name tests (<tt>QName</tt>, <tt>prefix:*</tt>, and <tt>*</tt>) and
+ * <tt>text()</tt>,</li>
+ * <li>predicates using <tt>and</tt>, <tt>or</tt>, comparisons, literals,
+ * variables, and the functions <tt>not()</tt>, <tt>boolean()</tt>,
+ * <tt>true()</tt>, <tt>false()</tt>, <tt>string()</tt>,
+ * <tt>normalize-space()</tt>, <tt>concat()</tt>, <tt>contains()</tt>,
+ * <tt>starts-with()</tt>, <tt>string-length()</tt>, and
+ * <tt>count()</tt>.</li>
+ * </ul>
+ * Any expression outside of that subset (e.g., positional predicates, unions,
+ * arithmetic, or an expression that does not evaluate to a node-set) is
+ * compiled by the Jaxen-based factory instead. The same is true at evaluation
+ * time if the context is not a JDOM node or a variable is bound to something
+ * other than a <tt>String</tt>, <tt>Double</tt>, or <tt>Boolean</tt>. In all
+ * cases the results are identical to those produced by Jaxen.
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class NativeXPathFactory extends XPathFactory {
+
+	private static final NativeXPathFactory singleton = new NativeXPathFactory();
+
+	private final XPathFactory jaxenFactory;
+	private final AtomicLong fallbackCnt = new AtomicLong();
+
+	/**
+	 * @return the shared instance
+	 */
+	public static NativeXPathFactory getInstance() {
+		return singleton;
+	}
+
+	private NativeXPathFactory() {
+		jaxenFactory = XPathFactory.newInstance("org.jdom2.xpath.jaxen.JaxenXPathFactory");
+	}
+
+	@Override
+	public <T> XPathExpression<T> compile(String expression, Filter<T> filter, Map<String, Object> variables,
+			Namespace... namespaces) {
+		NativeXPath.Expr expr;
+		try {
+			expr = NativeXPath.parse(expression, namespaces);
+		} catch (NativeXPath.UnsupportedException e) {
+			fallbackUsed();
+			return jaxenFactory.compile(expression, filter, variables, namespaces);
+		}
+		return new NativeXPath.Compiled<T>(expression, filter, variables, namespaces, expr, this);
+	}
+
+	/**
+	 * @return the factory used for expressions outside of the supported subset
+	 */
+	public XPathFactory getFallbackFactory() {
+		return jaxenFactory;
+	}
+
+	/**
+	 * @return the number of times an expression has been compiled or evaluated
+	 *         using the fallback factory
+	 */
+	public long getFallbackCount() {
+		return fallbackCnt.get();
+	}
+
+	void fallbackUsed() {
+		fallbackCnt.incrementAndGet();
+	}
+}
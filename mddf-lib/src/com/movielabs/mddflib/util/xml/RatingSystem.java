@@ -25,8 +25,10 @@ package com.movielabs.mddflib.util.xml;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
@@ -55,12 +57,40 @@ public class RatingSystem {
 			"http://www.movielabs.com/schema/mdcr/v1.1");
 	public static final Namespace mdNSpace = Namespace.getNamespace("md", "http://www.movielabs.com/schema/md/v2.1/md");
 	private static final String idXPath = "./mdcr:RatingSystem/mdcr:RatingSystemID/mdcr:System";
-	private static Map<String, RatingSystem> cache = new HashMap<String, RatingSystem>();
+	/*
+	 * Unrecognized systems are retained as a null so the CMR is only searched
+	 * once for any given ID.
+	 */
+	private static ResourceRegistry<RatingSystem> registry = new ResourceRegistry<RatingSystem>(
+			new ResourceRegistry.Loader<RatingSystem>() {
+				public RatingSystem load(String ratingSysId) {
+					if (cmrRootEl == null) {
+						return null;
+					}
+					String queryPath = idXPath + "[text()='" + ratingSysId + "']";
+					XPathExpression<Element> xpExpression = XPathFactory.instance().compile(queryPath,
+							Filters.element(), null, mdcrNSpace);
+					Element systemEl = xpExpression.evaluateFirst(cmrRootEl);
+					if (systemEl == null) {
+						return null;
+					}
+					return new RatingSystem(ratingSysId, systemEl);
+				}
+			});
 	private static Element cmrRootEl = null;
 
-	private XPathFactory xpfac = XPathFactory.instance();
 	private Element ratingSystemEl;
 	private String ratingSysId;
+	/*
+	 * Indexes built once when the system is loaded. Key is the ratingID, value
+	 * is the 'Deprecated' flag for the first Rating with that ID (i.e., the one
+	 * an XPath query would have returned).
+	 */
+	private Map<String, Boolean> ratingIndex = new HashMap<String, Boolean>();
+	private Set<String> regionSet = new HashSet<String>();
+	private Set<String> subRegionSet = new HashSet<String>();
+	private Set<String> reasonSet = new HashSet<String>();
+	private boolean hasReasons = false;
 
 	static {
 		String xmlRsrc = "CMR_Ratings_" + MddfContext.CUR_RATINGS_VER + ".xml";
@@ -80,51 +110,79 @@ public class RatingSystem {
 	}
 
 	public static RatingSystem factory(String ratingSysId) {
-		synchronized (cache) {
-			String key = ratingSysId;
-			RatingSystem target = cache.get(key);
-			if (target == null) {
-				try {
-					target = new RatingSystem(ratingSysId);
-				} catch (IllegalArgumentException e) {
-					return null;
-				}
-				cache.put(key, target);
+		return registry.get(ratingSysId);
+	}
+
+	/**
+	 * Load every rating system defined in the current version of the CMR.
+	 * 
+	 * @return the number of rating systems loaded
+	 */
+	public static int preload() {
+		if (cmrRootEl == null) {
+			return 0;
+		}
+		int count = 0;
+		XPathExpression<Element> xpExpression = XPathFactory.instance().compile(idXPath, Filters.element(), null,
+				mdcrNSpace);
+		for (Element systemEl : xpExpression.evaluate(cmrRootEl)) {
+			if (factory(systemEl.getText()) != null) {
+				count++;
 			}
-			return target;
 		}
+		return count;
 	}
 
-	private RatingSystem(String ratingSysId) throws IllegalArgumentException {
+	private RatingSystem(String ratingSysId, Element systemEl) {
 		this.ratingSysId = ratingSysId;
-		String queryPath = idXPath + "[text()='" + ratingSysId + "']";
-		XPathExpression<Element> xpExpression = xpfac.compile(queryPath, Filters.element(), null, mdcrNSpace);
-
-		Element systemEl = xpExpression.evaluateFirst(cmrRootEl);
-		if (systemEl == null) {
-			throw new IllegalArgumentException("Unrecognized RatingSystem '" + ratingSysId + "'");
-		}
 		// need the 'grandfather' element
 		ratingSystemEl = systemEl.getParentElement().getParentElement();
+		buildIndexes();
+	}
 
+	/**
+	 * Index the ratings, adoptive regions, and reasons defined for this system
+	 * so that subsequent queries are simple look-ups rather than XPath
+	 * evaluations.
+	 */
+	private void buildIndexes() {
+		List<Element> ratingElList = ratingSystemEl.getChildren("Rating", mdcrNSpace);
+		for (Element ratingEl : ratingElList) {
+			String ratingId = ratingEl.getAttributeValue("ratingID");
+			if ((ratingId != null) && !ratingIndex.containsKey(ratingId)) {
+				String depValue = ratingEl.getChildText("Deprecated", mdcrNSpace);
+				ratingIndex.put(ratingId, ((depValue != null) && depValue.equals("true")));
+			}
+		}
+		List<Element> regionElList = ratingSystemEl.getChildren("AdoptiveRegion", mdcrNSpace);
+		for (Element regionEl : regionElList) {
+			for (Element countryEl : regionEl.getChildren("country", mdNSpace)) {
+				regionSet.add(countryEl.getText());
+			}
+			for (Element subRegionEl : regionEl.getChildren("countryRegion", mdNSpace)) {
+				subRegionSet.add(subRegionEl.getText());
+			}
+		}
+		List<Element> reasonElList = ratingSystemEl.getChildren("Reason", mdcrNSpace);
+		hasReasons = !reasonElList.isEmpty();
+		for (Element reasonEl : reasonElList) {
+			String reasonId = reasonEl.getAttributeValue("reasonID");
+			if (reasonId != null) {
+				reasonSet.add(reasonId);
+			}
+		}
 	}
 
 	public boolean isValid(String rating) {
-		String queryPath = "./mdcr:Rating[@ratingID='" + rating + "']";
-		XPathExpression<Element> xpExpression = xpfac.compile(queryPath, Filters.element(), null, mdcrNSpace);
-		Element ratingEl = xpExpression.evaluateFirst(ratingSystemEl);
-		return ratingEl != null;
+		return ratingIndex.containsKey(rating);
 	}
 
 	public boolean isDeprecated(String rating) throws IllegalArgumentException {
-		String queryPath = "./mdcr:Rating[@ratingID='" + rating + "']";
-		XPathExpression<Element> xpExpression = xpfac.compile(queryPath, Filters.element(), null, mdcrNSpace);
-		Element ratingEl = xpExpression.evaluateFirst(ratingSystemEl);
-		if (ratingEl == null) {
+		Boolean deprecated = ratingIndex.get(rating);
+		if (deprecated == null) {
 			throw new IllegalArgumentException("Unrecognized Rating '" + rating + "' for RatingSystem " + ratingSysId);
 		}
-		String depValue = ratingEl.getChildText("Deprecated", mdcrNSpace);
-		return ((depValue != null) && depValue.equals("true"));
+		return deprecated;
 	}
 
 	/**
@@ -132,10 +190,7 @@ public class RatingSystem {
 	 * @return
 	 */
 	public boolean isUsedInRegion(String isoCode) {
-		String queryPath = "./mdcr:AdoptiveRegion/md:country[text()='" + isoCode + "']";
-		XPathExpression<Element> xpExpression = xpfac.compile(queryPath, Filters.element(), null, mdcrNSpace, mdNSpace);
-		Element countryEl = xpExpression.evaluateFirst(ratingSystemEl);
-		return (countryEl != null);
+		return regionSet.contains(isoCode);
 	}
 
 	/**
@@ -143,24 +198,15 @@ public class RatingSystem {
 	 * @return
 	 */
 	public boolean isUsedInSubRegion(String isoCode) {
-		String queryPath = "./mdcr:AdoptiveRegion/md:countryRegion[text()='" + isoCode + "']";
-		XPathExpression<Element> xpExpression = xpfac.compile(queryPath, Filters.element(), null, mdcrNSpace, mdNSpace);
-		Element countryEl = xpExpression.evaluateFirst(ratingSystemEl);
-		return (countryEl != null);
+		return subRegionSet.contains(isoCode);
 	}
 
 	public boolean providesReasons() {
-		String queryPath = "./mdcr:Reason";
-		XPathExpression<Element> xpExpression = xpfac.compile(queryPath, Filters.element(), null, mdcrNSpace);
-		List<Element> reasonElList = xpExpression.evaluate(ratingSystemEl);
-		return !reasonElList.isEmpty();
+		return hasReasons;
 	}
 
 	public boolean hasReason(String reason) {
-		String queryPath = "./mdcr:Reason[@reasonID='" + reason + "']";
-		XPathExpression<Element> xpExpression = xpfac.compile(queryPath, Filters.element(), null, mdcrNSpace);
-		Element reasonEl = xpExpression.evaluateFirst(ratingSystemEl);
-		return reasonEl != null;
+		return reasonSet.contains(reason);
 	}
 
 	/* FOR TESTING!!! */
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.movielabs.mddf.MddfContext;
+import com.movielabs.mddflib.logging.LogMgmt;
+
+/**
+ * A thread-safe registry of resources that are expensive to create and, once
+ * created, are never modified (e.g., a <tt>SchemaWrapper</tt> or a JSON
+ * vocabulary). Each resource is created the first time it is requested using
+ * the registry's <tt>Loader</tt>. Initialization is per-key: a thread loading
+ * one resource never blocks a thread requesting a different one, and a request
+ * for a resource that has already been loaded requires no locking at all.
+ * <p>
+ * A <tt>null</tt> result (e.g., a request for an unsupported version of a
+ * schema) is retained in the same way as any other so that the
+ * <tt>Loader</tt> is only invoked once per key. If the <tt>Loader</tt> throws an
+ * <tt>Exception</tt>, however, the failure is reported to the logger provided
+ * via <tt>setLogger()</tt> and nothing is retained so the next request for the
+ * key will try again. A recursive request for a key that is still being loaded
+ * by the same thread returns <tt>null</tt>.
+ * </p>
+ * <p>
+ * Multi-threaded services may use <tt>preloadAll()</tt> at start-up so that
+ * all bundled resources are already available when the first file is
+ * processed.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ResourceRegistry<T> {
+
+	/**
+	 * Creates the resource identified by a key.
+	 */
+	public static interface Loader<T> {
+		/**
+		 * @param key
+		 * @return the resource or <tt>null</tt> if it is not available
+		 * @throws Exception
+		 */
+		T load(String key) throws Exception;
+	}
+
+	private class Entry {
+		private final String key;
+		private volatile boolean loaded = false;
+		private boolean loading = false;
+		private T value = null;
+
+		Entry(String key) {
+			this.key = key;
+		}
+
+		T get() {
+			if (loaded) {
+				return value;
+			}
+			synchronized (this) {
+				if (!loaded) {
+					if (loading) {
+						/* re-entrant request from within our own Loader */
+						return null;
+					}
+					loading = true;
+					try {
+						value = loader.load(key);
+						loaded = true;
+					} catch (Exception e) {
+						value = null;
+						reportFailure("Unable to load resource " + key, e);
+					} finally {
+						loading = false;
+					}
+				}
+				return value;
+			}
+		}
+	}
+
+	private static final String MODULE_ID = "ResourceRegistry";
+	private static volatile LogMgmt logMgr = null;
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final Loader<T> loader;
+
+	/**
+	 * @param loader
+	 */
+	public ResourceRegistry(Loader<T> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Specify the logger used to report any failure to load a resource. If
+	 * <tt>null</tt> (the default), failures are reported via <tt>System.err</tt>.
+	 * 
+	 * @param logger
+	 */
+	public static void setLogger(LogMgmt logger) {
+		logMgr = logger;
+	}
+
+	/**
+	 * Report a failure to load or compile a resource via the logger specified by
+	 * <tt>setLogger()</tt>.
+	 * 
+	 * @param msg
+	 * @param e
+	 */
+	static void reportFailure(String msg, Exception e) {
+		LogMgmt logger = logMgr;
+		if (logger == null) {
+			System.err.println(MODULE_ID + ": " + msg + ": " + e);
+			return;
+		}
+		logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_N_A, msg, null, null, MODULE_ID, e.toString(), null);
+	}
+
+	/**
+	 * Return the resource identified by the <tt>key</tt>, loading it if this is
+	 * the first request.
+	 * 
+	 * @param key
+	 * @return the resource or <tt>null</tt> if it is not available
+	 */
+	public T get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			Entry newEntry = new Entry(key);
+			entry = entries.putIfAbsent(key, newEntry);
+			if (entry == null) {
+				entry = newEntry;
+			}
+		}
+		return entry.get();
+	}
+
+	/**
+	 * @param key
+	 * @return <tt>true</tt> if the resource identified by the <tt>key</tt> has
+	 *         been loaded (or found to be unavailable)
+	 */
+	public boolean isLoaded(String key) {
+		Entry entry = entries.get(key);
+		return (entry != null) && entry.loaded;
+	}
+
+	/**
+	 * @return the number of keys that have been requested
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Discard all loaded resources.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Load all the MDDF resources bundled with the library. This includes:
+	 * <ul>
+	 * <li>a <tt>SchemaWrapper</tt> for every XSD,</li>
+	 * <li>a compiled <tt>Schema</tt> for every supported version of every MDDF
+	 * standard (see <tt>XsdValidation.warmUp()</tt>),</li>
+	 * <li>every JSON resource (i.e., vocabularies, structure definitions, and
+	 * profiles), and</li>
+	 * <li>a <tt>RatingSystem</tt> for every system defined in the current version
+	 * of the Common Metadata Ratings (CMR).</li>
+	 * </ul>
+	 * 
+	 * @return the number of resources that were successfully loaded
+	 */
+	public static int preloadAll() {
+		int count = 0;
+		for (String rsrcName : listBundledResources()) {
+			if (rsrcName.endsWith(".xsd")) {
+				String xsdRsrc = rsrcName.substring(0, rsrcName.length() - ".xsd".length());
+				if (SchemaWrapper.factory(xsdRsrc) != null) {
+					count++;
+				}
+			} else if (rsrcName.endsWith(".json")) {
+				String rsrcId = rsrcName.substring(0, rsrcName.length() - ".json".length());
+				if (XmlIngester.getMddfResource(rsrcId) != null) {
+					count++;
+				}
+			}
+		}
+		count = count + XsdValidation.warmUp();
+		count = count + RatingSystem.preload();
+		return count;
+	}
+
+	/**
+	 * Return the names (relative to <tt>MddfContext.RSRC_PATH</tt>) of all
+	 * resources bundled with the library, regardless of whether the library is
+	 * being run from a JAR or from a directory of class files.
+	 * 
+	 * @return
+	 */
+	static List<String> listBundledResources() {
+		List<String> rsrcList = new ArrayList<String>();
+		URL rsrcUrl = ResourceRegistry.class.getResource(MddfContext.RSRC_PATH);
+		if (rsrcUrl == null) {
+			return rsrcList;
+		}
+		try {
+			switch (rsrcUrl.getProtocol()) {
+			case "file":
+				addResources(new File(rsrcUrl.toURI()), "", rsrcList);
+				break;
+			case "jar":
+				JarURLConnection jarConn = (JarURLConnection) rsrcUrl.openConnection();
+				jarConn.setUseCaches(false);
+				String prefix = MddfContext.RSRC_PATH.substring(1);
+				try (JarFile jarFile = jarConn.getJarFile()) {
+					Enumeration<JarEntry> jarEntries = jarFile.entries();
+					while (jarEntries.hasMoreElements()) {
+						JarEntry jarEntry = jarEntries.nextElement();
+						String name = jarEntry.getName();
+						if (!jarEntry.isDirectory() && name.startsWith(prefix)) {
+							rsrcList.add(name.substring(prefix.length()));
+						}
+					}
+				}
+				break;
+			}
+		} catch (Exception e) {
+			reportFailure("Unable to list bundled resources", e);
+		}
+		Collections.sort(rsrcList);
+		return rsrcList;
+	}
+
+	private static void addResources(File dir, String relPath, List<String> rsrcList) throws IOException {
+		File[] children = dir.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (File child : children) {
+			if (child.isDirectory()) {
+				addResources(child, relPath + child.getName() + "/", rsrcList);
+			} else {
+				rsrcList.add(relPath + child.getName());
+			}
+		}
+	}
+}
@@ -0,0 +1,546 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.xml;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jdom2.Attribute;
+import org.jdom2.Content;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.located.Located;
+
+import com.movielabs.mddf.MddfContext.FILE_FMT;
+import com.movielabs.mddflib.logging.IssueLogger;
+import com.movielabs.mddflib.logging.LogEntryFolder;
+import com.movielabs.mddflib.logging.LogReference;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+/**
+ * Retains the outcome of evaluating the structural requirements used by
+ * <tt>StructureValidation</tt> so that a file that is re-validated after being
+ * edited need only have those requirements re-evaluated for the parts of the
+ * document that have changed.
+ * <p>
+ * A requirement is only a candidate for re-use if it is <i>local</i>. That is,
+ * all of the XPaths used by its constraints, variables and nested requirements
+ * are relative to the target element and reach no higher than a fixed number
+ * of ancestors (i.e., the <i>reach</i>). The outcome of evaluating a local
+ * requirement for a target element is determined entirely by the sub-tree
+ * rooted at the ancestor at that reach (the <i>scope</i>). Each scope is
+ * identified by a digest of its content (names, attributes, text and the
+ * relative line numbers of its elements) so that an unchanged scope will be
+ * recognized no matter how the rest of the file has been edited. Requirements
+ * that use absolute XPaths, reference a supporting MEC file, or use any axis
+ * other than <tt>child</tt>, <tt>descendant</tt> and <tt>attribute</tt> (apart
+ * from the abbreviated <tt>..</tt> step) are always evaluated.
+ * </p>
+ * <p>
+ * A re-used outcome is reported by replaying the log entries generated when it
+ * was first evaluated with their line numbers adjusted to the current location
+ * of the target element. Only the outcomes used by the most recent validation
+ * of a file are retained.
+ * </p>
+ * <p>
+ * A <tt>RuleResultCache</tt> may be shared by multiple validators and threads.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class RuleResultCache {
+
+	private static final String KEY_MEC_REF = "{$$MEC}";
+	private static final String[] NON_LOCAL = { "ancestor", "preceding", "following", "self::", "parent::", "id(",
+			"root(", "document(", "$$" };
+	private static final String ABS_PATH_PREFIX = "[(,=<>!|+";
+	public static final int DEFAULT_MAX_FILES = 64;
+
+	private Map<String, Map<JSONObject, Map<String, Outcome>>> fileResults;
+	private Map<JSONObject, Integer> reachMap = Collections
+			.synchronizedMap(new IdentityHashMap<JSONObject, Integer>());
+	private AtomicLong hitCnt = new AtomicLong();
+	private AtomicLong missCnt = new AtomicLong();
+
+	public RuleResultCache() {
+		this(DEFAULT_MAX_FILES);
+	}
+
+	/**
+	 * @param maxFiles the number of files for which outcomes are retained
+	 */
+	public RuleResultCache(final int maxFiles) {
+		fileResults = new LinkedHashMap<String, Map<JSONObject, Map<String, Outcome>>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Map<JSONObject, Map<String, Outcome>>> eldest) {
+				return size() > maxFiles;
+			}
+		};
+	}
+
+	/**
+	 * @return the number of times a retained outcome has been re-used
+	 */
+	public long getHitCount() {
+		return hitCnt.get();
+	}
+
+	/**
+	 * @return the number of times a requirement was evaluated and the outcome
+	 *         retained
+	 */
+	public long getMissCount() {
+		return missCnt.get();
+	}
+
+	/**
+	 * Discard all retained outcomes.
+	 */
+	public void clear() {
+		synchronized (fileResults) {
+			fileResults.clear();
+		}
+		hitCnt.set(0);
+		missCnt.set(0);
+	}
+
+	/**
+	 * Start a new validation of the <tt>target</tt>. Outcomes retained from the
+	 * previous session with the same <tt>target</tt> and <tt>scopeId</tt> are
+	 * available for re-use. Any that are not re-used during this session are
+	 * discarded.
+	 * 
+	 * @param target
+	 * @param doc     the document that will be validated
+	 * @param scopeId identifies the validator
+	 * @return
+	 */
+	Session open(MddfTarget target, Document doc, String scopeId) {
+		String key = target.getSrcFile().getAbsolutePath() + "|" + scopeId;
+		Map<JSONObject, Map<String, Outcome>> current = new IdentityHashMap<JSONObject, Map<String, Outcome>>();
+		Map<JSONObject, Map<String, Outcome>> previous;
+		synchronized (fileResults) {
+			previous = fileResults.put(key, current);
+		}
+		if (previous == null) {
+			previous = Collections.emptyMap();
+		}
+		return new Session(doc, previous, current);
+	}
+
+	/**
+	 * Return the number of ancestors of a target element that must be considered
+	 * when evaluating the requirement or -1 if the requirement is not local.
+	 * 
+	 * @param rqmt
+	 * @return
+	 */
+	int getReach(JSONObject rqmt) {
+		Integer reach = reachMap.get(rqmt);
+		if (reach == null) {
+			String targetPath = rqmt.optString("targetPath", KEY_MEC_REF);
+			if (targetPath.startsWith(KEY_MEC_REF)) {
+				reach = -1;
+			} else {
+				reach = computeReach(rqmt);
+			}
+			reachMap.put(rqmt, reach);
+		}
+		return reach;
+	}
+
+	private static int computeReach(JSONObject rqmt) {
+		int reach = 0;
+		JSONArray constraintSet = rqmt.optJSONArray("constraint");
+		if (constraintSet != null) {
+			for (int i = 0; i < constraintSet.size(); i++) {
+				JSONObject constraint = constraintSet.getJSONObject(i);
+				List<String> xpathList = new ArrayList<String>();
+				Object xpaths = constraint.opt("xpath");
+				if (xpaths instanceof String) {
+					xpathList.add((String) xpaths);
+				} else if (xpaths instanceof JSONArray) {
+					JSONArray xpArray = (JSONArray) xpaths;
+					for (int j = 0; j < xpArray.size(); j++) {
+						xpathList.add(xpArray.getString(j));
+					}
+				}
+				for (Object key : constraint.keySet()) {
+					if (((String) key).startsWith("$")) {
+						xpathList.add(constraint.getString((String) key));
+					}
+				}
+				for (String xpath : xpathList) {
+					int next = reachOf(xpath);
+					if (next < 0) {
+						return -1;
+					}
+					reach = Math.max(reach, next);
+				}
+			}
+		}
+		JSONObject embeddedReqmts = rqmt.optJSONObject("children");
+		if (embeddedReqmts != null) {
+			Iterator<String> embeddedKeys = embeddedReqmts.keys();
+			while (embeddedKeys.hasNext()) {
+				JSONObject childRqmtSpec = embeddedReqmts.getJSONObject(embeddedKeys.next());
+				if (!childRqmtSpec.has("targetPath")) {
+					continue;
+				}
+				String childPath = childRqmtSpec.getString("targetPath");
+				int up = reachOf(childPath);
+				int inner = computeReach(childRqmtSpec);
+				if ((up < 0) || (inner < 0)) {
+					return -1;
+				}
+				int next = up + inner;
+				/* a purely downward path locates elements at least one level down */
+				if ((up == 0) && (inner > 0) && !childPath.trim().equals(".") && !childPath.contains("|")) {
+					next = inner - 1;
+				}
+				reach = Math.max(reach, next);
+			}
+		}
+		return reach;
+	}
+
+	/**
+	 * Return the number of levels above the context element that an XPath may
+	 * access or -1 if the XPath is not a relative path restricted to the
+	 * <tt>child</tt>, <tt>descendant</tt> and <tt>attribute</tt> axes and the
+	 * <tt>..</tt> step. The estimate is conservative: every <tt>..</tt> step is assumed to
+	 * move up a level.
+	 * 
+	 * @param xpath
+	 * @return
+	 */
+	static int reachOf(String xpath) {
+		if (xpath.startsWith(KEY_MEC_REF)) {
+			return -1;
+		}
+		/* remove namespace prefixes, variable references and literals */
+		String path = xpath.replaceAll("\\{\\$?\\w+\\}", "");
+		path = path.replaceAll("'[^']*'|\"[^\"]*\"", "''");
+		for (String nonLocal : NON_LOCAL) {
+			if (path.contains(nonLocal)) {
+				return -1;
+			}
+		}
+		if (path.trim().isEmpty()) {
+			return -1;
+		}
+		int reach = 0;
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c == '/') {
+				if ((i > 0) && (path.charAt(i - 1) == '/')) {
+					continue;
+				}
+				/* does a location path start here? If so, it is an absolute path. */
+				if ((i == 0) || Character.isWhitespace(path.charAt(i - 1))) {
+					return -1;
+				}
+				if (ABS_PATH_PREFIX.indexOf(path.charAt(i - 1)) >= 0) {
+					return -1;
+				}
+			} else if ((c == '.') && (i + 1 < path.length()) && (path.charAt(i + 1) == '.')) {
+				reach++;
+				i++;
+			}
+		}
+		return reach;
+	}
+
+	static int lineOf(Object target) {
+		if (target instanceof Located) {
+			return ((Located) target).getLine();
+		}
+		return -1;
+	}
+
+	/**
+	 * The retained outcomes available while validating a single document.
+	 */
+	class Session {
+		private Document doc;
+		private Map<JSONObject, Map<String, Outcome>> previous;
+		private Map<JSONObject, Map<String, Outcome>> current;
+		private Map<Element, byte[]> digests = new IdentityHashMap<Element, byte[]>();
+		private MessageDigest md;
+
+		private Session(Document doc, Map<JSONObject, Map<String, Outcome>> previous,
+				Map<JSONObject, Map<String, Outcome>> current) {
+			this.doc = doc;
+			this.previous = previous;
+			this.current = current;
+			try {
+				md = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				// every JRE is required to support SHA-256
+				throw new IllegalStateException(e);
+			}
+		}
+
+		Document getDocument() {
+			return doc;
+		}
+
+		/**
+		 * Return the key identifying the outcome of evaluating a requirement with
+		 * the specified <tt>reach</tt> for the <tt>target</tt> or <tt>null</tt> if
+		 * the outcome can not be re-used.
+		 * 
+		 * @param target
+		 * @param reach
+		 * @param mddfFmt
+		 * @return
+		 */
+		String keyFor(Element target, int reach, FILE_FMT mddfFmt) {
+			if (lineOf(target) < 0) {
+				return null;
+			}
+			StringBuilder relPath = new StringBuilder();
+			Element scopeEl = target;
+			for (int i = 0; i < reach; i++) {
+				Element parentEl = scopeEl.getParentElement();
+				if (parentEl == null) {
+					break;
+				}
+				relPath.insert(0, "/" + parentEl.indexOf(scopeEl));
+				scopeEl = parentEl;
+			}
+			StringBuilder key = new StringBuilder(mddfFmt.name());
+			key.append(relPath).append(':');
+			for (byte b : digest(scopeEl)) {
+				key.append(Character.forDigit((b >> 4) & 0xF, 16));
+				key.append(Character.forDigit(b & 0xF, 16));
+			}
+			return key.toString();
+		}
+
+		private byte[] digest(Element el) {
+			byte[] value = digests.get(el);
+			if (value != null) {
+				return value;
+			}
+			List<Content> contentList = el.getContent();
+			byte[][] childDigests = new byte[contentList.size()][];
+			for (int i = 0; i < contentList.size(); i++) {
+				Content next = contentList.get(i);
+				if (next instanceof Element) {
+					childDigests[i] = digest((Element) next);
+				}
+			}
+			int line = lineOf(el);
+			update(el.getNamespaceURI());
+			update(el.getName());
+			for (Attribute att : el.getAttributes()) {
+				update(att.getNamespaceURI());
+				update(att.getName());
+				update(att.getValue());
+			}
+			for (int i = 0; i < contentList.size(); i++) {
+				Content next = contentList.get(i);
+				md.update((byte) next.getCType().ordinal());
+				if (next instanceof Element) {
+					update(Integer.toString(lineOf(next) - line));
+					md.update(childDigests[i]);
+				} else {
+					update(next.getValue());
+				}
+			}
+			value = md.digest();
+			digests.put(el, value);
+			return value;
+		}
+
+		private void update(String value) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			md.update((byte) (bytes.length >>> 24));
+			md.update((byte) (bytes.length >>> 16));
+			md.update((byte) (bytes.length >>> 8));
+			md.update((byte) bytes.length);
+			md.update(bytes);
+		}
+
+		Outcome lookup(JSONObject rqmt, String key) {
+			Map<String, Outcome> outcomes = current.get(rqmt);
+			Outcome outcome = (outcomes == null) ? null : outcomes.get(key);
+			if (outcome == null) {
+				outcomes = previous.get(rqmt);
+				outcome = (outcomes == null) ? null : outcomes.get(key);
+				if (outcome != null) {
+					retain(rqmt, key, outcome);
+				}
+			}
+			if (outcome != null) {
+				hitCnt.incrementAndGet();
+			}
+			return outcome;
+		}
+
+		void store(JSONObject rqmt, String key, Outcome outcome) {
+			if (outcome.replayable && retain(rqmt, key, outcome)) {
+				missCnt.incrementAndGet();
+			}
+		}
+
+		private boolean retain(JSONObject rqmt, String key, Outcome outcome) {
+			Map<String, Outcome> outcomes = current.get(rqmt);
+			if (outcomes == null) {
+				outcomes = new HashMap<String, Outcome>();
+				current.put(rqmt, outcomes);
+			}
+			return (outcomes.put(key, outcome) == null);
+		}
+	}
+
+	/**
+	 * The outcome of evaluating a requirement for a single target element. The
+	 * evaluation of the requirement's constraints and of its nested requirements
+	 * are retained separately so that the log entries may be replayed in the
+	 * same sequence as a full evaluation.
+	 */
+	static class Outcome {
+		List<Entry> constraintLog = Collections.emptyList();
+		boolean constraintOk = true;
+		List<Entry> childLog = Collections.emptyList();
+		boolean childOk = true;
+		boolean replayable = true;
+	}
+
+	private static class Entry {
+		boolean withFolder;
+		int tag;
+		int level;
+		boolean hasLine;
+		int lineOffset;
+		String msg;
+		String explanation;
+		LogReference srcRef;
+		String moduleId;
+	}
+
+	/**
+	 * An <tt>IssueLogger</tt> that passes each issue to another logger while also
+	 * retaining it for later replay relative to the <tt>anchor</tt> element.
+	 */
+	static class Recorder implements IssueLogger {
+		private IssueLogger delegate;
+		private int anchorLine;
+		private List<Entry> entries = new ArrayList<Entry>();
+		private boolean replayable = true;
+
+		Recorder(IssueLogger delegate, Element anchor) {
+			this.delegate = delegate;
+			this.anchorLine = lineOf(anchor);
+		}
+
+		@Override
+		public void logIssue(int tag, int level, Object target, String msg, String explanation, LogReference srcRef,
+				String moduleId) {
+			delegate.logIssue(tag, level, target, msg, explanation, srcRef, moduleId);
+			record(false, tag, level, target, null, msg, explanation, srcRef, moduleId);
+		}
+
+		@Override
+		public void logIssue(int tag, int level, Object target, LogEntryFolder srcFile, String msg,
+				String explanation, LogReference srcRef, String moduleId) {
+			delegate.logIssue(tag, level, target, srcFile, msg, explanation, srcRef, moduleId);
+			record(true, tag, level, target, srcFile, msg, explanation, srcRef, moduleId);
+		}
+
+		private void record(boolean withFolder, int tag, int level, Object target, LogEntryFolder srcFile, String msg,
+				String explanation, LogReference srcRef, String moduleId) {
+			Entry entry = new Entry();
+			entry.withFolder = withFolder;
+			entry.tag = tag;
+			entry.level = level;
+			entry.msg = msg;
+			entry.explanation = explanation;
+			entry.srcRef = srcRef;
+			entry.moduleId = moduleId;
+			if (target != null) {
+				int line = lineOf(target);
+				if ((line < 0) || !(target instanceof Element)) {
+					replayable = false;
+				}
+				entry.hasLine = true;
+				entry.lineOffset = line - anchorLine;
+			}
+			if (srcFile != null) {
+				replayable = false;
+			}
+			entries.add(entry);
+		}
+
+		IssueLogger getDelegate() {
+			return delegate;
+		}
+
+		List<Entry> getEntries() {
+			return entries;
+		}
+
+		boolean isReplayable() {
+			return replayable;
+		}
+	}
+
+	/**
+	 * Log the <tt>entries</tt> retained by a <tt>Recorder</tt> relative to the
+	 * current location of the <tt>anchor</tt> element.
+	 * 
+	 * @param entries
+	 * @param anchor
+	 * @param logger
+	 */
+	static void replay(List<Entry> entries, Element anchor, IssueLogger logger) {
+		int anchorLine = lineOf(anchor);
+		for (Entry entry : entries) {
+			Object target = null;
+			if (entry.hasLine) {
+				target = Integer.valueOf(anchorLine + entry.lineOffset);
+			}
+			if (entry.withFolder) {
+				logger.logIssue(entry.tag, entry.level, target, null, entry.msg, entry.explanation, entry.srcRef,
+						entry.moduleId);
+			} else {
+				logger.logIssue(entry.tag, entry.level, target, entry.msg, entry.explanation, entry.srcRef,
+						entry.moduleId);
+			}
+		}
+	}
+}
@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -70,9 +71,26 @@ public class SchemaWrapper {
 
 	public static final String RSRC_PACKAGE = "/com/movielabs/mddf/resources/";
 	public static final String JSON_KEY_PREFIX = "@__";
-	private static Map<String, SchemaWrapper> cache = new HashMap<String, SchemaWrapper>();
+	/*
+	 * A request for a schema we don't provide XSD for, or whose XSD can not be
+	 * parsed (e.g., 'ds-vhttp://www.w3.org/2000/09/xmldsig#'), is normal and the
+	 * registry will retain a null. Any other exception is reported by the
+	 * registry.
+	 */
+	private static ResourceRegistry<SchemaWrapper> registry = new ResourceRegistry<SchemaWrapper>(
+			new ResourceRegistry.Loader<SchemaWrapper>() {
+				public SchemaWrapper load(String xsdRsrc) {
+					Document schemaXSD = getSchemaXSD(RSRC_PACKAGE + xsdRsrc + ".xsd");
+					if (schemaXSD == null) {
+						return null;
+					}
+					return new SchemaWrapper(xsdRsrc, schemaXSD);
+				}
+			});
 
-	private Map<String, JSONObject> structureCache = new HashMap<String, JSONObject>();
+	private Map<String, JSONObject> structureCache = new ConcurrentHashMap<String, JSONObject>();
+	/* key is an element name, value is its declared type */
+	private Map<String, String> typeCache = new ConcurrentHashMap<String, String>();
 	private Document schemaXSD;
 
 	private Element rootEl;
@@ -85,22 +103,7 @@ public class SchemaWrapper {
 	private String xsdRsrc;
 
 	public static SchemaWrapper factory(String xsdRsrc) {
-		synchronized (cache) {
-			SchemaWrapper target = cache.get(xsdRsrc);
-			if (target == null) {
-				try {
-					target = new SchemaWrapper(xsdRsrc);
-					cache.put(xsdRsrc, target);
-				} catch (Exception e) {
-					/*
-					 * This happens if request is for a schema we don't provide XSD for.
-					 * Exception for 'ds-vhttp://www.w3.org/2000/09/xmldsig#' seems to be normal
-					 */
-					//System.out.println("SchemaWrapper.factory(): Exception for " + xsdRsrc);
-				}
-			}
-			return target;
-		}
+		return registry.get(xsdRsrc);
 	}
 
 	/**
@@ -128,13 +131,9 @@ public class SchemaWrapper {
 		return null;
 	}
 
-	private SchemaWrapper(String xsdRsrc) {
-		String rsrcPath = RSRC_PACKAGE + xsdRsrc + ".xsd";
-		this.xsdRsrc = rsrcPath;
-		schemaXSD = getSchemaXSD(rsrcPath);
-		if (schemaXSD == null) {
-			throw new IllegalArgumentException("XSD for " + xsdRsrc + " is not an available resource");
-		}
+	private SchemaWrapper(String xsdRsrc, Document schemaXSD) {
+		this.xsdRsrc = RSRC_PACKAGE + xsdRsrc + ".xsd";
+		this.schemaXSD = schemaXSD;
 		rootEl = schemaXSD.getRootElement();
 		String targetNamespace = rootEl.getAttributeValue("targetNamespace");
 		String[] parts = xsdRsrc.split("-v");
@@ -481,16 +480,21 @@ public class SchemaWrapper {
 	}
 
 	public String getType(String elementName) {
+		String type = typeCache.get(elementName);
+		if (type != null) {
+			return type;
+		}
 		Element target = getElement(elementName);
 		if (target == null) {
 			throw new IllegalArgumentException(
 					"Schema '" + schemaXSD + "' does not define element '" + elementName + "'");
 		}
-		String type = target.getAttributeValue("type", "xs:string");
+		type = target.getAttributeValue("type", "xs:string");
 		/*
 		 * WHAT ABOUT:::::> <xs:element name="Event"> <xs:simpleType> <xs:union
 		 * memberTypes="xs:dateTime xs:date"/> </xs:simpleType> </xs:element>
 		 */
+		typeCache.put(elementName, type);
 		return type;
 	}
 
@@ -30,10 +30,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.jdom2.Attribute;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
+import org.jdom2.Parent;
 import org.jdom2.filter.Filters;
 import org.jdom2.xpath.XPathExpression;
 import org.jdom2.xpath.XPathFactory;
@@ -44,6 +48,8 @@ import com.movielabs.mddflib.logging.IssueLogger;
 import com.movielabs.mddflib.logging.LogEntryFolder;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.logging.LogReference;
+import com.movielabs.mddflib.logging.MetricsListener;
+import com.movielabs.mddflib.logging.PhaseMetrics;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 
@@ -320,8 +326,175 @@ import net.sf.json.JSONObject;
 public class StructureValidation {
 
 	private static final String KEY_MEC_REF = "{$$MEC}";
+	private static final Pattern VAR_REF = Pattern.compile("\\{\\$(\\w+)\\}");
+	/* values returned by contextReach() */
+	private static final int REACH_NONE = 0;
+	private static final int REACH_DOC = -1;
+	/*
+	 * An expanded XPath that selects children by name and, optionally, by the
+	 * value of an attribute or of the child itself.
+	 */
+	private static final Pattern CHILD_STEP = Pattern.compile(
+			"((?:\\.\\./)*|\\./)(\\w+):([\\w.-]+)(?:\\[(@[\\w-]+|\\.)\\s*=\\s*(?:'([^']*)'|\"([^\"]*)\")\\])?");
+
+	/**
+	 * A compiled XPath along with the IDs of any variables that must be bound
+	 * prior to evaluation.
+	 */
+	private static class XPathPlan {
+		final XPathExpression<?> xpe;
+		final String[] varIds;
+		final ChildStep childStep;
+
+		XPathPlan(XPathExpression<?> xpe, Set<String> varIds, ChildStep childStep) {
+			this.xpe = xpe;
+			this.varIds = varIds.toArray(new String[varIds.size()]);
+			this.childStep = childStep;
+		}
+	}
+
+	/**
+	 * An XPath that selects the children of the context node, or of one of its
+	 * ancestors, by name and, optionally, by the value of an attribute or of the
+	 * child itself (e.g., <tt>../{avail}Term[@termName='Tier']</tt>). Matches
+	 * for such an XPath can be counted without evaluating the XPath.
+	 */
+	private static class ChildStep {
+		final int reach;
+		final Namespace ns;
+		final String name;
+		/* attribute name, "." for the child's value, or null if no predicate */
+		final String selector;
+		final String value;
+
+		ChildStep(int reach, Namespace ns, String name, String selector, String value) {
+			this.reach = reach;
+			this.ns = ns;
+			this.name = name;
+			this.selector = selector;
+			this.value = value;
+		}
+
+		/**
+		 * @param child
+		 * @return the value the predicate tests or "" if there is no predicate
+		 */
+		String valueOf(Element child) {
+			if (selector == null) {
+				return "";
+			}
+			if (selector.equals(".")) {
+				return child.getValue();
+			}
+			return child.getAttributeValue(selector);
+		}
+
+		boolean matches(Element child) {
+			return (selector == null) || value.equals(valueOf(child));
+		}
+	}
+
+	/**
+	 * Identifies the children of a context <tt>Element</tt> that have been
+	 * tallied by the value selected by a <tt>ChildStep</tt>.
+	 */
+	private static class TallyKey {
+		final Element context;
+		final String nsUri;
+		final String name;
+		final String selector;
+
+		TallyKey(Element context, ChildStep step) {
+			this.context = context;
+			this.nsUri = step.ns.getURI();
+			this.name = step.name;
+			this.selector = step.selector;
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = System.identityHashCode(context);
+			hash = (31 * hash) + nsUri.hashCode();
+			hash = (31 * hash) + name.hashCode();
+			return (31 * hash) + ((selector == null) ? 0 : selector.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof TallyKey)) {
+				return false;
+			}
+			TallyKey other = (TallyKey) obj;
+			return (context == other.context) && nsUri.equals(other.nsUri) && name.equals(other.name)
+					&& ((selector == null) ? (other.selector == null) : selector.equals(other.selector));
+		}
+	}
+
+	/**
+	 * Compiled XPaths keyed by <tt>FILE_FMT</tt> and XPath definition. An
+	 * <tt>XPathExpression</tt> holds its variable bindings and is not thread-safe
+	 * so each thread maintains its own cache.
+	 */
+	private static ThreadLocal<Map<String, XPathPlan>> xpCache = new ThreadLocal<Map<String, XPathPlan>>() {
+		@Override
+		protected Map<String, XPathPlan> initialValue() {
+			return new HashMap<String, XPathPlan>();
+		}
+	};
+
+	/**
+	 * The result of <tt>contextReach()</tt> keyed by XPath definition.
+	 */
+	private static Map<String, Integer> reachCache = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * Identifies the number of nodes matched by one of a constraint's XPaths
+	 * when evaluated for any target sharing the same <tt>context</tt> (e.g., a
+	 * common parent).
+	 */
+	private static class GroupKey {
+		final JSONObject constraint;
+		final int xpathIdx;
+		final Object context;
+
+		GroupKey(JSONObject constraint, int xpathIdx, Object context) {
+			this.constraint = constraint;
+			this.xpathIdx = xpathIdx;
+			this.context = context;
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = System.identityHashCode(constraint);
+			hash = (31 * hash) + xpathIdx;
+			return (31 * hash) + System.identityHashCode(context);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof GroupKey)) {
+				return false;
+			}
+			GroupKey other = (GroupKey) obj;
+			return (constraint == other.constraint) && (xpathIdx == other.xpathIdx) && (context == other.context);
+		}
+	}
+
 	protected IssueLogger logger;
 	protected String logMsgSrcId;
+	private MetricsListener metricsListener = null;
+	private String metricsSrcId;
+	/* elements matched by the rule currently being measured */
+	private int matchCnt;
+	private RuleResultCache ruleCache = null;
+	private String ruleCacheScope;
+	private RuleResultCache.Session cacheSession = null;
+	private TargetPathIndex targetIndex = null;
+	private boolean groupedEval = true;
+	/* match counts shared by targets while evaluating a top-level requirement */
+	private Map<GroupKey, Integer> groupCounts = null;
+	/* children of a context element tallied by the value a ChildStep tests */
+	private Map<TallyKey, Map<String, Integer>> groupTallies = null;
 
 	/**
 	 * @param logger
@@ -331,6 +504,251 @@ public class StructureValidation {
 		this.logger = logger;
 	}
 
+	/**
+	 * Report the <tt>PhaseMetrics</tt> for each requirement evaluated via
+	 * <tt>validateDocStructure(String, ...)</tt> to the <tt>listener</tt>.
+	 * 
+	 * @param listener    (may be <tt>null</tt>)
+	 * @param validatorId the ID to use when reporting metrics
+	 */
+	public void setMetricsListener(MetricsListener listener, String validatorId) {
+		this.metricsListener = listener;
+		this.metricsSrcId = validatorId;
+	}
+
+	/**
+	 * Re-use the outcome of evaluating a top-level requirement via
+	 * <tt>validateDocStructure(String, ...)</tt> for those parts of a document
+	 * that are unchanged since it was last validated.
+	 * 
+	 * @param cache       (may be <tt>null</tt>)
+	 * @param validatorId identifies the validator that is using the cache
+	 * @see RuleResultCache
+	 */
+	public void setRuleCache(RuleResultCache cache, String validatorId) {
+		this.ruleCache = cache;
+		this.ruleCacheScope = validatorId;
+		this.cacheSession = null;
+	}
+
+	/**
+	 * Enable or disable the grouped evaluation of constraints. When enabled, a
+	 * constraint <tt>xpath</tt> that starts by navigating upwards from the target
+	 * (e.g., <tt>../{avail}Term[@termName='X']</tt>) or that is an absolute path
+	 * is evaluated only once for each group of targets sharing the same
+	 * ancestor (or document) while a requirement is being validated. The count
+	 * of matching nodes is then re-used for the remaining targets in the group.
+	 * <p>
+	 * In addition, an <tt>xpath</tt> that only selects children by name and,
+	 * optionally, by the value of an attribute or of the child (e.g.,
+	 * <tt>../{avail}Term[@termName='X']</tt>) is not evaluated at all. Instead
+	 * the children of the context element are tallied by that value, once for
+	 * each context, and the count is looked up.
+	 * </p>
+	 * When disabled, every <tt>xpath</tt> is evaluated for every target. The log
+	 * entries are identical in either case. Grouped evaluation is enabled by
+	 * default.
+	 * 
+	 * @param enabled
+	 */
+	public void setGroupedEvaluation(boolean enabled) {
+		this.groupedEval = enabled;
+	}
+
+	/**
+	 * Locate, with a single traversal of the document, the target elements of
+	 * every top-level requirement in the <tt>rqmtSet</tt>. Subsequent calls to
+	 * <tt>validateDocStructure()</tt> with the same <tt>rootEl</tt> will use the
+	 * index rather than evaluating each requirement's <tt>targetPath</tt>
+	 * separately. The index is replaced by the next call to this method and
+	 * should be rebuilt if the document is modified.
+	 * 
+	 * @param rqmtSet the <tt>StrucRqmts</tt> of a structure definition file
+	 * @param rootEl  (may be <tt>null</tt> to discard the current index)
+	 * @see TargetPathIndex
+	 */
+	public void indexTargets(JSONObject rqmtSet, Element rootEl) {
+		if ((rqmtSet == null) || (rootEl == null)) {
+			targetIndex = null;
+		} else {
+			targetIndex = new TargetPathIndex(rqmtSet, rootEl);
+		}
+	}
+
+	/**
+	 * Return the elements selected by a <tt>targetPath</tt> when evaluated
+	 * relative to the <tt>rootEl</tt>.
+	 * 
+	 * @param rootEl
+	 * @param targetPath
+	 * @param mddfFmt
+	 * @return
+	 */
+	private List<Element> selectTargets(Element rootEl, String targetPath, FILE_FMT mddfFmt) {
+		if ((targetIndex != null) && (targetIndex.getRootElement() == rootEl)) {
+			List<Element> targetElList = targetIndex.getTargets(targetPath);
+			if (targetElList != null) {
+				return targetElList;
+			}
+		}
+		XPathExpression<?> xpExp = resolveXPath(targetPath, null, mddfFmt);
+		return (List<Element>) xpExp.evaluate(rootEl);
+	}
+
+	/**
+	 * Check to see if the XML satisfies a top-level requirement identified by
+	 * <tt>rqmtKey</tt>. This is identical to
+	 * <tt>validateDocStructure(Element, JSONObject, ...)</tt> except that, if a
+	 * <tt>MetricsListener</tt> has been set, the resources used to evaluate the
+	 * requirement are reported as the phase
+	 * <tt>PhaseMetrics.PHASE_STRUCTURE + rqmtKey</tt>.
+	 * 
+	 * @param rqmtKey
+	 * @param rootEl
+	 * @param rqmt
+	 * @param primaryfTarget
+	 * @param supportingMECs (may be empty)
+	 * @return
+	 */
+	public boolean validateDocStructure(String rqmtKey, Element rootEl, JSONObject rqmt, MddfTarget primaryfTarget,
+			Map<MddfTarget, LogEntryFolder> supportingMECs) {
+		boolean scoped = startGrouping();
+		try {
+			if (metricsListener == null) {
+				return validateRule(rootEl, rqmt, primaryfTarget, supportingMECs);
+			}
+			PhaseMetrics.Timer timer = PhaseMetrics.startTimer(metricsSrcId, PhaseMetrics.PHASE_STRUCTURE + rqmtKey);
+			matchCnt = 0;
+			boolean isOk = validateRule(rootEl, rqmt, primaryfTarget, supportingMECs);
+			metricsListener.phaseCompleted(primaryfTarget, timer.getMetrics(matchCnt));
+			return isOk;
+		} finally {
+			endGrouping(scoped);
+		}
+	}
+
+	/**
+	 * Start retaining the match counts used for grouped evaluation unless
+	 * already doing so (i.e., this is a nested requirement).
+	 * 
+	 * @return <tt>true</tt> if the caller must invoke <tt>endGrouping()</tt>
+	 */
+	private boolean startGrouping() {
+		if (!groupedEval || (groupCounts != null)) {
+			return false;
+		}
+		groupCounts = new HashMap<GroupKey, Integer>();
+		groupTallies = new HashMap<TallyKey, Map<String, Integer>>();
+		return true;
+	}
+
+	private void endGrouping(boolean scoped) {
+		if (scoped) {
+			groupCounts = null;
+			groupTallies = null;
+		}
+	}
+
+	private boolean validateRule(Element rootEl, JSONObject rqmt, MddfTarget primaryfTarget,
+			Map<MddfTarget, LogEntryFolder> supportingMECs) {
+		if ((ruleCache == null) || (primaryfTarget == null) || (rootEl.getDocument() == null)) {
+			return validateDocStructure(rootEl, rqmt, primaryfTarget, supportingMECs);
+		}
+		int reach = ruleCache.getReach(rqmt);
+		if ((reach < 0) || ((supportingMECs != null) && (supportingMECs.get(primaryfTarget) != null))) {
+			return validateDocStructure(rootEl, rqmt, primaryfTarget, supportingMECs);
+		}
+		if ((cacheSession == null) || (cacheSession.getDocument() != rootEl.getDocument())) {
+			cacheSession = ruleCache.open(primaryfTarget, rootEl.getDocument(), ruleCacheScope);
+		}
+		return validateIncrementally(rootEl, rqmt, reach, primaryfTarget, supportingMECs);
+	}
+
+	/**
+	 * Check to see if the XML satisfies a <i>local</i> requirement, re-using the
+	 * outcome retained by the <tt>RuleResultCache</tt> for any target element
+	 * whose scope is unchanged. The sequence of the log entries is the same as
+	 * that of <tt>validateDocStructure(Element, JSONObject, ...)</tt>.
+	 * 
+	 * @param rootEl
+	 * @param rqmt
+	 * @param reach
+	 * @param primaryfTarget
+	 * @param supportingMECs
+	 * @return
+	 */
+	private boolean validateIncrementally(Element rootEl, JSONObject rqmt, int reach, MddfTarget primaryfTarget,
+			Map<MddfTarget, LogEntryFolder> supportingMECs) {
+		FILE_FMT mddfFmt = MddfContext.identifyMddfFormat(rootEl);
+		List<Element> targetElList = selectTargets(rootEl, rqmt.getString("targetPath"), mddfFmt);
+		matchCnt = matchCnt + targetElList.size();
+
+		String[] keys = new String[targetElList.size()];
+		RuleResultCache.Outcome[] outcomes = new RuleResultCache.Outcome[targetElList.size()];
+		boolean[] reused = new boolean[targetElList.size()];
+		boolean isOk = true;
+		JSONArray constraintSet = rqmt.containsKey("constraint") ? rqmt.getJSONArray("constraint") : null;
+		for (int i = 0; i < targetElList.size(); i++) {
+			Element nextContextEl = targetElList.get(i);
+			keys[i] = cacheSession.keyFor(nextContextEl, reach, mddfFmt);
+			if (keys[i] != null) {
+				outcomes[i] = cacheSession.lookup(rqmt, keys[i]);
+			}
+			if (outcomes[i] != null) {
+				reused[i] = true;
+				RuleResultCache.replay(outcomes[i].constraintLog, nextContextEl, logger);
+			} else {
+				outcomes[i] = new RuleResultCache.Outcome();
+				if (constraintSet != null) {
+					RuleResultCache.Recorder recorder = startRecording(nextContextEl);
+					try {
+						outcomes[i].constraintOk = checkConstraints(nextContextEl, constraintSet, rootEl, false,
+								null, supportingMECs);
+					} finally {
+						stopRecording(recorder);
+					}
+					outcomes[i].constraintLog = recorder.getEntries();
+					outcomes[i].replayable = recorder.isReplayable();
+				}
+			}
+			isOk = outcomes[i].constraintOk && isOk;
+		}
+		JSONObject embeddedReqmts = rqmt.containsKey("children") ? rqmt.getJSONObject("children") : null;
+		for (int i = 0; i < targetElList.size(); i++) {
+			Element nextTargetEl = targetElList.get(i);
+			if (reused[i]) {
+				RuleResultCache.replay(outcomes[i].childLog, nextTargetEl, logger);
+			} else {
+				if (embeddedReqmts != null) {
+					RuleResultCache.Recorder recorder = startRecording(nextTargetEl);
+					try {
+						outcomes[i].childOk = checkChildren(nextTargetEl, embeddedReqmts, primaryfTarget,
+								supportingMECs);
+					} finally {
+						stopRecording(recorder);
+					}
+					outcomes[i].childLog = recorder.getEntries();
+					outcomes[i].replayable = outcomes[i].replayable && recorder.isReplayable();
+				}
+				if (keys[i] != null) {
+					cacheSession.store(rqmt, keys[i], outcomes[i]);
+				}
+			}
+			isOk = outcomes[i].childOk && isOk;
+		}
+		return isOk;
+	}
+
+	private RuleResultCache.Recorder startRecording(Element anchor) {
+		RuleResultCache.Recorder recorder = new RuleResultCache.Recorder(logger, anchor);
+		logger = recorder;
+		return recorder;
+	}
+
+	private void stopRecording(RuleResultCache.Recorder recorder) {
+		logger = recorder.getDelegate();
+	}
+
 	/**
 	 * Check to see if the XML satisfies the specified requirement. The
 	 * <tt>rootEL</tt> may either be the root of an entire document or the root of a
@@ -367,6 +785,16 @@ public class StructureValidation {
 	 */
 	public boolean validateDocStructure(Element rootEl, JSONObject rqmt, MddfTarget primaryfTarget,
 			Map<MddfTarget, LogEntryFolder> supportingMECs) {
+		boolean scoped = startGrouping();
+		try {
+			return validateTargets(rootEl, rqmt, primaryfTarget, supportingMECs);
+		} finally {
+			endGrouping(scoped);
+		}
+	}
+
+	private boolean validateTargets(Element rootEl, JSONObject rqmt, MddfTarget primaryfTarget,
+			Map<MddfTarget, LogEntryFolder> supportingMECs) {
 		String targetPath = rqmt.getString("targetPath");
 		ArrayList<Element> rootElList = new ArrayList<Element>();
 		Map<Element, MddfTarget> contextMap = new HashMap<Element, MddfTarget>();
@@ -395,10 +823,15 @@ public class StructureValidation {
 		boolean allOk = true;
 		for (Element nextDocRoot : rootElList) {
 			FILE_FMT mddfFmt = MddfContext.identifyMddfFormat(nextDocRoot);
-			XPathExpression<?> xpExp = resolveXPath(targetPath, null, mddfFmt);
-			List<Element> targetElList = (List<Element>) xpExp.evaluate(nextDocRoot);
+			List<Element> targetElList = selectTargets(nextDocRoot, targetPath, mddfFmt);
+			matchCnt = matchCnt + targetElList.size();
 
 			boolean isOk = true;
+			MddfTarget mddfContext = contextMap.get(nextDocRoot);
+			LogEntryFolder logFolder = null;
+			if (supportingMECs != null) {
+				logFolder = supportingMECs.get(mddfContext);
+			}
 			if (rqmt.containsKey("constraint")) {
 				JSONArray constraintSet = rqmt.getJSONArray("constraint");
 				/*
@@ -409,32 +842,8 @@ public class StructureValidation {
 				 * point for the evaluation of the XPaths in the requirement's 'constraint'.
 				 */
 				for (Element nextContextEl : targetElList) {
-					for (int i = 0; i < constraintSet.size(); i++) {
-						JSONObject constraint = constraintSet.getJSONObject(i);
-						/*
-						 * variables are always resolved using the 'nextTargetEl'.
-						 */
-						Map<String, String> varMap = resolveVariables(nextContextEl, constraint);
-						/*
-						 * the 'contextEl' will be used as the starting point when evaluating the
-						 * constraint's xPath(s). If the 'nextContextEl' is in the main doc (i.e,
-						 * MEC_Target == false) then targetEl = nextContextEl. Otherwise the targetEl
-						 * should be set to the 'rootEl' passed as a calling argument to this method.
-						 */
-						Element targetEl;
-						if (MEC_Target) {
-							targetEl = rootEl;
-						} else {
-							targetEl = nextContextEl;
-						}
-						MddfTarget mddfContext = contextMap.get(nextDocRoot);
-						LogEntryFolder logFolder = null;
-						if (supportingMECs != null) {
-							logFolder = supportingMECs.get(mddfContext);
-						}
-						isOk = evaluateConstraint(targetEl, constraint, nextContextEl, varMap, logFolder,
-								supportingMECs) && isOk;
-					}
+					isOk = checkConstraints(nextContextEl, constraintSet, rootEl, MEC_Target, logFolder,
+							supportingMECs) && isOk;
 				}
 			}
 
@@ -442,17 +851,7 @@ public class StructureValidation {
 			if (rqmt.containsKey("children")) {
 				JSONObject embeddedReqmts = rqmt.getJSONObject("children");
 				for (Element nextTargetEl : targetElList) {
-					Iterator<String> embeddedKeys = embeddedReqmts.keys();
-					while (embeddedKeys.hasNext()) {
-						String key = embeddedKeys.next();
-						JSONObject childRqmtSpec = embeddedReqmts.getJSONObject(key);
-						// NOTE: This block of code requires a 'targetPath' be defined
-						if (childRqmtSpec.has("targetPath")) {
-							// Recursive descent...
-							isOk = validateDocStructure(nextTargetEl, childRqmtSpec, primaryfTarget, supportingMECs)
-									&& isOk;
-						}
-					}
+					isOk = checkChildren(nextTargetEl, embeddedReqmts, primaryfTarget, supportingMECs) && isOk;
 				}
 			}
 			allOk = allOk && isOk;
@@ -460,6 +859,70 @@ public class StructureValidation {
 		return allOk;
 	}
 
+	/**
+	 * Evaluate each of a requirement's constraints for a single context Element.
+	 * 
+	 * @param nextContextEl
+	 * @param constraintSet
+	 * @param rootEl
+	 * @param MEC_Target     <tt>true</tt> if the context Element is in a
+	 *                       supporting MEC file
+	 * @param logFolder
+	 * @param supportingMECs
+	 * @return
+	 */
+	private boolean checkConstraints(Element nextContextEl, JSONArray constraintSet, Element rootEl,
+			boolean MEC_Target, LogEntryFolder logFolder, Map<MddfTarget, LogEntryFolder> supportingMECs) {
+		boolean isOk = true;
+		for (int i = 0; i < constraintSet.size(); i++) {
+			JSONObject constraint = constraintSet.getJSONObject(i);
+			/*
+			 * variables are always resolved using the 'nextTargetEl'.
+			 */
+			Map<String, String> varMap = resolveVariables(nextContextEl, constraint);
+			/*
+			 * the 'contextEl' will be used as the starting point when evaluating the
+			 * constraint's xPath(s). If the 'nextContextEl' is in the main doc (i.e,
+			 * MEC_Target == false) then targetEl = nextContextEl. Otherwise the targetEl
+			 * should be set to the 'rootEl' passed as a calling argument to this method.
+			 */
+			Element targetEl;
+			if (MEC_Target) {
+				targetEl = rootEl;
+			} else {
+				targetEl = nextContextEl;
+			}
+			isOk = evaluateConstraint(targetEl, constraint, nextContextEl, varMap, logFolder, supportingMECs)
+					&& isOk;
+		}
+		return isOk;
+	}
+
+	/**
+	 * Evaluate a requirement's nested requirements for a single target Element.
+	 * 
+	 * @param nextTargetEl
+	 * @param embeddedReqmts
+	 * @param primaryfTarget
+	 * @param supportingMECs
+	 * @return
+	 */
+	private boolean checkChildren(Element nextTargetEl, JSONObject embeddedReqmts, MddfTarget primaryfTarget,
+			Map<MddfTarget, LogEntryFolder> supportingMECs) {
+		boolean isOk = true;
+		Iterator<String> embeddedKeys = embeddedReqmts.keys();
+		while (embeddedKeys.hasNext()) {
+			String key = embeddedKeys.next();
+			JSONObject childRqmtSpec = embeddedReqmts.getJSONObject(key);
+			// NOTE: This block of code requires a 'targetPath' be defined
+			if (childRqmtSpec.has("targetPath")) {
+				// Recursive descent...
+				isOk = validateDocStructure(nextTargetEl, childRqmtSpec, primaryfTarget, supportingMECs) && isOk;
+			}
+		}
+		return isOk;
+	}
+
 	/**
 	 * Evaluate a constraint in the context of a specific Element. This means
 	 * descendant Elements are not considered.
@@ -489,7 +952,7 @@ public class StructureValidation {
 		String docRef = constraint.optString("docRef");
 
 		Object xpaths = constraint.opt("xpath");
-		List<XPathExpression<?>> xpeList = new ArrayList<XPathExpression<?>>();
+		List<String> localPathList = new ArrayList<String>();
 		List<String> externalPathList = new ArrayList<String>();
 		String targetList = ""; // for use if error msg is required
 		String[] xpParts = null;
@@ -499,7 +962,7 @@ public class StructureValidation {
 				xpathDef = xpathDef.replace(KEY_MEC_REF, "");
 				externalPathList.add(xpathDef);
 			} else {
-				xpeList.add(resolveXPath(xpathDef, varMap, target));
+				localPathList.add(xpathDef);
 			}
 			xpParts = xpathDef.split("\\[");
 			targetList = xpParts[0];
@@ -511,7 +974,7 @@ public class StructureValidation {
 					xpathDef = xpathDef.replace(KEY_MEC_REF, "");
 					externalPathList.add(xpathDef);
 				} else {
-					xpeList.add(resolveXPath(xpathDef, varMap, target));
+					localPathList.add(xpathDef);
 				}
 				xpParts = xpathDef.split("\\[");
 				if (i < 1) {
@@ -529,19 +992,14 @@ public class StructureValidation {
 		/* Has an OPTIONAL filter been included with the constraint? */
 		JSONObject filterDef = constraint.optJSONObject("filter");
 
-		List<Object> matchedElList = new ArrayList<Object>();
+		int count = 0;
 		/*
-		 * The xpeLlist contains constraints that are based on an XPath that should be
-		 * applied to the SAME file that contains the 'target' element (i.e., the
-		 * primary MDDF file being evaluated).
+		 * The localPathList contains constraints that are based on an XPath that
+		 * should be applied to the SAME file that contains the 'target' element (i.e.,
+		 * the primary MDDF file being evaluated).
 		 */
-		for (int i = 0; i < xpeList.size(); i++) {
-			XPathExpression<Element> xpExp = (XPathExpression<Element>) xpeList.get(i);
-			List<?> nextElList = xpExp.evaluate(target);
-			if (filterDef != null) {
-				nextElList = applyFilter(nextElList, filterDef);
-			}
-			matchedElList.addAll(nextElList);
+		for (int i = 0; i < localPathList.size(); i++) {
+			count = count + countMatches(target, constraint, i, localPathList.get(i), varMap, filterDef);
 		}
 		/*
 		 * The externalPathList contains constraints that are based on an XPath that
@@ -561,7 +1019,7 @@ public class StructureValidation {
 					if (filterDef != null) {
 						nextElList = applyFilter(nextElList, filterDef);
 					}
-					matchedElList.addAll(nextElList);
+					count = count + nextElList.size();
 				}
 			}
 		}
@@ -570,7 +1028,6 @@ public class StructureValidation {
 		String details = constraint.optString("details", "");
 
 		// check cardinality
-		int count = matchedElList.size();
 		if (min > 0 && (count < min)) {
 			String elName = target.getName();
 			String msg;
@@ -613,6 +1070,176 @@ public class StructureValidation {
 		return passes;
 	}
 
+	/**
+	 * Return the number of nodes matched by one of a constraint's XPaths when
+	 * evaluated relative to the <tt>target</tt>. If grouped evaluation is in
+	 * effect and the count depends only on an ancestor of the <tt>target</tt> (or
+	 * its document), the count determined for an earlier target with the same
+	 * ancestor is returned without re-evaluating the XPath.
+	 * 
+	 * @param target
+	 * @param constraint
+	 * @param xpathIdx
+	 * @param xpathDef
+	 * @param varMap
+	 * @param filterDef  [OPTIONAL]
+	 * @return
+	 */
+	private int countMatches(Element target, JSONObject constraint, int xpathIdx, String xpathDef,
+			Map<String, String> varMap, JSONObject filterDef) {
+		if (groupedEval && (filterDef == null)) {
+			ChildStep step = getXPathPlan(xpathDef, target).childStep;
+			if (step != null) {
+				Parent context = target;
+				for (int i = 0; (i < step.reach) && (context != null); i++) {
+					context = context.getParent();
+				}
+				if (context instanceof Element) {
+					return countChildren((Element) context, step);
+				}
+			}
+		}
+		GroupKey key = null;
+		if (groupCounts != null) {
+			Object context = sharedContext(target, contextReach(xpathDef));
+			if (context != null) {
+				key = new GroupKey(constraint, xpathIdx, context);
+				Integer count = groupCounts.get(key);
+				if (count != null) {
+					return count;
+				}
+			}
+		}
+		XPathExpression<?> xpExp = resolveXPath(xpathDef, varMap, target);
+		List<?> nextElList = xpExp.evaluate(target);
+		if (filterDef != null) {
+			nextElList = applyFilter(nextElList, filterDef);
+		}
+		if (key != null) {
+			groupCounts.put(key, nextElList.size());
+		}
+		return nextElList.size();
+	}
+
+	/**
+	 * Count the children of the <tt>context</tt> selected by a <tt>ChildStep</tt>.
+	 * While a requirement is being validated, the children are tallied by the
+	 * value the step tests the first time a context is encountered. The count for
+	 * any other value (e.g., a different <tt>@termName</tt>) is then a look-up.
+	 * 
+	 * @param context
+	 * @param step
+	 * @return
+	 */
+	private int countChildren(Element context, ChildStep step) {
+		if (groupTallies == null) {
+			int count = 0;
+			for (Element child : context.getChildren(step.name, step.ns)) {
+				if (step.matches(child)) {
+					count++;
+				}
+			}
+			return count;
+		}
+		TallyKey key = new TallyKey(context, step);
+		Map<String, Integer> tally = groupTallies.get(key);
+		if (tally == null) {
+			tally = new HashMap<String, Integer>();
+			for (Element child : context.getChildren(step.name, step.ns)) {
+				String value = step.valueOf(child);
+				if (value != null) {
+					Integer count = tally.get(value);
+					tally.put(value, (count == null) ? 1 : count + 1);
+				}
+			}
+			groupTallies.put(key, tally);
+		}
+		Integer count = tally.get((step.selector == null) ? "" : step.value);
+		return (count == null) ? 0 : count;
+	}
+
+	/**
+	 * Return the node that an XPath with the specified <i>reach</i> depends on
+	 * when evaluated relative to the <tt>target</tt>.
+	 * 
+	 * @param target
+	 * @param reach  as returned by <tt>contextReach()</tt>
+	 * @return the ancestor or <tt>Document</tt>, or <tt>null</tt> if the
+	 *         result depends on the <tt>target</tt> itself
+	 */
+	private static Object sharedContext(Element target, int reach) {
+		if (reach == REACH_NONE) {
+			return null;
+		}
+		if (reach == REACH_DOC) {
+			return target.getDocument();
+		}
+		Parent context = target;
+		for (int i = 0; (i < reach) && (context != null); i++) {
+			context = context.getParent();
+		}
+		return context;
+	}
+
+	/**
+	 * Determine how far above the context node the evaluation of an XPath
+	 * starts. An <tt>xpathDef</tt> consisting of a single location path that
+	 * begins with <i>n</i> <tt>../</tt> steps depends only on the <i>n</i>th
+	 * ancestor of the context, while an absolute path depends only on the
+	 * document. Anything else (e.g., a union, a boolean expression, or the use of
+	 * a constraint's variables) is assumed to depend on the context itself.
+	 * 
+	 * @param xpathDef
+	 * @return the number of leading <tt>../</tt> steps, <tt>REACH_DOC</tt>, or
+	 *         <tt>REACH_NONE</tt>
+	 */
+	private static int contextReach(String xpathDef) {
+		Integer reach = reachCache.get(xpathDef);
+		if (reach == null) {
+			reach = computeReach(xpathDef);
+			reachCache.put(xpathDef, reach);
+		}
+		return reach;
+	}
+
+	private static int computeReach(String xpathDef) {
+		if (xpathDef.contains("{$")) {
+			return REACH_NONE;
+		}
+		/* anything other than steps outside of a predicate indicates an expression */
+		int depth = 0;
+		char quote = 0;
+		for (int i = 0; i < xpathDef.length(); i++) {
+			char c = xpathDef.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if ((c == '\'') || (c == '"')) {
+				quote = c;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+			} else if ((depth == 0) && !Character.isLetterOrDigit(c) && ("/.@:*{}-_".indexOf(c) < 0)) {
+				return REACH_NONE;
+			}
+		}
+		if (xpathDef.startsWith("/")) {
+			return REACH_DOC;
+		}
+		int reach = 0;
+		String steps = xpathDef;
+		while (steps.startsWith("../")) {
+			reach++;
+			steps = steps.substring(3);
+		}
+		if (steps.equals("..")) {
+			reach++;
+		}
+		return reach;
+	}
+
 	/**
 	 * Assign values to any <i>variables</i> used by a <tt>constraint</tt>.
 	 * Variables are denoted by a "$" followed by an ID (e.g., <tt>$FOO</tt>) and
@@ -723,6 +1350,12 @@ public class StructureValidation {
 	 * <tt>target</tt> Element argument. The returned XPathExpression may not,
 	 * therefore, evaluate properly when applied to a different Document.
 	 * </p>
+	 * <p>
+	 * Compiled expressions are cached and re-used. Any variables are bound to the
+	 * values in the <tt>varMap</tt> at the time of the call, so the returned
+	 * expression should be evaluated before <tt>resolveXPath()</tt> is invoked
+	 * again for the same xpath.
+	 * </p>
 	 * 
 	 * @param xpath
 	 * @param varMap
@@ -761,28 +1394,53 @@ public class StructureValidation {
 	 * @return
 	 */
 	private XPathExpression<?> resolveXPath(String xpathDef, Map<String, String> varMap, FILE_FMT targetMddfFmt) {
-		if (varMap != null) {
-			Set<String> keySet = varMap.keySet();
-			for (String varID : keySet) {
-				String varValue = varMap.get(varID);
-				String regExp = "\\{\\" + varID + "\\}";
-				xpathDef = xpathDef.replaceAll(regExp, "'" + varValue + "'");
-			}
+		XPathPlan plan = getXPathPlan(xpathDef, targetMddfFmt);
+		/* bind current variable values to the pre-compiled expression */
+		for (String varID : plan.varIds) {
+			String varValue = (varMap == null) ? null : varMap.get("$" + varID);
+			plan.xpe.setVariable(varID, String.valueOf(varValue));
 		}
-		Map<String, Namespace> uses = MddfContext.getRequiredNamespaces(targetMddfFmt);
+		return plan.xpe;
+	}
 
-		if (xpathDef.contains("{md}")) {
-			xpathDef = xpathDef.replaceAll("\\{md\\}", uses.get("MD").getPrefix() + ":");
-		}
-		if (xpathDef.contains("{avail}")) {
-			xpathDef = xpathDef.replaceAll("\\{avail\\}", uses.get("AVAILS").getPrefix() + ":");
+	private XPathPlan getXPathPlan(String xpathDef, Element target) {
+		Element rootEl = target.getDocument().getRootElement();
+		return getXPathPlan(xpathDef, MddfContext.identifyMddfFormat(rootEl));
+	}
+
+	private XPathPlan getXPathPlan(String xpathDef, FILE_FMT targetMddfFmt) {
+		String key = targetMddfFmt.name() + "|" + xpathDef;
+		Map<String, XPathPlan> planCache = xpCache.get();
+		XPathPlan plan = planCache.get(key);
+		if (plan == null) {
+			plan = compileXPath(xpathDef, targetMddfFmt);
+			planCache.put(key, plan);
 		}
-		if (xpathDef.contains("{manifest}")) {
-			xpathDef = xpathDef.replaceAll("\\{manifest\\}", uses.get("MANIFEST").getPrefix() + ":");
+		return plan;
+	}
+
+	/**
+	 * Compile an <tt>xpathDef</tt> into an <tt>XPathPlan</tt>. Any reference to a
+	 * constraint's variable (e.g., <tt>{$CID}</tt>) is converted to an XPath
+	 * variable (e.g., <tt>$CID</tt>) so that a single compiled expression may be
+	 * re-used with each context Element by binding the current values rather than
+	 * recompiling.
+	 * 
+	 * @param xpathDef
+	 * @param targetMddfFmt
+	 * @return
+	 */
+	private static XPathPlan compileXPath(String xpathDef, FILE_FMT targetMddfFmt) {
+		Map<String, Object> variables = new HashMap<String, Object>();
+		Matcher m = VAR_REF.matcher(xpathDef);
+		while (m.find()) {
+			variables.put(m.group(1), "");
 		}
-		if (xpathDef.contains("{mdmec}")) {
-			xpathDef = xpathDef.replaceAll("\\{mdmec\\}", uses.get("MDMEC").getPrefix() + ":");
+		if (!variables.isEmpty()) {
+			xpathDef = m.replaceAll("\\$$1");
 		}
+		Map<String, Namespace> uses = MddfContext.getRequiredNamespaces(targetMddfFmt);
+		xpathDef = expandNamespaces(xpathDef, uses);
 		// Now compile the XPath
 		XPathExpression<?> xpExpression;
 		/**
@@ -798,16 +1456,71 @@ public class StructureValidation {
 		 * <li>avail:Term/avail:Event[../@termName='AnnounceDate']</li>
 		 * </ul>
 		 */
-		XPathFactory xpfac = XPathFactory.instance();
+		XPathFactory xpfac = NativeXPathFactory.getInstance();
 		Set<Namespace> nspaceSet = new HashSet<Namespace>();
 		nspaceSet.addAll(uses.values());
 		if (resolvesToAttribute(xpathDef)) {
 			// must be an attribute value we're after..
-			xpExpression = xpfac.compile(xpathDef, Filters.attribute(), null, nspaceSet);
+			xpExpression = xpfac.compile(xpathDef, Filters.attribute(), variables, nspaceSet);
 		} else {
-			xpExpression = xpfac.compile(xpathDef, Filters.element(), null, nspaceSet);
+			xpExpression = xpfac.compile(xpathDef, Filters.element(), variables, nspaceSet);
+		}
+		return new XPathPlan(xpExpression, variables.keySet(), toChildStep(xpathDef, nspaceSet));
+	}
+
+	/**
+	 * Return the <tt>ChildStep</tt> equivalent to an expanded <tt>xpathDef</tt>.
+	 * 
+	 * @param xpathDef  with namespace prefixes inserted
+	 * @param nspaceSet the namespaces the prefixes refer to
+	 * @return the <tt>ChildStep</tt> or <tt>null</tt> if the XPath is not a simple
+	 *         selection of children
+	 */
+	private static ChildStep toChildStep(String xpathDef, Set<Namespace> nspaceSet) {
+		Matcher m = CHILD_STEP.matcher(xpathDef);
+		if (!m.matches()) {
+			return null;
+		}
+		Namespace ns = null;
+		for (Namespace next : nspaceSet) {
+			if (next.getPrefix().equals(m.group(2))) {
+				ns = next;
+			}
+		}
+		if (ns == null) {
+			return null;
+		}
+		int reach = m.group(1).length() / 3;
+		String selector = m.group(4);
+		if ((selector != null) && selector.startsWith("@")) {
+			selector = selector.substring(1);
+		}
+		String value = (m.group(5) != null) ? m.group(5) : m.group(6);
+		return new ChildStep(reach, ns, m.group(3), selector, value);
+	}
+
+	/**
+	 * Replace each namespace variable (e.g., <tt>{md}</tt>) in an
+	 * <tt>xpathDef</tt> with the prefix of the corresponding <tt>Namespace</tt>.
+	 * 
+	 * @param xpathDef
+	 * @param uses     the namespaces required by the target's <tt>FILE_FMT</tt>
+	 * @return
+	 */
+	static String expandNamespaces(String xpathDef, Map<String, Namespace> uses) {
+		if (xpathDef.contains("{md}")) {
+			xpathDef = xpathDef.replaceAll("\\{md\\}", uses.get("MD").getPrefix() + ":");
+		}
+		if (xpathDef.contains("{avail}")) {
+			xpathDef = xpathDef.replaceAll("\\{avail\\}", uses.get("AVAILS").getPrefix() + ":");
+		}
+		if (xpathDef.contains("{manifest}")) {
+			xpathDef = xpathDef.replaceAll("\\{manifest\\}", uses.get("MANIFEST").getPrefix() + ":");
+		}
+		if (xpathDef.contains("{mdmec}")) {
+			xpathDef = xpathDef.replaceAll("\\{mdmec\\}", uses.get("MDMEC").getPrefix() + ":");
 		}
-		return xpExpression;
+		return xpathDef;
 	}
 
 	private static boolean resolvesToAttribute(String xpathDef) {
@@ -0,0 +1,400 @@
+/**
+ * Created October 17, 2026
+ * Copyright Motion Picture Laboratories, Inc. 2026
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of 
+ * this software and associated documentation files (the "Software"), to deal in 
+ * the Software without restriction, including without limitation the rights to use, 
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of 
+ * the Software, and to permit persons to whom the Software is furnished to do so, 
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all 
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS 
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR 
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER 
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN 
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.xml;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+
+import com.movielabs.mddf.MddfContext;
+import com.movielabs.mddf.MddfContext.FILE_FMT;
+
+import net.sf.json.JSONObject;
+
+/**
+ * Locates the target elements of every top-level requirement in a set of
+ * structure requirements (i.e., the <tt>StrucRqmts</tt> of a
+ * <tt>structure_*.json</tt> file) using a single traversal of a document.
+ * <p>
+ * Evaluated separately, each requirement's <tt>targetPath</tt> (typically of
+ * the form <tt>.//{avail}Foo/{avail}Bar[...]</tt>) requires a scan of the
+ * entire document. The cost of locating targets therefore grows with the
+ * number of requirements times the size of the document. Instead, the
+ * location steps of all the <tt>targetPaths</tt> are compiled into a single
+ * non-deterministic automaton. Each automaton state corresponds to a location
+ * step that has yet to be matched. The document is then walked in pre-order
+ * with each element inheriting from its parent the set of active states. A
+ * state is advanced when an element matches the step's name and any
+ * predicates. When the final step of a path is matched the element is added
+ * to that path's targets. States for steps using the <tt>descendant</tt> axis
+ * (i.e., preceded by <tt>//</tt>) remain active for the entire sub-tree.
+ * Sub-trees for which no state is active are not visited.
+ * </p>
+ * <p>
+ * Since elements are visited in pre-order, the targets for each path are in
+ * document order and are identical to those returned by evaluating the
+ * <tt>targetPath</tt> as an XPath. Only paths consisting of <tt>child</tt> and
+ * <tt>descendant</tt> steps relative to the root are compiled. Any other path
+ * (e.g., an absolute path, one using other axes, or with a positional
+ * predicate) is not indexed and <tt>getTargets()</tt> will return
+ * <tt>null</tt>.
+ * </p>
+ * <p>
+ * The targets are determined when the index is built. An index must not be
+ * used once the document has been modified.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class TargetPathIndex {
+
+	private static final String WILDCARD = "*";
+	private static final Pattern NAME = Pattern.compile("(\\{\\w+\\})?([A-Za-z_][\\w\\-.]*|\\*)");
+	private static final Pattern POSITIONAL = Pattern.compile("^\\s*\\d+\\s*$|position\\(|last\\(");
+	private static final Map<String, String> NS_KEYS = new HashMap<String, String>();
+
+	static {
+		NS_KEYS.put("{md}", "MD");
+		NS_KEYS.put("{avail}", "AVAILS");
+		NS_KEYS.put("{manifest}", "MANIFEST");
+		NS_KEYS.put("{mdmec}", "MDMEC");
+	}
+
+	/**
+	 * A single location step. Each step is one state of the automaton.
+	 */
+	private static class Step {
+		private boolean descendant;
+		private String nsUri;
+		private String localName;
+		private XPathExpression<Element> predicate = null;
+		private int pathId;
+		private boolean isLast = false;
+	}
+
+	private final Element rootEl;
+	private final Map<String, Namespace> uses;
+	private final Map<String, Integer> pathIds = new HashMap<String, Integer>();
+	private final List<Step> steps = new ArrayList<Step>();
+	private final BitSet initialStates = new BitSet();
+	private final BitSet descendantStates = new BitSet();
+	private final BitSet wildcardStates = new BitSet();
+	/* states with a step matching an element's name (including wildcards) */
+	private final Map<String, BitSet> statesByName = new HashMap<String, BitSet>();
+	private final List<List<Element>> targets = new ArrayList<List<Element>>();
+	private int visitCnt = 0;
+
+	/**
+	 * Build the index of all elements targeted by the top-level requirements in
+	 * the <tt>rqmtSet</tt> when evaluated relative to the <tt>rootEl</tt>.
+	 * 
+	 * @param rqmtSet
+	 * @param rootEl
+	 */
+	public TargetPathIndex(JSONObject rqmtSet, Element rootEl) {
+		this.rootEl = rootEl;
+		FILE_FMT mddfFmt = MddfContext.identifyMddfFormat(rootEl);
+		this.uses = (mddfFmt == null) ? new HashMap<String, Namespace>()
+				: MddfContext.getRequiredNamespaces(mddfFmt);
+		Iterator<String> keys = rqmtSet.keys();
+		while (keys.hasNext()) {
+			JSONObject rqmtSpec = rqmtSet.getJSONObject(keys.next());
+			if (rqmtSpec.has("targetPath")) {
+				addPath(rqmtSpec.getString("targetPath"));
+			}
+		}
+		for (BitSet nameStates : statesByName.values()) {
+			nameStates.or(wildcardStates);
+		}
+		if (!initialStates.isEmpty()) {
+			walk(rootEl, initialStates);
+		}
+	}
+
+	/**
+	 * Return the elements selected by a <tt>targetPath</tt>, in document order.
+	 * 
+	 * @param targetPath
+	 * @return the targeted elements or <tt>null</tt> if the <tt>targetPath</tt>
+	 *         has not been indexed
+	 */
+	public List<Element> getTargets(String targetPath) {
+		Integer pathId = pathIds.get(targetPath);
+		if ((pathId == null) || (pathId < 0)) {
+			return null;
+		}
+		return targets.get(pathId);
+	}
+
+	/**
+	 * @return the element relative to which all target paths were evaluated
+	 */
+	public Element getRootElement() {
+		return rootEl;
+	}
+
+	/**
+	 * @return the number of elements examined while building the index
+	 */
+	public int getVisitCount() {
+		return visitCnt;
+	}
+
+	/**
+	 * Compile a <tt>targetPath</tt> into a sequence of steps. A path that can not
+	 * be compiled is recorded with an ID of -1.
+	 * 
+	 * @param targetPath
+	 */
+	private void addPath(String targetPath) {
+		if (pathIds.containsKey(targetPath)) {
+			return;
+		}
+		List<Step> pathSteps = compile(targetPath);
+		if (pathSteps == null) {
+			pathIds.put(targetPath, -1);
+			return;
+		}
+		int pathId = targets.size();
+		pathIds.put(targetPath, pathId);
+		targets.add(new ArrayList<Element>());
+		pathSteps.get(pathSteps.size() - 1).isLast = true;
+		initialStates.set(steps.size());
+		for (Step step : pathSteps) {
+			int stateId = steps.size();
+			step.pathId = pathId;
+			steps.add(step);
+			if (step.descendant) {
+				descendantStates.set(stateId);
+			}
+			if (step.localName.equals(WILDCARD)) {
+				wildcardStates.set(stateId);
+			} else {
+				String key = step.nsUri + "|" + step.localName;
+				BitSet nameStates = statesByName.get(key);
+				if (nameStates == null) {
+					nameStates = new BitSet();
+					statesByName.put(key, nameStates);
+				}
+				nameStates.set(stateId);
+			}
+		}
+	}
+
+	/**
+	 * @param targetPath
+	 * @return the steps or <tt>null</tt> if the path is not supported
+	 */
+	private List<Step> compile(String targetPath) {
+		String path = targetPath.trim();
+		if (!path.startsWith("./")) {
+			return null;
+		}
+		List<Step> pathSteps = new ArrayList<Step>();
+		int pos = 1;
+		while (pos < path.length()) {
+			/* each step is preceded by either '/' or '//' */
+			if (path.charAt(pos) != '/') {
+				return null;
+			}
+			pos++;
+			Step step = new Step();
+			if ((pos < path.length()) && (path.charAt(pos) == '/')) {
+				step.descendant = true;
+				pos++;
+			}
+			int end = findStepEnd(path, pos);
+			if (end < 0 || !parseStep(path.substring(pos, end), step)) {
+				return null;
+			}
+			pathSteps.add(step);
+			pos = end;
+		}
+		if (pathSteps.isEmpty()) {
+			return null;
+		}
+		return pathSteps;
+	}
+
+	/**
+	 * Return the index of the '/' that terminates the step starting at
+	 * <tt>pos</tt> (or the end of the path). Any '/' inside a predicate or a
+	 * quoted literal is ignored.
+	 * 
+	 * @param path
+	 * @param pos
+	 * @return
+	 */
+	private static int findStepEnd(String path, int pos) {
+		int depth = 0;
+		char quote = 0;
+		for (int i = pos; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if ((c == '\'') || (c == '"')) {
+				quote = c;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+				if (depth < 0) {
+					return -1;
+				}
+			} else if ((c == '/') && (depth == 0)) {
+				return i;
+			} else if ((c == '|') && (depth == 0)) {
+				/* a union of paths */
+				return -1;
+			}
+		}
+		if ((depth != 0) || (quote != 0)) {
+			return -1;
+		}
+		return path.length();
+	}
+
+	/**
+	 * Parse a single step consisting of a name test (e.g. <tt>{md}Foo</tt>)
+	 * followed by zero or more predicates.
+	 * 
+	 * @param stepDef
+	 * @param step
+	 * @return <tt>false</tt> if the step is not supported
+	 */
+	private boolean parseStep(String stepDef, Step step) {
+		int predStart = stepDef.indexOf('[');
+		String nameTest = (predStart < 0) ? stepDef : stepDef.substring(0, predStart);
+		Matcher m = NAME.matcher(nameTest.trim());
+		if (!m.matches()) {
+			return false;
+		}
+		String nsVar = m.group(1);
+		step.localName = m.group(2);
+		if (nsVar == null) {
+			step.nsUri = "";
+		} else if (step.localName.equals(WILDCARD)) {
+			/*
+			 * wildcard states match any namespace so a namespaced wildcard (e.g.
+			 * '{md}*') is left to the XPath evaluation.
+			 */
+			return false;
+		} else {
+			String nsKey = NS_KEYS.get(nsVar);
+			Namespace ns = (nsKey == null) ? null : uses.get(nsKey);
+			if (ns == null) {
+				return false;
+			}
+			step.nsUri = ns.getURI();
+		}
+		if (predStart < 0) {
+			return true;
+		}
+		String predicates = stepDef.substring(predStart);
+		if (predicates.contains("{$") || !predicates.trim().endsWith("]")) {
+			return false;
+		}
+		/* each predicate must be independent of the element's position */
+		int depth = 0;
+		int open = -1;
+		char quote = 0;
+		for (int i = 0; i < predicates.length(); i++) {
+			char c = predicates.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if ((c == '\'') || (c == '"')) {
+				quote = c;
+			} else if (c == '[') {
+				if (depth == 0) {
+					open = i;
+				}
+				depth++;
+			} else if (c == ']') {
+				depth--;
+				if ((depth == 0) && POSITIONAL.matcher(predicates.substring(open + 1, i)).find()) {
+					return false;
+				}
+			} else if ((depth == 0) && !Character.isWhitespace(c)) {
+				return false;
+			}
+		}
+		for (String nextVar : NS_KEYS.keySet()) {
+			if (predicates.contains(nextVar) && (uses.get(NS_KEYS.get(nextVar)) == null)) {
+				/* a namespace that is not used by the document's format */
+				return false;
+			}
+		}
+		String xpathDef = StructureValidation.expandNamespaces("self::*" + predicates, uses);
+		Set<Namespace> nspaceSet = new HashSet<Namespace>(uses.values());
+		step.predicate = NativeXPathFactory.getInstance().compile(xpathDef, Filters.element(), null, nspaceSet);
+		return true;
+	}
+
+	/**
+	 * Visit, in pre-order, all descendants of the <tt>parentEl</tt> for which one
+	 * or more states are active.
+	 * 
+	 * @param parentEl
+	 * @param activeStates the states inherited from the <tt>parentEl</tt>
+	 */
+	private void walk(Element parentEl, BitSet activeStates) {
+		for (Element childEl : parentEl.getChildren()) {
+			visitCnt++;
+			BitSet nextStates = (BitSet) activeStates.clone();
+			nextStates.and(descendantStates);
+			BitSet nameStates = statesByName.get(childEl.getNamespaceURI() + "|" + childEl.getName());
+			BitSet matched = (BitSet) activeStates.clone();
+			matched.and((nameStates == null) ? wildcardStates : nameStates);
+			for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+				Step step = steps.get(i);
+				if ((step.predicate != null) && (step.predicate.evaluateFirst(childEl) == null)) {
+					continue;
+				}
+				if (step.isLast) {
+					targets.get(step.pathId).add(childEl);
+				} else {
+					nextStates.set(i + 1);
+				}
+			}
+			if (!nextStates.isEmpty()) {
+				walk(childEl, nextStates);
+			}
+		}
+	}
+}
@@ -30,9 +30,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
@@ -79,9 +85,24 @@ public abstract class XmlIngester implements IssueLogger {
 	public Namespace deliveryNSpace = Namespace.getNamespace("delivery",
 			MddfContext.NSPACE_AOD_PREFIX + AOD_VER + MddfContext.NSPACE_AOD_SUFFIX);
 
-	protected static XPathFactory xpfac = XPathFactory.instance();
+	protected static XPathFactory xpfac = NativeXPathFactory.getInstance();
 
-	private static Map<String, JSONObject> rsrcCache = new HashMap<String, JSONObject>();
+	/*
+	 * JSON resources keyed by resource path. A resource that is missing or is not
+	 * valid JSON is reported once and retained as a null.
+	 */
+	private static ResourceRegistry<JSONObject> rsrcRegistry = new ResourceRegistry<JSONObject>(
+			new ResourceRegistry.Loader<JSONObject>() {
+				public JSONObject load(String rsrcPath) {
+					try {
+						return loadJSON(rsrcPath);
+					} catch (Exception e) {
+						System.out.println("Missing MDDF Resc " + rsrcPath);
+						e.printStackTrace();
+						return null;
+					}
+				}
+			});
 
 //	protected File srcFile;
 	// protected static File sourceFolder;
@@ -110,18 +131,7 @@ public abstract class XmlIngester implements IssueLogger {
 
 	public static JSONObject getMddfResource(String rsrcId) {
 		String rsrcPath = MddfContext.RSRC_PATH + rsrcId + ".json";
-		JSONObject rsrc = rsrcCache.get(rsrcPath);
-		if (rsrc == null) {
-			try {
-				rsrc = loadJSON(rsrcPath);
-			} catch (Exception e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-				return null;
-			}
-			rsrcCache.put(rsrcPath, rsrc);
-		}
-		return rsrc;
+		return rsrcRegistry.get(rsrcPath);
 	}
 
 	/**
@@ -152,16 +162,9 @@ public abstract class XmlIngester implements IssueLogger {
 			break;
 		}
 		String rsrcPath = MddfContext.RSRC_PATH + "vocab_" + key + ".json";
-		JSONObject rsrc = (JSONObject) rsrcCache.get(rsrcPath);
+		JSONObject rsrc = rsrcRegistry.get(rsrcPath);
 		if (rsrc == null) {
-			try {
-				rsrc = loadJSON(rsrcPath);
-			} catch (Exception e) {
-				System.out.println("Missing MDDF Resc " + rsrcPath);
-				e.printStackTrace();
-				return null;
-			}
-			rsrcCache.put(rsrcPath, rsrc);
+			return null;
 		}
 		Object jsonRsrc = rsrc.get(rsrcId);
 		return jsonRsrc;
@@ -266,6 +269,74 @@ public abstract class XmlIngester implements IssueLogger {
 		return xmlDoc;
 	}
 
+	/**
+	 * Reads only the start tag of the root element of an XML-formatted stream.
+	 * The returned element has the same name, namespace declarations, and
+	 * attributes as the root element but none of its content. It is attached to
+	 * an otherwise empty <tt>Document</tt>. This allows the type and version of an
+	 * MDDF file to be identified without parsing the entire file.
+	 * 
+	 * @param inStream
+	 * @return
+	 * @throws IOException
+	 * @throws SAXParseException if the XML is improperly formatted
+	 */
+	public static Element peekRootElement(InputStream inStream) throws IOException, SAXParseException {
+		InputStreamReader isr = new InputStreamReader(inStream, "UTF-8");
+		XMLStreamReader reader = null;
+		try {
+			reader = XMLInputFactory.newInstance().createXMLStreamReader(isr);
+			while (reader.hasNext()) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				Location loc = reader.getLocation();
+				Namespace elNSpace = Namespace.getNamespace(toPrefix(reader.getPrefix()),
+						toUri(reader.getNamespaceURI()));
+				Element rootEl = new LocatedJDOMFactory().element(loc.getLineNumber(), loc.getColumnNumber(),
+						reader.getLocalName(), elNSpace);
+				for (int i = 0; i < reader.getNamespaceCount(); i++) {
+					Namespace nextNSpace = Namespace.getNamespace(toPrefix(reader.getNamespacePrefix(i)),
+							reader.getNamespaceURI(i));
+					if (!nextNSpace.equals(elNSpace)) {
+						rootEl.addNamespaceDeclaration(nextNSpace);
+					}
+				}
+				for (int i = 0; i < reader.getAttributeCount(); i++) {
+					String attNSpaceUri = toUri(reader.getAttributeNamespace(i));
+					Namespace attNSpace = Namespace.NO_NAMESPACE;
+					if (!attNSpaceUri.isEmpty()) {
+						attNSpace = Namespace.getNamespace(toPrefix(reader.getAttributePrefix(i)), attNSpaceUri);
+					}
+					rootEl.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i), attNSpace);
+				}
+				new Document(rootEl);
+				return rootEl;
+			}
+		} catch (XMLStreamException e) {
+			Location loc = e.getLocation();
+			int ln = (loc == null) ? -1 : loc.getLineNumber();
+			int col = (loc == null) ? -1 : loc.getColumnNumber();
+			throw new SAXParseException(e.getMessage(), null, null, ln, col, e);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException e) {
+				}
+			}
+		}
+		throw new SAXParseException("No root element found", null, null, -1, -1);
+	}
+
+	private static String toPrefix(String prefix) {
+		return (prefix == null) ? "" : prefix;
+	}
+
+	private static String toUri(String uri) {
+		return (uri == null) ? "" : uri;
+	}
+
 	public static boolean writeXml(File outputLoc, Document xmlDoc) {
 		Format myFormat = Format.getPrettyFormat();
 		XMLOutputter outputter = new XMLOutputter(myFormat);
@@ -308,7 +379,7 @@ public abstract class XmlIngester implements IssueLogger {
 	 * @return
 	 */
 	public static String identifyXsdVersion(MddfTarget target) {
-		Element docRootEl = target.getXmlDoc().getRootElement();
+		Element docRootEl = target.getRootElement();
 		return identifyXsdVersion(docRootEl);
 	}
 
@@ -24,25 +24,39 @@ package com.movielabs.mddflib.util.xml;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.xml.XMLConstants;
-import javax.xml.transform.Source;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
 
+import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
+import org.jdom2.input.sax.SAXHandler;
+import org.jdom2.located.LocatedJDOMFactory;
 import org.jdom2.transform.JDOMSource;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
 
 import com.movielabs.mddf.MddfContext;
 import com.movielabs.mddflib.logging.LogMgmt;
@@ -58,6 +72,23 @@ public class XsdValidation {
 	public static String defaultRsrcLoc;
 	private static int logMsgDefaultTag = LogMgmt.TAG_XSD;
 
+	/**
+	 * Compiled <tt>Schema</tt> instances keyed by the XSD resource's URL. A
+	 * <tt>Schema</tt> is immutable and may be shared by any number of threads;
+	 * only the <tt>Validator</tt> obtained from it must remain private to a
+	 * single validation.
+	 */
+	private static ConcurrentHashMap<String, Schema> schemaCache = new ConcurrentHashMap<String, Schema>();
+	private static AtomicLong cacheHits = new AtomicLong();
+	private static AtomicLong cacheMisses = new AtomicLong();
+
+	/**
+	 * Maps the keys used by <tt>MddfContext.getSupportedVersions()</tt> to the
+	 * prefix used when naming the corresponding XSD resource.
+	 */
+	private static final String[][] XSD_PREFIXES = { { "AVAIL", "avails" }, { "MANIFEST", "manifest" },
+			{ "MEC", "mdmec" }, { "CM", "md" }, { "AOD", "delivery" } };
+
 	static {
 		/*
 		 * This will be used with ClassLoader.getResource() so the path is always
@@ -86,8 +117,25 @@ public class XsdValidation {
 	 * @return
 	 */
 	public boolean validateXml(MddfTarget target, String xsdLocation, String moduleId) {
+		return validateXml(target, xsdLocation, moduleId, false);
+	}
+
+	/**
+	 * Validate everything that is fully specified via the identified XSD. If
+	 * <tt>buildTree</tt> is <tt>true</tt> and the XML has not yet been loaded, the
+	 * located JDOM tree is built from the same parse and, if the XML is valid,
+	 * assigned to the <tt>target</tt>. Otherwise the XML is only streamed through
+	 * the validator.
+	 * 
+	 * @param target
+	 * @param xsdLocation
+	 * @param moduleId
+	 * @param buildTree   <tt>true</tt> if the caller will need the JDOM tree of a
+	 *                    valid file (e.g., to check constraints)
+	 * @return
+	 */
+	public boolean validateXml(MddfTarget target, String xsdLocation, String moduleId, boolean buildTree) {
 		// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-		SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
 		URL xsdUrl = assignXSD(target);
 		if (!validateHeader(target, xsdUrl)) {
 			return false;
@@ -96,7 +144,7 @@ public class XsdValidation {
 		File srcFile = target.getSrcFile(); // used for logging
 		Schema schema;
 		try {
-			schema = schemaFactory.newSchema(xsdUrl);
+			schema = getSchema(xsdUrl);
 		} catch (SAXParseException e1) {
 			String msg = "Unable to process: " + e1.getMessage();
 			msg = msg.replace("schema_reference.4", "");
@@ -135,13 +183,23 @@ public class XsdValidation {
 			 * file was not formatted as XML (i.e., it is an XLSX formatted Avails).
 			 * </p>
 			 */
-			Source src;
-			if (srcFile.getName().endsWith(".xml")) {
-				src = new StreamSource(target.getXmlStreamSrc());
+			if (!srcFile.getName().endsWith(".xml")) {
+				validator.validate(new JDOMSource(target.getXmlDoc().getRootElement()));
+			} else if (buildTree && !target.isXmlLoaded()) {
+				/*
+				 * Single pass: validate while building the located JDOM tree that the
+				 * constraint checks will use. Those checks are skipped for an invalid file
+				 * so the tree is then discarded.
+				 */
+				Document xmlDoc = validateAndBuild(schema, target, errHandler);
+				if ((xmlDoc != null) && (errHandler.errCount == 0)) {
+					target.setXmlDoc(xmlDoc);
+				}
 			} else {
-				src = new JDOMSource(target.getXmlDoc().getRootElement());
+				try (InputStream inStream = target.openXmlStream()) {
+					validator.validate(new StreamSource(inStream));
+				}
 			}
-			validator.validate(src);
 		} catch (IOException e) {
 			String msg = "Validation error -::" + getExceptionCause(e);
 			loggingMgr.log(LogMgmt.LEV_ERR, logMsgDefaultTag, msg, target, -1, moduleId, genericTooltip, null);
@@ -161,6 +219,133 @@ public class XsdValidation {
 		}
 	}
 
+	/**
+	 * Return the compiled <tt>Schema</tt> for the XSD at the specified location.
+	 * The XSD (along with any XSD it imports) is parsed and compiled only on the
+	 * first request. All subsequent requests, from any thread or
+	 * <tt>XsdValidation</tt> instance, are served from the cache.
+	 * 
+	 * @param xsdUrl
+	 * @return
+	 * @throws SAXException if the XSD can not be compiled
+	 */
+	public static Schema getSchema(URL xsdUrl) throws SAXException {
+		String key = xsdUrl.toExternalForm();
+		Schema schema = schemaCache.get(key);
+		if (schema != null) {
+			cacheHits.incrementAndGet();
+			return schema;
+		}
+		cacheMisses.incrementAndGet();
+		/*
+		 * SchemaFactory is not thread-safe so each compilation uses its own. Two
+		 * threads may occasionally compile the same XSD concurrently; the first one
+		 * cached wins and the other is discarded.
+		 */
+		SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+		schema = schemaFactory.newSchema(xsdUrl);
+		Schema prior = schemaCache.putIfAbsent(key, schema);
+		return (prior == null) ? schema : prior;
+	}
+
+	/**
+	 * Pre-load the cache with compiled schemas for every version of every MDDF
+	 * standard listed by <tt>MddfContext.getSupportedVersions()</tt>. Versions for
+	 * which no XSD resource is bundled are skipped. This is intended to be called
+	 * once at start-up by long-running or batch processes so that the cost of
+	 * schema compilation is not incurred while validating the first files. Any XSD
+	 * that can not be compiled is reported via the logger specified by
+	 * <tt>ResourceRegistry.setLogger()</tt>.
+	 * 
+	 * @return the number of schemas that are now compiled and cached
+	 */
+	public static int warmUp() {
+		ClassLoader loader = XsdValidation.class.getClassLoader();
+		for (String[] mapping : XSD_PREFIXES) {
+			String[] versions = MddfContext.getSupportedVersions(mapping[0]);
+			if (versions == null) {
+				continue;
+			}
+			for (String ver : versions) {
+				String xsdFile = defaultRsrcLoc + mapping[1] + "-v" + ver + ".xsd";
+				URL xsdUrl = loader.getResource(xsdFile);
+				if (xsdUrl == null) {
+					continue;
+				}
+				try {
+					getSchema(xsdUrl);
+				} catch (SAXException e) {
+					ResourceRegistry.reportFailure("Unable to compile " + xsdFile, e);
+				}
+			}
+		}
+		return schemaCache.size();
+	}
+
+	/**
+	 * @return number of schema requests satisfied by the cache
+	 */
+	public static long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	/**
+	 * @return number of schema requests that required an XSD to be compiled
+	 */
+	public static long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	/**
+	 * Discard all cached schemas and reset the hit/miss counters.
+	 */
+	public static void clearSchemaCache() {
+		schemaCache.clear();
+		cacheHits.set(0);
+		cacheMisses.set(0);
+	}
+
+	/**
+	 * Parse an XML source a single time, validating it against the
+	 * <tt>schema</tt> and, at the same time, building the located JDOM
+	 * representation. Schema violations are reported to the
+	 * <tt>errHandler</tt>. The <tt>Document</tt> is returned only if the XML was
+	 * well-formed.
+	 * 
+	 * @param schema
+	 * @param target
+	 * @param errHandler
+	 * @return
+	 * @throws IOException
+	 * @throws SAXException if the XML is not well-formed
+	 */
+	private Document validateAndBuild(Schema schema, MddfTarget target, ErrorHandler errHandler)
+			throws IOException, SAXException {
+		ValidatorHandler vHandler = schema.newValidatorHandler();
+		vHandler.setErrorHandler(errHandler);
+		SAXHandler jdomHandler = new SAXHandler(new LocatedJDOMFactory());
+		XMLReader reader;
+		try {
+			SAXParserFactory spf = SAXParserFactory.newInstance();
+			spf.setNamespaceAware(true);
+			reader = spf.newSAXParser().getXMLReader();
+		} catch (ParserConfigurationException e) {
+			throw new SAXException(e);
+		}
+		/*
+		 * The JDOM builder receives the parser's events directly rather than via the
+		 * validator since the latter would insert any schema-defined default values.
+		 */
+		reader.setContentHandler(new TeeContentHandler(vHandler, jdomHandler));
+		reader.setErrorHandler(errHandler);
+		reader.setDTDHandler(jdomHandler);
+		reader.setProperty("http://xml.org/sax/properties/lexical-handler", jdomHandler);
+		try (InputStream inStream = target.openXmlStream()) {
+			reader.parse(new InputSource(new InputStreamReader(inStream, "UTF-8")));
+		}
+		return jdomHandler.getDocument();
+	}
+
 	/**
 	 * Handle a situation specific to Common Metadata 2.7.1 usage
 	 * 
@@ -168,7 +353,7 @@ public class XsdValidation {
 	 * @return
 	 */
 	private URL assignXSD(MddfTarget target) {
-		Element rootEl = target.getXmlDoc().getRootElement();
+		Element rootEl = target.getRootElement();
 		List<Namespace> nsList = rootEl.getNamespacesInScope();
 		Map<String, Namespace> nsMap = new HashMap();
 		for (Namespace nextNs : nsList) {
@@ -230,7 +415,7 @@ public class XsdValidation {
 	 */
 	private boolean validateHeader(MddfTarget target, URL xsdUrl) {
 		boolean status = true;
-		Element xmlRoot = target.getXmlDoc().getRootElement();
+		Element xmlRoot = target.getRootElement();
 		String xsdPath = xsdUrl.getPath();
 		String xsd = new File(xsdPath).getName();
 		xsd = xsd.replace(".xsd", "");
@@ -289,6 +474,85 @@ public class XsdValidation {
 
 	// ###################################################################
 
+	/**
+	 * Forwards all SAX content events to two <tt>ContentHandlers</tt>.
+	 */
+	private static class TeeContentHandler implements ContentHandler {
+		private ContentHandler first;
+		private ContentHandler second;
+
+		TeeContentHandler(ContentHandler first, ContentHandler second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public void setDocumentLocator(Locator locator) {
+			first.setDocumentLocator(locator);
+			second.setDocumentLocator(locator);
+		}
+
+		@Override
+		public void startDocument() throws SAXException {
+			first.startDocument();
+			second.startDocument();
+		}
+
+		@Override
+		public void endDocument() throws SAXException {
+			first.endDocument();
+			second.endDocument();
+		}
+
+		@Override
+		public void startPrefixMapping(String prefix, String uri) throws SAXException {
+			first.startPrefixMapping(prefix, uri);
+			second.startPrefixMapping(prefix, uri);
+		}
+
+		@Override
+		public void endPrefixMapping(String prefix) throws SAXException {
+			first.endPrefixMapping(prefix);
+			second.endPrefixMapping(prefix);
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+			first.startElement(uri, localName, qName, atts);
+			second.startElement(uri, localName, qName, atts);
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			first.endElement(uri, localName, qName);
+			second.endElement(uri, localName, qName);
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) throws SAXException {
+			first.characters(ch, start, length);
+			second.characters(ch, start, length);
+		}
+
+		@Override
+		public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+			first.ignorableWhitespace(ch, start, length);
+			second.ignorableWhitespace(ch, start, length);
+		}
+
+		@Override
+		public void processingInstruction(String target, String data) throws SAXException {
+			first.processingInstruction(target, data);
+			second.processingInstruction(target, data);
+		}
+
+		@Override
+		public void skippedEntity(String name) throws SAXException {
+			first.skippedEntity(name);
+			second.skippedEntity(name);
+		}
+	}
+
 	/**
 	 * Custom error handler used while validating xml against xsd. This class serves
 	 * two purposes:
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2019 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.avails;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Comment;
+import org.jdom2.Document;
+import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
+import com.movielabs.mddflib.avails.xml.streaming.StreamingXmlBuilder;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+/**
+ * Regression test for the conversion of spreadsheet rows to XML by the
+ * <tt>MetadataBuilder</tt>. The XML generated for each test XLSX is compared
+ * to a 'golden' version (with comments removed) that was generated prior to
+ * the <tt>MetadataMappings</tt> being compiled into a plan.
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class MetadataBuilderTest {
+
+	private static String rsrcPath = "./test/resources/avails/xlsx/";
+	private static String goldenPath = rsrcPath + "golden/";
+	private InstrumentedLogger iLog;
+
+	public MetadataBuilderTest() {
+		iLog = new InstrumentedLogger();
+	}
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		iLog.clearLog();
+		iLog.setPrintToConsole(false);
+	}
+
+	@Test
+	public void testMovies_V1_7() throws Exception {
+		checkAgainstGolden("Movies_v1.7.xlsx", Version.V1_7);
+	}
+
+	@Test
+	public void testMovies_V1_7_2() throws Exception {
+		checkAgainstGolden("Movies_v1.7.2.xlsx", Version.V1_7_2);
+	}
+
+	@Test
+	public void testMovies_V1_7_3() throws Exception {
+		checkAgainstGolden("Movies_v1.7.3.xlsx", Version.V1_7_3);
+	}
+
+	@Test
+	public void testTV_V1_7_3() throws Exception {
+		checkAgainstGolden("TV_v1.7.3.xlsx", Version.V1_7_3);
+	}
+
+	@Test
+	public void testMovies_V1_8() throws Exception {
+		checkAgainstGolden("Movies_v1.8.xlsx", Version.V1_8);
+	}
+
+	@Test
+	public void testTV_V1_8() throws Exception {
+		checkAgainstGolden("TV_v1.8.xlsx", Version.V1_8);
+	}
+
+	@Test
+	public void testMovies_V1_9() throws Exception {
+		checkAgainstGolden("Movies_v1.9.xlsx", Version.V1_9);
+	}
+
+	@Test
+	public void testBonus_V1_9() throws Exception {
+		checkAgainstGolden("Bonus_v1.9.xlsx", Version.V1_9);
+	}
+
+	@Test
+	public void testTV_V1_9() throws Exception {
+		checkAgainstGolden("TV_v1.9.xlsx", Version.V1_9);
+	}
+
+	private void checkAgainstGolden(String testFileName, Version version) throws Exception {
+		File srcFile = new File(rsrcPath + testFileName);
+		File goldenFile = new File(goldenPath + testFileName.replace(".xlsx", ".xml"));
+		MddfTarget target = new MddfTarget(srcFile, iLog);
+		StreamingXmlBuilder bldr = new StreamingXmlBuilder(iLog, version);
+		Map<String, Object> results = bldr.convert(target, null, 0, "JUnit test");
+		try {
+			assertNotNull(results);
+			assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_FATAL));
+			assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+			Document xmlDoc = (Document) results.get("xml");
+			List<Comment> commentList = new ArrayList<Comment>();
+			for (Comment comment : xmlDoc.getDescendants(Filters.comment())) {
+				commentList.add(comment);
+			}
+			for (Comment comment : commentList) {
+				comment.detach();
+			}
+			Document goldenDoc = new SAXBuilder().build(goldenFile);
+			XMLOutputter outputter = new XMLOutputter(Format.getPrettyFormat());
+			assertEquals(outputter.outputString(goldenDoc), outputter.outputString(xmlDoc));
+		} catch (AssertionFailedError e) {
+			dumpLog();
+			throw e;
+		}
+	}
+
+	private void dumpLog() {
+		System.out.println("\n === FAILED TEST... dumping log ===");
+		iLog.printLog();
+		System.out.println(" === End log dump for FAILED TEST ===");
+	}
+}
@@ -30,7 +30,15 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+
 import com.movielabs.mddf.MddfContext.FILE_FMT;
+import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook;
+import com.movielabs.mddflib.avails.xlsx.XlsxBuilderV1_8;
 import com.movielabs.mddflib.avails.xml.AvailsWrkBook;
 import com.movielabs.mddflib.avails.xml.AvailsSheet;
 import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
@@ -116,6 +124,104 @@ public class XlsxExportTest {
 		}
 	}
 
+	/**
+	 * Several formats derived from the same XML version must each be generated
+	 * correctly when exported together.
+	 */
+	@Test
+	public void testMultiFormatExport() throws Exception {
+		String testFileName = "Avails_noErrors_v2.3.xml";
+		File srcFile = new File(rsrcPath + testFileName);
+		EnumSet<FILE_FMT> selections = EnumSet.of(FILE_FMT.AVAILS_1_7_3, FILE_FMT.AVAILS_1_8, FILE_FMT.AVAILS_2_3);
+		MddfTarget target = new MddfTarget(srcFile, iLog);
+		int cnt = Translator.translateAvails(target, selections, tempDir, testFileName, true, iLog);
+		try {
+			assertEquals(3, cnt);
+			assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_FATAL));
+			assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+			assertTrue(new File(tempDir, "Avails_noErrors_v2.3_v2.3.xml").isFile());
+			// each XLSX must match the one generated when it is the only selection
+			for (FILE_FMT excelFmt : EnumSet.of(FILE_FMT.AVAILS_1_7_3, FILE_FMT.AVAILS_1_8)) {
+				String xlsxName = testFileName + "_v" + excelFmt.getVersion() + ".xlsx";
+				File singleDir = new File(tempDir, excelFmt.name());
+				singleDir.mkdirs();
+				Translator.translateAvails(target, EnumSet.of(excelFmt), singleDir, testFileName, true, iLog);
+				List<Row> expected = new AvailsWrkBook(new File(singleDir, xlsxName), iLog, false, false)
+						.ingestSheet(0).getRows();
+				List<Row> actual = new AvailsWrkBook(new File(tempDir, xlsxName), iLog, false, false).ingestSheet(0)
+						.getRows();
+				assertTrue(expected.size() > 0);
+				assertEquals(expected.size(), actual.size());
+				DataFormatter fmt = new DataFormatter();
+				for (int i = 0; i < expected.size(); i++) {
+					Row expRow = expected.get(i);
+					Row actRow = actual.get(i);
+					assertEquals(expRow.getLastCellNum(), actRow.getLastCellNum());
+					for (int j = 0; j < expRow.getLastCellNum(); j++) {
+						assertEquals(fmt.formatCellValue(expRow.getCell(j)), fmt.formatCellValue(actRow.getCell(j)));
+					}
+				}
+			}
+			Map<FILE_FMT, Object> results = Translator.translateAvails(target, selections, iLog);
+			assertEquals(selections, results.keySet());
+			assertTrue(results.get(FILE_FMT.AVAILS_1_8) instanceof TemplateWorkBook);
+			assertTrue(results.get(FILE_FMT.AVAILS_2_3) instanceof Document);
+		} catch (Exception e) {
+			dumpLog();
+			throw e;
+		}
+	}
+
+	/**
+	 * A streaming workbook with a row window smaller than the number of rows
+	 * must produce the same cells as one held in memory.
+	 */
+	@Test
+	public void testStreamingExport() throws Exception {
+		String testFileName = "Avails_noErrors_v2.3.xml";
+		File srcFile = new File(rsrcPath + testFileName);
+		MddfTarget target = new MddfTarget(srcFile, iLog);
+		Document xmlDoc = target.getXmlDoc();
+		try {
+			TemplateWorkBook inMemory = new XlsxBuilderV1_8(xmlDoc.getRootElement(), Version.V1_8, iLog)
+					.getWorkbook();
+			File inMemoryFile = new File(tempDir, "inMemory.xlsx");
+			inMemory.export(target, inMemoryFile.getPath());
+
+			TemplateWorkBook streamed = new XlsxBuilderV1_8(xmlDoc.getRootElement(), Version.V1_8, iLog, 3)
+					.getWorkbook();
+			assertTrue(streamed.isStreaming());
+			File streamedFile = new File(tempDir, "streamed.xlsx");
+			streamed.export(target, streamedFile.getPath());
+			assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+			// the flushed rows have been discarded
+			try {
+				streamed.export(target, streamedFile.getPath());
+				fail("Expected IllegalStateException for a second export");
+			} catch (IllegalStateException e) {
+				// expected
+			}
+
+			List<Row> expected = new AvailsWrkBook(inMemoryFile, iLog, false, false).ingestSheet(0).getRows();
+			List<Row> actual = new AvailsWrkBook(streamedFile, iLog, false, false).ingestSheet(0).getRows();
+			// the row window must have been exceeded for the test to be meaningful
+			assertTrue(expected.size() > 3);
+			assertEquals(expected.size(), actual.size());
+			DataFormatter fmt = new DataFormatter();
+			for (int i = 0; i < expected.size(); i++) {
+				Row expRow = expected.get(i);
+				Row actRow = actual.get(i);
+				assertEquals(expRow.getLastCellNum(), actRow.getLastCellNum());
+				for (int j = 0; j < expRow.getLastCellNum(); j++) {
+					assertEquals(fmt.formatCellValue(expRow.getCell(j)), fmt.formatCellValue(actRow.getCell(j)));
+				}
+			}
+		} catch (Exception e) {
+			dumpLog();
+			throw e;
+		}
+	}
+
 	/**
 	 * @param string
 	 * @param object
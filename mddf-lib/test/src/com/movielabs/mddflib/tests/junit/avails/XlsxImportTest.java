@@ -23,6 +23,10 @@
 package com.movielabs.mddflib.tests.junit.avails;
 
 import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,7 +34,10 @@ import org.opentest4j.AssertionFailedError;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.util.HashMap;
 import java.util.Map;
 
 import com.movielabs.mddflib.avails.xml.AvailsWrkBook;
@@ -280,6 +287,74 @@ public class XlsxImportTest {
 			throw e;
 		} 
 	}
+	@Test
+	public void testStreamSorted_MovieV1_9() throws Exception {
+		checkStreamedOutput("Movies_v1.9.xlsx", Version.V1_9, StreamingXmlBuilder.GroupingStrategy.SORTED);
+	}
+
+	/**
+	 * Rows for an ALID are not contiguous in this file so SORTED grouping must
+	 * report an error.
+	 */
+	@Test
+	public void testStreamSorted_Unsorted() throws Exception {
+		File srcFile = new File(rsrcPath + "TV_v1.9.xlsx");
+		MddfTarget target = new MddfTarget(srcFile, iLog);
+		StreamingXmlBuilder bldr = new StreamingXmlBuilder(iLog, Version.V1_9);
+		ByteArrayOutputStream xmlOut = new ByteArrayOutputStream();
+		bldr.convertToStream(target, null, 0, "JUnit test", xmlOut, StreamingXmlBuilder.GroupingStrategy.SORTED);
+		assertTrue(iLog.getCountForLevel(LogMgmt.LEV_ERR) > 0);
+	}
+
+	@Test
+	public void testStreamSpill_TV_V1_9() throws Exception {
+		checkStreamedOutput("TV_v1.9.xlsx", Version.V1_9, StreamingXmlBuilder.GroupingStrategy.SPILL);
+	}
+
+	@Test
+	public void testStreamSpill_MovieV1_8() throws Exception {
+		checkStreamedOutput("Movies_v1.8.xlsx", Version.V1_8, StreamingXmlBuilder.GroupingStrategy.SPILL);
+	}
+
+	/**
+	 * Convert the same file in both the in-memory and the streaming mode and
+	 * verify the same Avails are generated.
+	 */
+	private void checkStreamedOutput(String testFileName, Version version,
+			StreamingXmlBuilder.GroupingStrategy grouping) throws Exception {
+		File srcFile = new File(rsrcPath + testFileName);
+		MddfTarget target = new MddfTarget(srcFile, iLog);
+		StreamingXmlBuilder bldr1 = new StreamingXmlBuilder(iLog, version);
+		Map<String, Object> results = bldr1.convert(target, null, 0, "JUnit test");
+		assertNotNull(results);
+		Map<String, String> expected = mapAvails(((Document) results.get("xml")).getRootElement());
+
+		StreamingXmlBuilder bldr2 = new StreamingXmlBuilder(iLog, version);
+		ByteArrayOutputStream xmlOut = new ByteArrayOutputStream();
+		results = bldr2.convertToStream(target, null, 0, "JUnit test", xmlOut, grouping);
+		try {
+			assertNotNull(results);
+			assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_FATAL));
+			assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+			assertEquals(expected.size(), ((Integer) results.get("availCnt")).intValue());
+			Document streamedDoc = new SAXBuilder().build(new ByteArrayInputStream(xmlOut.toByteArray()));
+			assertEquals(expected, mapAvails(streamedDoc.getRootElement()));
+		} catch (AssertionFailedError e) {
+			dumpLog();
+			throw e;
+		}
+	}
+
+	private Map<String, String> mapAvails(Element rootEl) {
+		Map<String, String> availMap = new HashMap<String, String>();
+		XMLOutputter outputter = new XMLOutputter(Format.getCompactFormat());
+		for (Element availEl : rootEl.getChildren("Avail", rootEl.getNamespace())) {
+			String alid = availEl.getChildText("ALID", rootEl.getNamespace());
+			availMap.put(alid, outputter.outputString(availEl.getContent()));
+		}
+		return availMap;
+	}
+
 	/**
 	 * @param string
 	 * @param object
@@ -233,5 +233,39 @@ public class CMValidatorTest extends AbstractCmmTester {
 		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
 	}
 
+	/**
+	 * The lookup set for a vocabulary must only be built once.
+	 */
+	@Test
+	public void testVocabLookupSet() {
+		JSONObject cmVocab = (JSONObject) getVocabResource("cm", CM_VER);
+		JSONArray allowed = cmVocab.optJSONArray("WorkType");
+		Set<String> lookupSet = getLookupSet(allowed, false);
+		assertSame(lookupSet, getLookupSet(allowed, false));
+		assertEquals(allowed.size(), lookupSet.size());
+		assertTrue(lookupSet.contains("Movie"));
+		Set<String> caseFolded = getLookupSet(allowed, true);
+		assertNotSame(lookupSet, caseFolded);
+		assertTrue(caseFolded.contains("movie"));
+		assertFalse(caseFolded.contains("Movie"));
+	}
+
+	/**
+	 * Test method for RFC5646 language tag checks. Matching is case-insensitive.
+	 */
+	@Test
+	public void testCheckLangTag() {
+		String[] validTags = { "en", "EN", "en-US", "en-us", "yue", "zh-Hant", "zh-hant-TW", "de-CH-1996",
+				"sl-rozaj-biske", "en-" };
+		for (String langTag : validTags) {
+			assertTrue(checkLangTag(langTag), langTag);
+		}
+		String[] invalidTags = { "", "e", "xx", "engl", "en-XX", "en--US", "-en", "---", "en-US-XX", "zh-Hant-1996-1996",
+				"en-abcdefghi", "en-U$" };
+		for (String langTag : invalidTags) {
+			assertFalse(checkLangTag(langTag), langTag);
+		}
+		assertTrue(checkLangTag(null));
+	}
 
 }
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.logging.LogEntryNode;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.MetricsListener;
+import com.movielabs.mddflib.logging.MetricsSummary;
+import com.movielabs.mddflib.logging.PhaseMetrics;
+import com.movielabs.mddflib.manifest.validation.MecValidator;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+/**
+ * JUnit test for the collection of <tt>PhaseMetrics</tt> by a validator and
+ * their aggregation by <tt>MetricsSummary</tt>.
+ *
+ */
+class MetricsSummaryTest {
+
+	private static String rsrcPath = "./test/resources/";
+
+	@Test
+	void testPhasesReported() throws Exception {
+		DefaultLogging logger = new DefaultLogging();
+		logger.setMinLevel(LogMgmt.LEV_DEBUG);
+		logger.setEchoInfo(false);
+		final List<PhaseMetrics> reported = Collections.synchronizedList(new ArrayList<PhaseMetrics>());
+		final MetricsSummary summary = new MetricsSummary();
+		MecValidator validator = new MecValidator(true, logger);
+		validator.setMetricsListener(new MetricsListener() {
+			@Override
+			public void phaseCompleted(MddfTarget target, PhaseMetrics metrics) {
+				assertEquals("MEC_v2.4.xml", target.getSrcFile().getName());
+				reported.add(metrics);
+				summary.phaseCompleted(target, metrics);
+			}
+		});
+		MddfTarget target = new MddfTarget(new File(rsrcPath + "mec/MEC_v2.4.xml"), logger);
+		assertTrue(validator.process(target));
+
+		Set<String> phases = new HashSet<String>();
+		boolean hasRule = false;
+		for (PhaseMetrics metrics : reported) {
+			assertEquals(MecValidator.LOGMSG_ID, metrics.getValidatorId());
+			assertTrue(metrics.getWallNanos() >= 0);
+			phases.add(metrics.getPhase());
+			if (metrics.getPhase().startsWith(PhaseMetrics.PHASE_STRUCTURE)) {
+				hasRule = true;
+				assertTrue(metrics.getElementCount() >= 0);
+			}
+		}
+		assertTrue(phases.contains(PhaseMetrics.PHASE_XSD));
+		assertTrue(phases.contains(PhaseMetrics.PHASE_CONSTRAINTS));
+		assertTrue(phases.contains(PhaseMetrics.PHASE_VOCAB));
+		assertTrue(phases.contains(PhaseMetrics.PHASE_RATINGS));
+		assertTrue(hasRule);
+		/* the XSD phase covers the whole document */
+		for (PhaseMetrics metrics : reported) {
+			if (metrics.getPhase().equals(PhaseMetrics.PHASE_XSD)) {
+				assertTrue(metrics.getElementCount() > 1);
+			}
+		}
+
+		/* each phase is also added to the log */
+		int metricEntries = 0;
+		for (LogEntryNode entry : logger.getEntries()) {
+			if (entry.getSummary().startsWith("Metrics ")) {
+				metricEntries++;
+			}
+		}
+		assertEquals(reported.size(), metricEntries);
+
+		assertEquals(phases.size(), summary.getTotals().size());
+		long prev = Long.MAX_VALUE;
+		for (MetricsSummary.PhaseTotals totals : summary.getTotals()) {
+			assertTrue(totals.getWallNanos() <= prev);
+			prev = totals.getWallNanos();
+			assertEquals("MEC_v2.4.xml", totals.getSlowestFile());
+		}
+	}
+
+	@Test
+	void testNoListener() throws Exception {
+		DefaultLogging logger = new DefaultLogging();
+		logger.setMinLevel(LogMgmt.LEV_DEBUG);
+		logger.setEchoInfo(false);
+		MecValidator validator = new MecValidator(true, logger);
+		MddfTarget target = new MddfTarget(new File(rsrcPath + "mec/MEC_v2.4.xml"), logger);
+		validator.process(target);
+		for (LogEntryNode entry : logger.getEntries()) {
+			assertFalse(entry.getSummary().startsWith("Metrics "));
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.logging.LogEntryNode;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.LogReference;
+import com.movielabs.mddflib.logging.StreamingLogging;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+import net.sf.json.JSONObject;
+
+/**
+ * JUnit test for <tt>com.movielabs.mddflib.logging.StreamingLogging</tt>.
+ *
+ */
+class StreamingLoggingTest {
+
+	private static final int THREAD_CNT = 4;
+	private static final int MSG_CNT = 250;
+
+	private Path tempDir;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		tempDir = Files.createTempDirectory("mddfLog");
+		tempDir.toFile().deleteOnExit();
+	}
+
+	/**
+	 * The streamed CSV should be identical to that saved by
+	 * <tt>DefaultLogging</tt> for the same sequence of entries.
+	 */
+	@Test
+	void testCsvMatchesDefault() throws Exception {
+		DefaultLogging dfltLog = new DefaultLogging();
+		dfltLog.setMinLevel(LogMgmt.LEV_DEBUG);
+		dfltLog.setEchoInfo(false);
+		File streamed = tempDir.resolve("streamed.csv").toFile();
+		streamed.deleteOnExit();
+		StreamingLogging streamLog = new StreamingLogging(streamed, StreamingLogging.FMT_CSV, 0);
+		streamLog.setMinLevel(LogMgmt.LEV_DEBUG);
+		streamLog.setEchoInfo(false);
+		for (LogMgmt logger : new LogMgmt[] { dfltLog, streamLog }) {
+			MddfTarget target = new MddfTarget(new File(tempDir.toFile(), "sample.xml"), logger);
+			logger.pushFileContext(target);
+			logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XSD, "Invalid, unexpected content", target, 12, "JUnit",
+					"More detail", null);
+			logger.log(LogMgmt.LEV_WARN, LogMgmt.TAG_BEST, "Missing ID", target, null, "JUnit", null,
+					LogReference.getRef("MMM-BP", "mmbp01.2"));
+			logger.logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_NOTICE, null, "implicit", "implicit", null, "JUnit");
+			logger.popFileContext(target);
+		}
+		streamLog.close();
+		File saved = tempDir.resolve("default.csv").toFile();
+		saved.deleteOnExit();
+		dfltLog.saveAs(saved, "csv");
+		assertEquals(Files.readAllLines(saved.toPath()), Files.readAllLines(streamed.toPath()));
+		assertEquals(3, streamLog.getTotalCount());
+		assertEquals(1, streamLog.getCount(LogMgmt.LEV_ERR, LogMgmt.TAG_XSD));
+		assertEquals(0, streamLog.getCount(LogMgmt.LEV_ERR, LogMgmt.TAG_BEST));
+	}
+
+	@Test
+	void testJsonLines() throws Exception {
+		StringWriter out = new StringWriter();
+		StreamingLogging logger = new StreamingLogging(out, StreamingLogging.FMT_JSONL, 0);
+		logger.setMinLevel(LogMgmt.LEV_WARN);
+		MddfTarget target = new MddfTarget(new File(tempDir.toFile(), "sample.xml"), logger);
+		logger.log(LogMgmt.LEV_NOTICE, LogMgmt.TAG_XSD, "filtered", target, "JUnit");
+		logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XSD, "Quote \" and\nnewline", target, 7, "JUnit", "why", null);
+		logger.flush();
+		String[] lines = out.toString().split("\n");
+		assertEquals(1, lines.length);
+		JSONObject entry = JSONObject.fromObject(lines[0]);
+		assertEquals(0, entry.getInt("num"));
+		assertEquals("Error", entry.getString("level"));
+		assertEquals("Quote \" and\nnewline", entry.getString("summary"));
+		assertEquals("sample.xml", entry.getString("file"));
+		assertEquals(7, entry.getInt("line"));
+		assertEquals("why", entry.getString("details"));
+		assertEquals(1, logger.getTotalCount());
+		assertEquals(0, logger.getCount(LogMgmt.LEV_NOTICE));
+	}
+
+	/**
+	 * A failure to write an entry must not be propagated to the caller. The
+	 * failure is recorded and entries continue to be counted.
+	 */
+	@Test
+	void testWriteFailure() throws Exception {
+		final StringWriter out = new StringWriter();
+		Writer failing = new FilterWriter(out) {
+			@Override
+			public void write(String str, int off, int len) throws IOException {
+				if (str.contains("second")) {
+					throw new IOException("disk full");
+				}
+				super.write(str, off, len);
+			}
+		};
+		StreamingLogging logger = new StreamingLogging(failing, StreamingLogging.FMT_JSONL, 0);
+		MddfTarget target = new MddfTarget(new File(tempDir.toFile(), "sample.xml"), logger);
+		assertNull(logger.getWriteFailure());
+		logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XSD, "first", target, "JUnit");
+		logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XSD, "second", target, "JUnit");
+		logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XSD, "third", target, "JUnit");
+		assertNotNull(logger.getWriteFailure());
+		assertEquals("disk full", logger.getWriteFailure().getMessage());
+		assertEquals(3, logger.getTotalCount());
+		String[] lines = out.toString().split("\n");
+		assertEquals(1, lines.length);
+		assertEquals("first", JSONObject.fromObject(lines[0]).getString("summary"));
+	}
+
+	/**
+	 * Entries from concurrent threads are written as complete lines, counted, and
+	 * only the first <tt>sampleCap</tt> are retained.
+	 */
+	@Test
+	void testParallelAppends() throws Exception {
+		File outFile = tempDir.resolve("parallel.jsonl").toFile();
+		outFile.deleteOnExit();
+		final StreamingLogging logger = new StreamingLogging(outFile, StreamingLogging.FMT_JSONL, 10);
+		logger.setMinLevel(LogMgmt.LEV_DEBUG);
+		List<MddfTarget> targets = new ArrayList<MddfTarget>();
+		for (int i = 0; i < THREAD_CNT; i++) {
+			targets.add(new MddfTarget(new File(tempDir.toFile(), "file_" + i + ".xml"), logger));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(THREAD_CNT);
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (final MddfTarget target : targets) {
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						logger.pushFileContext(target);
+						for (int j = 0; j < MSG_CNT; j++) {
+							logger.logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_WARN, null, "implicit " + j, null, null,
+									"JUnit");
+						}
+						logger.popFileContext(target);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		logger.close();
+		int total = THREAD_CNT * MSG_CNT;
+		assertEquals(total, logger.getCount(LogMgmt.LEV_WARN, LogMgmt.TAG_MD));
+		List<String> lines = Files.readAllLines(outFile.toPath());
+		assertEquals(total, lines.size());
+		for (int i = 0; i < total; i++) {
+			JSONObject entry = JSONObject.fromObject(lines.get(i));
+			assertEquals(i, entry.getInt("num"));
+			assertTrue(entry.getString("file").startsWith("file_"));
+		}
+		List<LogEntryNode> sample = logger.getSample();
+		assertEquals(10, sample.size());
+		assertEquals(LogMgmt.LEV_WARN, sample.get(0).getLevel());
+	}
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.logging.LogEntryNode;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.LogReference;
+import com.movielabs.mddflib.logging.ValidationResultCache;
+import com.movielabs.mddflib.manifest.validation.MecValidator;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+/**
+ * JUnit test for the saving and replaying of validation results via a
+ * <tt>ValidationResultCache</tt>.
+ *
+ */
+class ValidationResultCacheTest {
+
+	private static String rsrcPath = "./test/resources/";
+	private File tempDir;
+	private File cacheDir;
+	private File srcFile;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		tempDir = Files.createTempDirectory("vrc").toFile();
+		cacheDir = new File(tempDir, "cache");
+		srcFile = new File(tempDir, "MEC.xml");
+		Files.copy(new File(rsrcPath + "mec/MEC_v1.6_errors.xml").toPath(), srcFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@AfterEach
+	void tearDown() {
+		File[] cached = cacheDir.listFiles();
+		if (cached != null) {
+			for (File next : cached) {
+				next.delete();
+			}
+		}
+		cacheDir.delete();
+		srcFile.delete();
+		tempDir.delete();
+	}
+
+	@Test
+	void testReplay() throws Exception {
+		ValidationResultCache cache = new ValidationResultCache(cacheDir);
+		String key = cache.getKey(srcFile, "none", "true");
+		DefaultLogging logger = newLogger();
+		MddfTarget target = new MddfTarget(srcFile, logger);
+		assertFalse(cache.replay(key, logger, target));
+		assertEquals(1, cache.getMissCount());
+
+		new MecValidator(true, logger).process(target);
+		List<String> full = asText(logger);
+		assertFalse(full.isEmpty());
+		cache.store(key, logger.getEntries(), srcFile);
+
+		/* a different cache instance using the same directory */
+		cache = new ValidationResultCache(cacheDir);
+		logger = newLogger();
+		assertTrue(cache.replay(key, logger, new MddfTarget(srcFile, logger)));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(full, asText(logger));
+	}
+
+	@Test
+	void testKey() throws Exception {
+		ValidationResultCache cache = new ValidationResultCache(cacheDir);
+		String key = cache.getKey(srcFile, "none", "true");
+		assertEquals(key, cache.getKey(srcFile, "none", "true"));
+		assertNotEquals(key, cache.getKey(srcFile, "none", "false"));
+		assertNotEquals(key, cache.getKey(srcFile, "IP-1", "true"));
+
+		/* same content in a different location */
+		File copy = new File(tempDir, "Copy.xml");
+		Files.copy(srcFile.toPath(), copy.toPath());
+		assertEquals(key, cache.getKey(copy, "none", "true"));
+		copy.delete();
+
+		String xml = new String(Files.readAllBytes(srcFile.toPath()), StandardCharsets.UTF_8);
+		Files.write(srcFile.toPath(), (xml + "\n").getBytes(StandardCharsets.UTF_8));
+		assertNotEquals(key, cache.getKey(srcFile, "none", "true"));
+	}
+
+	@Test
+	void testEvictionBySize() throws Exception {
+		ValidationResultCache cache = new ValidationResultCache(cacheDir);
+		List<LogEntryNode> entries = sampleEntries(20);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 4; i++) {
+			cache.store("k" + i, entries, srcFile);
+			new File(cacheDir, "k" + i + ".vrc").setLastModified(now - (10 - i) * 60000L);
+		}
+		/* make 'k0' the most recently used */
+		assertTrue(cache.replay("k0", newLogger(), new MddfTarget(srcFile, newLogger())));
+		long maxBytes = (new File(cacheDir, "k0.vrc").length() * 5) / 2;
+		new ValidationResultCache(cacheDir, maxBytes, ValidationResultCache.DEFAULT_MAX_AGE);
+		long total = 0;
+		for (File next : cacheDir.listFiles()) {
+			total += next.length();
+		}
+		assertTrue(total <= maxBytes);
+		assertTrue(new File(cacheDir, "k0.vrc").exists());
+		assertTrue(new File(cacheDir, "k3.vrc").exists());
+		assertFalse(new File(cacheDir, "k1.vrc").exists());
+		assertFalse(new File(cacheDir, "k2.vrc").exists());
+	}
+
+	@Test
+	void testEvictionByAge() throws Exception {
+		long maxAge = 60 * 60 * 1000L;
+		ValidationResultCache cache = new ValidationResultCache(cacheDir, ValidationResultCache.DEFAULT_MAX_BYTES,
+				maxAge);
+		List<LogEntryNode> entries = sampleEntries(2);
+		cache.store("old", entries, srcFile);
+		cache.store("new", entries, srcFile);
+		File oldFile = new File(cacheDir, "old.vrc");
+		oldFile.setLastModified(System.currentTimeMillis() - 2 * maxAge);
+		assertFalse(cache.replay("old", newLogger(), new MddfTarget(srcFile, newLogger())));
+		cache.evict();
+		assertFalse(oldFile.exists());
+		assertTrue(new File(cacheDir, "new.vrc").exists());
+	}
+
+	private List<LogEntryNode> sampleEntries(int cnt) {
+		DefaultLogging logger = newLogger();
+		MddfTarget target = new MddfTarget(srcFile, logger);
+		LogReference srcRef = LogReference.getRef("MEC", "mec01");
+		for (int i = 0; i < cnt; i++) {
+			logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_MEC, "Issue " + i + " in " + srcFile.getPath(), target, i + 1,
+					"Test", "An explanation of issue " + i, srcRef);
+		}
+		return logger.getEntries();
+	}
+
+	private DefaultLogging newLogger() {
+		DefaultLogging logger = new DefaultLogging();
+		logger.setMinLevel(LogMgmt.LEV_DEBUG);
+		logger.setEchoInfo(false);
+		return logger;
+	}
+
+	private List<String> asText(DefaultLogging logger) {
+		List<String> entries = new ArrayList<String>();
+		for (LogEntryNode entry : logger.getEntries()) {
+			LogReference srcRef = entry.getSrcRef();
+			entries.add(entry.getLevel() + "|" + entry.getTagAsText() + "|" + entry.getLine() + "|"
+					+ entry.getSummary() + "|" + entry.getTooltip() + "|" + entry.getModuleID() + "|"
+					+ ((srcRef == null) ? null : srcRef.getUri()));
+		}
+		return entries;
+	}
+}
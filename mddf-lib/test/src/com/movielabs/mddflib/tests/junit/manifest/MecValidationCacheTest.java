@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.manifest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.LogEntryNode;
+import com.movielabs.mddflib.logging.PhaseMetrics;
+import com.movielabs.mddflib.manifest.validation.MecValidationCache;
+import com.movielabs.mddflib.manifest.validation.MecValidator;
+
+/**
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class MecValidationCacheTest {
+
+	private static String rsrcPath = "./test/resources/";
+
+	@Test
+	public void testSharedResult() throws IOException, InterruptedException {
+		File mecFile = new File(rsrcPath + "mec/MEC_v2.4.xml");
+		MecValidationCache cache = new MecValidationCache();
+		cache.prefetch(mecFile, true);
+		MecValidationCache.Result first = cache.get(mecFile, true);
+		assertTrue(first.isValid());
+		assertNotNull(first.getXmlDoc());
+		assertFalse(first.getEntries().isEmpty());
+		/* a different path to the same file must resolve to the same entry */
+		File altPath = new File(rsrcPath + "mec/../mec/MEC_v2.4.xml");
+		assertSame(first, cache.get(altPath, true));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testModifiedFile() throws IOException, InterruptedException {
+		File mecFile = File.createTempFile("MEC_v2.4", ".xml");
+		mecFile.deleteOnExit();
+		Files.copy(new File(rsrcPath + "mec/MEC_v2.4.xml").toPath(), mecFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		MecValidationCache cache = new MecValidationCache();
+		MecValidationCache.Result first = cache.get(mecFile, true);
+		assertTrue(first.isValid());
+		/* an edited file must be validated again */
+		Files.write(mecFile.toPath(), "<NotAMec/>".getBytes("UTF-8"));
+		MecValidationCache.Result second = cache.get(mecFile, true);
+		assertNotSame(first, second);
+		assertFalse(second.isValid());
+		assertNull(second.getXmlDoc());
+		/* not a MEC so the validation will have been terminated */
+		assertNotNull(second.getFailure());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testEviction() throws IOException, InterruptedException {
+		File mecFile1 = new File(rsrcPath + "mec/MEC_v2.4.xml");
+		File mecFile2 = new File(rsrcPath + "mec/MEC_v2.7.xml");
+		MecValidationCache cache = new MecValidationCache(1);
+		MecValidationCache.Result first = cache.get(mecFile1, true);
+		cache.get(mecFile2, true);
+		assertEquals(1, cache.size());
+		/* the least recently used result was discarded */
+		assertNotSame(first, cache.get(mecFile1, true));
+	}
+
+	@Test
+	public void testPoolShutdown() throws IOException, InterruptedException {
+		File mecFile = new File(rsrcPath + "mec/MEC_v2.4.xml");
+		MecValidationCache cache = new MecValidationCache();
+		MecValidationCache.shutdownPool();
+		cache.prefetch(mecFile, true);
+		assertTrue(cache.get(mecFile, true).isValid());
+		MecValidationCache.shutdownPool();
+		/* pending prefetches are run by the requester */
+		cache.clear();
+		cache.prefetch(mecFile, true);
+		MecValidationCache.shutdownPool();
+		assertTrue(cache.get(mecFile, true).isValid());
+	}
+
+	/**
+	 * The metrics for a validation are retained, without being logged, and are
+	 * only returned to the first claimant.
+	 */
+	@Test
+	public void testMetricsClaimedOnce() throws IOException, InterruptedException {
+		File mecFile = new File(rsrcPath + "mec/MEC_v2.4.xml");
+		MecValidationCache cache = new MecValidationCache();
+		MecValidationCache.Result result = cache.get(mecFile, true);
+		List<PhaseMetrics> metricsList = result.claimMetrics();
+		Set<String> phases = new HashSet<String>();
+		for (PhaseMetrics metrics : metricsList) {
+			assertEquals(MecValidator.LOGMSG_ID, metrics.getValidatorId());
+			phases.add(metrics.getPhase());
+		}
+		assertTrue(phases.contains(PhaseMetrics.PHASE_XSD));
+		assertTrue(phases.contains(PhaseMetrics.PHASE_CONSTRAINTS));
+		for (LogEntryNode entry : result.getEntries()) {
+			assertFalse(entry.getSummary().startsWith("Metrics "));
+		}
+		assertTrue(cache.get(mecFile, true).claimMetrics().isEmpty());
+	}
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.output.XMLOutputter;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import com.movielabs.mddf.MddfContext.FILE_FMT;
+import com.movielabs.mddflib.avails.validation.AvailValidator;
+import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
+import com.movielabs.mddflib.avails.xml.Pedigree;
+import com.movielabs.mddflib.avails.xml.streaming.StreamingXmlBuilder;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.manifest.validation.ManifestValidator;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+import com.movielabs.mddflib.util.corpus.CorpusGenerator;
+import com.movielabs.mddflib.util.corpus.CorpusSpec;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.XmlIngester;
+import com.movielabs.mddflib.util.xml.XsdValidation;
+
+/**
+ * JUnit test for <tt>com.movielabs.mddflib.util.corpus.CorpusGenerator</tt>
+ *
+ */
+class CorpusGeneratorTest {
+
+	private InstrumentedLogger iLog;
+	private CorpusSpec spec;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		iLog = new InstrumentedLogger();
+		iLog.setPrintToConsole(false);
+		iLog.setMinLevel(LogMgmt.LEV_WARN);
+		spec = new CorpusSpec(42, 25);
+		spec.setLanguageFanOut(3);
+		spec.setTerritoryFanOut(4);
+		spec.setXrefDensity(0.3);
+	}
+
+	@Test
+	void testDeterministic() {
+		XMLOutputter outputter = new XMLOutputter();
+		String first = outputter.outputString(new CorpusGenerator(spec, iLog).generateAvails(FILE_FMT.AVAILS_2_5));
+		String second = outputter.outputString(new CorpusGenerator(spec, iLog).generateAvails(FILE_FMT.AVAILS_2_5));
+		assertEquals(first, second);
+		spec.setSeed(43);
+		String third = outputter.outputString(new CorpusGenerator(spec, iLog).generateAvails(FILE_FMT.AVAILS_2_5));
+		assertNotEquals(first, third);
+	}
+
+	@Test
+	void testAvailsShape() {
+		Document doc = new CorpusGenerator(spec, iLog).generateAvails(FILE_FMT.AVAILS_2_4);
+		Element rootEl = doc.getRootElement();
+		Namespace availNS = rootEl.getNamespace();
+		assertEquals("http://www.movielabs.com/schema/avails/v2.4/avails", availNS.getURI());
+		List<Element> availList = rootEl.getChildren("Avail", availNS);
+		assertEquals(25, availList.size());
+		for (Element availEl : availList) {
+			List<Element> transList = availEl.getChildren("Transaction", availNS);
+			assertEquals(4, transList.size());
+			for (Element transEl : transList) {
+				assertEquals(3, transEl.getChildren("AllowedLanguage", availNS).size());
+			}
+		}
+	}
+
+	/**
+	 * Skip a test if the Avails XSD can not be compiled. The XSD imports the W3C
+	 * XML Signature schema which can only be resolved when on-line.
+	 * 
+	 * @param availSchemaVer
+	 */
+	private void assumeAvailsSchema(String availSchemaVer) {
+		URL xsdUrl = getClass().getClassLoader()
+				.getResource(XsdValidation.defaultRsrcLoc + "avails-v" + availSchemaVer + ".xsd");
+		boolean compiled;
+		try {
+			compiled = (XsdValidation.getSchema(xsdUrl) != null);
+		} catch (SAXException e) {
+			compiled = false;
+		}
+		Assumptions.assumeTrue(compiled, "Avails v" + availSchemaVer + " XSD could not be compiled");
+	}
+
+	@Test
+	void testAvailsIsValid() throws Exception {
+		assumeAvailsSchema("2.5");
+		File outDir = Files.createTempDirectory("mddfCorpus").toFile();
+		outDir.deleteOnExit();
+		File availsFile = new CorpusGenerator(spec, iLog).writeAvails(FILE_FMT.AVAILS_2_5, outDir);
+		availsFile.deleteOnExit();
+		AvailValidator validator = new AvailValidator(true, iLog);
+		assertTrue(validator.process(new MddfTarget(availsFile, iLog)));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_WARN));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void testXlsxAvailsIsValid() throws Exception {
+		File outDir = Files.createTempDirectory("mddfCorpus").toFile();
+		outDir.deleteOnExit();
+		File xlsxFile = new CorpusGenerator(spec, iLog).writeAvails(FILE_FMT.AVAILS_1_8, outDir);
+		xlsxFile.deleteOnExit();
+		MddfTarget target = new MddfTarget(xlsxFile, iLog);
+		StreamingXmlBuilder bldr = new StreamingXmlBuilder(iLog, Version.V1_8);
+		Map<String, Object> results = bldr.convert(target, null, 0, "JUnit test");
+		assertNotNull(results);
+		Document xmlDoc = (Document) results.get("xml");
+		// the rows for each Transaction are merged back into a single Avail
+		Element rootEl = xmlDoc.getRootElement();
+		assertEquals(25, rootEl.getChildren("Avail", rootEl.getNamespace()).size());
+		assumeAvailsSchema(XmlIngester.identifyXsdVersion(rootEl));
+		target.setXmlDoc(xmlDoc);
+		Map<Object, Pedigree> pedigreeMap = (Map<Object, Pedigree>) results.get("pedigree");
+		AvailValidator validator = new AvailValidator(true, iLog);
+		assertTrue(validator.process(target, pedigreeMap));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_WARN));
+	}
+
+	@Test
+	void testManifestIsValid() throws Exception {
+		File outDir = Files.createTempDirectory("mddfCorpus").toFile();
+		outDir.deleteOnExit();
+		File manifestFile = new CorpusGenerator(spec, iLog).writeManifest(FILE_FMT.MANIFEST_1_13, outDir);
+		manifestFile.deleteOnExit();
+		ManifestValidator validator = new ManifestValidator(true, iLog);
+		assertTrue(validator.process(new MddfTarget(manifestFile, iLog)));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_WARN));
+	}
+
+	@Test
+	void testUnsupportedFormat() {
+		CorpusGenerator generator = new CorpusGenerator(spec, iLog);
+		FILE_FMT[] badFmts = { FILE_FMT.AVAILS_2_2, FILE_FMT.AVAILS_1_9, FILE_FMT.MDMEC_2_12 };
+		for (FILE_FMT fmt : badFmts) {
+			try {
+				generator.generateAvails(fmt);
+				fail("Expected IllegalArgumentException for " + fmt);
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.util.xml;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.List;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+import com.movielabs.mddflib.util.xml.DocumentIndex;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+
+/**
+ * JUnit test for <tt>com.movielabs.mddflib.util.xml.DocumentIndex</tt>. Results
+ * are compared with those obtained by evaluating the equivalent XPath.
+ *
+ */
+class DocumentIndexTest {
+
+	private static String rsrcPath = "./test/resources/manifest/Manifest_v1.13/Manifest_v1.13_base.xml";
+	private XPathFactory xpfac = XPathFactory.instance();
+	private Element rootEl;
+	private Namespace manifestNS;
+	private Namespace mdNS;
+	private DocumentIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		InstrumentedLogger iLog = new InstrumentedLogger();
+		iLog.setPrintToConsole(false);
+		MddfTarget target = new MddfTarget(new File(rsrcPath), iLog);
+		rootEl = target.getXmlDoc().getRootElement();
+		manifestNS = rootEl.getNamespace();
+		mdNS = rootEl.getNamespace("md");
+		index = new DocumentIndex(rootEl);
+	}
+
+	@Test
+	void testElements() {
+		List<Element> expected = xpfac.compile(".//md:LocalizedInfo", Filters.element(), null, mdNS)
+				.evaluate(rootEl);
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, index.getElements(mdNS, "LocalizedInfo"));
+		assertTrue(index.getElements(mdNS, "NoSuchElement").isEmpty());
+		/* the root itself is not indexed */
+		assertTrue(index.getElements(manifestNS, rootEl.getName()).isEmpty());
+	}
+
+	@Test
+	void testChildElements() {
+		XPathExpression<Element> xpExp = xpfac.compile(".//manifest:Experience/manifest:ContentID", Filters.element(),
+				null, manifestNS);
+		List<Element> expected = xpExp.evaluate(rootEl);
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, index.getElements(manifestNS, "Experience", manifestNS, "ContentID"));
+	}
+
+	@Test
+	void testAttributes() {
+		List<Attribute> expected = xpfac.compile(".//@language", Filters.attribute()).evaluate(rootEl);
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, index.getAttributes("language"));
+
+		expected = xpfac.compile(".//md:LocalizedInfo/@language", Filters.attribute(), null, mdNS).evaluate(rootEl);
+		assertEquals(expected, index.getAttributes(mdNS, "LocalizedInfo", "language"));
+	}
+
+	@Test
+	void testSuffix() {
+		String suffixTest = "[substring(name(), string-length(name()) - string-length('anguage') +1) = 'anguage']";
+		List<Element> expectedEl = xpfac.compile(".//*" + suffixTest, Filters.element()).evaluate(rootEl);
+		assertFalse(expectedEl.isEmpty());
+		assertEquals(expectedEl, index.getElementsEndingWith("anguage"));
+		List<Attribute> expectedAtt = xpfac.compile(".//@*" + suffixTest, Filters.attribute()).evaluate(rootEl);
+		assertFalse(expectedAtt.isEmpty());
+		assertEquals(expectedAtt, index.getAttributesEndingWith("anguage"));
+	}
+}
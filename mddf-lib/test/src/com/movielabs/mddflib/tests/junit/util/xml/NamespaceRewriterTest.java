@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.util.xml;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.output.XMLOutputter;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddf.MddfContext;
+import com.movielabs.mddf.MddfContext.FILE_FMT;
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.NamespaceRewriter;
+
+/**
+ * JUnit test for the in-place conversion of namespace versions.
+ *
+ */
+class NamespaceRewriterTest {
+
+	private static String rsrcPath = "./test/resources/";
+	private static Namespace xsiNSpace = Namespace.getNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+
+	@Test
+	void testChainedSteps() {
+		NamespaceRewriter rewriter = new NamespaceRewriter();
+		rewriter.addStep(FILE_FMT.AVAILS_2_1, FILE_FMT.AVAILS_2_2);
+		rewriter.addStep(FILE_FMT.AVAILS_2_2, FILE_FMT.AVAILS_2_2_1);
+		Map<String, String> expected = new HashMap<String, String>();
+		Map<String, Namespace> srcNS = MddfContext.getRequiredNamespaces(FILE_FMT.AVAILS_2_1);
+		Map<String, Namespace> targetNS = MddfContext.getRequiredNamespaces(FILE_FMT.AVAILS_2_2_1);
+		for (String key : srcNS.keySet()) {
+			expected.put(srcNS.get(key).getURI(), targetNS.get(key).getURI());
+		}
+		assertEquals(expected, rewriter.getUriMap());
+
+		/* MD and MDMEC are the same in v2.2.1 and v2.2.2 */
+		rewriter = new NamespaceRewriter().addStep(FILE_FMT.AVAILS_2_2_1, FILE_FMT.AVAILS_2_2_2);
+		assertEquals(1, rewriter.getUriMap().size());
+	}
+
+	@Test
+	void testRewrite() throws Exception {
+		MddfTarget target = new MddfTarget(new File(rsrcPath + "avails/Avails_noErrors_v2.4.xml"),
+				new DefaultLogging());
+		Document srcDoc = target.getXmlDoc();
+		Element rootEl = srcDoc.getRootElement();
+		Map<String, Namespace> srcNS = MddfContext.getRequiredNamespaces(FILE_FMT.AVAILS_2_4);
+		Map<String, Namespace> targetNS = MddfContext.getRequiredNamespaces(FILE_FMT.AVAILS_2_5);
+		rootEl.addNamespaceDeclaration(xsiNSpace);
+		rootEl.setAttribute("schemaLocation", srcNS.get("AVAILS").getURI() + "\n\tavails-v2.4.xsd", xsiNSpace);
+		/* an attribute and a nested re-declaration */
+		Element assetEl = rootEl.getChild("Avail", rootEl.getNamespace()).getChild("Asset", rootEl.getNamespace());
+		assetEl.setAttribute("test", "x", srcNS.get("MD"));
+		assetEl.addNamespaceDeclaration(Namespace.getNamespace("md2", srcNS.get("MDMEC").getURI()));
+
+		XMLOutputter outputter = new XMLOutputter();
+		String before = outputter.outputString(srcDoc);
+		String expected = before.replace("avails-v2.4.xsd", "avails-v2.5.xsd");
+		for (String key : srcNS.keySet()) {
+			expected = expected.replace(srcNS.get(key).getURI(), targetNS.get(key).getURI());
+		}
+		Document xmlDoc = srcDoc.clone();
+		int changeCnt = new NamespaceRewriter().addStep(FILE_FMT.AVAILS_2_4, FILE_FMT.AVAILS_2_5).rewrite(xmlDoc);
+		assertTrue(changeCnt > 0);
+		assertEquals(expected, outputter.outputString(xmlDoc));
+		assertEquals("2.5", MddfContext.identifyMddfFormat(xmlDoc.getRootElement()).getVersion());
+		/* source is untouched */
+		assertEquals(before, outputter.outputString(srcDoc));
+	}
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.util.xml;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.CDATA;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.NativeXPathFactory;
+
+/**
+ * JUnit test for the native evaluation of XPaths. In all cases the results must
+ * be identical to those produced by Jaxen.
+ *
+ */
+class NativeXPathFactoryTest {
+
+	private static String rsrcPath = "./test/resources/";
+
+	private NativeXPathFactory nativeFac = NativeXPathFactory.getInstance();
+	private XPathFactory jaxenFac = NativeXPathFactory.getInstance().getFallbackFactory();
+
+	@Test
+	void testAvails() throws Exception {
+		MddfTarget target = new MddfTarget(new File(rsrcPath + "avails/Avails_noErrors_v2.4.xml"),
+				new DefaultLogging());
+		Element rootEl = target.getXmlDoc().getRootElement();
+		String[] xpaths = { ".", "..", "@*", "./avails:Asset/avails:WorkType", "../avails:ALID",
+				".//avails:Term[@termName='LicenseFee']/avails:Text", ".//@termName", "//avails:Avail/avails:ALID",
+				"/avails:AvailList/*", "/",
+				"avails:Transaction[avails:Term/@termName = 'AnnounceDate' or normalize-space(avails:LicenseType) = 'EST']",
+				".//text()[contains(., 'Fox')]", "./avails:Term[not(@termName != 'WSP')]", "*[count(./*) > 2]",
+				"descendant::md:*[string-length(.) >= 10]", "child::avails:Asset/attribute::contentID",
+				"parent::*/self::avails:Avail", ".//avails:Event[starts-with(../@termName, 'Ann')]",
+				"./avails:Term[@termName=$TN]", "..//md:country[. = ../md:country]", "./*[boolean(@*) = true()]",
+				"./avails:Term[avails:Money > 100 or avails:Money <= 1]", "..//avails:Start/..",
+				".[@termName='SRP' and string(.) != '']", "md:*[. = concat('20th Century', ' Fox')]", "text()" };
+		long fallbackCnt = nativeFac.getFallbackCount();
+		compare(rootEl, xpaths);
+		/* all of the above are within the supported subset */
+		assertEquals(fallbackCnt, nativeFac.getFallbackCount());
+	}
+
+	@Test
+	void testDocumentOrder() throws Exception {
+		Namespace ns = Namespace.getNamespace("x", "http://example.com/x");
+		Element rootEl = new Element("Root", ns);
+		Document doc = new Document(rootEl);
+		Element a1 = new Element("A", ns).setAttribute("id", "1");
+		rootEl.addContent(a1);
+		Element b1 = new Element("B").setText("x").setAttribute("id", "2");
+		a1.addContent(b1);
+		Element a2 = new Element("A", ns).setAttribute("id", "3");
+		b1.addContent(a2);
+		a2.addContent(new Element("B").addContent(new CDATA(" y ")).addContent(" z "));
+		rootEl.addContent(new Element("C").addContent(new Element("B")).setAttribute("id", "4"));
+		rootEl.addContent(new Element("A", ns).addContent(new Element("B").setText("x")));
+
+		String[] xpaths = { "//B/..", ".//x:A/..//B", "//x:A//B", "//B/../@id", "//@id/..", ".//B/text()",
+				"//*[normalize-space(.) = 'y z']", "//B[. = //x:A/B]", "//B[../@id != 1]", "//*[@id > 1.5]",
+				"//B[. = 'x'] | //C", "//x:A[1]", "//B[last()]", "count(//B)", "//x:A[name() = 'x:A']" };
+		compare(rootEl, xpaths);
+		assertEquals(doc, rootEl.getDocument());
+	}
+
+	@Test
+	void testFallback() {
+		Element rootEl = new Element("Root");
+		new Document(rootEl);
+		rootEl.addContent(new Element("A"));
+		rootEl.addContent(new Element("A"));
+		String[] unsupported = { "./A[1]", "./A | ./B", "count(./A)", "./A[position() = 2]", "./A[$POS]",
+				"./A[string-length(name()) = 1]" };
+		for (String xpath : unsupported) {
+			long fallbackCnt = nativeFac.getFallbackCount();
+			compare(rootEl, xpath);
+			assertTrue(nativeFac.getFallbackCount() > fallbackCnt, xpath);
+		}
+		/* variables bound to something other than a String, Double, or Boolean */
+		long fallbackCnt = nativeFac.getFallbackCount();
+		Map<String, Object> variables = new HashMap<String, Object>();
+		variables.put("N", Integer.valueOf(2));
+		XPathExpression<Object> xpNative = nativeFac.compile("./A[count(../A) = $N]", Filters.fpassthrough(),
+				variables);
+		XPathExpression<Object> xpJaxen = jaxenFac.compile("./A[count(../A) = $N]", Filters.fpassthrough(),
+				variables);
+		assertEquals(xpJaxen.evaluate(rootEl), xpNative.evaluate(rootEl));
+		assertTrue(nativeFac.getFallbackCount() > fallbackCnt);
+	}
+
+	private void compare(Element rootEl, String... xpaths) {
+		List<Object> contexts = new ArrayList<Object>();
+		contexts.add(rootEl.getDocument());
+		for (Element el : rootEl.getDescendants(Filters.element())) {
+			contexts.add(el);
+			contexts.addAll(el.getAttributes());
+		}
+		contexts.add(rootEl);
+		List<Namespace> namespaces = rootEl.getNamespacesInScope();
+		Map<String, Object> variables = new HashMap<String, Object>();
+		variables.put("TN", "WSP");
+		variables.put("POS", Double.valueOf(1));
+		for (String xpath : xpaths) {
+			XPathExpression<Object> xpNative = nativeFac.compile(xpath, Filters.fpassthrough(), variables,
+					namespaces);
+			XPathExpression<Object> xpJaxen = jaxenFac.compile(xpath, Filters.fpassthrough(), variables,
+					namespaces);
+			int found = 0;
+			for (Object context : contexts) {
+				List<Object> expected = xpJaxen.evaluate(context);
+				assertEquals(expected, xpNative.evaluate(context), xpath);
+				assertEquals(xpJaxen.evaluateFirst(context), xpNative.evaluateFirst(context), xpath);
+				found = found + expected.size();
+			}
+			assertTrue(found > 0, xpath);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.util.xml;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+import com.movielabs.mddflib.util.xml.RatingSystem;
+import com.movielabs.mddflib.util.xml.ResourceRegistry;
+import com.movielabs.mddflib.util.xml.SchemaWrapper;
+import com.movielabs.mddflib.util.xml.XmlIngester;
+
+/**
+ * JUnit test for the per-key lazy initialization and the pre-loading provided
+ * by <tt>com.movielabs.mddflib.util.xml.ResourceRegistry</tt>.
+ *
+ */
+class ResourceRegistryTest {
+
+	@Test
+	void testLoadedOnce() throws Exception {
+		final AtomicInteger loadCnt = new AtomicInteger();
+		final ResourceRegistry<Object> registry = new ResourceRegistry<Object>(new ResourceRegistry.Loader<Object>() {
+			public Object load(String key) throws Exception {
+				loadCnt.incrementAndGet();
+				Thread.sleep(50);
+				return (key.equals("missing")) ? null : new Object();
+			}
+		});
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<Object>> results = new ArrayList<Future<Object>>();
+		for (int i = 0; i < 16; i++) {
+			results.add(pool.submit(new Callable<Object>() {
+				public Object call() {
+					return registry.get("foo");
+				}
+			}));
+		}
+		Object first = results.get(0).get();
+		assertNotNull(first);
+		for (Future<Object> next : results) {
+			assertSame(first, next.get());
+		}
+		pool.shutdown();
+		assertEquals(1, loadCnt.get());
+		/* an unavailable resource is also only loaded once */
+		assertNull(registry.get("missing"));
+		assertNull(registry.get("missing"));
+		assertEquals(2, loadCnt.get());
+		assertTrue(registry.isLoaded("missing"));
+		assertEquals(2, registry.size());
+	}
+
+	/**
+	 * A Loader that fails must be reported and must not prevent a later request
+	 * from succeeding.
+	 */
+	@Test
+	void testLoadFailure() {
+		final AtomicInteger loadCnt = new AtomicInteger();
+		ResourceRegistry<Object> registry = new ResourceRegistry<Object>(new ResourceRegistry.Loader<Object>() {
+			public Object load(String key) throws Exception {
+				if (loadCnt.incrementAndGet() == 1) {
+					throw new IllegalStateException("transient failure");
+				}
+				return new Object();
+			}
+		});
+		InstrumentedLogger iLog = new InstrumentedLogger();
+		iLog.setPrintToConsole(false);
+		ResourceRegistry.setLogger(iLog);
+		try {
+			assertNull(registry.get("foo"));
+			assertFalse(registry.isLoaded("foo"));
+			assertEquals(1, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+			assertNotNull(registry.get("foo"));
+			assertTrue(registry.isLoaded("foo"));
+			assertEquals(2, loadCnt.get());
+		} finally {
+			ResourceRegistry.setLogger(null);
+		}
+	}
+
+	@Test
+	void testPreloadAll() {
+		int cnt = ResourceRegistry.preloadAll();
+		assertTrue(cnt > 0);
+		assertNotNull(SchemaWrapper.factory("manifest-v1.13"));
+		assertNull(SchemaWrapper.factory("manifest-v0.0"));
+		assertNotNull(XmlIngester.getMddfResource("vocab_cm", "2.12"));
+		assertNotNull(RatingSystem.factory("MPAA"));
+		assertNull(RatingSystem.factory("NOT-A-SYSTEM"));
+	}
+}
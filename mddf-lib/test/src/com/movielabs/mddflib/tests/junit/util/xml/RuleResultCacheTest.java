@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.util.xml;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.logging.LogEntryNode;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.manifest.validation.MecValidator;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.RuleResultCache;
+
+/**
+ * JUnit test for the re-use of structural requirement outcomes when a file is
+ * re-validated. In all cases the log must be the same as that produced by a
+ * full validation.
+ *
+ */
+class RuleResultCacheTest {
+
+	private static String rsrcPath = "./test/resources/";
+	private File tempDir;
+	private File srcFile;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		tempDir = Files.createTempDirectory("rrc").toFile();
+		srcFile = new File(tempDir, "MEC.xml");
+		Files.copy(new File(rsrcPath + "mec/MEC_v1.6_multi-block-test.xml").toPath(), srcFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@AfterEach
+	void tearDown() {
+		srcFile.delete();
+		tempDir.delete();
+	}
+
+	@Test
+	void testUnchangedFile() throws Exception {
+		List<String> full = validate(null);
+		assertFalse(full.isEmpty());
+
+		RuleResultCache cache = new RuleResultCache();
+		assertEquals(full, validate(cache));
+		assertTrue(cache.getMissCount() > 0);
+
+		long evaluated = cache.getMissCount();
+		long hits = cache.getHitCount();
+		assertEquals(full, validate(cache));
+		assertTrue(cache.getHitCount() > hits);
+		/* nothing has changed so nothing needs to be re-evaluated */
+		assertEquals(evaluated, cache.getMissCount());
+	}
+
+	@Test
+	void testEditedFile() throws Exception {
+		RuleResultCache cache = new RuleResultCache();
+		List<String> before = validate(cache);
+		long hits = cache.getHitCount();
+
+		/* shift every line, then change the Genre of the 2nd LocalizedInfo */
+		String xml = new String(Files.readAllBytes(srcFile.toPath()), StandardCharsets.UTF_8);
+		int editAt = xml.indexOf("<mdmec:Basic");
+		xml = xml.substring(0, editAt) + "<!-- edited -->\n\t\n\t" + xml.substring(editAt);
+		editAt = xml.indexOf("<md:Genre>Comedy", xml.indexOf("<md:Genre>Comedy") + 1);
+		xml = xml.substring(0, editAt) + "<md:Genre>Drama" + xml.substring(editAt + 16);
+		Files.write(srcFile.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+
+		List<String> incremental = validate(cache);
+		assertTrue(cache.getHitCount() > hits);
+		List<String> full = validate(null);
+		assertEquals(full, incremental);
+		assertNotEquals(before, full);
+	}
+
+	private List<String> validate(RuleResultCache cache) throws Exception {
+		DefaultLogging logger = new DefaultLogging();
+		logger.setMinLevel(LogMgmt.LEV_DEBUG);
+		logger.setEchoInfo(false);
+		MecValidator validator = new MecValidator(true, logger);
+		validator.setRuleCache(cache);
+		validator.process(new MddfTarget(srcFile, logger));
+		List<String> entries = new ArrayList<String>();
+		for (LogEntryNode entry : logger.getEntries()) {
+			entries.add(entry.getLevel() + "|" + entry.getTagAsText() + "|" + entry.getLine() + "|"
+					+ entry.getSummary() + "|" + entry.getTooltip());
+		}
+		return entries;
+	}
+}
@@ -25,8 +25,11 @@ package com.movielabs.mddflib.tests.junit.util.xml;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +37,7 @@ import java.util.MissingResourceException;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
+import org.jdom2.xpath.XPathExpression;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -259,6 +263,75 @@ public class StructureValidationTest extends StructureValidation {
 		}
 	}
 
+	/**
+	 * Verify the grouped evaluation of constraints produces the same log entries
+	 * as evaluating each constraint separately for every target.
+	 */
+	@Test
+	public void testGroupedEvaluation() throws IOException {
+		String[][] testCases = { { "avails/Avails_Structure_Tests_v2.3_errors.xml", "structure_avail", "2.3" },
+				{ "common/CM_withErrors.xml", "structure_cm", null } };
+		for (String[] testCase : testCases) {
+			FILE_FMT srcMddfFmt = initialize(testCase[0], null);
+			String version = testCase[2];
+			if (version == null) {
+				version = MddfContext.getReferencedXsdVersions(srcMddfFmt).get("MD");
+			}
+			JSONObject rqmtSet = XmlIngester.getMddfResource(testCase[1], version).getJSONObject("StrucRqmts");
+			try {
+				setGroupedEvaluation(false);
+				List<String> expected = validateAll(rqmtSet);
+				setGroupedEvaluation(true);
+				List<String> grouped = validateAll(rqmtSet);
+				assertFalse(expected.isEmpty());
+				assertEquals(expected, grouped);
+			} finally {
+				setGroupedEvaluation(true);
+			}
+		}
+	}
+
+	private List<String> validateAll(JSONObject rqmtSet) throws IOException {
+		iLog.clearLog();
+		Iterator<String> keys = rqmtSet.keys();
+		while (keys.hasNext()) {
+			String key = keys.next();
+			JSONObject rqmtSpec = rqmtSet.getJSONObject(key);
+			if (rqmtSpec.has("targetPath")) {
+				validateDocStructure(key, rootEl, rqmtSpec, mddfTarget, null);
+			}
+		}
+		File logFile = Files.createTempFile("structTest", ".log").toFile();
+		try {
+			iLog.saveLog(logFile);
+			return Files.readAllLines(logFile.toPath());
+		} finally {
+			logFile.delete();
+		}
+	}
+
+	/**
+	 * Verify a compiled XPath is re-used when the same definition is resolved with
+	 * different variable values.
+	 */
+	@Test
+	public void testVariableBinding() {
+		String targetFile = "common/CM_base.xml";
+		initialize(targetFile, null);
+		String xpath = ".//{md}LocalizedInfo[@language={$LAN}]";
+		Map<String, String> varMap = new HashMap<String, String>();
+		varMap.put("$LAN", "en");
+		XPathExpression<?> xpe1 = resolveXPath(xpath, varMap, rootEl);
+		assertEquals(1, xpe1.evaluate(rootEl).size());
+		varMap.put("$LAN", "fr");
+		XPathExpression<?> xpe2 = resolveXPath(xpath, varMap, rootEl);
+		assertSame(xpe1, xpe2);
+		assertEquals(0, xpe2.evaluate(rootEl).size());
+		/* values that would break a quoted string literal */
+		varMap.put("$LAN", "it's");
+		assertEquals(0, resolveXPath(xpath, varMap, rootEl).evaluate(rootEl).size());
+	}
+
 	/**
 	 * 
 	 */
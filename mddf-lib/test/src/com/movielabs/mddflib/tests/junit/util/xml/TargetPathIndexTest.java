@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.util.xml;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathFactory;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.StructureValidation;
+import com.movielabs.mddflib.util.xml.TargetPathIndex;
+import com.movielabs.mddflib.util.xml.XmlIngester;
+
+import net.sf.json.JSONObject;
+
+/**
+ * JUnit test for the location of structure requirement targets via a single
+ * document traversal. In all cases the targets must be identical to those
+ * found by evaluating each <tt>targetPath</tt> as an XPath.
+ *
+ */
+class TargetPathIndexTest {
+
+	private static String rsrcPath = "./test/resources/";
+
+	@Test
+	void testAvails() throws Exception {
+		compare("avails/Avails_Structure_Tests_v2.3_errors.xml", "structure_avail", "2.3");
+		compare("avails/Avails_noErrors_v2.4.xml", "structure_avail", "2.4");
+	}
+
+	@Test
+	void testManifest() throws Exception {
+		compare("manifest/MMM_v1.7_errors.xml", "structure_manifest", "1.7");
+		compare("manifest/Manifest_v1.8_A.xml", "structure_cm", "2.6");
+	}
+
+	@Test
+	void testMec() throws Exception {
+		compare("mec/MEC_v1.6_multi-block-test.xml", "structure_mec", "2.4");
+		compare("mec/MEC_v2.4.xml", "structure_cm", "2.4");
+	}
+
+	@Test
+	void testPathSyntax() {
+		Element rootEl = new Element("Root");
+		Document doc = new Document(rootEl);
+		Element a1 = new Element("A");
+		rootEl.addContent(a1);
+		Element b1 = new Element("B").setText("x");
+		a1.addContent(b1);
+		Element a2 = new Element("A");
+		b1.addContent(a2);
+		Element b2 = new Element("B").setText("y");
+		a2.addContent(b2);
+		rootEl.addContent(new Element("C").addContent(new Element("B")));
+
+		JSONObject rqmtSet = new JSONObject();
+		String[] paths = { ".//A/B", "./A/B", ".//B[. = 'y']", ".//A//B", "./*/B", ".//A[1]", "/Root/A",
+				".//A | .//B", "../A" };
+		for (int i = 0; i < paths.length; i++) {
+			JSONObject rqmt = new JSONObject();
+			rqmt.put("targetPath", paths[i]);
+			rqmtSet.put("R" + i, rqmt);
+		}
+		TargetPathIndex index = new TargetPathIndex(rqmtSet, rootEl);
+		XPathFactory xpfac = XPathFactory.instance();
+		for (int i = 0; i < 5; i++) {
+			assertEquals(xpfac.compile(paths[i], Filters.element()).evaluate(rootEl), index.getTargets(paths[i]),
+					paths[i]);
+		}
+		assertEquals(2, index.getTargets(".//A/B").size());
+		assertEquals(2, index.getTargets("./*/B").size());
+		/* positional predicates, absolute paths, unions and other axes */
+		for (int i = 5; i < paths.length; i++) {
+			assertNull(index.getTargets(paths[i]), paths[i]);
+		}
+		assertNull(index.getTargets(".//Unknown"));
+		assertEquals(doc, index.getRootElement().getDocument());
+	}
+
+	@Test
+	void testNamespacedWildcard() throws Exception {
+		MddfTarget target = new MddfTarget(new File(rsrcPath + "avails/Avails_noErrors_v2.4.xml"),
+				new DefaultLogging());
+		Element rootEl = target.getXmlDoc().getRootElement();
+		JSONObject rqmtSet = new JSONObject();
+		String[] paths = { ".//{avail}Asset/*", ".//{avail}Asset/{md}*" };
+		for (int i = 0; i < paths.length; i++) {
+			JSONObject rqmt = new JSONObject();
+			rqmt.put("targetPath", paths[i]);
+			rqmtSet.put("R" + i, rqmt);
+		}
+		TargetPathIndex index = new TargetPathIndex(rqmtSet, rootEl);
+		assertFalse(index.getTargets(paths[0]).isEmpty());
+		/* a wildcard restricted to a namespace is not indexed */
+		assertNull(index.getTargets(paths[1]));
+	}
+
+	private void compare(String xmlPath, String rsrcId, String version) throws Exception {
+		DefaultLogging logger = new DefaultLogging();
+		MddfTarget target = new MddfTarget(new File(rsrcPath + xmlPath), logger);
+		Element rootEl = target.getXmlDoc().getRootElement();
+		JSONObject rqmtSet = XmlIngester.getMddfResource(rsrcId, version).getJSONObject("StrucRqmts");
+		TargetPathIndex index = new TargetPathIndex(rqmtSet, rootEl);
+		StructureValidation structHelper = new StructureValidation(logger, "Test");
+		int indexed = 0;
+		int found = 0;
+		Iterator<String> keys = rqmtSet.keys();
+		while (keys.hasNext()) {
+			JSONObject rqmt = rqmtSet.getJSONObject(keys.next());
+			if (!rqmt.has("targetPath")) {
+				continue;
+			}
+			String targetPath = rqmt.getString("targetPath");
+			List<Element> targets = index.getTargets(targetPath);
+			if (targets != null) {
+				indexed++;
+				found = found + targets.size();
+				assertEquals(structHelper.resolveXPath(targetPath, null, rootEl).evaluate(rootEl), targets,
+						targetPath);
+			}
+		}
+		assertTrue(indexed > 0);
+		assertTrue(found > 0);
+		/* sub-trees without an active state are skipped */
+		assertTrue(index.getVisitCount() <= countElements(rootEl));
+	}
+
+	private int countElements(Element parentEl) {
+		int cnt = 0;
+		for (Element childEl : parentEl.getChildren()) {
+			cnt = cnt + 1 + countElements(childEl);
+		}
+		return cnt;
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2019 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.junit.util.xml;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Iterator;
+
+import javax.xml.validation.Schema;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.located.Located;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.ResourceRegistry;
+import com.movielabs.mddflib.util.xml.XmlIngester;
+import com.movielabs.mddflib.util.xml.XsdValidation;
+
+/**
+ * JUnit test for the caching of compiled schemas and the single-pass
+ * validation performed by <tt>com.movielabs.mddflib.util.xml.XsdValidation</tt>.
+ *
+ */
+class XsdValidationTest {
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		XsdValidation.clearSchemaCache();
+	}
+
+	@Test
+	void testCacheHit() throws SAXException {
+		URL xsdUrl = getClass().getClassLoader()
+				.getResource(XsdValidation.defaultRsrcLoc + "manifest-v1.13.xsd");
+		assertNotNull(xsdUrl);
+		Schema first = XsdValidation.getSchema(xsdUrl);
+		assertEquals(1, XsdValidation.getCacheMisses());
+		assertEquals(0, XsdValidation.getCacheHits());
+		Schema second = XsdValidation.getSchema(xsdUrl);
+		assertSame(first, second);
+		assertEquals(1, XsdValidation.getCacheMisses());
+		assertEquals(1, XsdValidation.getCacheHits());
+	}
+
+	@Test
+	void testWarmUp() throws SAXException {
+		InstrumentedLogger iLog = new InstrumentedLogger();
+		iLog.setPrintToConsole(false);
+		ResourceRegistry.setLogger(iLog);
+		int cnt;
+		try {
+			cnt = XsdValidation.warmUp();
+		} finally {
+			ResourceRegistry.setLogger(null);
+		}
+		assertTrue(cnt > 0);
+		// misses also include any XSD that could not be compiled..
+		long misses = XsdValidation.getCacheMisses();
+		assertTrue(misses >= cnt);
+		// ..each of which is logged
+		assertEquals(misses - cnt, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+		URL xsdUrl = getClass().getClassLoader()
+				.getResource(XsdValidation.defaultRsrcLoc + "manifest-v1.13.xsd");
+		XsdValidation.getSchema(xsdUrl);
+		assertEquals(misses, XsdValidation.getCacheMisses());
+		assertEquals(1, XsdValidation.getCacheHits());
+	}
+
+	@Test
+	void testValidateOnly() throws Exception {
+		File srcFile = new File("./test/resources/manifest/Manifest_v1.13/Manifest_v1.13_base.xml");
+		InstrumentedLogger iLog = new InstrumentedLogger();
+		iLog.setPrintToConsole(false);
+		MddfTarget target = new MddfTarget(srcFile, iLog);
+
+		XsdValidation xsdHelper = new XsdValidation(iLog);
+		assertTrue(xsdHelper.validateXml(target, "manifest-v1.13.xsd", "JUnit"));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+		// no JDOM tree unless it was asked for
+		assertFalse(target.isXmlLoaded());
+	}
+
+	@Test
+	void testSinglePass() throws Exception {
+		File srcFile = new File("./test/resources/manifest/Manifest_v1.13/Manifest_v1.13_base.xml");
+		InstrumentedLogger iLog = new InstrumentedLogger();
+		iLog.setPrintToConsole(false);
+		MddfTarget target = new MddfTarget(srcFile, iLog);
+		assertEquals("MediaManifest", target.getRootElement().getName());
+		assertFalse(target.isXmlLoaded());
+
+		XsdValidation xsdHelper = new XsdValidation(iLog);
+		assertTrue(xsdHelper.validateXml(target, "manifest-v1.13.xsd", "JUnit", true));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+		assertTrue(target.isXmlLoaded());
+
+		// must be identical to the XML built by a conventional parse..
+		Document expected = XmlIngester.getAsXml(srcFile);
+		Document actual = target.getXmlDoc();
+		XMLOutputter outputter = new XMLOutputter(Format.getRawFormat());
+		assertEquals(outputter.outputString(expected), outputter.outputString(actual));
+		// ..including the locations
+		Iterator<Element> expectedIt = expected.getDescendants(Filters.element());
+		Iterator<Element> actualIt = actual.getDescendants(Filters.element());
+		while (expectedIt.hasNext()) {
+			Located expectedEl = (Located) expectedIt.next();
+			Located actualEl = (Located) actualIt.next();
+			assertEquals(expectedEl.getLine(), actualEl.getLine());
+			assertEquals(expectedEl.getColumn(), actualEl.getColumn());
+		}
+		assertFalse(actualIt.hasNext());
+	}
+}
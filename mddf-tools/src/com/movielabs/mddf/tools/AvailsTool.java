@@ -23,6 +23,7 @@
 package com.movielabs.mddf.tools;
 
 import java.awt.Cursor;
+import java.io.File;
 import javax.swing.JToolBar;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
@@ -64,11 +65,9 @@ public class AvailsTool extends ValidatorTool {
 		return validatorToolBar;
 	}
 
-	public void runTool() {
+	public void runTool(File srcFile) {
 		frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-		String srcPath = fileInputDir.getAbsolutePath();
-		updateUsageHistory(srcPath);
-		fileOutDir.getAbsolutePath();
+		String srcPath = srcFile.getAbsolutePath();
 		controller = getController();
 		controller.setValidation(true, true, false);
 		inputSrcTFieldLocked = true;
@@ -44,7 +44,12 @@ import com.movielabs.mddf.tools.util.FileChooserDialog;
 import com.movielabs.mddf.tools.util.UpdateMgr;
 import com.movielabs.mddflib.logging.DefaultLogging;
 import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.MetricsSummary;
+import com.movielabs.mddflib.logging.StreamingLogging;
+import com.movielabs.mddflib.logging.ValidationResultCache;
+import com.movielabs.mddflib.manifest.validation.MecValidationCache;
 import com.movielabs.mddflib.util.Translator;
+import com.movielabs.mddflib.util.xml.ResourceRegistry;
 
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -104,10 +109,32 @@ public class ToolLauncher {
 		options.addOption("d", "dir", true, "Process all MDDF files in a directory.");
 		options.addOption("s", "script", true, "Run a script file.");
 		options.addOption("l", "logFile", true, "Output file for logging.");
+		options.addOption("logFormat", true,
+				"Write log entries to the '-l' file as they are generated rather than when processing is completed; "
+						+ "valid values are:\n 'csv'\n 'jsonl'");
 		options.addOption("logLevel", true,
 				"Filter for logging; valid values are: " + "\n'verbose'\n 'warn' (DEFAULT)\n 'error'\n 'info'");
 		options.addOption("r", "recursive", true,
 				"[T/F] processing of a directory will be recursive (Default is 'T').");
+		options.addOption("w", "workers", true,
+				"Number of files in a directory to validate concurrently (Default is 1).");
+		options.addOption("M", "metrics", false,
+				"Collect timing, allocation, and element counts for each validation phase and structure rule. "
+						+ "A summary is added to the log when processing is completed.");
+		options.addOption("P", "preload", false,
+				"Load all schemas, vocabularies, and rating systems before processing any files.");
+		options.addOption("S", "server", true,
+				"Run as a resident validation service listening on the specified localhost port. "
+						+ "Use '-w' to set the number of requests processed concurrently.");
+		options.addOption("SRoot", "serverRoot", true,
+				"Directory containing the local files a '-S' service may validate. If not specified, the service "
+						+ "will only validate files uploaded in the body of a request.");
+		options.addOption("C", "cache", true,
+				"Directory used to cache validation results. Avails and MEC files that are unchanged since "
+						+ "they were last validated with the same options are not validated again.");
+		options.addOption("cacheSize", true, "Maximum size of the '-C' cache in MB (Default is 256).");
+		options.addOption("cacheAge", true,
+				"Number of days a result may go unused before it is removed from the '-C' cache (Default is 30).");
 		options.addOption("v", "verbose", false, "Display log-file entries in terminal window during execution.");
 		options.addOption("V", "version", false, "Display software version and build date.");
 
@@ -168,7 +195,18 @@ public class ToolLauncher {
 	}
 
 	private static void runNonInteractive(CommandLine cmdLine, LogMgmt logger) {
+		String logFile = cmdLine.getOptionValue("l");
+		String logFormat = cmdLine.getOptionValue("logFormat");
+		if ((logFile != null) && (logFormat != null)) {
+			try {
+				logger = new StreamingLogging(new File(logFile), logFormat, 0);
+			} catch (IllegalArgumentException | IOException e) {
+				printUsage(e.getLocalizedMessage());
+				System.exit(0);
+			}
+		}
 		configureLogOptions(cmdLine, logger);
+		ResourceRegistry.setLogger(logger);
 		if (cmdLine.hasOption("s")) {
 			throw new UnsupportedOperationException();
 		} else {
@@ -177,7 +215,33 @@ public class ToolLauncher {
 			 * Pre-Validation set-up and prep.........
 			 */
 			// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+			if (cmdLine.hasOption("P")) {
+				ResourceRegistry.preloadAll();
+			}
 			ValidationController vCtrl = new ValidationController(logger);
+			MetricsSummary metrics = null;
+			if (cmdLine.hasOption("M")) {
+				metrics = new MetricsSummary();
+				vCtrl.setMetricsListener(metrics);
+			}
+			if (cmdLine.hasOption("C")) {
+				String cacheSize = cmdLine.getOptionValue("cacheSize", "256");
+				String cacheAge = cmdLine.getOptionValue("cacheAge", "30");
+				try {
+					long maxBytes = Long.parseLong(cacheSize) * 1024 * 1024;
+					long maxAge = Long.parseLong(cacheAge) * 24 * 60 * 60 * 1000;
+					File cacheDir = new File(cmdLine.getOptionValue("C"));
+					vCtrl.setResultCache(new ValidationResultCache(cacheDir, maxBytes, maxAge));
+				} catch (NumberFormatException e) {
+					String hdrMsg = "Invalid cache size or age";
+					printUsage(hdrMsg);
+					System.exit(0);
+				} catch (IOException e) {
+					String hdrMsg = e.getMessage();
+					printUsage(hdrMsg);
+					System.exit(0);
+				}
+			}
 			EnumSet<FILE_FMT> selections = EnumSet.noneOf(FILE_FMT.class);
 			String[] xlatFmts = cmdLine.getOptionValues("x");
 			if (xlatFmts == null || (xlatFmts.length == 0)) {
@@ -199,6 +263,10 @@ public class ToolLauncher {
 				String exportDir = cmdLine.getOptionValue("xDir", ".");
 				vCtrl.setTranslations(selections, new File(exportDir));
 			}
+			if (cmdLine.hasOption("S")) {
+				runServer(cmdLine, vCtrl, logger);
+				return;
+			}
 			// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 			// ~~~~~~~~~~~~~~~~~~ Validation ~~~~~~~~~~~~~~~~~~~
 			// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -209,6 +277,14 @@ public class ToolLauncher {
 					if (recursive.equalsIgnoreCase("F")) {
 						vCtrl.setRecursive(false);
 					}
+					String workers = cmdLine.getOptionValue("w", "1");
+					try {
+						vCtrl.setWorkerCount(Integer.parseInt(workers));
+					} catch (NumberFormatException e) {
+						String hdrMsg = "Invalid number of workers '" + workers + "'";
+						printUsage(hdrMsg);
+						System.exit(0);
+					}
 					vCtrl.validate(dir, null);
 				} catch (IOException e) {
 					e.printStackTrace();
@@ -233,8 +309,17 @@ public class ToolLauncher {
 			 * POST-Validation actions.........
 			 */
 			// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-			String logFile = cmdLine.getOptionValue("l");
-			if (logFile != null) {
+			MecValidationCache.shutdownPool();
+			if (metrics != null) {
+				metrics.logSummary(logger, "ToolLauncher");
+			}
+			if (logger instanceof StreamingLogging) {
+				try {
+					((StreamingLogging) logger).close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			} else if (logFile != null) {
 				File logOutput = new File(logFile);
 				try {
 					logger.saveAs(logOutput, "csv");
@@ -246,6 +331,42 @@ public class ToolLauncher {
 
 	}
 
+	/**
+	 * Start a resident <tt>ValidationServer</tt>. All resources are pre-loaded
+	 * before the server starts accepting requests. The server's threads will keep
+	 * the JVM running after this method returns.
+	 * 
+	 * @param cmdLine
+	 * @param vCtrl
+	 * @param logger
+	 */
+	private static void runServer(CommandLine cmdLine, ValidationController vCtrl, LogMgmt logger) {
+		String portValue = cmdLine.getOptionValue("S");
+		String workers = cmdLine.getOptionValue("w", "1");
+		int port = 0;
+		int workerCnt = 1;
+		try {
+			port = Integer.parseInt(portValue);
+			workerCnt = Integer.parseInt(workers);
+		} catch (NumberFormatException e) {
+			printUsage("Invalid port '" + portValue + "' or number of workers '" + workers + "'");
+			System.exit(0);
+		}
+		if (!cmdLine.hasOption("P")) {
+			ResourceRegistry.preloadAll();
+		}
+		try {
+			ValidationServer server = new ValidationServer(vCtrl, logger, port, workerCnt);
+			String rootPath = cmdLine.getOptionValue("SRoot");
+			if (rootPath != null) {
+				server.setPathRoot(new File(rootPath));
+			}
+			server.start();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Parse and return command-line arguments.
 	 * 
@@ -315,7 +436,11 @@ public class ToolLauncher {
 				break;
 			}
 		}
-		((DefaultLogging) logger).setPrintToConsole(cmdLine.hasOption("v"));
+		if (logger instanceof StreamingLogging) {
+			((StreamingLogging) logger).setPrintToConsole(cmdLine.hasOption("v"));
+		} else {
+			((DefaultLogging) logger).setPrintToConsole(cmdLine.hasOption("v"));
+		}
 	}
 
 	private static void printVersion() {
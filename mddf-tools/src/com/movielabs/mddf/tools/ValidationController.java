@@ -21,14 +21,21 @@
 package com.movielabs.mddf.tools;
 
 import java.io.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
@@ -51,9 +58,15 @@ import com.movielabs.mddflib.avails.xml.AvailsWrkBook.RESULT_STATUS;
 import com.movielabs.mddflib.avails.xml.streaming.StreamingXmlBuilder;
 import com.movielabs.mddflib.delivery.AodValidator;
 import com.movielabs.mddflib.avails.xml.Pedigree;
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.logging.LogEntryNode;
 import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.MetricsListener;
+import com.movielabs.mddflib.logging.StreamingLogging;
+import com.movielabs.mddflib.logging.ValidationResultCache;
 import com.movielabs.mddflib.manifest.validation.CpeValidator;
 import com.movielabs.mddflib.manifest.validation.ManifestValidator;
+import com.movielabs.mddflib.manifest.validation.MecValidationCache;
 import com.movielabs.mddflib.manifest.validation.MecValidator;
 import com.movielabs.mddflib.manifest.validation.profiles.MMCoreValidator;
 import com.movielabs.mddflib.manifest.validation.profiles.ProfileValidator;
@@ -62,6 +75,7 @@ import com.movielabs.mddflib.status.offer.StreamingOStatusBuilder;
 import com.movielabs.mddflib.util.StringUtils;
 import com.movielabs.mddflib.util.Translator;
 import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.movielabs.mddflib.util.xml.RuleResultCache;
 import com.movielabs.mddflib.util.xml.XmlIngester;
 
 import net.sf.json.JSONObject;
@@ -112,10 +126,17 @@ public class ValidationController {
 	private boolean validateC = true;
 	private boolean validateBP = false;
 	private boolean isRecursive = true;
+	private int workerCnt = 1;
 	private LogMgmt logMgr;
 	private LogNavPanel logNav = null;
 	private EnumSet<FILE_FMT> xportFmts = null;
 	private File exportDir = null;
+	private MecValidationCache mecCache = new MecValidationCache();
+	private Version xlsxVersion = null;
+	private String xlsxContentType = "Avails";
+	private MetricsListener metricsListener = null;
+	private RuleResultCache ruleCache = null;
+	private ValidationResultCache resultCache = null;
 
 	static {
 		supportedProfileKeys = new HashSet<String>();
@@ -279,6 +300,11 @@ public class ValidationController {
 	 * be validated. The <tt>uxProfile</tt> argument specifies which profile to use
 	 * for the validation process. A value of <tt>none</tt> indicates validation is
 	 * to be performed only in the context of the generic CPE Information Model.
+	 * <p>
+	 * When processing a directory in a non-interactive context with a worker count
+	 * greater than 1 (see <tt>setWorkerCount()</tt>), the files are validated
+	 * concurrently via <tt>validateBatch()</tt>.
+	 * </p>
 	 * 
 	 * @param srcPath   location of a file or a directory containing CMM and/or
 	 *                  Avails files.
@@ -289,6 +315,10 @@ public class ValidationController {
 	public void validate(String srcPath, String uxProfile) throws IOException {
 		File srcFile = new File(srcPath);
 		if (srcFile.isDirectory()) {
+			if ((workerCnt > 1) && (logNav == null)) {
+				validateBatch(collectFiles(srcFile), uxProfile);
+				return;
+			}
 			File[] inputFiles = srcFile.listFiles(new MddfFileFilter());
 			int fileCount = inputFiles.length;
 			for (int i = 0; i < fileCount; i++) {
@@ -299,7 +329,7 @@ public class ValidationController {
 					logMgr.pushFileContext(target);
 					logMgr.clearLog(target);
 					try {
-						validateFile(target, uxProfile);
+						validateTarget(target, uxProfile);
 					} catch (Exception e) {
 						String msg = e.getMessage();
 						if (msg == null) {
@@ -308,10 +338,7 @@ public class ValidationController {
 						}
 						String details = "Exception while validating; file processing terminated.";
 						logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_MANIFEST, msg, target, null, MODULE_ID, details, null);
-					} finally {
-						/* Some memory mgmt??? */
-						System.gc();
-					} 
+					}
 				} else {
 					boolean isDir = aFile.isDirectory();
 					if (isDir && isRecursive) {
@@ -326,7 +353,7 @@ public class ValidationController {
 			try {
 				logMgr.pushFileContext(target);
 				logMgr.clearLog(target);
-				validateFile(target, uxProfile);
+				validateTarget(target, uxProfile);
 			} catch (Exception e) {
 				e.printStackTrace();
 				String msg = e.getLocalizedMessage();
@@ -336,13 +363,331 @@ public class ValidationController {
 				String loc = e.getStackTrace()[0].toString();
 				String details = "Exception while validating; " + loc;
 				logMgr.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_MANIFEST, msg, target, null, MODULE_ID, details, null);
-			} finally {
-				/* Some memory mgmt??? */
-				System.gc();
 			}
 		}
 	}
 
+	/**
+	 * Return all MDDF files in a directory (and, if <tt>isRecursive</tt>, its
+	 * sub-directories). Files are sorted by path so that the sequence is the same
+	 * regardless of how the file system orders a directory listing.
+	 * 
+	 * @param dir
+	 * @return
+	 * @throws IOException
+	 */
+	private List<File> collectFiles(File dir) throws IOException {
+		List<File> fileList = new ArrayList<File>();
+		File[] inputFiles = dir.listFiles(new MddfFileFilter());
+		Arrays.sort(inputFiles);
+		for (File aFile : inputFiles) {
+			if (aFile.isFile()) {
+				fileList.add(aFile);
+			} else if (aFile.isDirectory() && isRecursive) {
+				fileList.addAll(collectFiles(aFile.getCanonicalFile()));
+			}
+		}
+		return fileList;
+	}
+
+	/**
+	 * Validate a set of files concurrently using a pool of <tt>workerCnt</tt>
+	 * threads. Each file is validated by its own <tt>ValidationController</tt>
+	 * using a private <tt>DefaultLogging</tt> instance so that the log entries for
+	 * a file are isolated in their own <tt>LogEntryFolder</tt>. As each file is
+	 * completed its entries are transferred to this controller's <tt>LogMgmt</tt>,
+	 * file by file, in the same sequence as the <tt>fileList</tt>. The resulting
+	 * log is therefore identical from one run to the next regardless of the order
+	 * in which the workers finish. A file's logger is released once its entries
+	 * have been transferred and no more than <tt>2 * workerCnt</tt> files are
+	 * queued or in progress at any time so the number of loggers being held does
+	 * not grow with the size of the batch.
+	 * <p>
+	 * The exception is when this controller's <tt>LogMgmt</tt> is a
+	 * <tt>StreamingLogging</tt>. Buffering a file's entries would defeat the
+	 * purpose of streaming so each worker instead logs directly to the shared
+	 * logger (see <tt>validateStreamed()</tt>). The entries for different files
+	 * may then be interleaved in the output.
+	 * </p>
+	 * 
+	 * @param fileList
+	 * @param uxProfile
+	 */
+	public void validateBatch(List<File> fileList, String uxProfile) {
+		if (logMgr instanceof StreamingLogging) {
+			validateBatchStreamed(fileList, uxProfile);
+			return;
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(workerCnt);
+		int window = 2 * workerCnt;
+		Deque<Future<DefaultLogging>> pending = new ArrayDeque<Future<DefaultLogging>>();
+		int nextSubmit = 0;
+		for (int i = 0; i < fileList.size(); i++) {
+			for (; (nextSubmit < fileList.size()) && (nextSubmit < i + window); nextSubmit++) {
+				pending.add(submitIsolated(pool, fileList.get(nextSubmit), uxProfile));
+			}
+			File aFile = fileList.get(i);
+			MddfTarget target = new MddfTarget(aFile, logMgr);
+			logMgr.pushFileContext(target);
+			logMgr.clearLog(target);
+			try {
+				DefaultLogging fileLog = pending.remove().get();
+				transferEntries(fileLog, target);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				String details = "Batch validation interrupted; file processing terminated.";
+				logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_N_A, "Interrupted", target, null, MODULE_ID, details, null);
+				pool.shutdownNow();
+				return;
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				String msg = cause.getMessage();
+				if (msg == null) {
+					cause.printStackTrace();
+					msg = cause.toString();
+				}
+				String details = "Exception while validating; file processing terminated.";
+				logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_MANIFEST, msg, target, null, MODULE_ID, details, null);
+			}
+		}
+		pool.shutdown();
+	}
+
+	private Future<DefaultLogging> submitIsolated(ExecutorService pool, File aFile, String uxProfile) {
+		return pool.submit(new Callable<DefaultLogging>() {
+			public DefaultLogging call() throws Exception {
+				return validateIsolated(aFile, uxProfile);
+			}
+		});
+	}
+
+	/**
+	 * Validate a set of files concurrently with all workers logging to this
+	 * controller's <tt>StreamingLogging</tt>.
+	 * 
+	 * @param fileList
+	 * @param uxProfile
+	 */
+	private void validateBatchStreamed(List<File> fileList, String uxProfile) {
+		ExecutorService pool = Executors.newFixedThreadPool(workerCnt);
+		List<Future<Void>> results = new ArrayList<Future<Void>>();
+		for (File aFile : fileList) {
+			results.add(pool.submit(new Callable<Void>() {
+				public Void call() throws Exception {
+					validateStreamed(aFile, uxProfile);
+					return null;
+				}
+			}));
+		}
+		pool.shutdown();
+		for (int i = 0; i < fileList.size(); i++) {
+			try {
+				results.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				MddfTarget target = new MddfTarget(fileList.get(i), logMgr);
+				String details = "Batch validation interrupted; file processing terminated.";
+				logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_N_A, "Interrupted", target, null, MODULE_ID, details, null);
+				pool.shutdownNow();
+				return;
+			} catch (ExecutionException e) {
+				// validateStreamed() logs its own exceptions
+				e.getCause().printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Validate a single file using a <tt>ValidationController</tt> that is not
+	 * shared with any other thread but that logs directly to this controller's
+	 * (thread-safe) <tt>StreamingLogging</tt>. Results may be replayed from, but
+	 * are not saved to, the <tt>ValidationResultCache</tt> since the entries are
+	 * not retained.
+	 * 
+	 * @param srcFile
+	 * @param uxProfile
+	 */
+	private void validateStreamed(File srcFile, String uxProfile) {
+		ValidationController worker = newWorker(logMgr);
+		MddfTarget target = new MddfTarget(srcFile, logMgr);
+		logMgr.pushFileContext(target);
+		try {
+			String cacheKey = getCacheKey(srcFile, uxProfile);
+			if ((cacheKey != null) && resultCache.replay(cacheKey, logMgr, target)) {
+				return;
+			}
+			worker.validateFile(target, uxProfile);
+		} catch (Exception e) {
+			String msg = e.getMessage();
+			if (msg == null) {
+				e.printStackTrace();
+				msg = e.toString();
+			}
+			String details = "Exception while validating; file processing terminated.";
+			logMgr.log(LogMgmt.LEV_ERR, LogMgmt.TAG_MANIFEST, msg, target, null, MODULE_ID, details, null);
+		} finally {
+			logMgr.popFileContext(target);
+		}
+	}
+
+	/**
+	 * Validate a single file using a <tt>ValidationController</tt> and logger
+	 * that are not shared with any other thread.
+	 * 
+	 * @param srcFile
+	 * @param uxProfile
+	 * @return the logger containing all entries generated for the file
+	 */
+	private DefaultLogging validateIsolated(File srcFile, String uxProfile) {
+		DefaultLogging fileLog = new DefaultLogging();
+		fileLog.setMinLevel(logMgr.getMinLevel());
+		fileLog.setInfoIncluded(logMgr.isInfoIncluded());
+		fileLog.setEchoInfo(false);
+		ValidationController worker = newWorker(fileLog);
+		MddfTarget target = new MddfTarget(srcFile, fileLog);
+		fileLog.pushFileContext(target);
+		String cacheKey = getCacheKey(srcFile, uxProfile);
+		if ((cacheKey != null) && resultCache.replay(cacheKey, fileLog, target)) {
+			return fileLog;
+		}
+		try {
+			worker.validateFile(target, uxProfile);
+		} catch (Exception e) {
+			String msg = e.getMessage();
+			if (msg == null) {
+				e.printStackTrace();
+				msg = e.toString();
+			}
+			String details = "Exception while validating; file processing terminated.";
+			fileLog.log(LogMgmt.LEV_ERR, LogMgmt.TAG_MANIFEST, msg, target, null, MODULE_ID, details, null);
+			return fileLog;
+		}
+		if ((cacheKey != null) && isCacheable(target, fileLog)) {
+			try {
+				resultCache.store(cacheKey, fileLog.getEntries(), srcFile);
+			} catch (IOException e) {
+				String msg = "Unable to save validation results to cache";
+				logMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_N_A, msg, null, null, MODULE_ID, e.getMessage(), null);
+			}
+		}
+		return fileLog;
+	}
+
+	/**
+	 * Validate a single file. If a <tt>ValidationResultCache</tt> is in use the
+	 * file is validated in isolation so that the entries logged may be saved (or,
+	 * if the file has been seen before, replayed).
+	 * 
+	 * @param target
+	 * @param uxProfile
+	 * @throws IOException
+	 * @throws JDOMException
+	 */
+	private void validateTarget(MddfTarget target, String uxProfile) throws IOException, JDOMException {
+		if ((resultCache == null) || (logNav != null)) {
+			validateFile(target, uxProfile);
+			return;
+		}
+		transferEntries(validateIsolated(target.getSrcFile(), uxProfile), target);
+	}
+
+	/**
+	 * Return the key identifying the results of validating the <tt>srcFile</tt>
+	 * with the current settings or <tt>null</tt> if the results may not be
+	 * cached. Results are not cached when translations have been requested since
+	 * a cache hit would not produce the exported files.
+	 * 
+	 * @param srcFile
+	 * @param uxProfile
+	 * @return
+	 */
+	private String getCacheKey(File srcFile, String uxProfile) {
+		if ((resultCache == null) || (xportFmts != null)) {
+			return null;
+		}
+		try {
+			return resultCache.getKey(srcFile, uxProfile, Boolean.toString(validateS), Boolean.toString(validateC),
+					Boolean.toString(validateBP), String.valueOf(xlsxVersion), xlsxContentType,
+					Integer.toString(logMgr.getMinLevel()), Boolean.toString(logMgr.isInfoIncluded()));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Determine if the outcome of validating a file depended only on the file's
+	 * contents. A Manifest may reference MEC files or other Manifests that can
+	 * change independently of it and is therefore never cached.
+	 * 
+	 * @param target
+	 * @param fileLog
+	 * @return
+	 */
+	private boolean isCacheable(MddfTarget target, DefaultLogging fileLog) {
+		if (target.getMddfType() == MDDF_TYPE.MANIFEST) {
+			return false;
+		}
+		String mainPath = target.getSrcFile().getAbsolutePath();
+		for (LogEntryNode entry : fileLog.getEntries()) {
+			String path = entry.getSrcFilePath();
+			if ((path != null) && !path.equals(mainPath)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create a <tt>ValidationController</tt> with the same settings as this one
+	 * but that logs to the <tt>workerLog</tt>. The new controller shares this
+	 * controller's <tt>MecValidationCache</tt> so that MECs referenced by several
+	 * files are only validated once.
+	 * 
+	 * @param workerLog
+	 * @return
+	 */
+	ValidationController newWorker(LogMgmt workerLog) {
+		ValidationController worker = new ValidationController(workerLog);
+		worker.setValidation(validateS, validateC, validateBP);
+		if (xportFmts != null) {
+			worker.setTranslations(EnumSet.copyOf(xportFmts), exportDir);
+		}
+		worker.mecCache = mecCache;
+		worker.xlsxVersion = xlsxVersion;
+		worker.xlsxContentType = xlsxContentType;
+		worker.metricsListener = metricsListener;
+		worker.ruleCache = ruleCache;
+		return worker;
+	}
+
+	/**
+	 * Re-log all entries captured by a file-specific logger. Entries associated
+	 * with a file other than the <tt>target</tt> (e.g., a MEC file referenced by a
+	 * Manifest) are assigned to a child <tt>MddfTarget</tt>.
+	 * 
+	 * @param fileLog
+	 * @param target
+	 */
+	private void transferEntries(DefaultLogging fileLog, MddfTarget target) {
+		Map<String, MddfTarget> targetMap = new HashMap<String, MddfTarget>();
+		String mainPath = target.getSrcFile().getAbsolutePath();
+		targetMap.put(mainPath, target);
+		for (LogEntryNode entry : fileLog.getEntries()) {
+			String path = entry.getSrcFilePath();
+			MddfTarget entryTarget = target;
+			if ((path != null) && !path.equals(mainPath)) {
+				entryTarget = targetMap.get(path);
+				if (entryTarget == null) {
+					entryTarget = new MddfTarget(target, new File(path), logMgr);
+					targetMap.put(path, entryTarget);
+				}
+			}
+			int tag = LogMgmt.text2Tag(entry.getTagAsText());
+			logMgr.log(entry.getLevel(), tag, entry.getSummary(), entryTarget, entry.getLine(), entry.getModuleID(),
+					entry.getTooltip(), entry.getSrcRef());
+		}
+	}
+
 	protected void validateFile(MddfTarget target, String uxProfile) throws IOException, JDOMException {
 		File srcFile = target.getSrcFile();
 		String fileType = StringUtils.extractFileType(srcFile.getAbsolutePath());
@@ -390,17 +735,23 @@ public class ValidationController {
 				xmlDoc = (Document) results.get("xml");
 				srcMddfFmt = (FILE_FMT) results.get("srcFmt"); 
 				target.setXmlDoc(xmlDoc);
-				logNav.setMddfFormat(target, srcMddfFmt);
-				/* Some memory mgmt??? */
-				results = null;
-				System.gc();
+				if (logNav != null) {
+					logNav.setMddfFormat(target, srcMddfFmt);
+				}
 			}
 		} else if (fileType.equals("xml")) { 
 			if (target == null) {
 				return;
 			}
-			xmlDoc = target.getXmlDoc();// XmlIngester.getAsXml(srcFile);
-			srcMddfFmt = MddfContext.identifyMddfFormat(xmlDoc.getRootElement());
+			/*
+			 * Only the root element is needed to identify the format. The full XML is
+			 * loaded during schema validation.
+			 */
+			Element rootEl = target.getRootElement();
+			if (rootEl == null) {
+				return;
+			}
+			srcMddfFmt = MddfContext.identifyMddfFormat(rootEl);
 			if (logNav != null) {
 				logNav.setMddfFormat(target, srcMddfFmt);
 			}
@@ -456,7 +807,7 @@ public class ValidationController {
 			String newName =  srcFile.getName().replace("xlsx", "xml");
 			newName =  newName.replace("XLSX", "xml");
 			File outputLoc = new File(tempDir, "TRACE_" +newName);
-			XmlIngester.writeXml(outputLoc, xmlDoc);
+			XmlIngester.writeXml(outputLoc, target.getXmlDoc());
 			break;
 		case AOD:
 			validateAOD(target);
@@ -501,19 +852,23 @@ public class ValidationController {
 	 * @return a Map&lt;String, Object&gt;
 	 */
 	private Map<String, Object> convertSpreadsheet_v2(MddfTarget target) {
-		VersionChooserDialog vcd = new VersionChooserDialog(target.getSrcFile());
-		vcd.setLocationRelativeTo(logNav);
-		vcd.setVisible(true);
-		if (vcd.isCancelled()) {
-			Map<String, Object> results = new HashMap<String, Object>();
-			results.put("status", RESULT_STATUS.CANCELLED);
-			return results;
+		Version xlsxVersion = this.xlsxVersion;
+		String contentType = xlsxContentType;
+		if (xlsxVersion == null) {
+			VersionChooserDialog vcd = new VersionChooserDialog(target.getSrcFile());
+			vcd.setLocationRelativeTo(logNav);
+			vcd.setVisible(true);
+			if (vcd.isCancelled()) {
+				Map<String, Object> results = new HashMap<String, Object>();
+				results.put("status", RESULT_STATUS.CANCELLED);
+				return results;
+			}
+			xlsxVersion = vcd.getSelected();
+			contentType = vcd.getContentType();
 		}
 
 		String shortDesc = "Converted using STREAMING XML builder";
 		
-		Version xlsxVersion = vcd.getSelected();
-		String contentType = vcd.getContentType();
 		Map<String, Object> results = null;
 		switch (contentType) {
 		case "Avails":
@@ -581,6 +936,8 @@ public class ValidationController {
 		boolean isValid = true;
 
 		AvailValidator tool1 = new AvailValidator(validateC, logMgr);
+		tool1.setMetricsListener(metricsListener);
+		tool1.setRuleCache(ruleCache);
 		isValid = tool1.process(target, pedigreeMap);
 		if (!isValid) {
 			String msg = "Validation FAILED; Terminating processing of file";
@@ -642,18 +999,24 @@ public class ValidationController {
 
 	private void validateStatus(MddfTarget target) {
 		OfferStatusValidator tool1 = new OfferStatusValidator(validateC, logMgr);
+		tool1.setMetricsListener(metricsListener);
+		tool1.setRuleCache(ruleCache);
 		boolean isValid = tool1.process(target);
 	}
 	
 
 	private void validateAOD(MddfTarget target) {
 		AodValidator tool1 = new AodValidator(validateC, logMgr);
+		tool1.setMetricsListener(metricsListener);
+		tool1.setRuleCache(ruleCache);
 		boolean isValid = tool1.process(target);
 	}
 
 	protected boolean validateMEC(MddfTarget target) throws IOException, JDOMException {
 		boolean isValid = true;
 		MecValidator tool1 = new MecValidator(validateC, logMgr);
+		tool1.setMetricsListener(metricsListener);
+		tool1.setRuleCache(ruleCache);
 		isValid = tool1.process(target);
 		if (!isValid) {
 			String msg = "Validation FAILED; Terminating processing of file";
@@ -682,6 +1045,9 @@ public class ValidationController {
 		List<String> profileNameList = identifyProfiles(target);
 		if (profileNameList.isEmpty() || profileNameList.contains("none")) {
 			ManifestValidator tool1 = new ManifestValidator(validateC, logMgr);
+			tool1.setMecCache(mecCache);
+			tool1.setMetricsListener(metricsListener);
+			tool1.setRuleCache(ruleCache);
 			isValid = tool1.process(target);
 			Map<String, List<Element>> supportingFiles = ((ManifestValidator) tool1).getSupportingRsrcLocations();
 			if (supportingFiles != null) {
@@ -710,10 +1076,16 @@ public class ValidationController {
 					case "IP-01":
 					case "IP-1":
 						pValidator = new CpeValidator(logMgr);
+						((ManifestValidator) pValidator).setMecCache(mecCache);
+						((ManifestValidator) pValidator).setMetricsListener(metricsListener);
+						((ManifestValidator) pValidator).setRuleCache(ruleCache);
 						isValid = pValidator.process(target, profile) && isValid;
 						break;
 					case "MMC-1":
 						pValidator = new MMCoreValidator(logMgr);
+						((ManifestValidator) pValidator).setMecCache(mecCache);
+						((ManifestValidator) pValidator).setMetricsListener(metricsListener);
+						((ManifestValidator) pValidator).setRuleCache(ruleCache);
 						isValid = pValidator.process(target, profile) && isValid;
 						Map<String, List<Element>> supportingFiles = ((ManifestValidator) pValidator)
 								.getSupportingRsrcLocations();
@@ -769,8 +1141,8 @@ public class ValidationController {
 			}
 			return;
 		}
-		// Loading the XML will result in the target figuring out the MDDF_TYPE
-		curTarget.getXmlDoc();
+		// Reading the root element will result in the target figuring out the MDDF_TYPE
+		curTarget.getRootElement();
 		//..................................
 		MDDF_TYPE type = curTarget.getMddfType();
 		switch (type) {
@@ -834,6 +1206,95 @@ public class ValidationController {
 		return profileNameList;
 	}
 
+	/**
+	 * @return the number of files that may be validated concurrently
+	 */
+	public int getWorkerCount() {
+		return workerCnt;
+	}
+
+	/**
+	 * Set the number of files in a directory that may be validated concurrently.
+	 * The default is 1 (i.e., sequential processing). Concurrent validation is
+	 * only used when running non-interactively.
+	 * 
+	 * @param workerCnt
+	 */
+	public void setWorkerCount(int workerCnt) {
+		this.workerCnt = Math.max(1, workerCnt);
+	}
+
+	/**
+	 * Report the <tt>PhaseMetrics</tt> collected while validating each file to
+	 * the <tt>listener</tt>. When files are validated concurrently the listener
+	 * will be invoked from multiple threads.
+	 * 
+	 * @param listener (may be <tt>null</tt>)
+	 */
+	public void setMetricsListener(MetricsListener listener) {
+		this.metricsListener = listener;
+	}
+
+	/**
+	 * Enable or disable incremental validation. When enabled, the outcome of each
+	 * structural requirement is retained so that, when a file is validated again
+	 * (e.g., after being edited), a requirement is only re-evaluated for those
+	 * parts of the file that have changed. Schema validation and the checking of
+	 * IDs and cross-references always cover the entire file.
+	 * 
+	 * @param incremental
+	 * @see RuleResultCache
+	 */
+	public void setIncremental(boolean incremental) {
+		if (!incremental) {
+			ruleCache = null;
+		} else if (ruleCache == null) {
+			ruleCache = new RuleResultCache();
+		}
+	}
+
+	/**
+	 * @return <tt>true</tt> if incremental validation is enabled
+	 */
+	public boolean isIncremental() {
+		return (ruleCache != null);
+	}
+
+	/**
+	 * Specify an on-disk cache of validation results. When a cache is in use, a
+	 * file that has already been validated with the same settings is not
+	 * validated again. Instead, the entries logged the first time are replayed.
+	 * Caching only applies when there is no interactive UI and no translations
+	 * have been requested. A <tt>null</tt> value disables caching.
+	 * 
+	 * @param resultCache
+	 */
+	public void setResultCache(ValidationResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+
+	/**
+	 * @return the resultCache or <tt>null</tt> if caching is disabled
+	 */
+	public ValidationResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Specify the template version and content type (i.e., <tt>Avails</tt> or
+	 * <tt>OfferStatus</tt>) of any XLSX file that is validated. When a version has
+	 * been specified the user is not asked to select one. This allows XLSX files
+	 * to be processed when there is no UI. A <tt>null</tt> version restores the
+	 * default behavior.
+	 * 
+	 * @param xlsxVersion
+	 * @param contentType
+	 */
+	public void setXlsxTemplate(Version xlsxVersion, String contentType) {
+		this.xlsxVersion = xlsxVersion;
+		this.xlsxContentType = (contentType == null) ? "Avails" : contentType;
+	}
+
 	/**
 	 * @return the isRecursive
 	 */
@@ -0,0 +1,421 @@
+/**
+ * Copyright (c) 2026 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddf.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.logging.LogEntryNode;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.util.xml.MddfTarget;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+/**
+ * A resident validation service. Running the validator as a long-lived process
+ * means the cost of starting the JVM and of loading the schemas, vocabularies,
+ * and rating systems is paid once rather than for every file.
+ * <p>
+ * The service listens on a <i>localhost</i> port and supports the following
+ * requests:
+ * </p>
+ * <ul>
+ * <li><tt>POST /validate?path=<i>file</i></tt>: validate a file on the local
+ * file system. The file must be located within the directory provided via
+ * <tt>setPathRoot()</tt>. If no root has been set, these requests are
+ * rejected.</li>
+ * <li><tt>POST /validate?name=<i>fileName</i></tt>: validate the file contained
+ * in the body of the request. The <tt>name</tt> is used to determine the file
+ * type (i.e., <tt>.xml</tt> or <tt>.xlsx</tt>) and when logging.</li>
+ * <li><tt>GET /status</tt>: return the number of requests processed.</li>
+ * </ul>
+ * <p>
+ * Optional parameters for <tt>/validate</tt> are <tt>profile</tt> and, for
+ * XLSX files, <tt>xlsxVersion</tt> (e.g., <tt>V1_9</tt>) and
+ * <tt>contentType</tt> (<tt>Avails</tt> or <tt>OfferStatus</tt>). Since there is
+ * no user to ask, <tt>xlsxVersion</tt> is required when validating an XLSX
+ * file. The response is a JSON object containing the log entries generated by
+ * the validation.
+ * </p>
+ * <p>
+ * Requests must be addressed to the loopback interface (i.e., the
+ * <tt>Host</tt> header must be <tt>localhost</tt>, <tt>127.0.0.1</tt>, or
+ * <tt>[::1]</tt>) and any <tt>Origin</tt> header must identify the same host.
+ * This prevents a web page from using the browser to drive the service, either
+ * via a cross-site request or by DNS rebinding.
+ * </p>
+ * <p>
+ * Each request is validated by its own <tt>ValidationController</tt> and
+ * logger, created via <tt>newWorker()</tt> using the settings of the
+ * controller provided to the constructor. Up to <tt>workerCnt</tt> requests
+ * are processed concurrently.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ValidationServer {
+
+	private static final String MODULE_ID = "ValidationServer";
+	private static final Set<String> LOCAL_HOSTS = new HashSet<String>(
+			Arrays.asList("localhost", "127.0.0.1", "[::1]"));
+	private static final Set<String> CONTENT_TYPES = new HashSet<String>(Arrays.asList("Avails", "OfferStatus"));
+
+	private ValidationController template;
+	private LogMgmt serverLog;
+	private HttpServer httpServer;
+	private ExecutorService pool;
+	private AtomicLong requestCnt = new AtomicLong();
+	private File pathRoot = null;
+	private long startTime;
+
+	/**
+	 * @param template  provides the settings used for every validation
+	 * @param serverLog provides the minimum level of the log entries returned
+	 * @param port      <i>localhost</i> port to listen on. A value of 0 will
+	 *                  result in an available port being assigned.
+	 * @param workerCnt maximum number of concurrent validations
+	 * @throws IOException
+	 */
+	public ValidationServer(ValidationController template, LogMgmt serverLog, int port, int workerCnt)
+			throws IOException {
+		this.template = template;
+		this.serverLog = serverLog;
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		httpServer.createContext("/validate", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				handleValidate(exchange);
+			}
+		});
+		httpServer.createContext("/status", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				if (!isLocalRequest(exchange)) {
+					respondWithError(exchange, 403, "Request not addressed to localhost");
+					return;
+				}
+				JSONObject status = new JSONObject();
+				status.put("status", "running");
+				status.put("requests", requestCnt.get());
+				status.put("uptime", System.currentTimeMillis() - startTime);
+				respond(exchange, 200, status);
+			}
+		});
+		pool = Executors.newFixedThreadPool(Math.max(1, workerCnt));
+		httpServer.setExecutor(pool);
+	}
+
+	public void start() {
+		startTime = System.currentTimeMillis();
+		httpServer.start();
+		String msg = "Validation service listening on port " + getPort();
+		serverLog.log(LogMgmt.LEV_INFO, LogMgmt.TAG_N_A, msg, null, MODULE_ID);
+	}
+
+	/**
+	 * Stop accepting requests. Any request currently being processed will be
+	 * allowed to complete.
+	 */
+	public void stop() {
+		httpServer.stop(0);
+		pool.shutdown();
+	}
+
+	/**
+	 * @return the port the service is listening on
+	 */
+	public int getPort() {
+		return httpServer.getAddress().getPort();
+	}
+
+	/**
+	 * Set the directory that files identified via a <tt>path</tt> parameter must
+	 * be located in. If <tt>null</tt> (the default), only files contained in the
+	 * body of a request may be validated.
+	 * 
+	 * @param pathRoot
+	 * @throws IOException
+	 */
+	public void setPathRoot(File pathRoot) throws IOException {
+		this.pathRoot = (pathRoot == null) ? null : pathRoot.getCanonicalFile();
+	}
+
+	/**
+	 * Determine if a request was addressed to this host's loopback interface and,
+	 * if it was made by a browser, that it came from a page served by the same
+	 * host.
+	 * 
+	 * @param exchange
+	 * @return
+	 */
+	private boolean isLocalRequest(HttpExchange exchange) {
+		String host = exchange.getRequestHeaders().getFirst("Host");
+		if ((host == null) || !LOCAL_HOSTS.contains(stripPort(host))) {
+			return false;
+		}
+		String origin = exchange.getRequestHeaders().getFirst("Origin");
+		if (origin == null) {
+			return true;
+		}
+		try {
+			URI originUri = new URI(origin);
+			String originHost = originUri.getHost();
+			return (originHost != null) && LOCAL_HOSTS.contains(originHost) && (originUri.getPort() == getPort());
+		} catch (URISyntaxException e) {
+			return false;
+		}
+	}
+
+	private static String stripPort(String host) {
+		int idx = host.lastIndexOf(':');
+		if ((idx > 0) && (host.indexOf(']') < idx)) {
+			return host.substring(0, idx);
+		}
+		return host;
+	}
+
+	/**
+	 * Determine if a file is located within the <tt>pathRoot</tt>.
+	 * 
+	 * @param srcFile
+	 * @return
+	 * @throws IOException
+	 */
+	private boolean isUnderRoot(File srcFile) throws IOException {
+		if (pathRoot == null) {
+			return false;
+		}
+		String rootPath = pathRoot.getPath();
+		if (!rootPath.endsWith(File.separator)) {
+			rootPath = rootPath + File.separator;
+		}
+		return srcFile.getCanonicalPath().startsWith(rootPath);
+	}
+
+	private void handleValidate(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		if (!method.equals("POST")) {
+			respondWithError(exchange, 405, "Unsupported method " + method);
+			return;
+		}
+		if (!isLocalRequest(exchange)) {
+			respondWithError(exchange, 403, "Request not addressed to localhost");
+			return;
+		}
+		requestCnt.incrementAndGet();
+		Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+		Version xlsxVersion = null;
+		if (params.containsKey("xlsxVersion")) {
+			try {
+				xlsxVersion = Version.valueOf(params.get("xlsxVersion"));
+			} catch (IllegalArgumentException e) {
+				respondWithError(exchange, 400, "Unrecognized xlsxVersion " + params.get("xlsxVersion"));
+				return;
+			}
+		}
+		String contentType = params.get("contentType");
+		if ((contentType != null) && !CONTENT_TYPES.contains(contentType)) {
+			respondWithError(exchange, 400, "Unrecognized contentType " + contentType);
+			return;
+		}
+		String srcPath = params.get("path");
+		String srcName = params.get("name");
+		String fileName = (srcPath != null) ? srcPath : srcName;
+		if ((fileName != null) && fileName.toLowerCase().endsWith(".xlsx") && (xlsxVersion == null)) {
+			respondWithError(exchange, 400, "An xlsxVersion must be specified for XLSX files");
+			return;
+		}
+		File srcFile = null;
+		File tempDir = null;
+		try {
+			if (srcPath != null) {
+				srcFile = new File(srcPath);
+				if (!isUnderRoot(srcFile)) {
+					respondWithError(exchange, 403, "Access to " + srcPath + " not permitted");
+					return;
+				}
+				if (!srcFile.canRead()) {
+					respondWithError(exchange, 404, "Unable to read " + srcPath);
+					return;
+				}
+			} else if (srcName != null) {
+				/* only the name is used so the upload can't be written elsewhere */
+				srcName = new File(srcName).getName();
+				if (srcName.isEmpty() || srcName.equals(".") || srcName.equals("..")) {
+					respondWithError(exchange, 400, "Invalid name '" + params.get("name") + "'");
+					return;
+				}
+				try (InputStream body = exchange.getRequestBody()) {
+					tempDir = Files.createTempDirectory("mddf").toFile();
+					srcFile = new File(tempDir, srcName);
+					Files.copy(body, srcFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				} catch (IOException e) {
+					respondWithError(exchange, 500, "Unable to save " + srcName + ": " + e.getMessage());
+					return;
+				}
+			} else {
+				respondWithError(exchange, 400, "Either a 'path' or a 'name' must be specified");
+				return;
+			}
+			long start = System.currentTimeMillis();
+			DefaultLogging fileLog = validate(srcFile, params.get("profile"), xlsxVersion, contentType);
+			JSONObject result = toJson(fileLog, srcFile.getName());
+			result.put("elapsedMs", System.currentTimeMillis() - start);
+			respond(exchange, 200, result);
+		} finally {
+			if (tempDir != null) {
+				srcFile.delete();
+				tempDir.delete();
+			}
+		}
+	}
+
+	/**
+	 * Validate a single file using a <tt>ValidationController</tt> and logger that
+	 * are not shared with any other request.
+	 * 
+	 * @param srcFile
+	 * @param uxProfile
+	 * @param xlsxVersion
+	 * @param contentType
+	 * @return the logger containing all entries generated for the file
+	 */
+	DefaultLogging validate(File srcFile, String uxProfile, Version xlsxVersion, String contentType) {
+		DefaultLogging fileLog = new DefaultLogging();
+		fileLog.setMinLevel(serverLog.getMinLevel());
+		fileLog.setEchoInfo(false);
+		ValidationController worker = template.newWorker(fileLog);
+		if (xlsxVersion != null) {
+			worker.setXlsxTemplate(xlsxVersion, contentType);
+		}
+		MddfTarget target = new MddfTarget(srcFile, fileLog);
+		fileLog.pushFileContext(target);
+		try {
+			worker.validateFile(target, uxProfile);
+		} catch (Exception e) {
+			String msg = e.getMessage();
+			if (msg == null) {
+				msg = e.toString();
+			}
+			String details = "Exception while validating; file processing terminated.";
+			fileLog.log(LogMgmt.LEV_ERR, LogMgmt.TAG_N_A, msg, target, null, MODULE_ID, details, null);
+		}
+		return fileLog;
+	}
+
+	/**
+	 * Convert the entries in a log to JSON. The file is considered to be valid if
+	 * none of the entries have a level of <tt>LEV_ERR</tt> or
+	 * <tt>LEV_FATAL</tt>.
+	 * 
+	 * @param fileLog
+	 * @param fileName
+	 * @return
+	 */
+	static JSONObject toJson(DefaultLogging fileLog, String fileName) {
+		JSONArray entryList = new JSONArray();
+		int[] counts = new int[LogMgmt.logLevels.length];
+		for (LogEntryNode entry : fileLog.getEntries()) {
+			counts[entry.getLevel()]++;
+			JSONObject entryJson = new JSONObject();
+			entryJson.put("level", LogMgmt.logLevels[entry.getLevel()]);
+			entryJson.put("tag", entry.getTagAsText());
+			entryJson.put("summary", entry.getSummary());
+			entryJson.put("file", entry.getSrcFileName());
+			entryJson.put("line", entry.getLine());
+			String ref = entry.getReference();
+			if ((ref != null) && !ref.isEmpty()) {
+				entryJson.put("reference", ref);
+			}
+			String details = entry.getTooltip();
+			if ((details != null) && !details.isEmpty()) {
+				entryJson.put("details", details);
+			}
+			entryList.add(entryJson);
+		}
+		JSONObject countJson = new JSONObject();
+		for (int i = 0; i < counts.length; i++) {
+			countJson.put(LogMgmt.logLevels[i], counts[i]);
+		}
+		JSONObject result = new JSONObject();
+		result.put("file", fileName);
+		result.put("valid", (counts[LogMgmt.LEV_ERR] + counts[LogMgmt.LEV_FATAL]) == 0);
+		result.put("counts", countJson);
+		result.put("entries", entryList);
+		return result;
+	}
+
+	private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+		Map<String, String> params = new HashMap<String, String>();
+		if (query == null) {
+			return params;
+		}
+		for (String pair : query.split("&")) {
+			int idx = pair.indexOf('=');
+			if (idx > 0) {
+				String key = URLDecoder.decode(pair.substring(0, idx), "UTF-8");
+				String value = URLDecoder.decode(pair.substring(idx + 1), "UTF-8");
+				params.put(key, value);
+			}
+		}
+		return params;
+	}
+
+	private static void respondWithError(HttpExchange exchange, int status, String msg) throws IOException {
+		JSONObject error = new JSONObject();
+		error.put("error", msg);
+		respond(exchange, status, error);
+	}
+
+	private static void respond(HttpExchange exchange, int status, JSONObject json) throws IOException {
+		byte[] body = json.toString().getBytes("UTF-8");
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
@@ -1102,15 +1102,26 @@ public abstract class ValidatorTool extends GenericTool implements TreeSelection
 	 * 
 	 */
 	public void runTool() {
+		String srcPath = fileInputDir.getAbsolutePath();
+		updateUsageHistory(srcPath);
+		runTool(fileInputDir);
+	}
+
+	/**
+	 * Validate the specified file or directory. Unlike <tt>runTool()</tt>, the
+	 * usage history is not updated so this may be used to re-validate a single
+	 * file (e.g., one that has just been saved by an editor).
+	 * 
+	 * @param srcFile
+	 */
+	public void runTool(File srcFile) {
 		inputSrcTFieldLocked = true;
 		frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 		// Converter.compress = compressCBoxMenuItem.isSelected();
 		// Converter.outputJson = false;
 		consoleLogger.collapse();
 		String uxProfile = (String) getProfileComboBox().getSelectedItem();
-		String srcPath = fileInputDir.getAbsolutePath();
-		updateUsageHistory(srcPath);
-		fileOutDir.getAbsolutePath();
+		String srcPath = srcFile.getAbsolutePath();
 		controller = getController();
 		controller.setValidation(true, validateConstraintsCBox.isSelected(), validateBestPracCBox.isSelected());
 		// ....................................................
@@ -1179,6 +1190,8 @@ public abstract class ValidatorTool extends GenericTool implements TreeSelection
 	public ValidationController getController() {
 		if (controller == null) {
 			controller = new ValidationController(consoleLogger);
+			/* files are often re-validated after being edited */
+			controller.setIncremental(true);
 		}
 		return controller;
 	}
@@ -52,6 +52,7 @@ import org.apache.batik.util.gui.xmleditor.XMLDocument;
 import org.apache.batik.util.gui.xmleditor.XMLTextEditor;
 
 import com.movielabs.mddf.tools.GenericTool;
+import com.movielabs.mddf.tools.ValidatorTool;
 import com.movielabs.mddf.tools.util.FileChooserDialog;
 import com.movielabs.mddf.tools.util.logging.LoggerWidget;
 import com.movielabs.mddflib.logging.LogEntry;
@@ -102,6 +103,7 @@ public class SimpleXmlEditor {
 	private JMenu fileMenu;
 	private JMenuItem saveMItem;
 	private JMenuItem saveAsMItem;
+	private JMenuItem saveValMItem;
 	private FindReplaceDialog findReplDialog;
 	private EditActionListener editActionHandler;
 	private EditorMonitor owner = null;
@@ -234,6 +236,12 @@ public class SimpleXmlEditor {
 			saveAsMItem.setActionCommand(EditActionListener.AC_SAVE_AS);
 			saveAsMItem.addActionListener(getEditActionListener());
 			fileMenu.add(saveAsMItem);
+
+			saveValMItem = new JMenuItem("Save and Re-Validate");
+			saveValMItem.setToolTipText("Save, then re-run validation checks on the parts of the file that changed");
+			saveValMItem.setActionCommand(EditActionListener.AC_SAVE_VAL);
+			saveValMItem.addActionListener(getEditActionListener());
+			fileMenu.add(saveValMItem);
 		}
 		return fileMenu;
 	}
@@ -459,6 +467,7 @@ public class SimpleXmlEditor {
 		static final String AC_REP_ALL = "r_all";
 		static final String AC_SAVE = "s";
 		static final String AC_SAVE_AS = "s_all";
+		static final String AC_SAVE_VAL = "s_val";
 
 		EditActionListener() {
 		}
@@ -524,6 +533,20 @@ public class SimpleXmlEditor {
 			case AC_SAVE_AS:
 				doSaveAs();
 				break;
+			case AC_SAVE_VAL:
+				if (!doSave()) {
+					break;
+				}
+				/*
+				 * Only the file being edited is re-validated. The ValidationController is
+				 * incremental so only the parts of the file that were edited will have their
+				 * structure re-evaluated.
+				 */
+				ValidatorTool tool = ValidatorTool.getTool();
+				if (tool != null) {
+					tool.runTool(curFile);
+				}
+				break;
 			default:
 			}
 
@@ -633,14 +656,18 @@ public class SimpleXmlEditor {
 		}
 
 		/**
-		 * 
+		 * @return <tt>true</tt> if the file was saved
 		 */
-		protected void doSave() {
-			try {
-				xmlEditorPane.write(new FileWriter(curFile));
-			} catch (IOException e1) {
-				// TODO Auto-generated catch block
-				e1.printStackTrace();
+		protected boolean doSave() {
+			try (FileWriter writer = new FileWriter(curFile)) {
+				xmlEditorPane.write(writer);
+				return true;
+			} catch (IOException e) {
+				String errMsg = "<p>Unable to save file :<br/> " + e.getMessage() + "</p>";
+				JOptionPane.showMessageDialog(frame,
+						"<html><div style='text-align: center;'>" + errMsg + "</style></html>", "Unable to Save",
+						JOptionPane.ERROR_MESSAGE);
+				return false;
 			}
 		}
 